@@ -0,0 +1,66 @@
+package population.benchmark;
+
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import population.model.Calculator.Calculator;
+import population.model.TaskV4;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * {@link Calculator} (V4 engine) calculation time
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CalculatorBenchmark {
+    @Param({"10", "100"})
+    public int statesCount;
+
+    @Param({"20", "500"})
+    public int transitionsCount;
+
+    @Param({"1000"})
+    public int stepsCount;
+
+    @Param({"LINEAR", "SOLUTE", "BLEND", "MIXED"})
+    public TaskGenerator.Mix mix;
+
+    protected TaskV4 task;
+
+
+    @Setup
+    public void setUp() {
+        this.task = new TaskGenerator(statesCount, transitionsCount, stepsCount, mix).buildTaskV4();
+    }
+
+
+    @Benchmark
+    public double[][] calculate() {
+        Calculator calculator = new Calculator(task);
+        calculator.calculate();
+        return calculator.getStatesCount();
+    }
+
+    @Benchmark
+    public double calculateStreaming() {
+        double[] last = new double[1];
+        Calculator calculator = new Calculator(task, (step, statesCount) -> last[0] += statesCount[0]);
+        calculator.calculate();
+        return last[0];
+    }
+}
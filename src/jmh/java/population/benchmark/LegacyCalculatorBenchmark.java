@@ -0,0 +1,74 @@
+package population.benchmark;
+
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import population.component.Calculator;
+import population.model.Result;
+import population.model.Task;
+import population.util.PopulationThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * {@link Calculator} (legacy engine) calculation time.
+ * Higher accuracy is much slower, so it is measured on less steps.
+ * Double-double accuracy is measured on the same steps as normal accuracy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LegacyCalculatorBenchmark {
+    /** calculation accuracy mode */
+    public enum Accuracy {
+        NORMAL, DOUBLE_DOUBLE, HIGHER
+    }
+
+    @Param({"10", "100"})
+    public int statesCount;
+
+    @Param({"20", "500"})
+    public int transitionsCount;
+
+    @Param({"LINEAR", "SOLUTE", "BLEND", "MIXED"})
+    public TaskGenerator.Mix mix;
+
+    @Param({"NORMAL", "DOUBLE_DOUBLE", "HIGHER"})
+    public Accuracy accuracy;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    protected Task task;
+    protected ThreadFactory threadFactory = new PopulationThreadFactory(null);
+
+
+    @Setup
+    public void setUp() {
+        boolean higherAccuracy = accuracy == Accuracy.HIGHER;
+        int stepsCount = higherAccuracy ? 100 : 1000;
+        this.task = new TaskGenerator(statesCount, transitionsCount, stepsCount, mix)
+                .buildTask(higherAccuracy, parallel);
+        this.task.setDoubleDoubleAccuracy(accuracy == Accuracy.DOUBLE_DOUBLE);
+    }
+
+
+    @Benchmark
+    public Result calculateSync() {
+        return Calculator.calculateSync(task, false, false, threadFactory);
+    }
+}
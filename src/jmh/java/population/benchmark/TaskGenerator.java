@@ -0,0 +1,136 @@
+package population.benchmark;
+
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import population.model.StateModel.State;
+import population.model.Task;
+import population.model.TaskV4;
+import population.model.TransitionMode;
+import population.model.TransitionModel.StateInTransition;
+import population.model.TransitionModel.StateMode;
+import population.model.TransitionModel.Transition;
+import population.model.TransitionType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Builds synthetic tasks for benchmarks.
+ * Tasks with the same parameters and seed are equal, so runs are comparable
+ * between engine versions. Probabilities are small and transitions mostly move
+ * automata between states, so tasks stay finite on long runs.
+ */
+public class TaskGenerator {
+    /** transitions types mix */
+    public enum Mix {
+        LINEAR, SOLUTE, BLEND, MIXED
+    }
+
+    public static final long DEFAULT_SEED = 42;
+
+    protected final Random random;
+    protected final int statesCount;
+    protected final int transitionsCount;
+    protected final int stepsCount;
+    protected final Mix mix;
+
+
+    public TaskGenerator(int statesCount, int transitionsCount, int stepsCount, Mix mix) {
+        this(statesCount, transitionsCount, stepsCount, mix, DEFAULT_SEED);
+    }
+
+    public TaskGenerator(int statesCount, int transitionsCount, int stepsCount, Mix mix, long seed) {
+        this.random = new Random(seed);
+        this.statesCount = statesCount;
+        this.transitionsCount = transitionsCount;
+        this.stepsCount = stepsCount;
+        this.mix = mix;
+    }
+
+
+    /**
+     * @return task for {@link population.model.Calculator.Calculator}
+     */
+    public TaskV4 buildTaskV4() {
+        ObservableList<State> states = FXCollections.observableArrayList();
+        for (int i = 0; i < statesCount; i++) {
+            State state = new State();
+            state.setName("S" + i);
+            state.setCount(100 + random.nextInt(1000));
+            states.add(state);
+        }
+
+        ObservableList<Transition> transitions = FXCollections.observableArrayList();
+        for (int i = 0; i < transitionsCount; i++) {
+            Transition transition = new Transition();
+            transition.setType(nextType(i));
+            transition.setProbability(nextProbability());
+
+            State source = states.get(random.nextInt(statesCount));
+            State operand = states.get(random.nextInt(statesCount));
+            State result = states.get(random.nextInt(statesCount));
+            transition.getStates().addAll(
+                    new StateInTransition(source, 1, 1, random.nextInt(3), StateMode.SIMPLE),
+                    new StateInTransition(operand, 1, 0, random.nextInt(3), StateMode.SIMPLE),
+                    new StateInTransition(result, 0, 1, 0, StateMode.SIMPLE)
+            );
+            transitions.add(transition);
+        }
+
+        TaskV4 task = new TaskV4();
+        task.setStates(states);
+        task.setTransitions(transitions);
+        task.setStartPoint(0);
+        task.setStepsCount(stepsCount);
+        return task;
+    }
+
+    /**
+     * @return task for {@link population.component.Calculator}
+     */
+    public Task buildTask(boolean higherAccuracy, boolean parallel) {
+        List<population.model.State> states = new ArrayList<>(statesCount);
+        for (int i = 0; i < statesCount; i++) {
+            states.add(new population.model.State(i + 1, "S" + i, 100 + random.nextInt(1000), ""));
+        }
+
+        List<population.model.Transition> transitions = new ArrayList<>(transitionsCount);
+        for (int i = 0; i < transitionsCount; i++) {
+            transitions.add(new population.model.Transition(
+                    1 + random.nextInt(statesCount), 1, random.nextInt(3),
+                    1 + random.nextInt(statesCount), 1, random.nextInt(3),
+                    1 + random.nextInt(statesCount), 1,
+                    nextProbability(), nextType(i), TransitionMode.SIMPLE, ""));
+        }
+
+        Task task = new Task();
+        task.setStates(states);
+        task.setTransitions(transitions);
+        task.setStartPoint(0);
+        task.setStepsCount(stepsCount);
+        task.setHigherAccuracy(higherAccuracy);
+        task.setParallel(parallel);
+        return task;
+    }
+
+
+    protected int nextType(int transition) {
+        switch (mix) {
+            case LINEAR:
+                return TransitionType.LINEAR;
+            case SOLUTE:
+                return TransitionType.SOLUTE;
+            case BLEND:
+                return TransitionType.BLEND;
+            default:
+                return transition % 3;
+        }
+    }
+
+    protected double nextProbability() {
+        return 0.001 + random.nextDouble() * 0.01;
+    }
+}
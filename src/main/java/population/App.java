@@ -55,6 +55,13 @@ public class App {
         controllers.put(classType, controller);
     }
 
+    /**
+     * @return instantiated controller of classType or null
+     */
+    static <T> T getController(Class<T> classType) {
+        return classType.cast(controllers.get(classType));
+    }
+
 
     /************************************************
      *
@@ -17,33 +17,70 @@
  */
 package population;
 
-import population.component.Calculator;
-import population.model.Result;
-import population.model.Task;
-import population.model.Transition;
+import population.model.Calculator.Calculator;
+import population.model.Calculator.SweepCalculator;
+import population.model.StateModel.State;
+import population.model.TaskV4;
+import population.model.TransitionModel.StateInTransition;
+import population.model.TransitionModel.Transition;
+import population.util.CsvResultWriter;
 import population.util.PopulationThreadFactory;
+import population.util.Resources.StringResource;
 import population.util.TaskParser;
 import population.util.Utils;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Objects;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Headless calculation of {@link TaskV4} tasks.
+ *
+ * Each task is calculated by {@link Calculator} in streaming mode, steps are written
+ * to result file as they are calculated, so results are never kept in memory.
+ * Tasks are calculated in parallel, one task per thread.
+ */
 public final class Console {
     private static final String KEY_HELP = "-help";
     private static final String KEY_TASK = "-task";
     private static final String KEY_TASKS = "-tasks";
     private static final String KEY_INTERVAL = "-interval";
     private static final String KEY_PARALLEL = "-parallel";
+    private static final String KEY_THREADS = "-threads";
+    private static final String KEY_OUTPUT = "-output";
+
+    private static final String RESULT_SUFFIX = ".result.csv";
+    private static final char COLUMN_SEPARATOR = ',';
+    private static final char DECIMAL_SEPARATOR = '.';
+    private static final String ENCODING = "UTF-8";
+    private static final String GLOB_CHARS = "*?[{";
+    /** max count of interval tasks calculated together */
+    private static final int MAX_SWEEP_VARIANTS = 256;
+    /** result files of interval tasks are written together, so they use smaller buffers */
+    private static final int SWEEP_BUFFER_SIZE = 1 << 16;
 
     public static final Thread.UncaughtExceptionHandler UNCAUGHT_EXCEPTION_HANDLER =
             (thread, throwable) -> {
@@ -57,152 +94,274 @@ public final class Console {
     private Console() {
     }
 
-    private static File buildResultFile(File inputFile) {
-        return new File(inputFile.getAbsolutePath() + ".result.csv");
+    private static File buildResultFile(File inputFile, File outputDirectory) {
+        File directory = outputDirectory != null ? outputDirectory : inputFile.getAbsoluteFile().getParentFile();
+        return new File(directory, inputFile.getName() + RESULT_SUFFIX);
     }
 
-    private static File buildResultFile(String inputFilePath, int number) {
-        return new File(inputFilePath + ".result_" + number + ".csv");
+    private static File buildResultFile(File inputFile, File outputDirectory, int number) {
+        File directory = outputDirectory != null ? outputDirectory : inputFile.getAbsoluteFile().getParentFile();
+        return new File(directory, inputFile.getName() + ".result_" + number + ".csv");
     }
 
-    private static void printInitialization(int tasks, int processors, boolean parallel) {
+    private static void printInitialization(int tasks, int threads) {
         StringBuilder stringBuilder = new StringBuilder();
         stringBuilder.append("Initialized");
         if (tasks > 1) {
             stringBuilder.append(", tasks: ").append(tasks);
         }
-        stringBuilder.append(", processors: ").append(processors);
-        if (parallel) {
-            stringBuilder.append(", parallel");
-        }
+        stringBuilder.append(", threads: ").append(threads);
         System.out.println(stringBuilder.toString());
     }
 
-    private static void calculateTask(File inputFile, File resultFile,
-            ResourceBundle resources) throws IOException {
-        System.out.println("Calculating: " + inputFile.getName());
-        Task task = null;//TaskParser.parse(inputFile);
-        if (task == null) {
-            System.out.println("Can't load: " + inputFile.getName());
-            return;
+    /**
+     * Calculate task writing steps to result file
+     */
+    private static void calculateTask(TaskV4 task, File resultFile, ResourceBundle resources)
+            throws IOException {
+        List<String> names = new ArrayList<>(task.getStates().size());
+        for (State state : task.getStates()) {
+            names.add(state.getName());
+        }
+        try (CsvResultWriter writer = new CsvResultWriter(resultFile, COLUMN_SEPARATOR,
+                DECIMAL_SEPARATOR, System.lineSeparator(), ENCODING)) {
+            writer.writeHeader(resources.getString("Transitions.Settings.Step"), names);
+            writer.setStartPoint(task.getStartPoint());
+            new Calculator(task, writer).calculate();
         }
-        Result result = Calculator.calculateSync(task, true, false, THREAD_FACTORY);
-        Utils.exportResults(resultFile, result, task.getColumnSeparator(),
-                task.getDecimalSeparator(), task.getLineSeparator(), task.getEncoding(), resources);
-        System.out.println("Done: " + resultFile.getName());
     }
 
-    private static void calculateTask(Task task, ResourceBundle resources) throws IOException {
-        int taskId = task.getId();
-        System.out.println("Calculating: " + taskId);
-        Result result = Calculator.calculateSync(task, true, false, THREAD_FACTORY);
-        Utils.exportResults(buildResultFile(task.getName(), taskId), result,
-                task.getColumnSeparator(), task.getDecimalSeparator(), task.getLineSeparator(),
-                task.getEncoding(), resources);
-        System.out.println("Done: " + taskId);
+    private static TaskV4 parseTask(File file) throws IOException {
+        TaskV4 task = TaskParser.parse(file);
+        if (task == null) {
+            throw new IOException("Can't load: " + file);
+        }
+        return task;
     }
 
-    private static void calculateTasks(List<File> tasks, ResourceBundle resources, int processors,
-            boolean parallel) throws ExecutionException, InterruptedException, IOException {
-        int tasksCount = tasks.size();
-        if (parallel) {
-            ExecutorService executor = Utils.newExecutor(THREAD_FACTORY);
-            List<Future<?>> futures = new ArrayList<>(tasksCount);
-            printInitialization(tasksCount, processors, true);
-            for (File task : tasks) {
-                futures.add(executor.submit(new CalculateFileAction(task, resources)));
+    /**
+     * Run actions on pool of threads, report each of them when it is done
+     *
+     * @return true if all actions succeeded
+     */
+    private static boolean runAll(List<CalculateAction> actions, int threads)
+            throws InterruptedException {
+        printInitialization(actions.size(), threads);
+        long start = System.nanoTime();
+        ExecutorService executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.NANOSECONDS,
+                new LinkedBlockingQueue<>(), THREAD_FACTORY);
+        CompletionService<Long> completionService = new ExecutorCompletionService<>(executor);
+        Map<Future<Long>, CalculateAction> futures = new HashMap<>();
+        for (CalculateAction action : actions) {
+            futures.put(completionService.submit(action), action);
+        }
+        int failed = 0;
+        try {
+            for (int i = 0; i < actions.size(); i++) {
+                Future<Long> future = completionService.take();
+                String name = futures.remove(future).getName();
+                try {
+                    long time = future.get();
+                    System.out.println("Done: " + name + " (" + formatTime(time) + ")");
+                } catch (ExecutionException e) {
+                    failed++;
+                    System.out.println("Failed: " + name);
+                    System.out.println(Utils.buildErrorText(e.getCause()));
+                }
             }
-            for (Future<?> future : futures) {
-                future.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        System.out.println("Done all: " + (actions.size() - failed) + " of " + actions.size() +
+                " tasks, failed: " + failed + ", time: " + formatTime(System.nanoTime() - start));
+        return failed == 0;
+    }
+
+    private static String formatTime(long nanos) {
+        return String.format(Locale.ROOT, "%.3f s", nanos / 1e9);
+    }
+
+    /**
+     * @param argument file, directory (its files except results) or glob
+     * @return task files
+     */
+    private static List<File> findTaskFiles(String argument) throws IOException {
+        int glob = -1;
+        for (char c : GLOB_CHARS.toCharArray()) {
+            int index = argument.indexOf(c);
+            if (index >= 0 && (glob < 0 || index < glob)) {
+                glob = index;
             }
+        }
+        Stream<Path> paths;
+        if (glob >= 0) {
+            // walk from the deepest directory without glob chars
+            int separator = Math.max(argument.lastIndexOf('/', glob), argument.lastIndexOf(File.separatorChar, glob));
+            Path base = Paths.get(separator >= 0 ? argument.substring(0, separator + 1) : ".");
+            PathMatcher matcher = FileSystems.getDefault()
+                    .getPathMatcher("glob:" + argument.substring(separator + 1));
+            paths = Files.walk(base).filter(path -> matcher.matches(base.relativize(path)));
         } else {
-            printInitialization(tasksCount, processors, false);
-            for (File task : tasks) {
-                calculateTask(task, buildResultFile(task), resources);
+            Path path = Paths.get(argument);
+            if (!Files.isDirectory(path)) {
+                return Collections.singletonList(path.toFile());
             }
+            paths = Files.list(path);
+        }
+        try (Stream<Path> files = paths) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().endsWith(RESULT_SUFFIX))
+                    .sorted()
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
         }
-        System.out.println("Done all.");
     }
 
-    private static Task buildTask(Task start, Task end, List<Double> shifts, int position,
-            int size) {
-        if (position == 0) {
-            return start;
+    private static List<CalculateAction> buildTaskActions(List<File> files, File outputDirectory,
+            ResourceBundle resources) {
+        List<CalculateAction> actions = new ArrayList<>(files.size());
+        for (File file : files) {
+            File resultFile = buildResultFile(file, outputDirectory);
+            actions.add(new CalculateAction(file.getPath(),
+                    () -> calculateTask(parseTask(file), resultFile, resources)));
         }
-        if (position == size - 1) {
-            return end;
+        return actions;
+    }
+
+    /**
+     * Tasks between start and end tasks, which differ only by transitions probabilities,
+     * in and out coefficients and initial states count. Value of task on position is
+     * start + position * (end - start) / size, last task is end task.
+     * Tasks are calculated in chunks by {@link SweepCalculator}, chunks are calculated in parallel
+     */
+    private static List<CalculateAction> buildIntervalActions(File startFile, File endFile, int size,
+            File outputDirectory, int threads, ResourceBundle resources) throws IOException {
+        TaskV4 startTask = parseTask(startFile);
+        TaskV4 endTask = parseTask(endFile);
+        if (!isSameStructure(startTask, endTask)) {
+            throw new IOException("Can't perform calculations. Tasks have different structure.");
         }
-        Task result = new Task();
-        result.setId(position + 1);
-        result.setName(start.getName());
-        result.setStates(start.getStates());
-        List<Transition> startTransitions = start.getTransitions();
-        List<Transition> resultTransitions = new ArrayList<>(startTransitions.size());
-        for (int i = 0; i < startTransitions.size(); i++) {
-            Transition startTransition = startTransitions.get(i);
-            Transition resultTransition = new Transition(startTransition.getSourceState(),
-                    startTransition.getSourceCoefficient(), startTransition.getSourceDelay(),
-                    startTransition.getOperandState(), startTransition.getOperandCoefficient(),
-                    startTransition.getOperandDelay(), startTransition.getResultState(),
-                    startTransition.getResultCoefficient(),
-                    startTransition.getProbability() + position * shifts.get(i),
-                    startTransition.getType(), startTransition.getMode(),
-                    startTransition.getDescription());
-            resultTransitions.add(resultTransition);
+        int chunks = Math.max(Math.min(threads, size), (size + MAX_SWEEP_VARIANTS - 1) / MAX_SWEEP_VARIANTS);
+        int chunkSize = (size + chunks - 1) / chunks;
+        List<CalculateAction> actions = new ArrayList<>(chunks);
+        for (int from = 0; from < size; from += chunkSize) {
+            int first = from;
+            int last = Math.min(size, from + chunkSize) - 1;
+            actions.add(new CalculateAction(startFile.getPath() + " #" + (first + 1) + "-" + (last + 1), () ->
+                    calculateInterval(startFile, endTask, first, last, size, outputDirectory, resources)));
         }
-        result.setTransitions(resultTransitions);
-        result.setStartPoint(start.getStartPoint());
-        result.setStepsCount(start.getStepsCount());
-        result.setParallel(start.isParallel());
-        result.setHigherAccuracy(start.isHigherAccuracy());
-        result.setAllowNegative(start.isAllowNegative());
-        result.setColumnSeparator(start.getColumnSeparator());
-        result.setDecimalSeparator(start.getDecimalSeparator());
-        result.setLineSeparator(start.getLineSeparator());
-        result.setEncoding(start.getEncoding());
-        return result;
+        return actions;
     }
 
-    private static List<Double> calculateShifts(Task start, Task end, int size) {
-        List<Double> result = new ArrayList<>(start.getTransitions().size());
-        List<Transition> startTransitions = start.getTransitions();
-        List<Transition> endTransitions = end.getTransitions();
-        for (int i = 0; i < startTransitions.size(); i++) {
-            result.add((endTransitions.get(i).getProbability() -
-                    startTransitions.get(i).getProbability()) / size);
+    private static boolean isSameStructure(TaskV4 startTask, TaskV4 endTask) {
+        if (startTask.getStates().size() != endTask.getStates().size() ||
+                startTask.getTransitions().size() != endTask.getTransitions().size()) {
+            return false;
+        }
+        for (int i = 0; i < startTask.getTransitions().size(); i++) {
+            if (startTask.getTransitions().get(i).getActualStates().size() !=
+                    endTask.getTransitions().get(i).getActualStates().size()) {
+                return false;
+            }
         }
-        return result;
+        return true;
     }
 
-    private static void calculateTasks(File startFile, File endFile, int size,
-            ResourceBundle resources, boolean parallel) throws Exception {
-        Task startTask = null;//TaskParser.parse(startFile);
-        Task endTask = null;//TaskParser.parse(endFile);
-        if (startTask == null || endTask == null ||
-                startTask.getTransitions().size() != endTask.getTransitions().size()) {
-            System.out.println("Can't perform calculations. Invalid or missing data.");
-            return;
+    private static double interpolate(double start, double end, int position, int size) {
+        return position == size - 1 ? end : start + position * ((end - start) / size);
+    }
+
+    /**
+     * Calculate tasks of interval on positions from first to last together
+     */
+    private static void calculateInterval(File startFile, TaskV4 endTask, int first, int last, int size,
+            File outputDirectory, ResourceBundle resources) throws IOException {
+        // sweep calculator doesn't change task, but it is parsed again to not share it between threads
+        TaskV4 task = parseTask(startFile);
+        int variants = last - first + 1;
+        SweepCalculator calculator = new SweepCalculator(task, variants);
+        for (int variant = 0; variant < variants; variant++) {
+            int position = first + variant;
+            for (int i = 0; i < task.getStates().size(); i++) {
+                State state = task.getStates().get(i);
+                calculator.setCount(variant, state, interpolate(state.getCount(),
+                        endTask.getStates().get(i).getCount(), position, size));
+            }
+            for (int i = 0; i < task.getTransitions().size(); i++) {
+                Transition transition = task.getTransitions().get(i);
+                Transition endTransition = endTask.getTransitions().get(i);
+                calculator.setProbability(variant, transition, interpolate(transition.getProbability(),
+                        endTransition.getProbability(), position, size));
+                List<StateInTransition> states = transition.getActualStates();
+                List<StateInTransition> endStates = endTransition.getActualStates();
+                for (int j = 0; j < states.size(); j++) {
+                    StateInTransition state = states.get(j);
+                    calculator.setIn(variant, state, interpolate(state.getIn(), endStates.get(j).getIn(),
+                            position, size));
+                    calculator.setOut(variant, state, interpolate(state.getOut(), endStates.get(j).getOut(),
+                            position, size));
+                }
+            }
         }
-        startTask.setId(1);
-        endTask.setId(size);
-        endTask.setName(startTask.getName());
-        List<Double> shifts = calculateShifts(startTask, endTask, size);
-        if (parallel) {
-            ExecutorService executor = Utils.newExecutor(THREAD_FACTORY);
-            List<Future<?>> futures = new ArrayList<>(size);
-            for (int i = 0; i < size; i++) {
-                futures.add(executor.submit(
-                        new CalculateTaskAction(i, size, startTask, endTask, shifts, resources)));
+
+        List<String> names = new ArrayList<>(task.getStates().size());
+        for (State state : task.getStates()) {
+            names.add(state.getName());
+        }
+        List<CsvResultWriter> writers = new ArrayList<>(variants);
+        try {
+            for (int variant = 0; variant < variants; variant++) {
+                CsvResultWriter writer = new CsvResultWriter(
+                        buildResultFile(startFile, outputDirectory, first + variant + 1), COLUMN_SEPARATOR,
+                        DECIMAL_SEPARATOR, System.lineSeparator(), ENCODING, SWEEP_BUFFER_SIZE);
+                writers.add(writer);
+                writer.writeHeader(resources.getString("Transitions.Settings.Step"), names);
+                writer.setStartPoint(task.getStartPoint());
             }
-            for (Future<?> future : futures) {
-                future.get();
+            calculator.calculate(writers);
+        } finally {
+            IOException exception = null;
+            for (CsvResultWriter writer : writers) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    exception = e;
+                }
             }
-        } else {
-            for (int i = 0; i < size; i++) {
-                calculateTask(buildTask(startTask, endTask, shifts, i, size), resources);
+            if (exception != null) {
+                throw exception;
             }
         }
-        System.out.println("Done all.");
+    }
+
+    private static void printHelp() {
+        System.out.println("Usage:");
+        System.out.println("-task task_file [result_file]");
+        System.out.println("-tasks [-threads count] [-output directory] path1 ... pathN");
+        System.out.println("    path is task file, directory of task files or glob (e.g. \"tasks/**.csv\")");
+        System.out.println("-interval [-threads count] [-output directory] start_task end_task interval_count");
+        System.out.println("    tasks between start and end tasks which differ by probabilities, coefficients");
+        System.out.println("    and initial counts, they are calculated together");
+        System.out.println("Results are written to task_file" + RESULT_SUFFIX + " or to output directory.");
+        System.out.println("License info:");
+        System.out.println(
+                "This program is free software: you can redistribute it and/or modify");
+        System.out.println(
+                "it under the terms of the GNU General Public License as published by");
+        System.out.println(
+                "the Free Software Foundation, either version 3 of the License, or");
+        System.out.println("any later version.");
+        System.out
+                .println("This program is distributed in the hope that it will be useful,");
+        System.out
+                .println("but WITHOUT ANY WARRANTY; without even the implied warranty of");
+        System.out.println("MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the");
+        System.out.println("GNU General Public License for more details.");
+        System.out.println(
+                "You should have received a copy of the GNU General Public License");
+        System.out.println(
+                "along with this program. If not, see http://www.gnu.org/licenses/.");
     }
 
     public static void main(String[] args) {
@@ -214,64 +373,48 @@ public final class Console {
             System.out.println("redistribute it under certain conditions.");
             System.out.println("To get help, use \"-help\".");
             System.out.println("Initializing...");
-            int processors = Runtime.getRuntime().availableProcessors();
-            ResourceBundle resources = ResourceBundle
-                    .getBundle("population.resource.strings", Locale.getDefault());
-            if (KEY_HELP.equalsIgnoreCase(args[0])) {
-                printInitialization(0, processors, false);
-                System.out.println("Usage:");
-                System.out.println("-task task_file [result_file]");
-                System.out.println("-tasks [-parallel] task_file1 ... task_fileN");
-                System.out.println("-interval [-parallel] start_task end_task interval_count");
-                System.out.println("License info:");
-                System.out.println(
-                        "This program is free software: you can redistribute it and/or modify");
-                System.out.println(
-                        "it under the terms of the GNU General Public License as published by");
-                System.out.println(
-                        "the Free Software Foundation, either version 3 of the License, or");
-                System.out.println("any later version.");
-                System.out
-                        .println("This program is distributed in the hope that it will be useful,");
-                System.out
-                        .println("but WITHOUT ANY WARRANTY; without even the implied warranty of");
-                System.out.println("MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the");
-                System.out.println("GNU General Public License for more details.");
-                System.out.println(
-                        "You should have received a copy of the GNU General Public License");
-                System.out.println(
-                        "along with this program. If not, see http://www.gnu.org/licenses/.");
-            } else if (KEY_TASK.equalsIgnoreCase(args[0])) {
-                File inputFile = new File(args[1]);
-                File resultFile;
-                if (args.length < 3) {
-                    resultFile = buildResultFile(inputFile);
-                } else {
-                    resultFile = new File(args[2]);
+            ResourceBundle resources = StringResource.getBundle();
+
+            // options
+            int threads = Runtime.getRuntime().availableProcessors();
+            File outputDirectory = null;
+            List<String> arguments = new ArrayList<>();
+            for (int i = 1; i < args.length; i++) {
+                if (KEY_THREADS.equalsIgnoreCase(args[i]) && i + 1 < args.length) {
+                    threads = Math.max(1, Integer.parseInt(args[++i]));
+                } else if (KEY_OUTPUT.equalsIgnoreCase(args[i]) && i + 1 < args.length) {
+                    outputDirectory = new File(args[++i]);
+                    Files.createDirectories(outputDirectory.toPath());
+                } else if (!KEY_PARALLEL.equalsIgnoreCase(args[i])) {
+                    // tasks are always calculated in parallel, key is kept for compatibility
+                    arguments.add(args[i]);
                 }
-                printInitialization(1, processors, false);
-                calculateTask(inputFile, resultFile, resources);
-            } else if (KEY_TASKS.equalsIgnoreCase(args[0])) {
-                String secondArgument = args[1];
-                boolean parallel = Objects.equals(secondArgument, KEY_PARALLEL);
-                int shift = parallel ? 2 : 1;
-                List<File> tasks = new ArrayList<>(args.length - shift);
-                for (int i = shift; i < args.length; i++) {
-                    tasks.add(new File(args[i]));
+            }
+
+            boolean success = true;
+            if (KEY_HELP.equalsIgnoreCase(args[0])) {
+                printHelp();
+            } else if (KEY_TASK.equalsIgnoreCase(args[0]) && arguments.size() >= 1) {
+                File inputFile = new File(arguments.get(0));
+                File resultFile = arguments.size() < 2 ? buildResultFile(inputFile, outputDirectory)
+                        : new File(arguments.get(1));
+                success = runAll(Collections.singletonList(new CalculateAction(inputFile.getPath(),
+                        () -> calculateTask(parseTask(inputFile), resultFile, resources))), 1);
+            } else if (KEY_TASKS.equalsIgnoreCase(args[0]) && arguments.size() >= 1) {
+                List<File> files = new ArrayList<>();
+                for (String argument : arguments) {
+                    files.addAll(findTaskFiles(argument));
                 }
-                calculateTasks(tasks, resources, processors, parallel);
-            } else if (KEY_INTERVAL.equalsIgnoreCase(args[0])) {
-                String secondArgument = args[1];
-                boolean parallel = Objects.equals(secondArgument, KEY_PARALLEL);
-                int shift = parallel ? 2 : 1;
-                File startFile = new File(args[shift]);
-                File endFile = new File(args[shift + 1]);
-                int size = Integer.parseInt(args[shift + 2]);
-                calculateTasks(startFile, endFile, size, resources, parallel);
+                success = runAll(buildTaskActions(files, outputDirectory, resources), threads);
+            } else if (KEY_INTERVAL.equalsIgnoreCase(args[0]) && arguments.size() >= 3) {
+                success = runAll(buildIntervalActions(new File(arguments.get(0)),
+                        new File(arguments.get(1)), Integer.parseInt(arguments.get(2)),
+                        outputDirectory, threads, resources), threads);
             } else {
                 System.out.println("Invalid arguments.");
+                success = false;
             }
-            System.exit(0);
+            System.exit(success ? 0 : 1);
         } catch (Throwable t) {
             System.out.println("Error");
             System.out.println(Utils.buildErrorText(t));
@@ -279,44 +422,31 @@ public final class Console {
         }
     }
 
-    private static class CalculateFileAction implements Callable<Void> {
-        private final File mInputFile;
-        private final ResourceBundle mResources;
+    private interface Calculation {
+        void run() throws IOException;
+    }
 
-        public CalculateFileAction(File inputFile, ResourceBundle resources) {
-            mInputFile = inputFile;
-            mResources = resources;
-        }
+    /**
+     * Run calculation, returns time of calculation in nanoseconds
+     */
+    private static class CalculateAction implements Callable<Long> {
+        private final String mName;
+        private final Calculation mCalculation;
 
-        @Override
-        public Void call() throws Exception {
-            calculateTask(mInputFile, buildResultFile(mInputFile), mResources);
-            return null;
+        private CalculateAction(String name, Calculation calculation) {
+            mName = name;
+            mCalculation = calculation;
         }
-    }
-
-    private static class CalculateTaskAction implements Callable<Void> {
-        private final int mPosition;
-        private final int mSize;
-        private final Task mStartTask;
-        private final Task mEndTask;
-        private final List<Double> mShifts;
-        private final ResourceBundle mResources;
 
-        private CalculateTaskAction(int position, int size, Task startTask, Task endTask,
-                List<Double> shifts, ResourceBundle resources) {
-            mPosition = position;
-            mSize = size;
-            mStartTask = startTask;
-            mEndTask = endTask;
-            mShifts = shifts;
-            mResources = resources;
+        public String getName() {
+            return mName;
         }
 
         @Override
-        public Void call() throws Exception {
-            calculateTask(buildTask(mStartTask, mEndTask, mShifts, mPosition, mSize), mResources);
-            return null;
+        public Long call() throws Exception {
+            long start = System.nanoTime();
+            mCalculation.run();
+            return System.nanoTime() - start;
         }
     }
 }
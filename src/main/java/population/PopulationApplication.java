@@ -20,6 +20,7 @@ package population;
 import javafx.event.EventHandler;
 import javafx.scene.control.Button;
 import javafx.stage.WindowEvent;
+import population.controller.Calculation.ResultChartController;
 import population.controller.PrimaryController;
 import population.controller.base.AbstractAboutController;
 import population.controller.base.AbstractController;
@@ -261,6 +262,15 @@ public final class PopulationApplication extends Application {
 
     @Override
     public void stop() throws Exception {
+        if (mPrimaryController != null) {
+            // calculation thread of portrait would keep application running
+            mPrimaryController.mParametricPortraitTabController.cancelCalculation();
+        }
+        ResultChartController resultChartController = App.getController(ResultChartController.class);
+        if (resultChartController != null) {
+            // temporary files of memory-mapped results are deleted on close
+            resultChartController.closeStores();
+        }
         saveSettings();
     }
 
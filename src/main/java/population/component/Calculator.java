@@ -23,17 +23,23 @@ import population.model.Task;
 import population.model.Transition;
 import population.model.TransitionMode;
 import population.model.TransitionType;
+import population.util.DecimalRounding;
+import population.util.DoubleDouble;
 import population.util.Utils;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -43,10 +49,37 @@ public class Calculator {
      *    
      */
     public static final int HIGHER_ACCURACY_SCALE = 384;
+    /**
+     *  ,    ,    
+     */
+    private static final int CHUNKS_PER_WORKER = 4;
+    /**
+     *       
+     */
+    private static final int COST_MEASURE_STEPS = 8;
+    /**
+     *   ,       
+     */
+    private static final long PARALLEL_MIN_STEP_NANOS = 100_000;
+    /**
+     *       (  20  )
+     */
+    private static final long PROGRESS_INTERVAL_NANOS = 50_000_000;
     private final Task mTask; // 
     private final double[][] mStates; // 
-    private final BigDecimal[][] mStatesBig; //     
+    private final HigherAccuracyWindow mStatesBig; //       
+    private final HigherAccuracyTransition[] mTransitionsBig; //      
+    private final double[] mTotalCountExponents; //      (SOLUTE)
+    private final BigDecimal[] mTotalCountPowers; //       
+    private final double[][] mStatesDdHigh; //      double-double
+    private final double[][] mStatesDdLow; //      double-double
     private final Lock mStatesLock = new ReentrantLock();
+    private TransitionWorkers mWorkers; //     (    )
+    private int mMeasuredSteps; //  ,     
+    private long mMinStepNanos = Long.MAX_VALUE; //    
+    private int mProcessorsCount = Runtime.getRuntime().availableProcessors(); //     
+    private long mParallelMinStepNanos = PARALLEL_MIN_STEP_NANOS; //       
+    private int mWorkersSteps; //  ,   
     private final int[] mStateIds; //  
     private final int mStatesCount; //  
     private final ExecutorService mExecutor; //  (  )
@@ -55,6 +88,7 @@ public class Calculator {
     private final ThreadFactory mThreadFactory; //  
     private final boolean mPrepareResultsTableData; //     
     private volatile double mProgress; //  
+    private volatile long mProgressTime = System.nanoTime(); //      (System.nanoTime())
     private int mCurStep = 1;   // current calculation step (used o    
     private final boolean mPrepareResultsChartData; // nly in step by step calculation)
     private Integer scale = null;                               // scale with which states will be rounded
@@ -62,6 +96,8 @@ public class Calculator {
     private double[][] statesRounded = new double[0][0];        // states counts rounded to scale
     private int maxDelay;
     private boolean isTaskStable = false;
+    private int mUnchangedSteps = 0; //     ,    ( )
+    private CalculatorCheckpoint mCheckpoint; //      (null,   )
 
     /**
      * 
@@ -73,7 +109,7 @@ public class Calculator {
      * @param progressCallback           
      * @param threadFactory                 
      */
-    private Calculator(Task task, boolean prepareResultsTableData, boolean prepareResultsChartData,
+    Calculator(Task task, boolean prepareResultsTableData, boolean prepareResultsChartData,
                        ResultCallback resultCallback, ProgressCallback progressCallback,
                        ThreadFactory threadFactory) {
         mTask = task;
@@ -99,15 +135,35 @@ public class Calculator {
         mStateIds = stateIds;
         this.maxDelay = getMaxDelay();
         if (task.isHigherAccuracy()) {
-            BigDecimal[][] statesBig = new BigDecimal[maxDelay + 2][statesCount];
+            BigDecimal[] initial = new BigDecimal[statesCount];
             for (int i = 0; i < statesCount; i++) {
-                BigDecimal value = decimalValue(statesList.get(i).getCount());
-                statesBig[0][i] = value;
-                statesBig[1][i] = value;
+                initial[i] = decimalValue(statesList.get(i).getCount());
+            }
+            //      , delay()    
+            mStatesBig = new HigherAccuracyWindow(maxDelay + 2, initial);
+            List<Double> exponents = new ArrayList<>();
+            mTransitionsBig = compileHigherAccuracyTransitions(exponents);
+            mTotalCountExponents = new double[exponents.size()];
+            for (int i = 0; i < mTotalCountExponents.length; i++) {
+                mTotalCountExponents[i] = exponents.get(i);
             }
-            mStatesBig = statesBig;
+            mTotalCountPowers = new BigDecimal[mTotalCountExponents.length];
         } else {
             mStatesBig = null;
+            mTransitionsBig = null;
+            mTotalCountExponents = null;
+            mTotalCountPowers = null;
+        }
+        if (isDoubleDoubleAccuracy()) {
+            //      ,   ,   
+            mStatesDdHigh = new double[maxDelay + 2][statesCount];
+            mStatesDdLow = new double[maxDelay + 2][statesCount];
+            for (double[] stepStates : mStatesDdHigh) {
+                System.arraycopy(states[0], 0, stepStates, 0, statesCount);
+            }
+        } else {
+            mStatesDdHigh = null;
+            mStatesDdLow = null;
         }
         if (task.isParallel()) {
             mExecutor = Utils.newExecutor(threadFactory);
@@ -116,6 +172,31 @@ public class Calculator {
         }
     }
 
+    /**
+     *      
+     *
+     * @param processorsCount  
+     * @param minStepNanos       ,     
+     */
+    void setParallelWorkers(int processorsCount, long minStepNanos) {
+        mProcessorsCount = processorsCount;
+        mParallelMinStepNanos = minStepNanos;
+    }
+
+    /**
+     * @return  ,     
+     */
+    int getWorkersSteps() {
+        return mWorkersSteps;
+    }
+
+    /**
+     * @return    double-double (   )
+     */
+    private boolean isDoubleDoubleAccuracy() {
+        return mTask.isDoubleDoubleAccuracy() && !mTask.isHigherAccuracy();
+    }
+
     private int getMaxDelay() {
         int maxDelay = 0;
         for (Transition transition : mTask.getTransitions()) {
@@ -137,25 +218,157 @@ public class Calculator {
         System.arraycopy(mStates[step - 1], 0, mStates[step], 0, mStatesCount);
     }
 
-    private BigDecimal getTotalCountBig(int step, int currentStep) {
+    private BigDecimal getTotalCountBig(int step) {
+        BigDecimal[] states = mStatesBig.getRow(step);
         BigDecimal totalCount = BigDecimal.ZERO;
         for (int state = 0; state < mStatesCount; state++) {
-            totalCount = totalCount.add(mStatesBig[currentStep - step][state]);
+            totalCount = totalCount.add(states[state]);
         }
         return totalCount;
     }
 
-    private void copyPreviousStepBig(int step, int currentStep) {
-        int index = currentStep - step;
-        if (index == 0) {
-            for (int i = mStatesBig.length - 1; i >= 1; i--) {
-                System.arraycopy(mStatesBig[i - 1], 0, mStatesBig[i], 0, mStatesBig[i].length);
+    /**
+     *     ,   SOLUTE  .
+     *      ,      
+     *
+     * @param totalCount      
+     */
+    private void calculateTotalCountPowers(BigDecimal totalCount) {
+        if (totalCount.compareTo(BigDecimal.ZERO) <= 0) {
+            return;
+        }
+        for (int i = 0; i < mTotalCountExponents.length; i++) {
+            mTotalCountPowers[i] = power(totalCount, mTotalCountExponents[i]);
+        }
+    }
+
+    /**
+     *        
+     *
+     * @param exponents ,      
+     *                    
+     * @return   
+     */
+    private HigherAccuracyTransition[] compileHigherAccuracyTransitions(List<Double> exponents) {
+        List<Transition> transitions = mTask.getTransitions();
+        HigherAccuracyTransition[] compiled = new HigherAccuracyTransition[transitions.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            Transition transition = transitions.get(i);
+            int sourceState = findState(transition.getSourceState());
+            int operandState = findState(transition.getOperandState());
+            double sourceCoefficient = transition.getSourceCoefficient();
+            double operandCoefficient = transition.getOperandCoefficient();
+
+            //    ,      SOLUTE
+            double exponent = Double.NaN;
+            if (transition.getType() == TransitionType.SOLUTE) {
+                if (isStateExternal(sourceState)) {
+                    exponent = operandCoefficient > 1 ? operandCoefficient - 1 : Double.NaN;
+                } else if (isStateExternal(operandState)) {
+                    exponent = sourceCoefficient > 1 ? sourceCoefficient - 1 : Double.NaN;
+                } else {
+                    exponent = sourceCoefficient + operandCoefficient - 1;
+                }
             }
+            int powerIndex = -1;
+            if (!Double.isNaN(exponent)) {
+                powerIndex = exponents.indexOf(exponent);
+                if (powerIndex < 0) {
+                    powerIndex = exponents.size();
+                    exponents.add(exponent);
+                }
+            }
+
+            compiled[i] = new HigherAccuracyTransition(transition, sourceState, operandState,
+                    findState(transition.getResultState()), powerIndex);
+        }
+        return compiled;
+    }
+
+    /**
+     *        .
+     *     ,    
+     *
+     * @param step   
+     */
+    private void copyPreviousStepBig(int step) {
+        BigDecimal[] states = mStatesBig.next();
+        for (int state = 0; state < mStatesCount; state++) {
+            mStates[step][state] = doubleValue(states[state]);
         }
+    }
+
+    private DoubleDouble getTotalCountDd() {
+        double[] high = mStatesDdHigh[0];
+        double[] low = mStatesDdLow[0];
+        DoubleDouble totalCount = DoubleDouble.ZERO;
         for (int state = 0; state < mStatesCount; state++) {
-            BigDecimal value = mStatesBig[index + 1][state];
-            mStatesBig[index][state] = value;
-            mStates[step][state] = doubleValue(value);
+            totalCount = totalCount.add(DoubleDouble.valueOf(high[state], low[state]));
+        }
+        return totalCount;
+    }
+
+    /**
+     *     double-double      
+     *
+     * @param step   
+     */
+    private void copyPreviousStepDd(int step) {
+        shiftRows(mStatesDdHigh);
+        shiftRows(mStatesDdLow);
+        System.arraycopy(mStatesDdHigh[1], 0, mStatesDdHigh[0], 0, mStatesCount);
+        System.arraycopy(mStatesDdLow[1], 0, mStatesDdLow[0], 0, mStatesCount);
+        System.arraycopy(mStatesDdHigh[0], 0, mStates[step], 0, mStatesCount);
+    }
+
+    /**
+     *       :  ( )   
+     */
+    private static void shiftRows(double[][] rows) {
+        double[] last = rows[rows.length - 1];
+        System.arraycopy(rows, 0, rows, 1, rows.length - 1);
+        rows[0] = last;
+    }
+
+    /**
+     *     double-double.
+     *    ,   ,    
+     *
+     * @param step         
+     * @param currentStep   
+     * @param state        
+     * @return  
+     */
+    private DoubleDouble getStateDd(int step, int currentStep, int state) {
+        int index = currentStep - step;
+        return DoubleDouble.valueOf(mStatesDdHigh[index][state], mStatesDdLow[index][state]);
+    }
+
+    /**
+     *        double-double
+     *
+     * @param step    
+     * @param state  
+     * @param value 
+     */
+    private void incrementStateDd(int step, int state, DoubleDouble value) {
+        //       ,   
+        DoubleDouble result = DoubleDouble.valueOf(mStatesDdHigh[0][state], mStatesDdLow[0][state])
+                .add(value);
+        mStatesDdHigh[0][state] = result.getHigh();
+        mStatesDdLow[0][state] = result.getLow();
+        mStates[step][state] = result.doubleValue();
+    }
+
+    private void decrementStateDd(int step, int state, DoubleDouble value) {
+        incrementStateDd(step, state, value.negate());
+    }
+
+    private void checkStateNegativenessDd(int step, int state) {
+        if (!mTask.isAllowNegative() && mStatesDdHigh[0][state] < 0) {
+            mStatesDdHigh[0][state] = 0;
+            mStatesDdLow[0][state] = 0;
+            mStates[step][state] = 0;
         }
     }
 
@@ -167,18 +380,14 @@ public class Calculator {
      * @return  
      */
     private double getState(int step, int state) {
-        mStatesLock.lock();
-        try {
-            return mStates[step][state];
-        } finally {
-            mStatesLock.unlock();
-        }
+        //    ,   ,    
+        return mStates[step][state];
     }
 
-    private BigDecimal getStateBig(int step, int currentStep, int state) {
+    private BigDecimal getStateBig(int step, int state) {
         mStatesLock.lock();
         try {
-            return mStatesBig[currentStep - step][state];
+            return mStatesBig.getRow(step)[state];
         } finally {
             mStatesLock.unlock();
         }
@@ -192,24 +401,19 @@ public class Calculator {
      */
     private void checkStateNegativeness(int step, int state) {
         if (!mTask.isAllowNegative()) {
-            mStatesLock.lock();
-            try {
-                if (mStates[step][state] < 0) {
-                    mStates[step][state] = 0;
-                }
-            } finally {
-                mStatesLock.unlock();
+            if (mStates[step][state] < 0) {
+                mStates[step][state] = 0;
             }
         }
     }
 
-    private void checkStateNegativenessBig(int step, int currentStep, int state) {
+    private void checkStateNegativenessBig(int step, int state) {
         if (!mTask.isAllowNegative()) {
             mStatesLock.lock();
             try {
-                int index = currentStep - step;
-                if (mStatesBig[index][state].compareTo(BigDecimal.ZERO) < 0) {
-                    mStatesBig[index][state] = BigDecimal.ZERO;
+                BigDecimal[] states = mStatesBig.getRow(step);
+                if (states[state].compareTo(BigDecimal.ZERO) < 0) {
+                    states[state] = BigDecimal.ZERO;
                 }
                 if (mStates[step][state] < 0) {
                     mStates[step][state] = 0;
@@ -221,27 +425,22 @@ public class Calculator {
     }
 
     /**
-     *          
+     *       
      *
-     * @param step   
-     * @param state  
-     * @param value 
+     * @param states   
+     * @param state   
+     * @param value  
      */
-    private void incrementState(int step, int state, double value) {
-        mStatesLock.lock();
-        try {
-            mStates[step][state] += value;
-        } finally {
-            mStatesLock.unlock();
-        }
+    private static void incrementState(double[] states, int state, double value) {
+        states[state] += value;
     }
 
-    private void incrementStateBig(int step, int currentStep, int state, BigDecimal value) {
+    private void incrementStateBig(int step, int state, BigDecimal value) {
         mStatesLock.lock();
         try {
-            int index = currentStep - step;
-            BigDecimal result = mStatesBig[index][state].add(value);
-            mStatesBig[index][state] = result;
+            BigDecimal[] states = mStatesBig.getRow(step);
+            BigDecimal result = states[state].add(value);
+            states[state] = result;
             mStates[step][state] = doubleValue(result);
         } finally {
             mStatesLock.unlock();
@@ -249,22 +448,105 @@ public class Calculator {
     }
 
     /**
-     *          
+     *       
      *
-     * @param step   
-     * @param state  
-     * @param value 
+     * @param states   
+     * @param state   
+     * @param value  
+     */
+    private static void decrementState(double[] states, int state, double value) {
+        incrementState(states, state, -value);
+    }
+
+    /**
+     *      .
+     *           ,
+     *     ,     .
+     *
+     * @param step  
+     */
+    private void calculateStepTransitions(int step) {
+        double totalCount = getTotalCount(step);
+        if (mWorkers != null) {
+            mWorkers.calculateStep(step, totalCount);
+            return;
+        }
+
+        long start = System.nanoTime();
+        for (Transition transition : mTask.getTransitions()) {
+            applyTransitionNormalAccuracy(mStates[step], transition,
+                    transitionValueNormalAccuracy(step, totalCount, transition));
+        }
+        measureStepCost(start, false);
+    }
+
+    /**
+     *      double-double.
+     *      ,   
+     *   ,      
+     *
+     * @param step  
      */
-    private void decrementState(int step, int state, double value) {
-        incrementState(step, state, -value);
+    private void calculateStepTransitionsDd(int step) {
+        DoubleDouble totalCount = getTotalCountDd();
+        if (mWorkers != null) {
+            mWorkers.calculateStepDd(step, totalCount);
+            return;
+        }
+
+        long start = System.nanoTime();
+        for (Transition transition : mTask.getTransitions()) {
+            applyTransitionDoubleDoubleAccuracy(step, transition,
+                    transitionValueDoubleDoubleAccuracy(step, totalCount, transition));
+        }
+        measureStepCost(start, true);
     }
 
-    private void decrementStateBig(int step, int currentStep, int state, BigDecimal value) {
+    /**
+     *        ,    
+     *
+     * @param start          
+     * @param doubleDouble     double-double
+     */
+    private void measureStepCost(long start, boolean doubleDouble) {
+        if (mTask.isParallel() && mMeasuredSteps < COST_MEASURE_STEPS) {
+            //      (,  )   
+            mMinStepNanos = Math.min(mMinStepNanos, System.nanoTime() - start);
+            mMeasuredSteps++;
+            if (mMeasuredSteps == COST_MEASURE_STEPS) {
+                int workersCount = Math.min(mProcessorsCount, mTask.getTransitions().size());
+                if (workersCount > 1 && mMinStepNanos >= mParallelMinStepNanos) {
+                    mWorkers = new TransitionWorkers(workersCount, doubleDouble);
+                }
+            }
+        }
+    }
+
+    /**
+     *     
+     *
+     * @param step  
+     */
+    private void calculateStepNormalAccuracy(int step) {
+        copyPreviousStep(step);
+        calculateStepTransitions(step);
+        for (int stateId = 0; stateId < mStateIds.length; stateId++) {
+            checkStateNegativeness(step, stateId);
+        }
+
+        if (scale != null) {
+            roundStates(step, scale);
+        }
+
+        callbackProgress(step);
+    }
+
+    private void decrementStateBig(int step, int state, BigDecimal value) {
         mStatesLock.lock();
         try {
-            int index = currentStep - step;
-            BigDecimal result = mStatesBig[index][state].subtract(value);
-            mStatesBig[index][state] = result;
+            BigDecimal[] states = mStatesBig.getRow(step);
+            BigDecimal result = states[state].subtract(value);
+            states[state] = result;
             mStates[step][state] = doubleValue(result);
         } finally {
             mStatesLock.unlock();
@@ -290,12 +572,7 @@ public class Calculator {
     }
 
     private void clearBigStates() {
-        for (int i = 0; i < mStatesBig.length; i++) {
-            for (int j = 0; j < mStatesBig[i].length; j++) {
-                mStatesBig[i][j] = null;
-            }
-            mStatesBig[i] = null;
-        }
+        mStatesBig.clear();
     }
 
     /**
@@ -330,10 +607,12 @@ public class Calculator {
             needUpdate = true;
         } else {
             progress = (double) step / (double) (stepsCount - 1);
-            needUpdate = progress - mProgress > 0.005;
+            needUpdate = progress - mProgress > 0.005
+                    && System.nanoTime() - mProgressTime >= PROGRESS_INTERVAL_NANOS;
         }
         if (needUpdate) {
             mProgress = progress;
+            mProgressTime = System.nanoTime();
             mProgressCallback.onProgressUpdate(progress);
         }
     }
@@ -343,49 +622,14 @@ public class Calculator {
      */
     private Result calculateNormalAccuracy() {
         callbackProgress(0);
-        List<Transition> transitions = mTask.getTransitions();
         int stepsCount = mTask.getStepsCount();
-        if (mTask.isParallel()) {
-            List<Future<?>> futures = new ArrayList<>(transitions.size());
-            for (int step = 1; step < stepsCount; step++) {
-                copyPreviousStep(step);
-                double totalCount = getTotalCount(step);
-                for (Transition transition : transitions) {
-                    futures.add(mExecutor
-                            .submit(new TransitionActionNormalAccuracy(step, totalCount,
-                                    transition)));
-                }
-                for (Future<?> future : futures) {
-                    await(future);
-                }
-                futures.clear();
-                for (int stateId = 0; stateId < mStateIds.length; stateId++) {
-                    checkStateNegativeness(step, stateId);
-                }
-
-                if (scale != null) {
-                    roundStates(step, scale);
-                }
-
-                callbackProgress(step);
-            }
-        } else {
-            for (int step = 1; step < stepsCount; step++) {
-                copyPreviousStep(step);
-                double totalCount = getTotalCount(step);
-                for (Transition transition : transitions) {
-                    transitionNormalAccuracy(step, totalCount, transition);
-                }
-                for (int stateId = 0; stateId < mStateIds.length; stateId++) {
-                    checkStateNegativeness(step, stateId);
-                }
-
-                if (scale != null) {
-                    roundStates(step, scale);
-                }
-
-                callbackProgress(step);
+        for (int step = mCurStep; step < stepsCount; step++) {
+            calculateStepNormalAccuracy(step);
+            if (isTaskStable) {
+                fillStableSteps(step + 1);
+                break;
             }
+            saveCheckpoint(step);
         }
         return new Result(mTask.getStartPoint(), scale == null ? mStates : statesRounded, mTask.getStates(),
                 mPrepareResultsTableData, mPrepareResultsChartData);
@@ -397,23 +641,9 @@ public class Calculator {
      * @param scale precision
      */
     private void roundStates(int step, Integer scale) {
-        if (!isTaskStable && step >= this.maxDelay + 2) {
-            boolean isStable = true;
-            if (step >= this.maxDelay + 2) {
-                cycle:
-                for (int i = 0; i < statesRounded[step].length; i++) {
-                    double val = statesRounded[step - maxDelay - 2][i];
-                    for (int j = 0; j <= maxDelay; j++) {
-                        if (statesRounded[step - j - 1][i] != val) {
-                            isStable = false;
-                            break cycle;
-                        }
-                    }
-                }
-            } else {
-                isStable = false;
-            }
-            isTaskStable = isStable;
+        if (!isTaskStable) {
+            // steps from step - maxDelay - 2 to step - 1 are equal
+            isTaskStable = mUnchangedSteps > maxDelay;
         }
 
         if (isTaskStable) {
@@ -421,36 +651,134 @@ public class Calculator {
                 statesRounded[step][i] = statesRounded[step - 1][i];
             }
         } else {
+            double eps = DecimalRounding.negativePowerOfTen(scale);
             for (int i = 0; i < mStates[step].length; i++) {
-                if (mStates[step][i] <= Math.pow(10., -scale)) {
+                if (mStates[step][i] <= eps) {
                     mStates[step][i] = 0;
                 }
                 if (mTask.isHigherAccuracy() || scale != Utils.MAX_PRECISION) {
-                    statesRounded[step][i] = new BigDecimal(mStates[step][i]).setScale(scale, roundingMode).doubleValue();
+                    statesRounded[step][i] = roundingMode == RoundingMode.HALF_UP
+                            ? DecimalRounding.roundHalfUp(mStates[step][i], scale)
+                            : new BigDecimal(mStates[step][i]).setScale(scale, roundingMode).doubleValue();
                 } else {
                     statesRounded[step][i] = mStates[step][i];
                 }
             }
         }
+
+        mUnchangedSteps = isRoundedStepUnchanged(step) ? mUnchangedSteps + 1 : 0;
+    }
+
+    /**
+     * @param step  
+     * @return       
+     */
+    private boolean isRoundedStepUnchanged(int step) {
+        double[] previous = statesRounded[step - 1];
+        double[] current = statesRounded[step];
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != previous[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * round last states in higher accuracy mode
+     *        :
+     *     ,    ,
+     *         
+     *
+     * @param fromStep   
+     */
+    private void fillStableSteps(int fromStep) {
+        int stepsCount = mTask.getStepsCount();
+        for (int step = fromStep; step < stepsCount; step++) {
+            statesRounded[step] = statesRounded[fromStep - 1];
+        }
+        callbackProgress(stepsCount - 1);
+    }
+
+    /**
+     * round last states in higher accuracy mode (the oldest step which is used by delays)
+     * @param step current step
      * @param scale precision
      */
-    private void roundLastBigStates(Integer scale) {
-        if (mStatesBig.length > 0) {
-            for (int i = 0; i < mStatesBig[0].length; i++) {
-                if (mStatesBig[mStatesBig.length - 1][i].compareTo(new BigDecimal(Math.pow(10., -scale))) <= 0) {
-                    mStatesBig[mStatesBig.length - 1][i] = BigDecimal.ZERO;
+    private void roundLastBigStates(int step, Integer scale) {
+        int roundedStep = step - maxDelay - 1;
+        if (roundedStep >= 0) {
+            BigDecimal[] states = mStatesBig.getRow(roundedStep);
+            for (int i = 0; i < states.length; i++) {
+                if (states[i].compareTo(new BigDecimal(Math.pow(10., -scale))) <= 0) {
+                    states[i] = BigDecimal.ZERO;
                 } else {
-                    mStatesBig[mStatesBig.length - 1][i] = mStatesBig[mStatesBig.length - 1][i]
-                            .setScale(scale, roundingMode);
+                    states[i] = states[i].setScale(scale, roundingMode);
                 }
             }
         }
     }
 
+    /**
+     * round last states in double-double mode
+     * @param scale precision
+     */
+    private void roundLastDdStates(Integer scale) {
+        double[] high = mStatesDdHigh[mStatesDdHigh.length - 1];
+        double[] low = mStatesDdLow[mStatesDdLow.length - 1];
+        DoubleDouble eps = DoubleDouble.valueOf(DecimalRounding.negativePowerOfTen(scale));
+        for (int i = 0; i < high.length; i++) {
+            DoubleDouble value = DoubleDouble.valueOf(high[i], low[i]);
+            if (value.compareTo(eps) <= 0) {
+                value = DoubleDouble.ZERO;
+            } else if (roundingMode == RoundingMode.HALF_UP) {
+                value = value.roundHalfUp(scale);
+            } else {
+                value = DoubleDouble.valueOf(value.toBigDecimal().setScale(scale, roundingMode));
+            }
+            high[i] = value.getHigh();
+            low[i] = value.getLow();
+        }
+    }
+
+    /**
+     *    double-double
+     */
+    private Result calculateDoubleDoubleAccuracy() {
+        callbackProgress(0);
+        int stepsCount = mTask.getStepsCount();
+        for (int step = mCurStep; step < stepsCount; step++) {
+            calculateStepDoubleDoubleAccuracy(step);
+            if (isTaskStable) {
+                fillStableSteps(step + 1);
+                break;
+            }
+            saveCheckpoint(step);
+        }
+        return new Result(mTask.getStartPoint(), scale == null ? mStates : statesRounded, mTask.getStates(),
+                mPrepareResultsTableData, mPrepareResultsChartData);
+    }
+
+    /**
+     *     double-double.
+     *    ,      
+     *
+     * @param step  
+     */
+    private void calculateStepDoubleDoubleAccuracy(int step) {
+        copyPreviousStepDd(step);
+        calculateStepTransitionsDd(step);
+        for (int stateId = 0; stateId < mStateIds.length; stateId++) {
+            checkStateNegativenessDd(step, stateId);
+        }
+
+        if (scale != null) {
+            roundLastDdStates(scale);
+            roundStates(step, scale);
+        }
+
+        callbackProgress(step);
+    }
+
     /**
      *    
      */
@@ -460,10 +788,11 @@ public class Calculator {
         int stepsCount = mTask.getStepsCount();
         if (mTask.isParallel()) {
             List<Future<?>> futures = new ArrayList<>(transitions.size());
-            for (int step = 1; step < stepsCount; step++) {
-                copyPreviousStepBig(step, step);
-                BigDecimal totalCount = getTotalCountBig(step, step);
-                for (Transition transition : transitions) {
+            for (int step = mCurStep; step < stepsCount; step++) {
+                copyPreviousStepBig(step);
+                BigDecimal totalCount = getTotalCountBig(step);
+                calculateTotalCountPowers(totalCount);
+                for (HigherAccuracyTransition transition : mTransitionsBig) {
                     futures.add(mExecutor
                             .submit(new TransitionActionHigherAccuracy(step, totalCount,
                                     transition)));
@@ -473,30 +802,41 @@ public class Calculator {
                 }
                 futures.clear();
                 for (int stateId = 0; stateId < mStateIds.length; stateId++) {
-                    checkStateNegativenessBig(step, step, stateId);
+                    checkStateNegativenessBig(step, stateId);
                 }
 
                 if (scale != null) {
-                    roundLastBigStates(scale);
+                    roundLastBigStates(step, scale);
                     roundStates(step, scale);
                 }
 
                 callbackProgress(step);
+                if (isTaskStable) {
+                    fillStableSteps(step + 1);
+                    break;
+                }
+                saveCheckpoint(step);
             }
         } else {
-            for (int step = 1; step < stepsCount; step++) {
-                copyPreviousStepBig(step, step);
-                BigDecimal totalCount = getTotalCountBig(step, step);
-                for (Transition transition : transitions) {
+            for (int step = mCurStep; step < stepsCount; step++) {
+                copyPreviousStepBig(step);
+                BigDecimal totalCount = getTotalCountBig(step);
+                calculateTotalCountPowers(totalCount);
+                for (HigherAccuracyTransition transition : mTransitionsBig) {
                     transitionHigherAccuracy(step, totalCount, transition);
                 }
 
                 if (scale != null) {
-                    roundLastBigStates(scale);
+                    roundLastBigStates(step, scale);
                     roundStates(step, scale);
                 }
 
                 callbackProgress(step);
+                if (isTaskStable) {
+                    fillStableSteps(step + 1);
+                    break;
+                }
+                saveCheckpoint(step);
             }
         }
         clearBigStates();
@@ -505,21 +845,21 @@ public class Calculator {
     }
 
     /**
-     *     
+     *      .
+     *    ,     
      *
      * @param step        
      * @param totalCount      
      * @param transition 
+     * @return  
      */
-    private void transitionNormalAccuracy(int step, double totalCount, Transition transition) {
+    private double transitionValueNormalAccuracy(int step, double totalCount, Transition transition) {
         int sourceState = findState(transition.getSourceState());
         int operandState = findState(transition.getOperandState());
-        int resultState = findState(transition.getResultState());
         boolean sourceExternal = isStateExternal(sourceState);
         boolean operandExternal = isStateExternal(operandState);
-        boolean resultExternal = isStateExternal(resultState);
         if (sourceExternal && operandExternal) {
-            return;
+            return 0;
         }
         int sourceIndex = delay(step - 1, transition.getSourceDelay());
         int operandIndex = delay(step - 1, transition.getOperandDelay());
@@ -632,21 +972,44 @@ public class Calculator {
                 }
             }
         }
+        return value;
+    }
+
+    /**
+     *        
+     *
+     * @param target       
+     * @param transition 
+     * @param value       
+     */
+    private void applyTransitionNormalAccuracy(double[] target, Transition transition, double value) {
+        int sourceState = findState(transition.getSourceState());
+        int operandState = findState(transition.getOperandState());
+        int resultState = findState(transition.getResultState());
+        boolean sourceExternal = isStateExternal(sourceState);
+        boolean operandExternal = isStateExternal(operandState);
+        boolean resultExternal = isStateExternal(resultState);
+        if (sourceExternal && operandExternal) {
+            return;
+        }
+        int transitionMode = transition.getMode();
+        double sourceCoefficient = transition.getSourceCoefficient();
+        double operandCoefficient = transition.getOperandCoefficient();
         if (!sourceExternal && transitionMode == TransitionMode.REMOVING) {
-            decrementState(step, sourceState, value * sourceCoefficient);
+            decrementState(target, sourceState, value * sourceCoefficient);
         }
         if (!operandExternal &&
                 !(transitionMode == TransitionMode.REMOVING && sourceState == operandState)
                 ) {
             if (transitionMode == TransitionMode.INHIBITOR ||
                     transitionMode == TransitionMode.RESIDUAL) {
-                decrementState(step, operandState, value);
+                decrementState(target, operandState, value);
             } else if (transitionMode != TransitionMode.RETAINING) {
-                decrementState(step, operandState, value * operandCoefficient);
+                decrementState(target, operandState, value * operandCoefficient);
             }
         }
         if (!resultExternal) {
-            incrementState(step, resultState, value * transition.getResultCoefficient());
+            incrementState(target, resultState, value * transition.getResultCoefficient());
         }
     }
 
@@ -655,51 +1018,52 @@ public class Calculator {
      *
      * @param step        
      * @param totalCount      
-     * @param transition 
+     * @param transition   
      */
-    private void transitionHigherAccuracy(int step, BigDecimal totalCount, Transition transition) {
-        int sourceState = findState(transition.getSourceState());
-        int operandState = findState(transition.getOperandState());
-        int resultState = findState(transition.getResultState());
+    private void transitionHigherAccuracy(int step, BigDecimal totalCount,
+                                          HigherAccuracyTransition transition) {
+        int sourceState = transition.mSourceState;
+        int operandState = transition.mOperandState;
+        int resultState = transition.mResultState;
         boolean sourceExternal = isStateExternal(sourceState);
         boolean operandExternal = isStateExternal(operandState);
         boolean resultExternal = isStateExternal(resultState);
         if (sourceExternal && operandExternal) {
             return;
         }
-        int sourceIndex = delay(step - 1, transition.getSourceDelay());
-        int operandIndex = delay(step - 1, transition.getOperandDelay());
-        int transitionType = transition.getType();
-        int transitionMode = transition.getMode();
-        double sourceCoefficient = transition.getSourceCoefficient();
-        double operandCoefficient = transition.getOperandCoefficient();
-        double probability = transition.getProbability();
+        int sourceIndex = delay(step - 1, transition.mSourceDelay);
+        int operandIndex = delay(step - 1, transition.mOperandDelay);
+        int transitionType = transition.mType;
+        int transitionMode = transition.mMode;
+        double sourceCoefficient = transition.mSourceCoefficient;
+        double operandCoefficient = transition.mOperandCoefficient;
         BigDecimal value = BigDecimal.ZERO;
         if (transitionType == TransitionType.LINEAR) {
             if (sourceExternal) {
                 BigDecimal operandDensity =
-                        applyCoefficientLinear(getStateBig(operandIndex, step, operandState),
-                                operandCoefficient);
-                value = multiply(operandDensity, decimalValue(probability));
+                        applyCoefficientLinear(getStateBig(operandIndex, operandState),
+                                operandCoefficient, transition.mOperandCoefficientBig);
+                value = multiply(operandDensity, transition.mProbability);
                 if (transitionMode == TransitionMode.RESIDUAL) {
                     value = operandDensity
-                            .subtract(multiply(value, decimalValue(operandCoefficient)));
+                            .subtract(multiply(value, transition.mOperandCoefficientBig));
                 }
             } else if (operandExternal) {
-                value = multiply(applyCoefficientLinear(getStateBig(sourceIndex, step, sourceState),
-                        sourceCoefficient), decimalValue(probability));
+                value = multiply(applyCoefficientLinear(getStateBig(sourceIndex, sourceState),
+                        sourceCoefficient, transition.mSourceCoefficientBig), transition.mProbability);
             } else if (sourceState == operandState) {
                 BigDecimal density =
-                        applyCoefficientLinear(getStateBig(sourceIndex, step, sourceState),
-                                sourceCoefficient + operandCoefficient - 1);
+                        applyCoefficientLinear(getStateBig(sourceIndex, sourceState),
+                                sourceCoefficient + operandCoefficient - 1,
+                                transition.mSameStateCoefficientBig);
                 value = applyTransitionCommon(density, density, transition);
             } else {
                 BigDecimal sourceDensity =
-                        applyCoefficientLinear(getStateBig(sourceIndex, step, sourceState),
-                                sourceCoefficient);
+                        applyCoefficientLinear(getStateBig(sourceIndex, sourceState),
+                                sourceCoefficient, transition.mSourceCoefficientBig);
                 BigDecimal operandDensity =
-                        applyCoefficientLinear(getStateBig(operandIndex, step, operandState),
-                                operandCoefficient);
+                        applyCoefficientLinear(getStateBig(operandIndex, operandState),
+                                operandCoefficient, transition.mOperandCoefficientBig);
                 value = applyTransitionCommon(sourceDensity.min(operandDensity), operandDensity,
                         transition);
             }
@@ -707,45 +1071,44 @@ public class Calculator {
             if (totalCount.compareTo(BigDecimal.ZERO) > 0) {
                 if (sourceExternal) {
                     BigDecimal operandDensity =
-                            applyCoefficientPower(getStateBig(operandIndex, step, operandState),
-                                    operandCoefficient);
+                            applyCoefficientPower(getStateBig(operandIndex, operandState),
+                                    operandCoefficient, transition.mOperandFactorial);
                     value = operandDensity;
                     if (operandCoefficient > 1) {
-                        value = divide(value, power(totalCount, operandCoefficient - 1));
+                        value = divide(value, mTotalCountPowers[transition.mTotalCountPower]);
                     }
                     value = applyTransitionCommon(value, operandDensity, transition);
                 } else if (operandExternal) {
-                    value = applyCoefficientPower(getStateBig(sourceIndex, step, sourceState),
-                            sourceCoefficient);
+                    value = applyCoefficientPower(getStateBig(sourceIndex, sourceState),
+                            sourceCoefficient, transition.mSourceFactorial);
                     if (sourceCoefficient > 1) {
-                        value = divide(value, power(totalCount, sourceCoefficient - 1));
+                        value = divide(value, mTotalCountPowers[transition.mTotalCountPower]);
                     }
-                    value = multiply(value, decimalValue(probability));
+                    value = multiply(value, transition.mProbability);
                 } else if (sourceState == operandState) {
                     BigDecimal density =
-                            applyCoefficientPower(getStateBig(sourceIndex, step, sourceState),
-                                    sourceCoefficient + operandCoefficient);
-                    value = divide(density,
-                            power(totalCount, sourceCoefficient + operandCoefficient - 1));
+                            applyCoefficientPower(getStateBig(sourceIndex, sourceState),
+                                    sourceCoefficient + operandCoefficient, transition.mSumFactorial);
+                    value = divide(density, mTotalCountPowers[transition.mTotalCountPower]);
                     value = applyTransitionCommon(value, density, transition);
                 } else {
                     BigDecimal sourceDensity =
-                            applyCoefficientPower(getStateBig(sourceIndex, step, sourceState),
-                                    sourceCoefficient);
+                            applyCoefficientPower(getStateBig(sourceIndex, sourceState),
+                                    sourceCoefficient, transition.mSourceFactorial);
                     BigDecimal operandDensity =
-                            applyCoefficientPower(getStateBig(operandIndex, step, operandState),
-                                    operandCoefficient);
+                            applyCoefficientPower(getStateBig(operandIndex, operandState),
+                                    operandCoefficient, transition.mOperandFactorial);
                     value = divide(multiply(sourceDensity, operandDensity),
-                            power(totalCount, sourceCoefficient + operandCoefficient - 1));
+                            mTotalCountPowers[transition.mTotalCountPower]);
                     value = applyTransitionCommon(value, operandDensity, transition);
                 }
             }
         } else if (transitionType == TransitionType.BLEND) {
             if (sourceExternal) {
-                BigDecimal operandCount = getStateBig(operandIndex, step, operandState);
+                BigDecimal operandCount = getStateBig(operandIndex, operandState);
                 if (operandCount.compareTo(BigDecimal.ZERO) > 0) {
-                    BigDecimal operandDensity =
-                            applyCoefficientPower(operandCount, operandCoefficient);
+                    BigDecimal operandDensity = applyCoefficientPower(operandCount, operandCoefficient,
+                            transition.mOperandFactorial);
                     value = operandDensity;
                     if (operandCoefficient > 1) {
                         value = divide(value, power(operandCount, operandCoefficient - 1));
@@ -753,54 +1116,224 @@ public class Calculator {
                     value = applyTransitionCommon(value, operandDensity, transition);
                 }
             } else if (operandExternal) {
-                BigDecimal sourceCount = getStateBig(sourceIndex, step, sourceState);
+                BigDecimal sourceCount = getStateBig(sourceIndex, sourceState);
                 if (sourceCount.compareTo(BigDecimal.ZERO) > 0) {
-                    value = applyCoefficientPower(sourceCount, sourceCoefficient);
+                    value = applyCoefficientPower(sourceCount, sourceCoefficient,
+                            transition.mSourceFactorial);
                     if (sourceCoefficient > 1) {
                         value = divide(value, power(sourceCount, sourceCoefficient - 1));
                     }
-                    value = multiply(value, decimalValue(probability));
+                    value = multiply(value, transition.mProbability);
                 }
             } else if (sourceState == operandState) {
-                BigDecimal count = getStateBig(sourceIndex, step, sourceState);
+                BigDecimal count = getStateBig(sourceIndex, sourceState);
                 if (count.compareTo(BigDecimal.ZERO) > 0) {
-                    BigDecimal density =
+                    BigDecimal density = applyCoefficientPower(count,
+                            sourceCoefficient + operandCoefficient, transition.mSumFactorial);
+                    value = divide(density,
+                            power(count, sourceCoefficient + operandCoefficient - 1));
+                    value = applyTransitionCommon(value, density, transition);
+                }
+            } else {
+                BigDecimal sourceCount = getStateBig(sourceIndex, sourceState);
+                BigDecimal operandCount = getStateBig(operandIndex, operandState);
+                BigDecimal sum = sourceCount.add(operandCount);
+                if (sum.compareTo(BigDecimal.ZERO) > 0) {
+                    BigDecimal sourceDensity = applyCoefficientPower(sourceCount, sourceCoefficient,
+                            transition.mSourceFactorial);
+                    BigDecimal operandDensity = applyCoefficientPower(operandCount, operandCoefficient,
+                            transition.mOperandFactorial);
+                    value = divide(multiply(sourceDensity, operandDensity),
+                            power(sum, sourceCoefficient + operandCoefficient - 1));
+                    value = applyTransitionCommon(value, operandDensity, transition);
+                }
+            }
+        }
+        if (!sourceExternal && transitionMode == TransitionMode.REMOVING) {
+            decrementStateBig(step, sourceState,
+                    multiply(value, transition.mSourceCoefficientBig));
+        }
+        if (!operandExternal) {
+            if (transitionMode == TransitionMode.INHIBITOR ||
+                    transitionMode == TransitionMode.RESIDUAL) {
+                decrementStateBig(step, operandState, value);
+            } else if (transitionMode != TransitionMode.RETAINING) {
+                decrementStateBig(step, operandState,
+                        multiply(value, transition.mOperandCoefficientBig));
+            }
+        }
+        if (!resultExternal) {
+            incrementStateBig(step, resultState,
+                    multiply(value, transition.mResultCoefficientBig));
+        }
+    }
+
+    /**
+     *      double-double.
+     *    ,     
+     *
+     * @param step        
+     * @param totalCount      
+     * @param transition 
+     * @return  
+     */
+    private DoubleDouble transitionValueDoubleDoubleAccuracy(int step, DoubleDouble totalCount,
+                                                             Transition transition) {
+        int sourceState = findState(transition.getSourceState());
+        int operandState = findState(transition.getOperandState());
+        boolean sourceExternal = isStateExternal(sourceState);
+        boolean operandExternal = isStateExternal(operandState);
+        if (sourceExternal && operandExternal) {
+            return DoubleDouble.ZERO;
+        }
+        int sourceIndex = delay(step - 1, transition.getSourceDelay());
+        int operandIndex = delay(step - 1, transition.getOperandDelay());
+        int transitionType = transition.getType();
+        int transitionMode = transition.getMode();
+        double sourceCoefficient = transition.getSourceCoefficient();
+        double operandCoefficient = transition.getOperandCoefficient();
+        double probability = transition.getProbability();
+        DoubleDouble value = DoubleDouble.ZERO;
+        if (transitionType == TransitionType.LINEAR) {
+            if (sourceExternal) {
+                DoubleDouble operandDensity =
+                        applyCoefficientLinear(getStateDd(operandIndex, step, operandState),
+                                operandCoefficient);
+                value = operandDensity.multiply(probability);
+                if (transitionMode == TransitionMode.RESIDUAL) {
+                    value = operandDensity.subtract(value.multiply(operandCoefficient));
+                }
+            } else if (operandExternal) {
+                value = applyCoefficientLinear(getStateDd(sourceIndex, step, sourceState),
+                        sourceCoefficient).multiply(probability);
+            } else if (sourceState == operandState) {
+                DoubleDouble density =
+                        applyCoefficientLinear(getStateDd(sourceIndex, step, sourceState),
+                                sourceCoefficient + operandCoefficient - 1);
+                value = applyTransitionCommon(density, density, transition);
+            } else {
+                DoubleDouble sourceDensity =
+                        applyCoefficientLinear(getStateDd(sourceIndex, step, sourceState),
+                                sourceCoefficient);
+                DoubleDouble operandDensity =
+                        applyCoefficientLinear(getStateDd(operandIndex, step, operandState),
+                                operandCoefficient);
+                value = applyTransitionCommon(sourceDensity.min(operandDensity), operandDensity,
+                        transition);
+            }
+        } else if (transitionType == TransitionType.SOLUTE) {
+            if (totalCount.signum() > 0) {
+                if (sourceExternal) {
+                    DoubleDouble operandDensity =
+                            applyCoefficientPower(getStateDd(operandIndex, step, operandState),
+                                    operandCoefficient);
+                    value = operandDensity;
+                    if (operandCoefficient > 1) {
+                        value = value.divide(totalCount.pow(operandCoefficient - 1));
+                    }
+                    value = applyTransitionCommon(value, operandDensity, transition);
+                } else if (operandExternal) {
+                    value = applyCoefficientPower(getStateDd(sourceIndex, step, sourceState),
+                            sourceCoefficient);
+                    if (sourceCoefficient > 1) {
+                        value = value.divide(totalCount.pow(sourceCoefficient - 1));
+                    }
+                    value = value.multiply(probability);
+                } else if (sourceState == operandState) {
+                    DoubleDouble density =
+                            applyCoefficientPower(getStateDd(sourceIndex, step, sourceState),
+                                    sourceCoefficient + operandCoefficient);
+                    value = density.divide(totalCount.pow(sourceCoefficient + operandCoefficient - 1));
+                    value = applyTransitionCommon(value, density, transition);
+                } else {
+                    DoubleDouble sourceDensity =
+                            applyCoefficientPower(getStateDd(sourceIndex, step, sourceState),
+                                    sourceCoefficient);
+                    DoubleDouble operandDensity =
+                            applyCoefficientPower(getStateDd(operandIndex, step, operandState),
+                                    operandCoefficient);
+                    value = sourceDensity.multiply(operandDensity)
+                            .divide(totalCount.pow(sourceCoefficient + operandCoefficient - 1));
+                    value = applyTransitionCommon(value, operandDensity, transition);
+                }
+            }
+        } else if (transitionType == TransitionType.BLEND) {
+            if (sourceExternal) {
+                DoubleDouble operandCount = getStateDd(operandIndex, step, operandState);
+                if (operandCount.signum() > 0) {
+                    DoubleDouble operandDensity = applyCoefficientPower(operandCount, operandCoefficient);
+                    value = operandDensity;
+                    if (operandCoefficient > 1) {
+                        value = value.divide(operandCount.pow(operandCoefficient - 1));
+                    }
+                    value = applyTransitionCommon(value, operandDensity, transition);
+                }
+            } else if (operandExternal) {
+                DoubleDouble sourceCount = getStateDd(sourceIndex, step, sourceState);
+                if (sourceCount.signum() > 0) {
+                    value = applyCoefficientPower(sourceCount, sourceCoefficient);
+                    if (sourceCoefficient > 1) {
+                        value = value.divide(sourceCount.pow(sourceCoefficient - 1));
+                    }
+                    value = value.multiply(probability);
+                }
+            } else if (sourceState == operandState) {
+                DoubleDouble count = getStateDd(sourceIndex, step, sourceState);
+                if (count.signum() > 0) {
+                    DoubleDouble density =
                             applyCoefficientPower(count, sourceCoefficient + operandCoefficient);
-                    value = divide(density,
-                            power(count, sourceCoefficient + operandCoefficient - 1));
+                    value = density.divide(count.pow(sourceCoefficient + operandCoefficient - 1));
                     value = applyTransitionCommon(value, density, transition);
                 }
             } else {
-                BigDecimal sourceCount = getStateBig(sourceIndex, step, sourceState);
-                BigDecimal operandCount = getStateBig(operandIndex, step, operandState);
-                BigDecimal sum = sourceCount.add(operandCount);
-                if (sum.compareTo(BigDecimal.ZERO) > 0) {
-                    BigDecimal sourceDensity =
-                            applyCoefficientPower(sourceCount, sourceCoefficient);
-                    BigDecimal operandDensity =
-                            applyCoefficientPower(operandCount, operandCoefficient);
-                    value = divide(multiply(sourceDensity, operandDensity),
-                            power(sum, sourceCoefficient + operandCoefficient - 1));
+                DoubleDouble sourceCount = getStateDd(sourceIndex, step, sourceState);
+                DoubleDouble operandCount = getStateDd(operandIndex, step, operandState);
+                DoubleDouble sum = sourceCount.add(operandCount);
+                if (sum.signum() > 0) {
+                    DoubleDouble sourceDensity = applyCoefficientPower(sourceCount, sourceCoefficient);
+                    DoubleDouble operandDensity = applyCoefficientPower(operandCount, operandCoefficient);
+                    value = sourceDensity.multiply(operandDensity)
+                            .divide(sum.pow(sourceCoefficient + operandCoefficient - 1));
                     value = applyTransitionCommon(value, operandDensity, transition);
                 }
             }
         }
+        return value;
+    }
+
+    /**
+     *        double-double
+     *
+     * @param step        
+     * @param transition 
+     * @param value       
+     */
+    private void applyTransitionDoubleDoubleAccuracy(int step, Transition transition, DoubleDouble value) {
+        int sourceState = findState(transition.getSourceState());
+        int operandState = findState(transition.getOperandState());
+        int resultState = findState(transition.getResultState());
+        boolean sourceExternal = isStateExternal(sourceState);
+        boolean operandExternal = isStateExternal(operandState);
+        boolean resultExternal = isStateExternal(resultState);
+        if (sourceExternal && operandExternal) {
+            return;
+        }
+        int transitionMode = transition.getMode();
+        double sourceCoefficient = transition.getSourceCoefficient();
+        double operandCoefficient = transition.getOperandCoefficient();
         if (!sourceExternal && transitionMode == TransitionMode.REMOVING) {
-            decrementStateBig(step, step, sourceState,
-                    multiply(value, decimalValue(sourceCoefficient)));
+            decrementStateDd(step, sourceState, value.multiply(sourceCoefficient));
         }
         if (!operandExternal) {
             if (transitionMode == TransitionMode.INHIBITOR ||
                     transitionMode == TransitionMode.RESIDUAL) {
-                decrementStateBig(step, step, operandState, value);
+                decrementStateDd(step, operandState, value);
             } else if (transitionMode != TransitionMode.RETAINING) {
-                decrementStateBig(step, step, operandState,
-                        multiply(value, decimalValue(operandCoefficient)));
+                decrementStateDd(step, operandState, value.multiply(operandCoefficient));
             }
         }
         if (!resultExternal) {
-            incrementStateBig(step, step, resultState,
-                    multiply(value, decimalValue(transition.getResultCoefficient())));
+            incrementStateDd(step, resultState, value.multiply(transition.getResultCoefficient()));
         }
     }
 
@@ -811,10 +1344,18 @@ public class Calculator {
      */
     public Result calculateSync() {
         Result result;
-        if (mTask.isHigherAccuracy()) {
-            result = calculateHigherAccuracy();
-        } else {
-            result = calculateNormalAccuracy();
+        try {
+            resumeFromCheckpoint();
+            if (mTask.isHigherAccuracy()) {
+                result = calculateHigherAccuracy();
+            } else if (isDoubleDoubleAccuracy()) {
+                result = calculateDoubleDoubleAccuracy();
+            } else {
+                result = calculateNormalAccuracy();
+            }
+            deleteCheckpoint();
+        } finally {
+            shutdownExecutor();
         }
         callbackResults(result);
         return result;
@@ -826,15 +1367,130 @@ public class Calculator {
     public void calculateAsync() {
         mThreadFactory.newThread(() -> {
             Result result;
-            if (mTask.isHigherAccuracy()) {
-                result = calculateHigherAccuracy();
-            } else {
-                result = calculateNormalAccuracy();
+            try {
+                resumeFromCheckpoint();
+                if (mTask.isHigherAccuracy()) {
+                    result = calculateHigherAccuracy();
+                } else if (isDoubleDoubleAccuracy()) {
+                    result = calculateDoubleDoubleAccuracy();
+                } else {
+                    result = calculateNormalAccuracy();
+                }
+                deleteCheckpoint();
+            } finally {
+                shutdownExecutor();
             }
             callbackResults(result);
         }).start();
     }
 
+    /**
+     *      ,      .
+     *        ,  
+     *    ,      
+     */
+    private void resumeFromCheckpoint() {
+        if (mCheckpoint == null) {
+            return;
+        }
+        CalculatorCheckpoint.Snapshot snapshot;
+        try {
+            snapshot = mCheckpoint.load(mTask, statesRounded);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (snapshot == null) {
+            return;
+        }
+        for (int i = 0; i < snapshot.states.length; i++) {
+            System.arraycopy(snapshot.states[i], 0, mStates[snapshot.statesFirstStep + i], 0, mStatesCount);
+        }
+        if (snapshot.bigStates != null) {
+            mStatesBig.restore(snapshot.bigStatesFirstStep, snapshot.bigStates);
+        }
+        if (snapshot.ddHigh != null) {
+            for (int i = 0; i < mStatesDdHigh.length; i++) {
+                System.arraycopy(snapshot.ddHigh[i], 0, mStatesDdHigh[i], 0, mStatesCount);
+                System.arraycopy(snapshot.ddLow[i], 0, mStatesDdLow[i], 0, mStatesCount);
+            }
+        }
+        mUnchangedSteps = snapshot.unchangedSteps;
+        isTaskStable = snapshot.taskStable;
+        if (snapshot.parallelWorkers && mTask.isParallel()) {
+            //       ,    
+            mMeasuredSteps = COST_MEASURE_STEPS;
+            mWorkers = new TransitionWorkers(Math.min(mProcessorsCount, mTask.getTransitions().size()),
+                    isDoubleDoubleAccuracy());
+        }
+        mCurStep = snapshot.step;
+    }
+
+    /**
+     *      ,   
+     *
+     * @param step   
+     */
+    private void saveCheckpoint(int step) {
+        if (mCheckpoint == null || !mCheckpoint.isDue(step) || step + 1 >= mTask.getStepsCount()) {
+            return;
+        }
+        CalculatorCheckpoint.Snapshot snapshot = new CalculatorCheckpoint.Snapshot();
+        snapshot.taskFingerprint = CalculatorCheckpoint.fingerprint(mTask);
+        snapshot.step = step + 1;
+        snapshot.unchangedSteps = mUnchangedSteps;
+        snapshot.taskStable = isTaskStable;
+        snapshot.parallelWorkers = mWorkers != null;
+        //       maxDelay + 1  
+        snapshot.statesFirstStep = Math.max(0, step - maxDelay - 1);
+        snapshot.states = new double[step + 1 - snapshot.statesFirstStep][];
+        for (int i = 0; i < snapshot.states.length; i++) {
+            snapshot.states[i] = mStates[snapshot.statesFirstStep + i].clone();
+        }
+        if (mStatesBig != null) {
+            snapshot.bigStatesFirstStep = mStatesBig.getFirstStep();
+            snapshot.bigStates = new BigDecimal[mStatesBig.getLastStep() + 1 - snapshot.bigStatesFirstStep][];
+            for (int i = 0; i < snapshot.bigStates.length; i++) {
+                snapshot.bigStates[i] = mStatesBig.getRow(snapshot.bigStatesFirstStep + i).clone();
+            }
+        }
+        if (mStatesDdHigh != null) {
+            snapshot.ddHigh = mStatesDdHigh;
+            snapshot.ddLow = mStatesDdLow;
+        }
+        try {
+            mCheckpoint.save(snapshot, statesRounded);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     *      
+     */
+    private void deleteCheckpoint() {
+        if (mCheckpoint == null) {
+            return;
+        }
+        try {
+            mCheckpoint.delete();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     *       
+     */
+    private void shutdownExecutor() {
+        if (mWorkers != null) {
+            mWorkers.stop();
+            mWorkers = null;
+        }
+        if (mExecutor != null) {
+            mExecutor.shutdown();
+        }
+    }
+
     /**
      *   
      *
@@ -893,38 +1549,77 @@ public class Calculator {
 
     /**
      *   
+     *
+     * @param factorial   
      */
-    private static BigDecimal applyCoefficientPower(BigDecimal u, double coefficient) {
+    private static BigDecimal applyCoefficientPower(BigDecimal u, double coefficient, BigDecimal factorial) {
         if (coefficient <= 1) {
             return u;
         }
-        return divide(power(u, coefficient), probabilisticFactorialBig(coefficient));
+        return divide(power(u, coefficient), factorial);
     }
 
     /**
      *   
+     *
+     * @param decimalCoefficient    BigDecimal
      */
-    private static BigDecimal applyCoefficientLinear(BigDecimal u, double coefficient) {
+    private static BigDecimal applyCoefficientLinear(BigDecimal u, double coefficient,
+                                                     BigDecimal decimalCoefficient) {
         if (coefficient <= 1) {
             return u;
         }
-        return divide(u, decimalValue(coefficient));
+        return divide(u, decimalCoefficient);
     }
 
     /**
      *    
      */
     private static BigDecimal applyTransitionCommon(BigDecimal u, BigDecimal operandDensity,
-                                                    Transition transition) {
+                                                    HigherAccuracyTransition transition) {
+        int mode = transition.mMode;
+        if (mode == TransitionMode.INHIBITOR) {
+            u = operandDensity.subtract(multiply(u, transition.mOperandCoefficientBig));
+        }
+        u = multiply(u, transition.mProbability);
+        if (mode == TransitionMode.RESIDUAL) {
+            u = operandDensity.subtract(multiply(u, transition.mOperandCoefficientBig));
+        }
+        return u;
+    }
+
+    /**
+     *   
+     */
+    private static DoubleDouble applyCoefficientPower(DoubleDouble u, double coefficient) {
+        if (coefficient <= 1) {
+            return u;
+        }
+        return u.pow(coefficient).divide(probabilisticFactorialDd(coefficient));
+    }
+
+    /**
+     *   
+     */
+    private static DoubleDouble applyCoefficientLinear(DoubleDouble u, double coefficient) {
+        if (coefficient <= 1) {
+            return u;
+        }
+        return u.divide(coefficient);
+    }
+
+    /**
+     *    
+     */
+    private static DoubleDouble applyTransitionCommon(DoubleDouble u, DoubleDouble operandDensity,
+                                                      Transition transition) {
         int mode = transition.getMode();
         if (mode == TransitionMode.INHIBITOR) {
-            u = operandDensity
-                    .subtract(multiply(u, decimalValue(transition.getOperandCoefficient())));
+            u = operandDensity.subtract(u.multiply(transition.getOperandCoefficient()));
         }
-        u = multiply(u, decimalValue(transition.getProbability()));
+        u = u.multiply(transition.getProbability());
         if (mode == TransitionMode.RESIDUAL) {
-            u = operandDensity
-                    .subtract(multiply(u, decimalValue(transition.getOperandCoefficient())));
+            u = operandDensity.subtract(u.multiply(transition.getOperandCoefficient()));
         }
         return u;
     }
@@ -1105,6 +1800,30 @@ public class Calculator {
         return result.setScale(scale, RoundingMode.HALF_EVEN);
     }
 
+    /**
+     *     double-double.
+     *
+     * @param u  
+     * @return 
+     */
+    public static DoubleDouble probabilisticFactorialDd(double u) {
+        DoubleDouble result = DoubleDouble.ONE;
+        double r = u % 1;
+        if (r > 0) {
+            double v = Math.floor(u);
+            for (double i = 2; i <= v; i++) {
+                result = result.multiply(i);
+            }
+            result = result.multiply(DoubleDouble.ONE.add(-r))
+                    .add(result.multiply(v + 1).multiply(r));
+        } else {
+            for (double i = 2; i <= u; i++) {
+                result = result.multiply(i);
+            }
+        }
+        return result;
+    }
+
     private static BigDecimal probabilisticFactorialBig(double u) {
         return probabilisticFactorialBig(u, HIGHER_ACCURACY_SCALE);
     }
@@ -1298,6 +2017,27 @@ public class Calculator {
                 threadFactory).calculateSync();
     }
 
+    /**
+     *  ()    .
+     *       ,    ,
+     *      
+     *
+     * @param task                    
+     * @param prepareResultsTableData       
+     * @param prepareResultsChartData       
+     * @param threadFactory                 
+     * @param checkpoint               
+     * @return  
+     */
+    public static Result calculateSync(Task task, boolean prepareResultsTableData,
+                                       boolean prepareResultsChartData, ThreadFactory threadFactory,
+                                       CalculatorCheckpoint checkpoint) {
+        Calculator calculator = new Calculator(task, prepareResultsTableData, prepareResultsChartData, null, null,
+                threadFactory);
+        calculator.mCheckpoint = checkpoint;
+        return calculator.calculateSync();
+    }
+
     /**
      *  ()
      *
@@ -1345,30 +2085,42 @@ public class Calculator {
     }
 
 
-    private void calculateTaskAnalyser(TaskAnalyser taskAnalyser, CompleteCallback completeCallback) {
+    void calculateTaskAnalyser(TaskAnalyser taskAnalyser, CompleteCallback completeCallback) {
         boolean higherAccuracy = mTask.isHigherAccuracy();
-        if (higherAccuracy)
-            taskAnalyser.updateHigherAccuracyStatesCount(mStatesBig);
-        taskAnalyser.setCalculatedStates(statesRounded);
+        if (higherAccuracy) {
+            mStatesBig.ensureCapacity(taskAnalyser.getHigherAccuracyStepsCount());
+            taskAnalyser.setHigherAccuracyStates(mStatesBig);
+        }
+        taskAnalyser.addCalculatedStep(statesRounded[0]);
+
+        try {
+            calculateTaskAnalyserSteps(taskAnalyser);
+        } finally {
+            shutdownExecutor();
+        }
+
+        taskAnalyser.update(mCurStep);
+        completeCallback.onComplete(null);
+    }
 
+
+    private void calculateTaskAnalyserSteps(TaskAnalyser taskAnalyser) {
+        boolean higherAccuracy = mTask.isHigherAccuracy();
         do {
             int steps = Math.min(mTask.getStepsCount() - mCurStep, 100);
+            int fromStep = mCurStep;
             if (higherAccuracy) {
-                for (int i = 0; i < steps; i++) {
-                    calculateHigherAccuracySteps(steps);
-                    taskAnalyser.updateHigherAccuracyStatesCount(mStatesBig);
-                    //mStatesBig[0][0].setScale(1000);
-                }
+                calculateHigherAccuracySteps(steps);
             }
             else {
                 calculateNormalAccuracySteps(steps);
             }
+            for (int step = fromStep; step < mCurStep; step++) {
+                taskAnalyser.addCalculatedStep(statesRounded[step]);
+            }
 
             taskAnalyser.update(mCurStep);
         } while (!taskAnalyser.canPredictDominantStates() && mCurStep < mTask.getStepsCount());
-
-        taskAnalyser.update(mCurStep);
-        completeCallback.onComplete(null);
     }
 
 
@@ -1378,62 +2130,10 @@ public class Calculator {
      */
     public void calculateNormalAccuracySteps(int steps) {
         callbackProgress(mCurStep);
-        List<Transition> transitions = mTask.getTransitions();
         int stepsCount = Math.min(mCurStep + steps, mTask.getStepsCount());
-
-        if (mTask.isParallel()) {
-            List<Future<?>> futures = new ArrayList<>(transitions.size());
-            for (int step = mCurStep; step < stepsCount; step++) {
-                copyPreviousStep(step);
-                double totalCount = getTotalCount(step);
-
-                for (Transition transition : transitions) {
-                    futures.add(mExecutor
-                            .submit(new TransitionActionNormalAccuracy(step, totalCount,
-                                    transition)));
-                }
-
-                for (Future<?> future : futures) {
-                    try {
-                        future.get();
-                    } catch (InterruptedException | ExecutionException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-                futures.clear();
-
-                for (int stateId = 0; stateId < mStateIds.length; stateId++) {
-                    checkStateNegativeness(step, stateId);
-                }
-
-                if (scale != null) {
-                    roundStates(step, scale);
-                }
-
-                callbackProgress(step);
-
-                mCurStep++;
-            }
-        } else {
-            for (int step = mCurStep; step < stepsCount; step++) {
-                copyPreviousStep(step);
-                double totalCount = getTotalCount(step);
-
-                for (Transition transition : transitions) {
-                    transitionNormalAccuracy(step, totalCount, transition);
-                }
-                for (int stateId = 0; stateId < mStateIds.length; stateId++) {
-                    checkStateNegativeness(step, stateId);
-                }
-
-                if (scale != null) {
-                    roundStates(step, scale);
-                }
-
-                callbackProgress(step);
-
-                mCurStep++;
-            }
+        for (int step = mCurStep; step < stepsCount; step++) {
+            calculateStepNormalAccuracy(step);
+            mCurStep++;
         }
     }
 
@@ -1449,9 +2149,10 @@ public class Calculator {
         if (mTask.isParallel()) {
             List<Future<?>> futures = new ArrayList<>(transitions.size());
             for (int step = mCurStep; step < stepsCount; step++) {
-                copyPreviousStepBig(step, step);
-                BigDecimal totalCount = getTotalCountBig(step, step);
-                for (Transition transition : transitions) {
+                copyPreviousStepBig(step);
+                BigDecimal totalCount = getTotalCountBig(step);
+                calculateTotalCountPowers(totalCount);
+                for (HigherAccuracyTransition transition : mTransitionsBig) {
                     futures.add(mExecutor
                             .submit(new TransitionActionHigherAccuracy(step, totalCount,
                                     transition)));
@@ -1465,11 +2166,11 @@ public class Calculator {
                 }
                 futures.clear();
                 for (int stateId = 0; stateId < mStateIds.length; stateId++) {
-                    checkStateNegativenessBig(step, step, stateId);
+                    checkStateNegativenessBig(step, stateId);
                 }
 
                 if (scale != null) {
-                    roundLastBigStates(scale);
+                    roundLastBigStates(step, scale);
                     roundStates(step, scale);
                 }
 
@@ -1478,14 +2179,15 @@ public class Calculator {
             }
         } else {
             for (int step = mCurStep; step < stepsCount; step++) {
-                copyPreviousStepBig(step, step);
-                BigDecimal totalCount = getTotalCountBig(step, step);
-                for (Transition transition : transitions) {
+                copyPreviousStepBig(step);
+                BigDecimal totalCount = getTotalCountBig(step);
+                calculateTotalCountPowers(totalCount);
+                for (HigherAccuracyTransition transition : mTransitionsBig) {
                     transitionHigherAccuracy(step, totalCount, transition);
                 }
 
                 if (scale != null) {
-                    roundLastBigStates(scale);
+                    roundLastBigStates(step, scale);
                     roundStates(step, scale);
                 }
 
@@ -1498,27 +2200,200 @@ public class Calculator {
 
 
     /**
-     * ,       
+     *     .
+     *          .
+     *    ,     .
+     *     ,     
+     *   ,      .
      */
-    private class TransitionActionNormalAccuracy implements Runnable {
-        private final int mStep;
-        private final double mTotalCount;
-        private final Transition mTransition;
+    private class TransitionWorkers {
+        private final Transition[] mTransitions;
+        private final int[] mChunkOffsets; //   
+        private final double[] mValues; //     
+        private final DoubleDouble[] mValuesDd; //     double-double
+        private final CyclicBarrier mBarrier;
+        private final AtomicInteger mNextChunk = new AtomicInteger();
+        private int mStep; //     
+        private double mTotalCount;
+        private DoubleDouble mTotalCountDd;
+        private volatile boolean mStopped;
+        private volatile Throwable mError;
+
+        /**
+         *    ,   :   
+         *  double-double   
+         *
+         * @param workersCount   
+         * @param doubleDouble      double-double
+         */
+        private TransitionWorkers(int workersCount, boolean doubleDouble) {
+            mTransitions = mTask.getTransitions().toArray(new Transition[0]);
+            int chunksCount = Math.min(mTransitions.length, workersCount * CHUNKS_PER_WORKER);
+            mChunkOffsets = new int[chunksCount + 1];
+            for (int i = 0; i <= chunksCount; i++) {
+                mChunkOffsets[i] = (int) ((long) mTransitions.length * i / chunksCount);
+            }
+            mValues = doubleDouble ? null : new double[mTransitions.length];
+            mValuesDd = doubleDouble ? new DoubleDouble[mTransitions.length] : null;
+            mBarrier = new CyclicBarrier(workersCount + 1);
+            //    ,      
+            for (int i = 0; i < workersCount; i++) {
+                mThreadFactory.newThread(this::work).start();
+            }
+        }
 
         /**
+         *           
+         *
          * @param step        
          * @param totalCount      
-         * @param transition 
          */
-        private TransitionActionNormalAccuracy(int step, double totalCount, Transition transition) {
+        private void calculateStep(int step, double totalCount) {
             mStep = step;
             mTotalCount = totalCount;
-            mTransition = transition;
+            runStep();
+            mWorkersSteps++;
+
+            double[] states = mStates[step];
+            for (int i = 0; i < mTransitions.length; i++) {
+                applyTransitionNormalAccuracy(states, mTransitions[i], mValues[i]);
+            }
         }
 
-        @Override
-        public void run() {
-            transitionNormalAccuracy(mStep, mTotalCount, mTransition);
+        /**
+         *       double-double    
+         *
+         * @param step        
+         * @param totalCount      
+         */
+        private void calculateStepDd(int step, DoubleDouble totalCount) {
+            mStep = step;
+            mTotalCountDd = totalCount;
+            runStep();
+            mWorkersSteps++;
+
+            for (int i = 0; i < mTransitions.length; i++) {
+                applyTransitionDoubleDoubleAccuracy(step, mTransitions[i], mValuesDd[i]);
+            }
+        }
+
+        /**
+         *         
+         */
+        private void runStep() {
+            mNextChunk.set(0);
+            awaitBarrier(); //  
+            awaitBarrier(); //   
+            Throwable error = mError;
+            if (error != null) {
+                throw new RuntimeException(error);
+            }
+        }
+
+        /**
+         *   
+         */
+        private void stop() {
+            mStopped = true;
+            if (!mBarrier.isBroken()) {
+                awaitBarrier();
+            }
+        }
+
+        private void work() {
+            try {
+                while (true) {
+                    mBarrier.await();
+                    if (mStopped) {
+                        return;
+                    }
+                    try {
+                        int chunk;
+                        while ((chunk = mNextChunk.getAndIncrement()) < mChunkOffsets.length - 1) {
+                            for (int i = mChunkOffsets[chunk]; i < mChunkOffsets[chunk + 1]; i++) {
+                                if (mValuesDd != null) {
+                                    mValuesDd[i] = transitionValueDoubleDoubleAccuracy(mStep, mTotalCountDd,
+                                            mTransitions[i]);
+                                } else {
+                                    mValues[i] = transitionValueNormalAccuracy(mStep, mTotalCount,
+                                            mTransitions[i]);
+                                }
+                            }
+                        }
+                    } catch (Throwable e) {
+                        mError = e;
+                    }
+                    mBarrier.await();
+                }
+            } catch (InterruptedException | BrokenBarrierException ignored) {
+            }
+        }
+
+        private void awaitBarrier() {
+            try {
+                mBarrier.await();
+            } catch (InterruptedException | BrokenBarrierException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     *        .
+     *      ,  BigDecimal 
+     * ,      ,     
+     */
+    private static final class HigherAccuracyTransition {
+        private final int mSourceState; //  
+        private final int mOperandState;
+        private final int mResultState;
+        private final int mSourceDelay;
+        private final int mOperandDelay;
+        private final int mType;
+        private final int mMode;
+        private final double mSourceCoefficient;
+        private final double mOperandCoefficient;
+        private final BigDecimal mProbability;
+        private final BigDecimal mSourceCoefficientBig;
+        private final BigDecimal mOperandCoefficientBig;
+        private final BigDecimal mResultCoefficientBig;
+        private final BigDecimal mSameStateCoefficientBig; // Ks + Ko - 1     
+        private final BigDecimal mSourceFactorial; //   (  > 1)
+        private final BigDecimal mOperandFactorial;
+        private final BigDecimal mSumFactorial; //  Ks + Ko
+        private final int mTotalCountPower; //       mTotalCountPowers
+
+        /**
+         * @param transition      
+         * @param sourceState       
+         * @param operandState      
+         * @param resultState       
+         * @param totalCountPower       -1
+         */
+        private HigherAccuracyTransition(Transition transition, int sourceState, int operandState,
+                                         int resultState, int totalCountPower) {
+            mSourceState = sourceState;
+            mOperandState = operandState;
+            mResultState = resultState;
+            mSourceDelay = transition.getSourceDelay();
+            mOperandDelay = transition.getOperandDelay();
+            mType = transition.getType();
+            mMode = transition.getMode();
+            mSourceCoefficient = transition.getSourceCoefficient();
+            mOperandCoefficient = transition.getOperandCoefficient();
+            mProbability = decimalValue(transition.getProbability());
+            mSourceCoefficientBig = decimalValue(mSourceCoefficient);
+            mOperandCoefficientBig = decimalValue(mOperandCoefficient);
+            mResultCoefficientBig = decimalValue(transition.getResultCoefficient());
+            mSameStateCoefficientBig = decimalValue(mSourceCoefficient + mOperandCoefficient - 1);
+            mSourceFactorial = factorialIfNeeded(mSourceCoefficient);
+            mOperandFactorial = factorialIfNeeded(mOperandCoefficient);
+            mSumFactorial = factorialIfNeeded(mSourceCoefficient + mOperandCoefficient);
+            mTotalCountPower = totalCountPower;
+        }
+
+        private static BigDecimal factorialIfNeeded(double coefficient) {
+            return coefficient > 1 ? probabilisticFactorialBig(coefficient) : null;
         }
     }
 
@@ -1528,7 +2403,7 @@ public class Calculator {
     private class TransitionActionHigherAccuracy implements Runnable {
         private final int mStep;
         private final BigDecimal mTotalCount;
-        private final Transition mTransition;
+        private final HigherAccuracyTransition mTransition;
 
         /**
          * @param step        
@@ -1536,7 +2411,7 @@ public class Calculator {
          * @param transition 
          */
         private TransitionActionHigherAccuracy(int step, BigDecimal totalCount,
-                                               Transition transition) {
+                                               HigherAccuracyTransition transition) {
             mStep = step;
             mTotalCount = totalCount;
             mTransition = transition;
@@ -0,0 +1,343 @@
+package population.component;
+
+
+import population.model.State;
+import population.model.Task;
+import population.model.Transition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Periodic checkpoints of {@link Calculator}, so long calculation can be resumed after restart.
+ *
+ * Checkpoint consists of two files:
+ * <ul>
+ *     <li>{@code path} - compact binary snapshot of the calculator state needed to calculate
+ *     next steps: last rows used by delays, higher accuracy window, stability flags and task
+ *     fingerprint. It is replaced atomically, so it is always complete.</li>
+ *     <li>{@code path.rows} - rounded states of all calculated steps, rows are only appended,
+ *     so result of resumed calculation is the same as of uninterrupted one. Rows after the
+ *     snapshot step (written before crash) are ignored and overwritten.</li>
+ * </ul>
+ */
+public class CalculatorCheckpoint {
+    private static final int MAGIC = 0x50435043;
+    private static final int VERSION = 1;
+    private static final String ROWS_SUFFIX = ".rows";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final Path path;
+    private final Path rowsPath;
+    /** checkpoint is saved each interval steps */
+    private final int interval;
+    /** count of rows in rows file which are confirmed by snapshot */
+    private int savedRows = 0;
+
+
+    /**
+     * @param path snapshot file, rows are written to the file with ".rows" suffix
+     * @param interval steps count between checkpoints
+     */
+    public CalculatorCheckpoint(Path path, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        this.path = path;
+        this.rowsPath = path.resolveSibling(path.getFileName() + ROWS_SUFFIX);
+        this.interval = interval;
+    }
+
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * @param step calculated step
+     * @return true if checkpoint should be saved after step
+     */
+    public boolean isDue(int step) {
+        return step % interval == 0;
+    }
+
+
+    /**
+     * save snapshot: append rounded rows of steps calculated after previous checkpoint,
+     * then atomically replace snapshot file
+     *
+     * @param snapshot calculator state
+     * @param roundedRows rounded states of all steps, rows [0, snapshot.step) are saved
+     */
+    public void save(Snapshot snapshot, double[][] roundedRows) throws IOException {
+        int statesCount = roundedRows[0].length;
+        try (FileChannel channel = FileChannel.open(rowsPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long position = (long) savedRows * statesCount * Double.BYTES;
+            channel.truncate(position);
+            channel.position(position);
+            ByteBuffer buffer = ByteBuffer.allocate(Math.max(1, statesCount) * Double.BYTES * 256)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            for (int step = savedRows; step < snapshot.step; step++) {
+                if (buffer.remaining() < statesCount * Double.BYTES) {
+                    writeFully(channel, buffer);
+                }
+                for (double value : roundedRows[step]) {
+                    buffer.putDouble(value);
+                }
+            }
+            writeFully(channel, buffer);
+            channel.force(false);
+        }
+
+        Path tmpPath = path.resolveSibling(path.getFileName() + TMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(tmpPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            snapshot.write(out);
+            out.flush();
+            channel.force(false);
+        }
+        Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        savedRows = snapshot.step;
+    }
+
+
+    /**
+     * load last saved snapshot of task
+     *
+     * @param task task
+     * @param roundedRows array where rounded states of steps [0, snapshot.step) are read
+     * @return snapshot, null if there is no checkpoint of this task
+     */
+    public Snapshot load(Task task, double[][] roundedRows) throws IOException {
+        if (!Files.exists(path) || !Files.exists(rowsPath)) {
+            return null;
+        }
+        Snapshot snapshot;
+        try (InputStream stream = Files.newInputStream(path)) {
+            snapshot = Snapshot.read(new DataInputStream(new BufferedInputStream(stream)));
+        }
+        int statesCount = roundedRows[0].length;
+        if (snapshot.taskFingerprint != fingerprint(task)
+                || snapshot.step > roundedRows.length
+                || Files.size(rowsPath) < (long) snapshot.step * statesCount * Double.BYTES) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(rowsPath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.max(1, statesCount) * Double.BYTES * 256)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            for (int step = 0; step < snapshot.step; step++) {
+                if (buffer.remaining() < statesCount * Double.BYTES) {
+                    buffer.compact();
+                    while (buffer.position() < statesCount * Double.BYTES) {
+                        if (channel.read(buffer) < 0) {
+                            throw new EOFException("Unexpected end of " + rowsPath);
+                        }
+                    }
+                    buffer.flip();
+                }
+                for (int i = 0; i < statesCount; i++) {
+                    roundedRows[step][i] = buffer.getDouble();
+                }
+            }
+        }
+        savedRows = snapshot.step;
+        return snapshot;
+    }
+
+
+    /**
+     * delete checkpoint files (after calculation is finished)
+     */
+    public void delete() throws IOException {
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(rowsPath);
+        savedRows = 0;
+    }
+
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+
+    /**
+     * @param task task
+     * @return hash of all task parameters which affect calculation result
+     */
+    public static long fingerprint(Task task) {
+        long hash = 0xCBF29CE484222325L;
+        hash = mix(hash, task.getStepsCount());
+        hash = mix(hash, task.getStartPoint());
+        hash = mix(hash, task.isHigherAccuracy() ? 1 : 0);
+        hash = mix(hash, task.isDoubleDoubleAccuracy() ? 1 : 0);
+        hash = mix(hash, task.isAllowNegative() ? 1 : 0);
+        hash = mix(hash, task.getStates().size());
+        for (State state : task.getStates()) {
+            hash = mix(hash, state.getId());
+            hash = mix(hash, Double.doubleToLongBits(state.getCount()));
+        }
+        hash = mix(hash, task.getTransitions().size());
+        for (Transition transition : task.getTransitions()) {
+            hash = mix(hash, transition.getSourceState());
+            hash = mix(hash, Double.doubleToLongBits(transition.getSourceCoefficient()));
+            hash = mix(hash, transition.getSourceDelay());
+            hash = mix(hash, transition.getOperandState());
+            hash = mix(hash, Double.doubleToLongBits(transition.getOperandCoefficient()));
+            hash = mix(hash, transition.getOperandDelay());
+            hash = mix(hash, transition.getResultState());
+            hash = mix(hash, Double.doubleToLongBits(transition.getResultCoefficient()));
+            hash = mix(hash, Double.doubleToLongBits(transition.getProbability()));
+            hash = mix(hash, transition.getType());
+            hash = mix(hash, transition.getMode());
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value;
+        hash *= 0x100000001B3L;
+        return hash ^ (hash >>> 29);
+    }
+
+
+
+    /**
+     * Calculator state after calculation of steps [0, step)
+     */
+    public static class Snapshot {
+        long taskFingerprint;
+        /** first not calculated step */
+        int step;
+        /** count of last unchanged rounded steps */
+        int unchangedSteps;
+        boolean taskStable;
+        /** are transitions calculated by parallel workers (normal accuracy) */
+        boolean parallelWorkers;
+        /** first step of states rows */
+        int statesFirstStep;
+        /** [step - statesFirstStep][stateInd] last states rows */
+        double[][] states;
+        /** first step of higher accuracy rows */
+        int bigStatesFirstStep;
+        /** [step - bigStatesFirstStep][stateInd] higher accuracy window rows, null if not used */
+        BigDecimal[][] bigStates;
+        /** double-double rows as they are stored in calculator, null if not used */
+        double[][] ddHigh;
+        double[][] ddLow;
+
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(taskFingerprint);
+            out.writeInt(step);
+            out.writeInt(unchangedSteps);
+            out.writeBoolean(taskStable);
+            out.writeBoolean(parallelWorkers);
+            out.writeInt(statesFirstStep);
+            writeRows(out, states);
+            out.writeInt(bigStatesFirstStep);
+            out.writeBoolean(bigStates != null);
+            if (bigStates != null) {
+                out.writeInt(bigStates.length);
+                out.writeInt(bigStates[0].length);
+                for (BigDecimal[] row : bigStates) {
+                    for (BigDecimal value : row) {
+                        byte[] unscaled = value.unscaledValue().toByteArray();
+                        out.writeInt(value.scale());
+                        out.writeInt(unscaled.length);
+                        out.write(unscaled);
+                    }
+                }
+            }
+            out.writeBoolean(ddHigh != null);
+            if (ddHigh != null) {
+                writeRows(out, ddHigh);
+                writeRows(out, ddLow);
+            }
+        }
+
+        private static Snapshot read(DataInputStream in) throws IOException {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a calculator checkpoint");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version);
+            }
+            Snapshot snapshot = new Snapshot();
+            snapshot.taskFingerprint = in.readLong();
+            snapshot.step = in.readInt();
+            snapshot.unchangedSteps = in.readInt();
+            snapshot.taskStable = in.readBoolean();
+            snapshot.parallelWorkers = in.readBoolean();
+            snapshot.statesFirstStep = in.readInt();
+            snapshot.states = readRows(in);
+            snapshot.bigStatesFirstStep = in.readInt();
+            if (in.readBoolean()) {
+                BigDecimal[][] rows = new BigDecimal[in.readInt()][in.readInt()];
+                for (BigDecimal[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        int scale = in.readInt();
+                        byte[] unscaled = new byte[in.readInt()];
+                        in.readFully(unscaled);
+                        row[i] = new BigDecimal(new BigInteger(unscaled), scale);
+                    }
+                }
+                snapshot.bigStates = rows;
+            }
+            if (in.readBoolean()) {
+                snapshot.ddHigh = readRows(in);
+                snapshot.ddLow = readRows(in);
+            }
+            return snapshot;
+        }
+
+        private static void writeRows(DataOutputStream out, double[][] rows) throws IOException {
+            out.writeInt(rows.length);
+            out.writeInt(rows.length == 0 ? 0 : rows[0].length);
+            for (double[] row : rows) {
+                for (double value : row) {
+                    out.writeLong(Double.doubleToRawLongBits(value));
+                }
+            }
+        }
+
+        private static double[][] readRows(DataInputStream in) throws IOException {
+            double[][] rows = new double[in.readInt()][in.readInt()];
+            for (double[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = Double.longBitsToDouble(in.readLong());
+                }
+            }
+            return rows;
+        }
+    }
+}
@@ -17,7 +17,9 @@
  */
 package population.component;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
@@ -30,6 +32,7 @@ import javafx.scene.chart.XYChart;
 import javafx.scene.control.Label;
 import javafx.scene.shape.Line;
 import javafx.scene.shape.Path;
+import population.model.Calculator.ResultStore;
 import population.util.Resources.StringResource;
 
 public class ChartSeries {
@@ -39,17 +42,40 @@ public class ChartSeries {
     private static final String[] STROKE_THICKNESSES = {"2", "3", "4"};
     private static final String[] DASH_ARRAYS = {null, "4 8", "8 8", "16 8"};
     private final XYChart.Series<Number, Number> mData;
+    private final ResultStore mStore;
+    private final int mStateIndex;
     private final int mStartPoint;
     private final IntegerProperty mColor;
     private final IntegerProperty mDash;
     private final IntegerProperty mThickness;
     private final BooleanProperty mVisibility;
+    private MinMaxPyramid mEnvelope; // Огибающая для графика (создаётся при первом отображении)
     private Path mLinePath;
     private Label mLegendLabel;
 
     public ChartSeries(XYChart.Series<Number, Number> data, int startPoint, int color, int dash,
             int thickness, boolean visible) {
+        this(data, null, -1, startPoint, color, dash, thickness, visible);
+    }
+
+    /**
+     * Серия, точки которой читаются из хранилища результата по мере отображения
+     *
+     * @param name       имя серии
+     * @param store      хранилище результата
+     * @param stateIndex индекс состояния в хранилище
+     */
+    public ChartSeries(String name, ResultStore store, int stateIndex, int startPoint, int color,
+            int dash, int thickness, boolean visible) {
+        this(new XYChart.Series<>(name, FXCollections.observableArrayList()), store, stateIndex,
+                startPoint, color, dash, thickness, visible);
+    }
+
+    private ChartSeries(XYChart.Series<Number, Number> data, ResultStore store, int stateIndex,
+            int startPoint, int color, int dash, int thickness, boolean visible) {
         mData = data;
+        mStore = store;
+        mStateIndex = stateIndex;
         mStartPoint = startPoint;
         mVisibility = new SimpleBooleanProperty(visible);
         mColor = new SimpleIntegerProperty(color);
@@ -99,6 +125,65 @@ public class ChartSeries {
         return mData;
     }
 
+    /**
+     * @return хранилище результата (null, если точки серии заданы заранее)
+     */
+    public ResultStore getStore() {
+        return mStore;
+    }
+
+    /**
+     * @return количество точек серии
+     */
+    public int getSize() {
+        return mStore == null ? mData.getData().size() : mStore.getStepsCount();
+    }
+
+    /**
+     * @param localIndex индекс точки относительно начала отсчёта серии
+     * @return точка серии
+     */
+    public XYChart.Data<Number, Number> getDataPoint(int localIndex) {
+        if (mStore == null) {
+            return mData.getData().get(localIndex);
+        }
+        return new XYChart.Data<>(localIndex + mStartPoint, mStore.get(localIndex, mStateIndex));
+    }
+
+    /**
+     * Точки серии для отображения на графике: все точки, если их не больше двух на столбец
+     * пикселей, иначе минимум и максимум каждого столбца ({@link MinMaxPyramid})
+     *
+     * @param fromLocalIndex первая точка (включительно) относительно начала отсчёта серии
+     * @param toLocalIndex   последняя точка (не включительно) относительно начала отсчёта серии
+     * @param columns        ширина графика в пикселях
+     * @return точки
+     */
+    public List<XYChart.Data<Number, Number>> getDisplayData(int fromLocalIndex, int toLocalIndex,
+            int columns) {
+        if (columns <= 0) {
+            return new ArrayList<>();
+        }
+        MinMaxPyramid envelope = mEnvelope;
+        if (envelope == null) {
+            envelope = new MinMaxPyramid(getSize(), mStore == null ? (from, to, dest, offset) -> {
+                ObservableList<XYChart.Data<Number, Number>> data = mData.getData();
+                for (int i = from; i < to; i++) {
+                    dest[offset++] = data.get(i).getYValue().doubleValue();
+                }
+            } : (from, to, dest, offset) -> mStore.read(mStateIndex, from, to, dest, offset));
+            mEnvelope = envelope;
+        }
+        int[] steps = new int[MinMaxPyramid.maxPointsCount(columns)];
+        double[] values = new double[steps.length];
+        int count = envelope.envelope(fromLocalIndex, toLocalIndex, columns, steps, values);
+        List<XYChart.Data<Number, Number>> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(new XYChart.Data<>(steps[i] + mStartPoint, values[i]));
+        }
+        return points;
+    }
+
     public String getName() {
         return mData.getName();
     }
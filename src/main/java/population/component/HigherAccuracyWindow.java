@@ -0,0 +1,132 @@
+package population.component;
+
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+
+/**
+ * States count of last calculated steps in higher accuracy mode.
+ *
+ * Rows are stored in circular buffer: row of step is {@code rows[step % capacity]}, so
+ * moving to next step doesn't shift or copy rows, it only copies previous step to the
+ * row of the oldest one. Calculator changes only row of last step, other rows can be
+ * read by {@link TaskAnalyser} without copying (BigDecimal values are immutable).
+ */
+public class HigherAccuracyWindow {
+    /** [step % capacity][stateInd] */
+    private BigDecimal[][] rows;
+    /** first stored step */
+    private int firstStep = 0;
+    /** last calculated (or calculating) step */
+    private int lastStep = 0;
+
+
+    /**
+     * @param capacity max count of stored steps
+     * @param initial states count on step 0
+     */
+    public HigherAccuracyWindow(int capacity, BigDecimal[] initial) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Window capacity must be positive");
+        }
+        this.rows = new BigDecimal[capacity][];
+        for (int i = 0; i < capacity; i++) {
+            this.rows[i] = new BigDecimal[initial.length];
+        }
+        System.arraycopy(initial, 0, this.rows[0], 0, initial.length);
+    }
+
+
+    public int getCapacity() {
+        return rows.length;
+    }
+
+    public int getLastStep() {
+        return lastStep;
+    }
+
+    /**
+     * @return first step which is still stored
+     */
+    public int getFirstStep() {
+        return firstStep;
+    }
+
+    /**
+     * @param step step in [{@link #getFirstStep()}, {@link #getLastStep()}]
+     * @return states count of step; row of last step is changed by calculator
+     */
+    public BigDecimal[] getRow(int step) {
+        if (step < firstStep || step > lastStep) {
+            throw new IndexOutOfBoundsException("Step " + step + " is out of window ["
+                    + firstStep + ", " + lastStep + "]");
+        }
+        return rows[step % rows.length];
+    }
+
+    /**
+     * start next step: its states count is equal to previous step
+     *
+     * @return row of new last step
+     */
+    public BigDecimal[] next() {
+        BigDecimal[] previous = rows[lastStep % rows.length];
+        lastStep++;
+        if (lastStep - firstStep == rows.length) {
+            firstStep++;
+        }
+        BigDecimal[] row = rows[lastStep % rows.length];
+        System.arraycopy(previous, 0, row, 0, row.length);
+        return row;
+    }
+
+    /**
+     * increase capacity, stored steps are kept
+     *
+     * @param capacity min capacity
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= rows.length) {
+            return;
+        }
+        BigDecimal[][] newRows = new BigDecimal[capacity][];
+        for (int step = firstStep; step <= lastStep; step++) {
+            newRows[step % capacity] = rows[step % rows.length];
+        }
+        int statesCount = rows[0].length;
+        for (int i = 0; i < capacity; i++) {
+            if (newRows[i] == null) {
+                newRows[i] = new BigDecimal[statesCount];
+            }
+        }
+        rows = newRows;
+    }
+
+    /**
+     * replace stored steps (resume from checkpoint)
+     *
+     * @param firstStep first step of rows
+     * @param stepsRows [step - firstStep][stateInd] states count of steps, count of rows mustn't
+     *                  exceed capacity
+     */
+    public void restore(int firstStep, BigDecimal[][] stepsRows) {
+        if (stepsRows.length < 1 || stepsRows.length > rows.length) {
+            throw new IllegalArgumentException("Rows count must be in [1, " + rows.length + "]");
+        }
+        this.firstStep = firstStep;
+        this.lastStep = firstStep + stepsRows.length - 1;
+        for (int i = 0; i < stepsRows.length; i++) {
+            System.arraycopy(stepsRows[i], 0, rows[(firstStep + i) % rows.length], 0, stepsRows[i].length);
+        }
+    }
+
+    /**
+     * release stored values
+     */
+    public void clear() {
+        for (BigDecimal[] row : rows) {
+            Arrays.fill(row, null);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package population.component;
+
+
+/**
+ * Min/max envelope of long series for charts.
+ *
+ * Chart can't show more than a couple of points per pixel column, so long ranges are reduced
+ * to min and max of each column. Unlike evenly spaced steps, it keeps peaks of oscillating series.
+ * Min and max of aligned blocks of {@link #BASE_BLOCK} * 2^level steps are built once, on the first
+ * reduced range, so envelope of any range (e.g. after zoom) costs O(columns).
+ */
+public class MinMaxPyramid {
+    /** steps in block of the lowest level */
+    public static final int BASE_BLOCK = 64;
+    private static final int READ_CHUNK = BASE_BLOCK * 1024;
+
+    protected final int size;
+    protected final Source source;
+    /** [level][block] min of block of BASE_BLOCK << level steps, the last block can be shorter */
+    protected double[][] mins;
+    /** [level][block] max of block of BASE_BLOCK << level steps, the last block can be shorter */
+    protected double[][] maxs;
+
+    /** accumulator of {@link #rangeMinMax} */
+    private double rangeMin;
+    private double rangeMax;
+
+
+    /**
+     * @param size steps count of series
+     * @param source values of series
+     */
+    public MinMaxPyramid(int size, Source source) {
+        this.size = size;
+        this.source = source;
+    }
+
+
+    /**
+     * @param columns count of columns
+     * @return size of arrays enough for {@link #envelope} of any range
+     */
+    public static int maxPointsCount(int columns) {
+        return 6 * Math.max(columns, 1) + 4;
+    }
+
+    /**
+     * Envelope of steps range. If range has not more than two steps per column, all its steps
+     * are returned, otherwise min and max of each column (in order which doesn't make spikes
+     * on monotone series).
+     *
+     * @param from first step (inclusive)
+     * @param to last step (exclusive)
+     * @param columns count of columns (pixels)
+     * @param steps destination of points steps, at least {@link #maxPointsCount} length
+     * @param values destination of points values, at least {@link #maxPointsCount} length
+     * @return points count
+     */
+    public int envelope(int from, int to, int columns, int[] steps, double[] values) {
+        from = Math.max(from, 0);
+        to = Math.min(to, this.size);
+        columns = Math.max(columns, 1);
+        int length = to - from;
+        if (length <= 0) {
+            return 0;
+        }
+
+        if (length <= 2 * columns) {
+            this.source.read(from, to, values, 0);
+            for (int i = 0; i < length; i++) {
+                steps[i] = from + i;
+            }
+            return length;
+        }
+
+        int span = length / columns;
+        if (span < BASE_BLOCK) {
+            return this.rawEnvelope(from, to, columns, steps, values);
+        }
+
+        this.build();
+        int level = 31 - Integer.numberOfLeadingZeros(span / BASE_BLOCK);
+        int block = BASE_BLOCK << level;
+        double[] levelMins = this.mins[level];
+        double[] levelMaxs = this.maxs[level];
+        // full blocks of level are [firstBlock, lastBlock), partial ones at edges are calculated
+        int firstBlock = (from + block - 1) / block;
+        int lastBlock = to / block;
+        int headEnd = Math.min(firstBlock * block, to);
+        int count = 0;
+        if (from < headEnd) {
+            this.rangeMinMax(from, headEnd);
+            count = this.addPoints(from, headEnd, this.rangeMin, this.rangeMax, steps, values, count);
+        }
+        for (int i = firstBlock; i < lastBlock; i++) {
+            count = this.addPoints(i * block, (i + 1) * block, levelMins[i], levelMaxs[i], steps, values, count);
+        }
+        int tailStart = Math.max(lastBlock * block, headEnd);
+        if (tailStart < to) {
+            this.rangeMinMax(tailStart, to);
+            count = this.addPoints(tailStart, to, this.rangeMin, this.rangeMax, steps, values, count);
+        }
+        return count;
+    }
+
+
+    /**
+     * envelope of range with less than {@link #BASE_BLOCK} steps per column, read directly from source
+     */
+    protected int rawEnvelope(int from, int to, int columns, int[] steps, double[] values) {
+        int length = to - from;
+        double[] buffer = new double[length];
+        this.source.read(from, to, buffer, 0);
+        int count = 0;
+        int columnStart = 0;
+        for (int column = 1; column <= columns; column++) {
+            int columnEnd = (int) ((long) length * column / columns);
+            double min = buffer[columnStart];
+            double max = min;
+            for (int i = columnStart + 1; i < columnEnd; i++) {
+                min = Math.min(min, buffer[i]);
+                max = Math.max(max, buffer[i]);
+            }
+            count = this.addPoints(from + columnStart, from + columnEnd, min, max, steps, values, count);
+            columnStart = columnEnd;
+        }
+        return count;
+    }
+
+    /**
+     * add points of column: one point if min is equal to max, otherwise min and max,
+     * the one closer to previous point is the first
+     */
+    protected int addPoints(int from, int to, double min, double max, int[] steps, double[] values, int count) {
+        if (min == max || Double.isNaN(min)) {
+            steps[count] = from;
+            values[count] = min;
+            return count + 1;
+        }
+        boolean isMaxFirst = count > 0 && Math.abs(values[count - 1] - max) < Math.abs(values[count - 1] - min);
+        steps[count] = from;
+        values[count] = isMaxFirst ? max : min;
+        steps[count + 1] = to - 1;
+        values[count + 1] = isMaxFirst ? min : max;
+        return count + 2;
+    }
+
+    /**
+     * min and max of any range to {@link #rangeMin}, {@link #rangeMax}: unaligned edges are read
+     * from source, the rest is covered by the largest blocks of pyramid
+     */
+    protected void rangeMinMax(int from, int to) {
+        this.rangeMin = Double.POSITIVE_INFINITY;
+        this.rangeMax = Double.NEGATIVE_INFINITY;
+        int alignedFrom = Math.min((from + BASE_BLOCK - 1) / BASE_BLOCK * BASE_BLOCK, to);
+        int alignedTo = Math.max(to / BASE_BLOCK * BASE_BLOCK, alignedFrom);
+        this.addRawRange(from, alignedFrom);
+        this.addRawRange(alignedTo, to);
+
+        int low = alignedFrom / BASE_BLOCK;
+        int high = alignedTo / BASE_BLOCK;
+        for (int level = 0; low < high; level++) {
+            if ((low & 1) != 0) {
+                this.addBlock(level, low++);
+            }
+            if ((high & 1) != 0) {
+                this.addBlock(level, --high);
+            }
+            low >>= 1;
+            high >>= 1;
+        }
+    }
+
+    private void addRawRange(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        double[] buffer = new double[to - from];
+        this.source.read(from, to, buffer, 0);
+        for (double value : buffer) {
+            this.rangeMin = Math.min(this.rangeMin, value);
+            this.rangeMax = Math.max(this.rangeMax, value);
+        }
+    }
+
+    private void addBlock(int level, int block) {
+        this.rangeMin = Math.min(this.rangeMin, this.mins[level][block]);
+        this.rangeMax = Math.max(this.rangeMax, this.maxs[level][block]);
+    }
+
+    /**
+     * build all levels if they aren't built yet
+     */
+    protected void build() {
+        if (this.mins != null) {
+            return;
+        }
+        int blocksCount = (this.size + BASE_BLOCK - 1) / BASE_BLOCK;
+        double[] levelMins = new double[blocksCount];
+        double[] levelMaxs = new double[blocksCount];
+        double[] buffer = new double[Math.min(READ_CHUNK, this.size)];
+        for (int chunk = 0; chunk < this.size; chunk += READ_CHUNK) {
+            int chunkEnd = Math.min(chunk + READ_CHUNK, this.size);
+            this.source.read(chunk, chunkEnd, buffer, 0);
+            for (int blockStart = chunk; blockStart < chunkEnd; blockStart += BASE_BLOCK) {
+                int blockEnd = Math.min(blockStart + BASE_BLOCK, chunkEnd);
+                double min = buffer[blockStart - chunk];
+                double max = min;
+                for (int i = blockStart + 1 - chunk; i < blockEnd - chunk; i++) {
+                    min = Math.min(min, buffer[i]);
+                    max = Math.max(max, buffer[i]);
+                }
+                levelMins[blockStart / BASE_BLOCK] = min;
+                levelMaxs[blockStart / BASE_BLOCK] = max;
+            }
+        }
+
+        int levelsCount = 1;
+        for (int count = blocksCount; count > 1; count = (count + 1) / 2) {
+            levelsCount++;
+        }
+        double[][] mins = new double[levelsCount][];
+        double[][] maxs = new double[levelsCount][];
+        mins[0] = levelMins;
+        maxs[0] = levelMaxs;
+        for (int level = 1; level < levelsCount; level++) {
+            double[] lowerMins = mins[level - 1];
+            double[] lowerMaxs = maxs[level - 1];
+            int count = (lowerMins.length + 1) / 2;
+            mins[level] = new double[count];
+            maxs[level] = new double[count];
+            for (int i = 0; i < count; i++) {
+                int right = Math.min(2 * i + 1, lowerMins.length - 1);
+                mins[level][i] = Math.min(lowerMins[2 * i], lowerMins[right]);
+                maxs[level][i] = Math.max(lowerMaxs[2 * i], lowerMaxs[right]);
+            }
+        }
+        this.mins = mins;
+        this.maxs = maxs;
+    }
+
+
+    public interface Source {
+        /**
+         * read values of steps [from, to) to dest
+         *
+         * @param from first step (inclusive)
+         * @param to last step (exclusive)
+         * @param dest destination array
+         * @param offset position in dest for from value
+         */
+        void read(int from, int to, double[] dest, int offset);
+    }
+}
@@ -36,8 +36,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import static population.controller.ParametricPortraitTabController.*;
@@ -81,6 +79,9 @@ public class ParametricPortrait extends GridPane {
 
     private int scale = 3;
 
+    /** engine of current calculation */
+    private volatile ParametricSweep sweep;
+
     /** states which must be considered in parametric portrait */
     private List<State> statesListShownOnParametricPortrait;
 
@@ -559,85 +560,46 @@ public class ParametricPortrait extends GridPane {
                 .map(ParametricPortraitTabController.StateSettings::getState)
                 .collect(Collectors.toList());
 
-        if (commonTask.isParallel())
-            calculateConcurrent();
-        else
-            calculateSequential();
+        calculateCells(commonTask.isParallel() ? Runtime.getRuntime().availableProcessors() : 1);
     }
 
 
     /**
-     * calculate each taskCells in portrait sequential
+     * calculate each taskCell in portrait on sweep engine
+     * @param parallelism count of cells calculated at the same time
      */
-    private void calculateSequential() {
-        double taskProgress[] = {0};        // progress of current calculated task
-        final int tasksCnt = stepsCnt.get(0) * stepsCnt.get(1);
-
-        for (int col = 0; col < stepsCnt.get(0); col++)
-            for (int row = 0; row < stepsCnt.get(1); row++) {
-//                col = 9; row = 0;
-                TaskCell taskCell = cellContainer.getTaskCells().get(row).get(col);
-                taskCell.setTask(getTask(new int[]{col, stepsCnt.get(1) - row - 1}));
-                taskCell.calculateTask(
-                        null,
-                        progress -> Platform.runLater(() -> {
-                                primaryController.mCalculationProgressBar.setProgress(
-                                        primaryController.mCalculationProgressBar.getProgress()
-                                                - taskProgress[0] + progress / tasksCnt);
-                                taskProgress[0] = progress / tasksCnt;
-                        }),
-                        result -> Platform.runLater(() -> {
-                                primaryController.mCalculationProgressBar.setProgress(
-                                        primaryController.mCalculationProgressBar.getProgress()
-                                                - taskProgress[0] + 1. / tasksCnt);
-                                taskProgress[0] = 0;
-                        })
-                );
-            }
+    private void calculateCells(int parallelism) {
+        final int rowsCnt = stepsCnt.get(1);
+        final int tasksCnt = stepsCnt.get(0) * rowsCnt;
+        ParametricSweep sweep = new ParametricSweep(parallelism);
+        this.sweep = sweep;
+
+        sweep.run(
+                tasksCnt,
+                (index, progressCallback) -> {
+                    int col = index / rowsCnt;
+                    int row = index % rowsCnt;
+                    TaskCell taskCell = cellContainer.getTaskCells().get(row).get(col);
+                    Task task = getTask(new int[]{col, rowsCnt - row - 1});
+                    // cells are already calculated in parallel, so each cell is calculated sequentially
+                    task.setParallel(false);
+                    taskCell.setTask(task);
+                    taskCell.calculateTask(null, progressCallback, result -> {});
+                },
+                Platform::runLater,
+                progress -> primaryController.mCalculationProgressBar.setProgress(progress)
+        );
     }
 
+
     /**
-     * calculate each taskCell concurrent
+     * cancel portrait calculation. Cells which are not calculated yet stay empty
      */
-    private void calculateConcurrent() {
-        final double[] threadProgress = {0};
-        final int tasksCnt = stepsCnt.get(0) * stepsCnt.get(1);
-        List<Callable<Void>> tasksCalculations = new ArrayList<>();
-
-        for (int col = 0; col < stepsCnt.get(0); col++)
-            for (int row = 0; row < stepsCnt.get(1); row++) {
-                final int finalRow = row, finalCol = col;
-
-                tasksCalculations.add(() -> {
-                    TaskCell taskCell = cellContainer.getTaskCells().get(finalRow).get(finalCol);
-                    taskCell.setTask(getTask(new int[]{finalCol, stepsCnt.get(1) - finalRow - 1}));
-                    taskCell.calculateTask(
-                            null,
-                            progress -> Platform.runLater(() -> {
-                                    primaryController.mCalculationProgressBar.setProgress(
-                                            primaryController.mCalculationProgressBar.getProgress()
-                                                    - threadProgress[0] + progress / tasksCnt);
-                                    threadProgress[0] = progress / tasksCnt;
-                            }),
-                            result -> Platform.runLater(() ->
-                                primaryController.mCalculationProgressBar.setProgress(
-                                        primaryController.mCalculationProgressBar.getProgress()
-                                                - threadProgress[0] + 1. / tasksCnt)
-                            )
-                    );
-
-                    return null;
-                });
-            }
-
-
-        // await for all Threads finished
-        try {
-            Executors.newCachedThreadPool().invokeAll(tasksCalculations);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+    public void cancelCalculation() {
+        ParametricSweep sweep = this.sweep;
+        if (sweep != null) {
+            sweep.cancel();
         }
-
     }
 
 
@@ -0,0 +1,193 @@
+package population.component;
+
+import population.util.ProgressReporter;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Calculates cells of parameter sweep (e.g. parametric portrait) on bounded
+ * work-stealing pool.
+ *
+ * Pool has fixed parallelism, so large grids don't start thread per cell.
+ * Progress of cells is aggregated by {@link ProgressReporter} and passed to listener on given
+ * executor not more often than {@link #PROGRESS_UPDATES_PER_SECOND} times per second,
+ * only the latest progress waits in executor queue.
+ * Sweep is single-use: pool is shut down when {@link #run} returns.
+ */
+public class ParametricSweep {
+    /** max count of progress notifications per second */
+    public static final int PROGRESS_UPDATES_PER_SECOND = 10;
+    /** work units of one cell */
+    private static final long CELL_UNITS = 1000;
+
+    private final ForkJoinPool pool;
+    private volatile boolean cancelled = false;
+
+
+    /**
+     * sweep with parallelism equal to available processors count
+     */
+    public ParametricSweep() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism max count of cells calculated at the same time
+     */
+    public ParametricSweep(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+
+    /**
+     * calculate all cells and wait for them, progress is passed to callback on worker thread
+     *
+     * @param cellsCount cells count
+     * @param cell cell calculation
+     * @param progressCallback aggregated progress of all cells (0 - 1), can be null
+     * @return true if all cells are calculated, false if sweep was cancelled
+     */
+    public boolean run(int cellsCount, Cell cell, Calculator.ProgressCallback progressCallback) {
+        return run(cellsCount, cell, Runnable::run, progressCallback);
+    }
+
+    /**
+     * calculate all cells and wait for them
+     *
+     * @param cellsCount cells count
+     * @param cell cell calculation
+     * @param progressExecutor executor of progress callback (e.g. Platform::runLater)
+     * @param progressCallback aggregated progress of all cells (0 - 1), can be null
+     * @return true if all cells are calculated, false if sweep was cancelled
+     */
+    public boolean run(int cellsCount, Cell cell, Executor progressExecutor,
+                       Calculator.ProgressCallback progressCallback) {
+        Progress progress = new Progress(cellsCount, progressExecutor, progressCallback);
+        try {
+            if (cellsCount > 0) {
+                pool.invoke(new CellsAction(0, cellsCount, cell, progress));
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        if (!cancelled) {
+            progress.complete();
+        }
+        return !cancelled;
+    }
+
+
+    /**
+     * Cancel sweep. Cells which are not started will be skipped,
+     * running cells are finished.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * wait for running cells after {@link #cancel()}
+     *
+     * @param timeout timeout in ms
+     * @return true if all cells are finished
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout) throws InterruptedException {
+        return pool.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+    }
+
+
+
+    public interface Cell {
+        /**
+         * calculate cell
+         *
+         * @param index cell index
+         * @param progressCallback progress of cell calculation (0 - 1)
+         */
+        void calculate(int index, Calculator.ProgressCallback progressCallback);
+    }
+
+
+    /**
+     * splits cells range until single cell, so idle workers steal halves of busy ones
+     */
+    private class CellsAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final Cell cell;
+        private final Progress progress;
+
+        CellsAction(int from, int to, Cell cell, Progress progress) {
+            this.from = from;
+            this.to = to;
+            this.cell = cell;
+            this.progress = progress;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled) {
+                return;
+            }
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CellsAction(from, middle, cell, progress),
+                        new CellsAction(middle, to, cell, progress));
+                return;
+            }
+
+            try {
+                cell.calculate(from, value -> progress.update(from, value));
+            } catch (RuntimeException e) {
+                // failed cell must not stop other cells
+                e.printStackTrace();
+            }
+            progress.update(from, 1);
+        }
+    }
+
+
+    /**
+     * converts progress of cells to work units of reporter
+     */
+    private static class Progress {
+        /** last units of each cell, written only by worker calculating the cell */
+        private final long[] cells;
+        private final ProgressReporter reporter;
+
+        Progress(int cellsCount, Executor executor, Calculator.ProgressCallback listener) {
+            this.cells = new long[cellsCount];
+            this.reporter = listener == null ? null : new ProgressReporter(cellsCount * CELL_UNITS,
+                    PROGRESS_UPDATES_PER_SECOND, executor, listener::onProgressUpdate);
+        }
+
+        void update(int cell, double value) {
+            if (reporter == null) {
+                return;
+            }
+            long units = (long) (Math.min(1, value) * CELL_UNITS);
+            if (units != cells[cell]) {
+                reporter.add(units - cells[cell]);
+                cells[cell] = units;
+            }
+        }
+
+        void complete() {
+            if (reporter != null) {
+                reporter.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package population.component;
+
+
+/**
+ * States count of last calculated steps with normal accuracy.
+ *
+ * Steps are added one by one and stored in circular buffer: row of step is
+ * {@code rows[step % capacity]}, so only last {@link #getCapacity()} steps are kept
+ * and memory doesn't depend on steps count.
+ */
+public class StatesWindow {
+    /** [step % capacity][stateInd] */
+    private final double[][] rows;
+    /** count of added steps */
+    private int stepsCount = 0;
+
+
+    /**
+     * @param capacity max count of stored steps
+     * @param statesCount states count in step
+     */
+    public StatesWindow(int capacity, int statesCount) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Window capacity must be positive");
+        }
+        this.rows = new double[capacity][statesCount];
+    }
+
+
+    public int getCapacity() {
+        return rows.length;
+    }
+
+    /**
+     * @return count of added steps
+     */
+    public int getStepsCount() {
+        return stepsCount;
+    }
+
+    /**
+     * @return first step which is still stored
+     */
+    public int getFirstStep() {
+        return Math.max(0, stepsCount - rows.length);
+    }
+
+    /**
+     * @return last added step, -1 if there are no steps
+     */
+    public int getLastStep() {
+        return stepsCount - 1;
+    }
+
+    /**
+     * @param step step in [{@link #getFirstStep()}, {@link #getLastStep()}]
+     * @param state state index
+     * @return state count on step
+     */
+    public double get(int step, int state) {
+        return getRow(step)[state];
+    }
+
+    /**
+     * @param step step in [{@link #getFirstStep()}, {@link #getLastStep()}]
+     * @return states count on step, it mustn't be changed
+     */
+    public double[] getRow(int step) {
+        if (step < getFirstStep() || step >= stepsCount) {
+            throw new IndexOutOfBoundsException("Step " + step + " is out of window ["
+                    + getFirstStep() + ", " + getLastStep() + "]");
+        }
+        return rows[step % rows.length];
+    }
+
+    /**
+     * add next step, the oldest step is removed if window is full
+     *
+     * @param states states count of step, it is copied
+     */
+    public void add(double[] states) {
+        System.arraycopy(states, 0, rows[stepsCount % rows.length], 0, rows[0].length);
+        stepsCount++;
+    }
+}
@@ -23,27 +23,51 @@ public class TaskAnalyser {
     /* used to determine the same states in case of computation error */
     private final static double LAST_STEPS_PERCENTAGE = 0.2;
     private final static double EPS = 0.01;
+    /** max count of last steps which are kept for stability and cycles detection */
+    private final static int MAX_HISTORY_STEPS = 1024;
+    /** base of polynomial hash of steps fingerprints in cycle detection */
+    private final static long CYCLE_HASH_BASE = 1_000_003;
 
     /** task for analyse */
     private Task task;
-    /** state's count after modeling [step][stateInd] */
-    private double[][] states;
-    /** state's count after modeling higher accuracy[step][stateInd] */
-    private LinkedList<BigDecimal[]> bdStates = new LinkedList<>();
+    /** state's count of last steps after modeling */
+    private StatesWindow states;
+    /** [stateInd] signum of last state count change */
+    private int[] lastTrends;
+    /** [stateInd] first step from which state count changes with the same trend */
+    private int[] trendStartSteps;
+    /** state's count of last steps after modeling higher accuracy, shared with calculator */
+    private HigherAccuracyWindow bdStates;
     /** is calculating with higher accuracy */
     private boolean higherAccuracy;
     /** steps count which was modeled */
     public int calculatedStepsCnt;
-    /** states vertexes in graph */
-    private Set<StateVertex> statesSet;
-    /** transitions vertexes in graph */
-    private Set<TransitionVertex> transitionsSet;
+    /** state id -> state index in task states */
+    private Map<Integer, Integer> stateIndexes;
+    /** max delay in transitions + 1 */
+    private int maxDelay;
+    /** states vertexes in graph by state index, external vertex is the last */
+    private StateVertex[] statesSet;
+    /** transitions vertexes in graph by transition index */
+    private TransitionVertex[] transitionsSet;
+    /** [stateVertex] transitions which can change state count */
+    private Adjacency stateTransitions;
+    /** [stateVertex] transitions which increase state count */
+    private Adjacency increaseTransitions;
+    /** [stateVertex] transitions which decrease state count */
+    private Adjacency decreaseTransitions;
+    /** [transitionVertex] states on which transition depends */
+    private Adjacency transitionDependencies;
     private State externalState;
     private StateVertex externalVertex;
-    /** state vertexes whose stable was calculated */
-    private Set<StateVertex> calculatedStateVertexes;
-    /** transition vertexes whose stable was calculated */
-    private Set<TransitionVertex> calculatedTransitionsVertexes;
+    /** [stateVertex] is stable of state vertex calculated on current update */
+    private boolean[] calculatedStateVertexes;
+    /** [transitionVertex] is stable of transition vertex calculated on current update */
+    private boolean[] calculatedTransitionsVertexes;
+    /** [stateVertex] state trends calculated after graph update, null if not calculated */
+    private StateTrend[] stateTrends;
+    /** is graph updated, so state trends can't be changed until next update */
+    private boolean isGraphUpdated = false;
     /** states for which calculateParametricPortrait predicted value */
     private List<State> analysedStatesList;
     /** the reason of calculateParametricPortrait was interrupted */
@@ -85,12 +109,20 @@ public class TaskAnalyser {
 
     public TaskAnalyser(Task task){
         analysedStatesList = new ArrayList<>();
-        calculatedStateVertexes = new HashSet<>();
-        calculatedTransitionsVertexes = new HashSet<>();
         calculationFinishedReason = null;
         higherAccuracy = task.isHigherAccuracy();
         this.task = task;
 
+        stateIndexes = new HashMap<>();
+        for (int i = 0; i < task.getStates().size(); i++) {
+            stateIndexes.putIfAbsent(task.getStates().get(i).getId(), i);
+        }
+        maxDelay = task.getTransitions().stream()
+                .mapToInt(x -> Math.max(x.getSourceDelay(), x.getOperandDelay()))
+                //.map(x -> x.getSourceDelay() + x.getOperandDelay())
+                .max()
+                .orElse(0) + 1;
+
         clearCalculatedData();
     }
 
@@ -117,19 +149,53 @@ public class TaskAnalyser {
      */
     public void clearCalculatedData() {
         states = null;
-        bdStates = new LinkedList<>();
-        calculatedStateVertexes.clear();
-        calculatedTransitionsVertexes.clear();
+        lastTrends = null;
+        trendStartSteps = null;
+        bdStates = null;
+        clearCalculatedVertexes();
+    }
+
+
+    /**
+     * clear vertexes data memoized on graph update
+     */
+    private void clearCalculatedVertexes() {
+        if (statesSet == null)
+            return;
+        Arrays.fill(calculatedStateVertexes, false);
+        Arrays.fill(calculatedTransitionsVertexes, false);
+        Arrays.fill(stateTrends, null);
+        isGraphUpdated = false;
     }
     
 
     /**
-     * set pointer to states count calculated data
-     * @param states states
+     * add states count of next calculated step (call it for each step from 0).
+     * Only last steps and states trends are kept
+     * @param statesCount states count on step
      */
-    public void setCalculatedStates(double[][] states) {
-        this.states = states;
-        updateStates(0);
+    public void addCalculatedStep(double[] statesCount) {
+        int statesSize = statesCount.length;
+        if (states == null) {
+            int capacity = Math.max(Math.min(task.getStepsCount(), MAX_HISTORY_STEPS), maxDelay + 2);
+            states = new StatesWindow(capacity, statesSize);
+            lastTrends = new int[statesSize];
+            trendStartSteps = new int[statesSize];
+            Arrays.fill(trendStartSteps, Integer.MAX_VALUE);
+        }
+
+        int step = states.getStepsCount();
+        if (step > 0) {
+            double[] previous = states.getRow(step - 1);
+            for (int ind = 0; ind < statesSize; ind++) {
+                int trend = (int)Math.signum(statesCount[ind] - previous[ind]);
+                if (step == 1 || trend != lastTrends[ind]) {
+                    lastTrends[ind] = trend;
+                    trendStartSteps[ind] = step;
+                }
+            }
+        }
+        states.add(statesCount);
     }
 
 
@@ -138,11 +204,7 @@ public class TaskAnalyser {
      * @return max delay in transitionSet
      */
     private int getMaxDelay() {
-        return transitionsSet.stream()
-                .map(x -> Math.max(x.getTransition().getSourceDelay(), x.getTransition().getOperandDelay()))
-                //.map(x -> x.getTransition().getSourceDelay() + x.getTransition().getOperandDelay())
-                .max(Integer::compareTo)
-                .orElse(0) + 1;
+        return maxDelay;
     }
 
 
@@ -158,7 +220,7 @@ public class TaskAnalyser {
      * false otherwise. If no information about state return false
      */
     public boolean isStateStable(State state) {
-        int ind = task.getStates().indexOf(state);
+        int ind = getTaskStateIndex(state);
         if (ind == -1)
             return false;
 
@@ -168,17 +230,17 @@ public class TaskAnalyser {
             return false;
 
         if (higherAccuracy) {
-            BigDecimal val = bdStates.getLast()[ind];
+            BigDecimal val = getLastHigherAccuracyStates()[ind];
             BigDecimal precision = new BigDecimal(this.stablePrecision);
-            for (BigDecimal[] bd: bdStates) {
-                if (bd[ind].subtract(val).abs().compareTo(precision) > 0)
+            for (int step = getHigherAccuracyFirstStep(); step <= bdStates.getLastStep(); step++) {
+                if (bdStates.getRow(step)[ind].subtract(val).abs().compareTo(precision) > 0)
                     return false;
             }
         }
         else {
-            double val = states[calculatedStepsCnt - 1][ind];
+            double val = states.get(calculatedStepsCnt - 1, ind);
             for (int i = Math.max(0, calculatedStepsCnt - maxDelay - 1); i < calculatedStepsCnt; i++) {
-                if (Math.abs(states[i][ind] - val) > this.stablePrecision)
+                if (Math.abs(states.get(i, ind) - val) > this.stablePrecision)
                     return false;
             }
         }
@@ -191,6 +253,7 @@ public class TaskAnalyser {
      * remain in stateList only states which
      * @param stateList states
      * @param steps last steps count on which states can be considered as the same
+     *              (limited by steps kept in states window)
      */
     private void remainDominantsWithEps(List<State> stateList, int steps) {
         if (!canPredictDominantStates()) {
@@ -199,6 +262,7 @@ public class TaskAnalyser {
         }
 
         List<Integer> indexes = getStatesIndexes(stateList);
+        int firstStep = Math.max(calculatedStepsCnt - steps, states.getFirstStep());
 
         // remain only biggest state and all states in EPS neighbourhood for
         // prevent calculation error in the same graphics
@@ -211,10 +275,8 @@ public class TaskAnalyser {
                 boolean ind1Lower = true;
                 boolean near = true;
                 if (higherAccuracy) {
-                    int j = bdStates.size();
-                    ListIterator<BigDecimal[]> iterator = bdStates.listIterator(bdStates.size());
-                    while ( iterator.hasPrevious() && (j-- >= 0) ) {
-                        BigDecimal[] bd = iterator.previous();
+                    for (int step = bdStates.getLastStep(); step >= getHigherAccuracyFirstStep(); step--) {
+                        BigDecimal[] bd = bdStates.getRow(step);
                         if (bd[ind1].compareTo(bd[ind2]) > 0) {
                             ind1Lower = false;
                             break;
@@ -225,12 +287,14 @@ public class TaskAnalyser {
                     }
                 }
                 else {
-                    for (int step = calculatedStepsCnt - steps; step < calculatedStepsCnt; step++) {
-                        if (states[step][ind1] > states[step][ind2]) {
+                    for (int step = calculatedStepsCnt - 1; step >= firstStep; step--) {
+                        double count1 = states.get(step, ind1);
+                        double count2 = states.get(step, ind2);
+                        if (count1 > count2) {
                             ind1Lower = false;
                             break;
                         }
-                        if (near && Math.abs(states[step][ind1] - states[step][ind2]) / Math.max(states[step][ind1], states[step][ind2]) > EPS) {
+                        if (near && Math.abs(count1 - count2) / Math.max(count1, count2) > EPS) {
                             near = false;
                         }
                     }
@@ -257,25 +321,49 @@ public class TaskAnalyser {
 
 
     /**
+     * Find cycle period p such that last 2p + 2 steps of states are periodic.
+     * Each step is fingerprinted by states counts, periods are checked from the shortest
+     * by comparing polynomial hashes of fingerprints of last p + 2 steps and the same
+     * steps shifted by p in O(1), and found candidate is confirmed by single linear check
+     * of states counts (in case of hash collision).
      *
-     * @param stateIndex index of state in states
-     * @return steps in state cycle period, -1 if there is no cycle
+     * @param states states which must be considered in cycle
+     * @return steps count in task cycle period, -1 if task non-cyclic
      */
-    private int getStateCycleSteps(int stateIndex) {
-        double cnt = this.states[calculatedStepsCnt - 1][stateIndex];
-
-        for (int step = calculatedStepsCnt - 2; step >= calculatedStepsCnt / 2 + 1; step--) {
-            if (this.states[step][stateIndex] == cnt) {
-                boolean isCyclic = true;
-                for (int i = calculatedStepsCnt - step; i >= 0; i--) {
-                    if (states[calculatedStepsCnt - 1 - i][stateIndex] != states[step - i][stateIndex]) {
-                        isCyclic = false;
-                        break;
-                    }
-                }
-                if (isCyclic) {
-                    return calculatedStepsCnt - step - 1;
-                }
+    int getTaskCycleSteps(List<State> states) {
+        List<Integer> indexes = getStatesIndexes(states);
+        if (indexes.isEmpty())
+            return -1;
+
+        // period must be repeated twice in last kept steps
+        int firstStep = Math.max(calculatedStepsCnt / 2 + 1, (calculatedStepsCnt + this.states.getFirstStep() + 1) / 2);
+        int maxCycleSteps = calculatedStepsCnt - 1 - firstStep;
+        if (maxCycleSteps < 1)
+            return -1;
+
+        // prefix hashes of steps fingerprints from fromStep
+        int fromStep = calculatedStepsCnt - 2 * maxCycleSteps - 2;
+        int stepsCnt = calculatedStepsCnt - fromStep;
+        long[] prefixHashes = new long[stepsCnt + 1];
+        long[] powers = new long[stepsCnt + 1];
+        powers[0] = 1;
+        for (int i = 0; i < stepsCnt; i++) {
+            prefixHashes[i + 1] = prefixHashes[i] * CYCLE_HASH_BASE + getStepFingerprint(fromStep + i, indexes);
+            powers[i + 1] = powers[i] * CYCLE_HASH_BASE;
+        }
+
+        for (int cycleSteps = 1; cycleSteps <= maxCycleSteps; cycleSteps++) {
+            int length = cycleSteps + 2;
+            int last = stepsCnt - length;
+            int previous = last - cycleSteps;
+            if (prefixHashes[last + length] - prefixHashes[last] * powers[length]
+                    != prefixHashes[previous + length] - prefixHashes[previous] * powers[length])
+                continue;
+
+            if (isCycle(cycleSteps, length, indexes)) {
+                if (calculatedStepsCnt - cycleSteps <= getMaxDelay())
+                    return -1;
+                return cycleSteps;
             }
         }
 
@@ -284,31 +372,35 @@ public class TaskAnalyser {
 
 
     /**
-     *
-     * @param states states which must be considered in cycle
-     * @return steps count in task cycle period, -1 if task non-cyclic
+     * @param step step
+     * @param indexes states indexes
+     * @return hash of states counts on step, equal counts have equal hashes
      */
-    private int getTaskCycleSteps(List<State> states) {
-        List<Integer> indexes = getStatesIndexes(states);
-        int maxCycleSteps = -1;
+    private long getStepFingerprint(int step, List<Integer> indexes) {
+        long hash = 0;
         for (int ind: indexes) {
-            int steps = getStateCycleSteps(ind);
-            if (steps == -1)
-                return -1;
-            maxCycleSteps = Math.max(maxCycleSteps, steps);
+            // + 0.0 turns negative zero to zero, as == does
+            hash = (hash + Double.doubleToLongBits(states.get(step, ind) + 0.0)) * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 32;
         }
+        return hash;
+    }
 
-        if (maxCycleSteps == -1 || calculatedStepsCnt - maxCycleSteps <= getMaxDelay())
-            return -1;
 
-        for (int step = calculatedStepsCnt - 1; step >= calculatedStepsCnt - maxCycleSteps; step--) {
+    /**
+     * @param cycleSteps cycle period
+     * @param length count of last steps which must be repeated
+     * @param indexes states indexes
+     * @return true if states counts in last length steps are equal to counts cycleSteps before
+     */
+    private boolean isCycle(int cycleSteps, int length, List<Integer> indexes) {
+        for (int step = calculatedStepsCnt - length; step < calculatedStepsCnt; step++) {
             for (int ind: indexes) {
-                if (this.states[step][ind] != this.states[step - maxCycleSteps][ind])
-                    return -1;
+                if (states.get(step, ind) != states.get(step - cycleSteps, ind))
+                    return false;
             }
         }
-
-        return maxCycleSteps;
+        return true;
     }
 
     /**
@@ -335,11 +427,11 @@ public class TaskAnalyser {
         double totalCnt = 0;
         BigDecimal bdTotalCnt = BigDecimal.ZERO;
         if (higherAccuracy) {
-            for (int i = 0; i < bdStates.getLast().length; i++)
-                bdTotalCnt = bdTotalCnt.add(bdStates.getLast()[i]);
+            for (BigDecimal stateCnt: getLastHigherAccuracyStates())
+                bdTotalCnt = bdTotalCnt.add(stateCnt);
         } else {
-            for (int i = 0; i < states[0].length; i++)
-                totalCnt += states[calculatedStepsCnt - 1][i];
+            for (double stateCnt: states.getRow(calculatedStepsCnt - 1))
+                totalCnt += stateCnt;
         }
 
         final BigDecimal fBdTotalCnt = bdTotalCnt;
@@ -370,15 +462,17 @@ public class TaskAnalyser {
     /**
      *
      * @return alive states ordered by integral sum from last half steps
+     * (but not more than kept steps)
      * @see #getDominantsOrdered
      */
     private List<List<State>> getCyclicDominants() {
         Map<State, Double> map = new HashMap<>();
 
-        for (int ind = 0; ind < states[0].length; ind++) {
+        int fromStep = Math.max(calculatedStepsCnt / 2, states.getFirstStep());
+        for (int ind = 0; ind < task.getStates().size(); ind++) {
             double sum = 0;
-            for (int step = calculatedStepsCnt / 2; step < calculatedStepsCnt; step++) {
-                sum += states[step][ind];
+            for (int step = fromStep; step < calculatedStepsCnt; step++) {
+                sum += states.get(step, ind);
             }
             map.put(task.getStates().get(ind), sum);
         }
@@ -428,17 +522,14 @@ public class TaskAnalyser {
         if (calculatedStepsCnt == task.getStepsCount() && calculationMode == CalculationMode.SIMPLE) {
             Map<State, Integer> trends = new HashMap<>();
             boolean isTrendsDetermined = true;
-            cycle:
             for (State state: getAliveStates(analysedStatesList)) {
                 int ind = getStateIndex(state);
-                int trend = (int)Math.signum(states[calculatedStepsCnt / 2][ind] - states[calculatedStepsCnt / 2 - 1][ind]);
-                trends.put(state, trend);
-                for (int step = calculatedStepsCnt / 2 + 1; step < calculatedStepsCnt; step++) {
-                    if (trend != (int)Math.signum(states[step][ind] - states[step - 1][ind])) {
-                        isTrendsDetermined = false;
-                        break cycle;
-                    }
+                // trend must be the same in last half steps
+                if (trendStartSteps[ind] > calculatedStepsCnt / 2) {
+                    isTrendsDetermined = false;
+                    break;
                 }
+                trends.put(state, lastTrends[ind]);
             }
 
             if (isTrendsDetermined) {
@@ -565,7 +656,7 @@ public class TaskAnalyser {
      * @return state count on last calculated step
      */
     private double getStateCount(State state) {
-        return states[calculatedStepsCnt - 1][task.getStates().indexOf(state)];
+        return states.get(calculatedStepsCnt - 1, getTaskStateIndex(state));
     }
 
     /**
@@ -574,7 +665,21 @@ public class TaskAnalyser {
      * @return state count on last calculated step
      */
     private BigDecimal getStateCountHigherAccuracy(State state) {
-        return bdStates.getLast()[task.getStates().indexOf(state)];
+        return getLastHigherAccuracyStates()[getTaskStateIndex(state)];
+    }
+
+    /**
+     * @return states count on last calculated step with higher accuracy
+     */
+    private BigDecimal[] getLastHigherAccuracyStates() {
+        return bdStates.getRow(bdStates.getLastStep());
+    }
+
+    /**
+     * @return first of last steps which are used for analyse with higher accuracy
+     */
+    private int getHigherAccuracyFirstStep() {
+        return Math.max(bdStates.getFirstStep(), bdStates.getLastStep() - getHigherAccuracyStepsCount() + 1);
     }
 
     /**
@@ -588,9 +693,9 @@ public class TaskAnalyser {
             StateVertex vertex = getGraphVertexByState(getStateById(task.getStates().get(i).getId()));
             if (vertex != null && vertex != externalVertex) {
                 if (higherAccuracy) {
-                    vertex.setStateCount(bdStates.getLast()[i]);
+                    vertex.setStateCount(getLastHigherAccuracyStates()[i]);
                 } else {
-                    vertex.setStateCount(states[this.calculatedStepsCnt - 1][i]);
+                    vertex.setStateCount(states.get(this.calculatedStepsCnt - 1, i));
                 }
             }
         }
@@ -609,26 +714,20 @@ public class TaskAnalyser {
 
 
     /**
-     * add states count from first element
-     * call it each calculated step
-     * @param statesCount calculated states count where first element match last calculated step
+     * set pointer to states count calculated with higher accuracy.
+     * Window is read on each update, so it must keep at least
+     * {@link #getHigherAccuracyStepsCount()} last steps
+     * @param statesCount calculator's window of last steps
      */
-    public void updateHigherAccuracyStatesCount(BigDecimal[][] statesCount) {
-        BigDecimal[] newVals = new BigDecimal[statesCount[0].length];
-        int i = 0;
-        for (BigDecimal bd: statesCount[0]) {
-            newVals[i] = bd.add(BigDecimal.ZERO);
-            i++;
-        }
-        this.bdStates.add(newVals);
-
-        int maxSize = (int)(task.getStepsCount() * LAST_STEPS_PERCENTAGE);
-        int size = bdStates.size();
-        if (size > maxSize) {
-            while (size-- > maxSize) {
-                bdStates.removeFirst();
-            }
-        }
+    public void setHigherAccuracyStates(HigherAccuracyWindow statesCount) {
+        this.bdStates = statesCount;
+    }
+
+    /**
+     * @return count of last steps which are used for analyse with higher accuracy
+     */
+    public int getHigherAccuracyStepsCount() {
+        return Math.max(1, (int)(task.getStepsCount() * LAST_STEPS_PERCENTAGE));
     }
     
 
@@ -668,10 +767,7 @@ public class TaskAnalyser {
         }
 
         if (calculationMode == CalculationMode.STATES_TRENDS) {
-            for (StateVertex vertex : statesSet) {
-                if (vertex == externalVertex) {
-                    continue;
-                }
+            for (StateVertex vertex : getTaskStateVertexes()) {
 
                 // dead state can be alive
                 if (vertex.canStateChange
@@ -765,8 +861,9 @@ public class TaskAnalyser {
         // at least one transition must be alive all time
         boolean aliveTransitionExist = false;
 
-        for (TransitionVertex tv: stateVertex.getTransitions()) {
-            if (!canTransitionBeDead(tv, Collections.singletonList(stateVertex))) {
+        for (int i = stateTransitions.from(stateVertex.index); i < stateTransitions.to(stateVertex.index); i++) {
+            TransitionVertex tv = transitionsSet[stateTransitions.get(i)];
+            if (!canTransitionBeDead(tv, stateVertex)) {
                 aliveTransitionExist = true;
                 break;
             }
@@ -780,12 +877,14 @@ public class TaskAnalyser {
     /**
      * can transition will not occur
      * @param transitionVertex transition vertex
-     * @param exclusions stateVertexes that shouldn't be considered in transition dependencies
+     * @param exclusion stateVertex that shouldn't be considered in transition dependencies
      * @return true if transition can be dead
      */
-    private boolean canTransitionBeDead(TransitionVertex transitionVertex, List<StateVertex> exclusions) {
-        for (StateVertex tvDependency: transitionVertex.getTransitionDependencies()) {
-            if (exclusions.contains(tvDependency)) {
+    private boolean canTransitionBeDead(TransitionVertex transitionVertex, StateVertex exclusion) {
+        int tv = transitionVertex.index;
+        for (int i = transitionDependencies.from(tv); i < transitionDependencies.to(tv); i++) {
+            StateVertex tvDependency = statesSet[transitionDependencies.get(i)];
+            if (tvDependency == exclusion) {
                 continue;
             }
 
@@ -802,16 +901,14 @@ public class TaskAnalyser {
      * update vertex data depended on calculated data
      */
     private void updateGraph() {
-        calculatedStateVertexes.clear();
-        calculatedTransitionsVertexes.clear();
+        clearCalculatedVertexes();
 
         // update states count changes
-        for (StateVertex vertex: statesSet) {
-            if (vertex == externalVertex)
-                continue;
-
+        for (StateVertex vertex: getTaskStateVertexes()) {
             vertex.setCanStateChange(isStateVertexCanBeChanged(vertex));
         }
+        // can state change and can transition be invoked are known for all vertexes now
+        isGraphUpdated = true;
 
 
         // update decreased states can be stable
@@ -831,7 +928,7 @@ public class TaskAnalyser {
      * @return true if vertex state count can be changed, false otherwise
      */
     private boolean isStateVertexCanBeChanged(StateVertex stateVertex) {
-        if (calculatedStateVertexes.contains(stateVertex))
+        if (calculatedStateVertexes[stateVertex.index])
             return stateVertex.canStateChange();
 
         // state stable
@@ -843,14 +940,14 @@ public class TaskAnalyser {
         stateVertex.setCanStateChange(false);
         boolean canBeChanged = false;
 
-        for (TransitionVertex transitionVertex: stateVertex.getTransitions()) {
-            if (isTransitionVertexCanBeInvoked(transitionVertex)) {
+        for (int i = stateTransitions.from(stateVertex.index); i < stateTransitions.to(stateVertex.index); i++) {
+            if (isTransitionVertexCanBeInvoked(transitionsSet[stateTransitions.get(i)])) {
                 canBeChanged = true;
             }
         }
 
         stateVertex.setCanStateChange(canBeChanged);
-        calculatedStateVertexes.add(stateVertex);
+        calculatedStateVertexes[stateVertex.index] = true;
         return canBeChanged;
     }
 
@@ -862,7 +959,7 @@ public class TaskAnalyser {
      * @return true if transition vertex can be invoked, false otherwise
      */
     private boolean isTransitionVertexCanBeInvoked(TransitionVertex transitionVertex) {
-        if (calculatedTransitionsVertexes.contains(transitionVertex))
+        if (calculatedTransitionsVertexes[transitionVertex.index])
             return transitionVertex.canBeInvoked();
 
         if (!transitionVertex.canBeInvoked())
@@ -877,8 +974,10 @@ public class TaskAnalyser {
         transitionVertex.setCanBeInvoked(false);
         boolean canBeInvoked = true;
 
-        for (StateVertex stateVertex: transitionVertex.getTransitionDependencies()) {
-            if (isStateZeroLastSteps(stateVertex.getState(), transitionVertex.getStateDelay(stateVertex.getState()))
+        int tv = transitionVertex.index;
+        for (int i = transitionDependencies.from(tv); i < transitionDependencies.to(tv); i++) {
+            StateVertex stateVertex = statesSet[transitionDependencies.get(i)];
+            if (isStateZeroLastSteps(stateVertex, transitionVertex.getStateDelay(stateVertex.getState()))
                             && !isStateVertexCanBeChanged(stateVertex))
             {
                 canBeInvoked = false;
@@ -887,7 +986,7 @@ public class TaskAnalyser {
         }
 
         transitionVertex.setCanBeInvoked(canBeInvoked);
-        calculatedTransitionsVertexes.add(transitionVertex);
+        calculatedTransitionsVertexes[tv] = true;
 
         return canBeInvoked;
     }
@@ -895,26 +994,24 @@ public class TaskAnalyser {
 
     /**
      * check that state count was zero for last steps
-     * @param state state
+     * @param stateVertex state vertex
      * @param steps steps count
      * @return true if count was 0 in all steps, false otherwise
      */
-    private boolean isStateZeroLastSteps(State state, int steps) {
-        int ind = task.getStates().indexOf(state);
-        if (ind == -1) {
+    private boolean isStateZeroLastSteps(StateVertex stateVertex, int steps) {
+        if (stateVertex == externalVertex) {
             return true;
         }
+        int ind = stateVertex.index;
 
         if (higherAccuracy) {
-            int i = bdStates.size();
-            ListIterator<BigDecimal[]> iterator = bdStates.listIterator(bdStates.size());
-            while ( iterator.hasPrevious() && (i-- >= 0) ) {
-                if (iterator.previous()[ind].compareTo(BigDecimal.ZERO) != 0)
+            for (int i = bdStates.getLastStep(); i >= getHigherAccuracyFirstStep(); i--) {
+                if (bdStates.getRow(i)[ind].compareTo(BigDecimal.ZERO) != 0)
                     return false;
             }
         } else {
             for (int i = Math.max(0, calculatedStepsCnt - 1 - steps); i < calculatedStepsCnt; i++) {
-                if (states[i][ind] != 0)
+                if (states.get(i, ind) != 0)
                     return false;
             }
         }
@@ -932,34 +1029,71 @@ public class TaskAnalyser {
             return;
         }
 
-        // add all sates to graph
-        statesSet = new HashSet<>();
-        externalState = new State();
-        externalVertex = new StateVertex(externalState, Integer.MAX_VALUE);
-        statesSet.add(externalVertex);
-        for (State state: task.getStates()) {
-            statesSet.add(new StateVertex(state, state.getCount()));
+        // add all sates to graph, vertex index is equal to state index in task states
+        List<State> states = task.getStates();
+        int statesCnt = states.size();
+        statesSet = new StateVertex[statesCnt + 1];
+        for (int i = 0; i < statesCnt; i++) {
+            statesSet[i] = new StateVertex(i, states.get(i), states.get(i).getCount());
         }
+        externalState = new State();
+        externalVertex = new StateVertex(statesCnt, externalState, Integer.MAX_VALUE);
+        statesSet[statesCnt] = externalVertex;
 
         // add all transitions to graph
-        transitionsSet = new HashSet<>();
-        for (Transition transition: task.getTransitions()) {
-            transitionsSet.add(new TransitionVertex(transition));
+        List<Transition> transitions = task.getTransitions();
+        transitionsSet = new TransitionVertex[transitions.size()];
+        for (int i = 0; i < transitionsSet.length; i++) {
+            transitionsSet[i] = new TransitionVertex(i, transitions.get(i));
         }
 
         // set statesSet edges
+        List<Set<Integer>> changes = new ArrayList<>();
+        List<Set<Integer>> increases = new ArrayList<>();
+        List<Set<Integer>> decreases = new ArrayList<>();
+        for (int i = 0; i < statesSet.length; i++) {
+            changes.add(new LinkedHashSet<>());
+            increases.add(new LinkedHashSet<>());
+            decreases.add(new LinkedHashSet<>());
+        }
+        List<List<Integer>> dependencies = new ArrayList<>();
         for (TransitionVertex transitionVertex: transitionsSet) {
             Transition transition = transitionVertex.getTransition();
-            transitionVertex.setTransitionDependencies(
-                    getTransitionDependencies(transition).stream()
-                            .map(this::getGraphVertexByState)
-                            .collect(Collectors.toList())
-            );
+            dependencies.add(getTransitionDependencies(transition).stream()
+                    .map(this::getGraphVertexByState)
+                    .filter(Objects::nonNull)
+                    .map(vertex -> vertex.index)
+                    .collect(Collectors.toList()));
 
             for (State state: getTransitionChanges(transition)) {
-                getGraphVertexByState(state).addTransition(transitionVertex);
+                StateVertex stateVertex = getGraphVertexByState(state);
+                if (stateVertex == null)
+                    continue;
+                changes.get(stateVertex.index).add(transitionVertex.index);
+                StateTrend stateTrend = stateVertex.getStateTrendByTransition(transition);
+                if (stateTrend == StateTrend.INCREASE || stateTrend == StateTrend.ANY)
+                    increases.get(stateVertex.index).add(transitionVertex.index);
+                if (stateTrend == StateTrend.DECREASE || stateTrend == StateTrend.ANY)
+                    decreases.get(stateVertex.index).add(transitionVertex.index);
             }
         }
+        stateTransitions = new Adjacency(changes);
+        increaseTransitions = new Adjacency(increases);
+        decreaseTransitions = new Adjacency(decreases);
+        transitionDependencies = new Adjacency(dependencies);
+
+        calculatedStateVertexes = new boolean[statesSet.length];
+        calculatedTransitionsVertexes = new boolean[transitionsSet.length];
+        stateTrends = new StateTrend[statesSet.length];
+        isGraphUpdated = false;
+    }
+
+
+    /**
+     * @return states vertexes without external vertex
+     */
+    private List<StateVertex> getTaskStateVertexes() {
+        return Arrays.asList(statesSet).subList(0, statesSet.length - 1);
     }
 
 
@@ -969,7 +1103,19 @@ public class TaskAnalyser {
      * @return state index in states
      */
     private int getStateIndex(State state) {
-        return task.getStates().indexOf(getStateById(state.getId()));
+        Integer index = stateIndexes.get(state.getId());
+        return index == null ? -1 : index;
+    }
+
+
+    /**
+     * same as task.getStates().indexOf(state), but in O(1)
+     * @param state state
+     * @return index of the same state object in task states, -1 if there is no such state
+     */
+    private int getTaskStateIndex(State state) {
+        int index = getStateIndex(state);
+        return index != -1 && task.getStates().get(index) == state ? index : -1;
     }
 
 
@@ -985,10 +1131,8 @@ public class TaskAnalyser {
         if (id == State.EXTERNAL)
             return externalState;
 
-        return  task.getStates().stream()
-                .filter(state -> state.getId() == id)
-                .findFirst()
-                .orElse(null);
+        Integer index = stateIndexes.get(id);
+        return index == null ? null : task.getStates().get(index);
     }
 
 
@@ -1055,23 +1199,13 @@ public class TaskAnalyser {
      * @return StateVertex from statesSet which contains state
      */
     private StateVertex getGraphVertexByState(State state) {
-        return statesSet.stream()
-                .filter(a -> a.getState() == state)
-                .findFirst()
-                .orElse(null);
-    }
-
+        if (state == null)
+            return null;
+        if (state == externalState)
+            return externalVertex;
 
-    /**
-     * if TransitionVertex with transition exists in transitionsSet, returns him, otherwise return null
-     * @param transition transition
-     * @return StateVertex from statesSet which contains state
-     */
-    private TransitionVertex getGraphVertexByTransition(Transition transition) {
-        return transitionsSet.stream()
-                .filter(a -> a.getTransition() == transition)
-                .findFirst()
-                .orElse(null);
+        int index = getTaskStateIndex(state);
+        return index == -1 ? null : statesSet[index];
     }
 
 
@@ -1096,6 +1230,8 @@ public class TaskAnalyser {
      * StateModel Vertex in {@link TaskAnalyser#statesSet statesSet}
      */
     private class StateVertex {
+        /** index in {@link TaskAnalyser#statesSet statesSet} */
+        private final int index;
         private State state;
         private double stateCount;
         private BigDecimal bdStateCount; // state count for higher accuracy
@@ -1103,15 +1239,10 @@ public class TaskAnalyser {
         private boolean canStateChange = true;
         /** specify if state can stabilize and be alive (used for decrease trend) */
         private boolean canBeStable = true;
-        /** List of transitions which can change state count */
-        private Set<TransitionVertex> transitions = new HashSet<>();
-        /** List of transitions which increase state count */
-        private Set<TransitionVertex> increaseTransitions = new HashSet<>();
-        /** List of transitions which decrease state count */
-        private Set<TransitionVertex> decreaseTransitions = new HashSet<>();
 
 
-        StateVertex(State state, double stateCount) {
+        StateVertex(int index, State state, double stateCount) {
+            this.index = index;
             this.state = state;
             if (higherAccuracy)
                 this.bdStateCount = new BigDecimal(stateCount);
@@ -1119,20 +1250,14 @@ public class TaskAnalyser {
                 this.stateCount = stateCount;
         }
 
-        void addTransition(TransitionVertex transition) {
-            this.transitions.add(transition);
-            this.setStateTrendByTransition(transition);
-        }
-
-
         /**
-         * set state trend and add transition to transitions list
-         * @param transitionVertex transition vertex
+         * get state trend which transition causes
+         * @param transition transition
+         * @return state trend, null if transition doesn't change state count
          */
-        private void setStateTrendByTransition(TransitionVertex transitionVertex) {
+        private StateTrend getStateTrendByTransition(Transition transition) {
             StateTrend stateTrend = null;
 
-            Transition transition = transitionVertex.getTransition();
             switch (transition.getMode()) {
                 case TransitionMode.SIMPLE:
                 case TransitionMode.RESIDUAL:
@@ -1165,24 +1290,7 @@ public class TaskAnalyser {
                 }
             }
 
-            if (stateTrend == null)
-                return;
-
-            switch (stateTrend) {
-                case INCREASE: {
-                    increaseTransitions.add(transitionVertex);
-                    break;
-                }
-                case DECREASE: {
-                    decreaseTransitions.add(transitionVertex);
-                    break;
-                }
-                case ANY: {
-                    increaseTransitions.add(transitionVertex);
-                    decreaseTransitions.add(transitionVertex);
-                    break;
-                }
-            }
+            return stateTrend;
         }
 
 
@@ -1191,24 +1299,23 @@ public class TaskAnalyser {
          * @return state trend
          */
         private StateTrend getStateTrend() {
-            if (!canStateChange())
-                return StateTrend.STABLE;
+            if (stateTrends[index] != null)
+                return stateTrends[index];
+
+            StateTrend stateTrend = calculateStateTrend();
+            // trend can't be changed until next graph update
+            if (isGraphUpdated)
+                stateTrends[index] = stateTrend;
+            return stateTrend;
+        }
 
-            boolean increase = false, decrease = false;
 
-            for (TransitionVertex tv: increaseTransitions) {
-                if (isTransitionVertexCanBeInvoked(tv)) {
-                    increase = true;
-                    break;
-                }
-            }
+        private StateTrend calculateStateTrend() {
+            if (!canStateChange())
+                return StateTrend.STABLE;
 
-            for (TransitionVertex tv: decreaseTransitions) {
-                if (isTransitionVertexCanBeInvoked(tv)) {
-                    decrease = true;
-                    break;
-                }
-            }
+            boolean increase = canAnyTransitionBeInvoked(increaseTransitions);
+            boolean decrease = canAnyTransitionBeInvoked(decreaseTransitions);
 
             if (increase && decrease)
                 return StateTrend.ANY;
@@ -1220,8 +1327,17 @@ public class TaskAnalyser {
         }
 
 
-        Set<TransitionVertex> getTransitions() {
-            return transitions;
+        /**
+         * @param adjacency state vertexes transitions
+         * @return true if any transition of this state vertex in adjacency can be invoked
+         */
+        private boolean canAnyTransitionBeInvoked(Adjacency adjacency) {
+            for (int i = adjacency.from(index); i < adjacency.to(index); i++) {
+                if (isTransitionVertexCanBeInvoked(transitionsSet[adjacency.get(i)])) {
+                    return true;
+                }
+            }
+            return false;
         }
 
 
@@ -1273,18 +1389,18 @@ public class TaskAnalyser {
      * Transition Vertex in {@link TaskAnalyser#statesSet statesSet}
      */
     class TransitionVertex {
+        /** index in {@link TaskAnalyser#transitionsSet transitionsSet} */
+        private final int index;
         private Transition transition;
         /** can transition proceed */
         private boolean canBeInvoked;
-        /** states on which this transitions depends */
-        private List<StateVertex> transitionDependencies;
 
 
 
-        TransitionVertex(Transition transition) {
+        TransitionVertex(int index, Transition transition) {
+            this.index = index;
             this.setCanBeInvoked(true);
             this.setTransition(transition);
-            this.transitionDependencies = new ArrayList<>();
         }
 
 
@@ -1308,16 +1424,6 @@ public class TaskAnalyser {
         }
 
 
-        List<StateVertex> getTransitionDependencies() {
-            return transitionDependencies;
-        }
-
-
-        private void setTransitionDependencies(List<StateVertex> transitionDependencies) {
-            this.transitionDependencies = transitionDependencies;
-        }
-
-
         /**
          * get delay for state in transition
          * operand delay if state equals operandState, source delay if state equals sourceState,
@@ -1333,4 +1439,55 @@ public class TaskAnalyser {
         }
     }
 
+
+
+    /**
+     * Graph edges in compressed sparse row form: targets of vertex i are
+     * {@code targets[offsets[i] .. offsets[i + 1])}
+     */
+    private static class Adjacency {
+        private final int[] offsets;
+        private final int[] targets;
+
+
+        Adjacency(List<? extends Collection<Integer>> edges) {
+            offsets = new int[edges.size() + 1];
+            for (int i = 0; i < edges.size(); i++) {
+                offsets[i + 1] = offsets[i] + edges.get(i).size();
+            }
+            targets = new int[offsets[edges.size()]];
+            int ind = 0;
+            for (Collection<Integer> vertexEdges : edges) {
+                for (int target : vertexEdges) {
+                    targets[ind++] = target;
+                }
+            }
+        }
+
+
+        /**
+         * @param vertex vertex index
+         * @return index of first vertex edge
+         */
+        int from(int vertex) {
+            return offsets[vertex];
+        }
+
+        /**
+         * @param vertex vertex index
+         * @return index after last vertex edge
+         */
+        int to(int vertex) {
+            return offsets[vertex + 1];
+        }
+
+        /**
+         * @param ind edge index
+         * @return edge target
+         */
+        int get(int ind) {
+            return targets[ind];
+        }
+    }
+
 }
\ No newline at end of file
@@ -2,10 +2,12 @@ package population.controller.Calculation;
 
 import population.App;
 import population.controller.base.AbstractController;
+import population.model.Calculator.CalculationFinishedEvent;
 import population.model.Calculator.CalculationProgressEvent;
 import population.model.Calculator.Calculator;
+import population.model.Calculator.MappedResultStore;
 import population.model.TaskV4;
-import population.util.Event.EventManager;
+import population.util.Event.CoalescingEventHandler;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -18,6 +20,9 @@ import java.io.IOException;
 
 
 public class CalculationController extends AbstractController {
+    /** min values count (steps * states) to store result in memory-mapped file */
+    protected static final long MAPPED_RESULT_MIN_SIZE = 1 << 22;
+
     @FXML
     private TextField startPointTextField;
     @FXML
@@ -30,6 +35,8 @@ public class CalculationController extends AbstractController {
     private TabPane tabPane;
     @FXML
     private CheckBox allowNegativeNumbers;
+    @FXML
+    private ResultChartController resultChartController;
 
 
     /**************************************************
@@ -43,16 +50,6 @@ public class CalculationController extends AbstractController {
         startPointTextField.textProperty().bindBidirectional(App.getTask().startPointProperty(), new NumberStringConverter());
         stepsCountTextField.textProperty().bindBidirectional(App.getTask().stepsCountProperty(), new NumberStringConverter());
         allowNegativeNumbers.selectedProperty().bindBidirectional(App.getTask().isAllowNegativeProperty());
-
-        EventManager.addEventHandler(Calculator.PROGRESS_EVENT, event -> {
-            Platform.runLater(() -> calculationProgressBar.setProgress(((CalculationProgressEvent)event).getProgress()));
-            return true;
-        });
-
-        EventManager.addEventHandler(Calculator.FINISHED_EVENT, event -> {
-            Platform.runLater(this::onCalculationFinished);
-            return true;
-        });
     }
 
     /*************************************************
@@ -66,7 +63,20 @@ public class CalculationController extends AbstractController {
         TaskV4 task = App.getTask();
 
         onCalculationStart();
-        Calculator calculator = new Calculator(task);
+        Calculator calculator = new Calculator(task, createResultStore(task));
+        // progress events are coalesced, so UI thread receives only the latest of them
+        calculator.getEventBus().addEventHandler(CalculationProgressEvent.class,
+                new CoalescingEventHandler<>(Platform::runLater, event -> {
+                    calculationProgressBar.setProgress(event.getProgress());
+                    return true;
+                }));
+        calculator.getEventBus().addEventHandler(CalculationFinishedEvent.class, event -> {
+            Platform.runLater(() -> {
+                resultChartController.onCalculationFinished(event.getCalculator());
+                onCalculationFinished();
+            });
+            return true;
+        });
         calculator.calculateAsync();
 
     }
@@ -77,6 +87,23 @@ public class CalculationController extends AbstractController {
      *
      *************************************************/
 
+    /**
+     * Large results are written to memory-mapped file instead of heap
+     *
+     * @return store for result or null to keep result in calculator memory
+     */
+    protected MappedResultStore createResultStore(TaskV4 task) {
+        long size = (long) task.getStepsCount() * task.getStates().size();
+        if (size < MAPPED_RESULT_MIN_SIZE || task.getStepsCount() > MappedResultStore.MAX_STEPS_COUNT) {
+            return null;
+        }
+        try {
+            return MappedResultStore.createTemporary(task.getStates().size(), task.getStepsCount());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
     protected void onCalculationStart() {
         calculationProgressBar.setProgress(0);
         calculationProgressBar.setVisible(true);
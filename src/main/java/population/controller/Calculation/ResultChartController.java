@@ -3,10 +3,11 @@ package population.controller.Calculation;
 import population.component.ChartSeries;
 import population.component.TickLabelFormatter;
 import population.controller.base.AbstractController;
-import population.model.Calculator.CalculationFinishedEvent;
 import population.model.Calculator.Calculator;
+import population.model.Calculator.Result;
+import population.model.Calculator.ResultStore;
+import population.model.StateModel.State;
 import population.util.Converter;
-import population.util.Event.EventManager;
 import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -32,6 +33,8 @@ import javafx.scene.shape.Path;
 import javafx.scene.shape.Rectangle;
 import javafx.util.converter.DefaultStringConverter;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -39,6 +42,7 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 
@@ -60,10 +64,14 @@ public class ResultChartController extends AbstractController {
     private LineChart<Number, Number> resultsChart;
     @FXML
     private AnchorPane resultsChartContainer;
+    @FXML
+    private ResultTableController resultTableController;
 
     protected ObservableList<ChartSeries> seriesData = FXCollections.observableArrayList();
     protected boolean isZoomingChart = false;
     protected final int[] chartBounds = {0, 100};
+    /** stores of shown results, which must be closed when neither chart nor table shows them */
+    protected final List<Closeable> closeableStores = new ArrayList<>();
 
 
 
@@ -77,15 +85,24 @@ public class ResultChartController extends AbstractController {
     public void initialize() {
         initSettingsTable();
         initChart();
+        resultTableController.setOnClear(this::closeUnusedStores);
+    }
 
-        EventManager.addEventHandler(Calculator.FINISHED_EVENT, event -> {
-            Platform.runLater(() -> {
-                this.seriesData.addAll(this.getChartSeriesData(((CalculationFinishedEvent)event).getCalculator()));
-                this.refreshResultsChart();
-                this.resetResultsChartScale();
-            });
-            return true;
-        });
+
+    /**
+     * show result of finished calculation, must be called on UI thread
+     *
+     * @param calculator finished calculator
+     */
+    public void onCalculationFinished(Calculator calculator) {
+        ResultStore store = calculator.getResultStore();
+        if (store instanceof Closeable) {
+            this.closeableStores.add((Closeable) store);
+        }
+        this.resultTableController.onCalculationFinished(calculator);
+        this.seriesData.addAll(this.getChartSeriesData(calculator));
+        this.refreshResultsChart();
+        this.resetResultsChartScale();
     }
 
 
@@ -262,13 +279,12 @@ public class ResultChartController extends AbstractController {
         int min = Integer.MAX_VALUE;
         int max = Integer.MIN_VALUE;
         for (ChartSeries chartSeries : seriesData) {
-            ObservableList<XYChart.Data<Number, Number>> data = chartSeries.getData().getData();
-            int size = data.size();
+            int size = chartSeries.getSize();
             if (size == 0) {
                 continue;
             }
             int startPoint = chartSeries.getStartPoint();
-            int endPoint = data.get(size - 1).getXValue().intValue();
+            int endPoint = startPoint + size - 1;
             if (startPoint < min) {
                 min = startPoint;
             }
@@ -374,8 +390,7 @@ public class ResultChartController extends AbstractController {
             if (!chartSeries.getVisibility()) {
                 continue;
             }
-            XYChart.Series<Number, Number> series = chartSeries.getData();
-            int size = series.getData().size() + chartSeries.getStartPoint();
+            int size = chartSeries.getSize() + chartSeries.getStartPoint();
             if (size > maxSize) {
                 maxSize = size;
             }
@@ -384,55 +399,19 @@ public class ResultChartController extends AbstractController {
             end = maxSize;
         }
         setResultsChartBounds(start, end);
-        int dataWidth;
-        if (start < 0 && end >= 0) {
-            dataWidth = -1 * start + end;
-        } else {
-            dataWidth = Math.abs(end - start);
-        }
-        float fraction = dataWidth / (float) width;
 
-        if (fraction <= 1) {
-            ArrayList<XYChart.Series<Number, Number>> chart = new ArrayList<>(seriesData.size());
-            for (ChartSeries chartSeries : seriesData) {
-                if (!chartSeries.getVisibility()) {
-                    continue;
-                }
-                XYChart.Series<Number, Number> originalSeries = chartSeries.getData();
-                ObservableList<XYChart.Data<Number, Number>> originalData = originalSeries.getData();
-                ArrayList<XYChart.Data<Number, Number>> data = new ArrayList<>();
-                int localStart = chartSeries.getStartPoint();
-                for (int j = start; j < end; j++) {
-                    int localIndex = j - localStart;
-                    if (localIndex >= 0 && localIndex < originalData.size()) {
-                        data.add(originalData.get(localIndex));
-                    }
-                }
-                chart.add(new XYChart.Series<>(originalSeries.getName(), FXCollections.observableList(data)));
-            }
-            return FXCollections.observableList(chart);
-        } else {
-            ArrayList<XYChart.Series<Number, Number>> chart = new ArrayList<>(seriesData.size());
-            int[] indexes = population.component.Calculator.interpolateIndexes(start, end, width);
-            for (ChartSeries chartSeries : seriesData) {
-                if (!chartSeries.getVisibility()) {
-                    continue;
-                }
-                XYChart.Series<Number, Number> originalSeries = chartSeries.getData();
-                ObservableList<XYChart.Data<Number, Number>> originalData = originalSeries.getData();
-                ArrayList<XYChart.Data<Number, Number>> data = new ArrayList<>(indexes.length);
-                int localStart = chartSeries.getStartPoint();
-                for (int index : indexes) {
-                    int localIndex = index - localStart;
-                    if (localIndex >= 0 && localIndex < originalData.size()) {
-                        data.add(originalData.get(localIndex));
-                    }
-                }
-                chart.add(new XYChart.Series<>(originalSeries.getName(),
-                        FXCollections.observableList(data)));
+        // only displayed points are created, long series are reduced to min/max envelope
+        ArrayList<XYChart.Series<Number, Number>> chart = new ArrayList<>(seriesData.size());
+        for (ChartSeries chartSeries : seriesData) {
+            if (!chartSeries.getVisibility()) {
+                continue;
             }
-            return FXCollections.observableList(chart);
+            int localStart = chartSeries.getStartPoint();
+            List<XYChart.Data<Number, Number>> data =
+                    chartSeries.getDisplayData(start - localStart, end - localStart, width);
+            chart.add(new XYChart.Series<>(chartSeries.getName(), FXCollections.observableList(data)));
         }
+        return FXCollections.observableList(chart);
     }
 
     /*************************************************
@@ -445,6 +424,17 @@ public class ResultChartController extends AbstractController {
     protected void clear() {
         this.seriesData.clear();
         this.resetResultsChartScale();
+        this.closeUnusedStores();
+    }
+
+    /**
+     * close all stores of shown results, e.g. on application exit
+     */
+    public void closeStores() {
+        for (Closeable store : this.closeableStores) {
+            closeStore(store);
+        }
+        this.closeableStores.clear();
     }
 
     /*************************************************
@@ -453,21 +443,42 @@ public class ResultChartController extends AbstractController {
      *
      *************************************************/
 
-    protected List<ChartSeries> getChartSeriesData(Calculator calc) {
-        // build X Y coordinates data
-        List<XYChart.Series<Number, Number>> chart = new ArrayList<>();
-        int startPoint = calc.getStartPoint();
-        double[][] stateCount = calc.getStatesCount();
-        for (int i = 0; i < calc.getStates().size(); i++) {
-            ObservableList<XYChart.Data<Number, Number>> data = FXCollections.observableArrayList();
-            for (int step = 0; step < calc.getStepsCount(); step++) {
-                data.add(new XYChart.Data<>(step + startPoint, stateCount[step][i]));
+    /**
+     * close stores, results of which are cleared both from chart and table,
+     * so their memory-mapped files are released before application exit
+     */
+    protected void closeUnusedStores() {
+        Set<ResultStore> used = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (ChartSeries chartSeries : this.seriesData) {
+            used.add(chartSeries.getStore());
+        }
+        for (Result result : this.resultTableController.results) {
+            used.add(result.getStore());
+        }
+        Iterator<Closeable> iterator = this.closeableStores.iterator();
+        while (iterator.hasNext()) {
+            Closeable store = iterator.next();
+            if (!used.contains(store)) {
+                closeStore(store);
+                iterator.remove();
             }
+        }
+    }
 
-            XYChart.Series<Number, Number> series = new XYChart.Series<>(data);
-            series.setName(calc.getStates().get(i).getName());
-            chart.add(series);
+    protected void closeStore(Closeable store) {
+        try {
+            store.close();
+        } catch (IOException e) {
+            e.printStackTrace();
         }
+    }
+
+    protected List<ChartSeries> getChartSeriesData(Calculator calc) {
+        // series read points from result store only when they are shown
+        ResultStore store = calc.getResultStore();
+        List<String> names = calc.getStates().stream()
+                .map(State::getName)
+                .collect(Collectors.toList());
 
         // set default properties to series
         int colorsCount = ChartSeries.Color.ARRAY.length - 8;
@@ -475,12 +486,13 @@ public class ResultChartController extends AbstractController {
         int thicknessesCount = ChartSeries.Thickness.ARRAY.length;
         AtomicInteger size = new AtomicInteger(this.seriesData.size());
 
-        return chart.stream()
-                .map(series -> {
+        return IntStream.range(0, names.size())
+                .mapToObj(i -> {
                     int color = size.get() % colorsCount;
                     int dash = (size.get() / colorsCount) % dashesCount;
                     int thickness = (size.get() / (colorsCount * dashesCount)) % thicknessesCount;
-                    ChartSeries chartSeries = new ChartSeries(series, calc.getStartPoint(), color, dash, thickness, true);
+                    ChartSeries chartSeries = new ChartSeries(names.get(i), store, i, calc.getStartPoint(),
+                            color, dash, thickness, true);
 
                     // refresh chart when properties change
                     Stream.of(
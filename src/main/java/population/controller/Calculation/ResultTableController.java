@@ -3,10 +3,8 @@ package population.controller.Calculation;
 import population.controller.base.AbstractController;
 import population.model.Calculator.*;
 import population.model.StateModel.State;
-import population.util.Event.EventManager;
 import population.util.Utils;
-import javafx.application.Platform;
-import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -17,10 +15,7 @@ import javafx.util.converter.FormatStringConverter;
 import javafx.util.converter.IntegerStringConverter;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 
 public class ResultTableController extends AbstractController {
@@ -33,6 +28,9 @@ public class ResultTableController extends AbstractController {
 
     protected int precision = 3;
 
+    /** called after results are cleared */
+    protected Runnable onClear;
+
 
 
     /**************************************************
@@ -49,20 +47,29 @@ public class ResultTableController extends AbstractController {
                 applyPrecision();
             }
         });
+    }
 
-        EventManager.addEventHandler(Calculator.FINISHED_EVENT, event -> {
-            Platform.runLater(() -> {
-                Calculator calculator = ((CalculationFinishedEvent)event).getCalculator();
-                results.add(new Result(
-                        calculator.getStatesCount(),
-                        calculator.getStates(),
-                        calculator.getStartPoint(),
-                        calculator.getStepsCount()
-                ));
-                this.refreshTable();
-            });
-            return true;
-        });
+
+    /**
+     * add result of finished calculation to table, must be called on UI thread
+     *
+     * @param calculator finished calculator
+     */
+    public void onCalculationFinished(Calculator calculator) {
+        results.add(new Result(
+                calculator.getResultStore(),
+                calculator.getStates(),
+                calculator.getStartPoint(),
+                calculator.getStepsCount()
+        ));
+        this.refreshTable();
+    }
+
+    /**
+     * @param onClear called after results are cleared
+     */
+    public void setOnClear(Runnable onClear) {
+        this.onClear = onClear;
     }
 
     /*************************************************
@@ -76,6 +83,9 @@ public class ResultTableController extends AbstractController {
         resultTable.getItems().clear();
         resultTable.getColumns().clear();
         this.results.clear();
+        if (this.onClear != null) {
+            this.onClear.run();
+        }
     }
 
     @FXML
@@ -134,24 +144,11 @@ public class ResultTableController extends AbstractController {
             last = Math.max(last, l);
         }
 
-        // build ResultTableRows
+        // build ResultTableRows, values are read from results when cells are shown
+        List<Result> rowResults = new ArrayList<>(this.results);
         ObservableList<ResultTableRow> rows = FXCollections.observableArrayList();
         for (int step = first; step < last; step++) {
-            List<Double> statesCount = new ArrayList<>();
-            for (Result result: this.results) {
-                int f = result.getStartPoint();
-                int l = f + result.getStepsCount();
-                if (step >= f && step < l) {
-                    statesCount.addAll(
-                            Arrays.stream(result.getStatesCount()[step - f])
-                                .boxed()
-                                .collect(Collectors.toList())
-                    );
-                } else {
-                    statesCount.addAll(Collections.nCopies(result.getStates().size(), null));
-                }
-            }
-            rows.add(new ResultTableRow(step, statesCount));
+            rows.add(new ResultTableRow(step, rowResults));
         }
 
         resultTable.setItems(rows);
@@ -184,8 +181,8 @@ public class ResultTableController extends AbstractController {
         column.setEditable(false);
         column.setCellFactory(getValueColumnCellFactory());
         column.setCellValueFactory(param -> {
-            DoubleProperty prop = param.getValue().getStatesCount().get(index);
-            return prop != null ? prop.asObject() : null;
+            Double value = param.getValue().getStateCount(index);
+            return value != null ? new ReadOnlyObjectWrapper<>(value) : null;
         });
         return column;
     }
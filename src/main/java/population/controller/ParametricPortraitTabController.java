@@ -901,6 +901,16 @@ public class ParametricPortraitTabController extends AbstractController {
     }
 
 
+    /**
+     * cancel calculation of shown parametric portrait if it is calculated
+     */
+    public void cancelCalculation() {
+        if (shownParametricPortrait != null) {
+            shownParametricPortrait.cancelCalculation();
+        }
+    }
+
+
     /**
      * remove parametric portrait. Set new stateSettingsGroup.
      */
@@ -0,0 +1,56 @@
+package population.model.Calculator;
+
+
+/**
+ * {@link ResultStore} over calculator in-memory states count [step][state].
+ * Array is not copied.
+ * Rows after stored steps (steps of stable task) are not required, they are read
+ * from the last stored row.
+ */
+public class ArrayResultStore implements ResultStore {
+    protected final double[][] statesCount;
+    protected final int statesNumber;
+    protected final int lastStoredStep;
+
+
+    /**
+     * @param statesCount states count [step][state]
+     * @param statesNumber states count in each row
+     */
+    public ArrayResultStore(double[][] statesCount, int statesNumber) {
+        this(statesCount, statesNumber, statesCount.length);
+    }
+
+    /**
+     * @param statesCount states count [step][state]
+     * @param statesNumber states count in each row
+     * @param storedStepsCount count of first rows which are stored, following steps are equal
+     *                         to the last stored one
+     */
+    public ArrayResultStore(double[][] statesCount, int statesNumber, int storedStepsCount) {
+        this.statesCount = statesCount;
+        this.statesNumber = statesNumber;
+        this.lastStoredStep = storedStepsCount - 1;
+    }
+
+
+    @Override
+    public int getStepsCount() {
+        return this.statesCount.length;
+    }
+
+    @Override
+    public int getStatesCount() {
+        return this.statesNumber;
+    }
+
+    @Override
+    public double get(int step, int state) {
+        return this.statesCount[Math.min(step, this.lastStoredStep)][state];
+    }
+
+    @Override
+    public void readStep(int step, double[] dest) {
+        System.arraycopy(this.statesCount[Math.min(step, this.lastStoredStep)], 0, dest, 0, this.statesNumber);
+    }
+}
@@ -0,0 +1,440 @@
+package population.model.Calculator;
+
+
+import population.model.StateModel.State;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+
+/**
+ * {@link ResultStore} over versioned binary result file.
+ *
+ * File starts with header: format version, start point, steps count and
+ * ids and names of states. Values are little-endian doubles stored state-major
+ * (column by column), like in {@link MappedResultStore}:
+ * <ul>
+ *     <li>uncompressed columns are memory-mapped and read without copying to heap;</li>
+ *     <li>compressed columns are split to blocks of {@link #getBlockSteps()} steps, each block
+ *     is deflated separately, so reading step range inflates only blocks of that range.</li>
+ * </ul>
+ * CSV remains the interchange format, binary file is much faster to write and to load back.
+ */
+public class BinaryResultStore implements ResultStore, Closeable {
+    /** "PRES" */
+    private static final int MAGIC = 0x53455250;
+    private static final int VERSION = 1;
+    private static final int FLAG_COMPRESSED = 1;
+    /** steps in compressed block by default */
+    public static final int DEFAULT_BLOCK_STEPS = 1 << 16;
+    /** steps written at once to uncompressed column */
+    private static final int WRITE_CHUNK_STEPS = 1 << 16;
+    /** size of block table entry: offset and compressed size */
+    private static final int BLOCK_ENTRY_BYTES = Long.BYTES + Integer.BYTES;
+
+    protected final File file;
+    protected final FileChannel channel;
+    protected final List<State> states;
+    protected final int startPoint;
+    protected final int stepsCount;
+    /** mapped columns, null if file is compressed */
+    protected final DoubleBuffer[] columns;
+    protected final int blockSteps;
+    /** [state][block] position of compressed block in file */
+    protected final long[][] blockOffsets;
+    /** [state][block] size of compressed block */
+    protected final int[][] blockSizes;
+    /** [state] last inflated block of state */
+    protected final double[][] cachedBlocks;
+    /** [state] index of cached block, -1 if there is no cached block */
+    protected final int[] cachedBlockIndexes;
+
+
+    protected BinaryResultStore(File file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            ByteBuffer fixed = readFully(this.channel, 0, 7 * Integer.BYTES);
+            if (fixed.getInt() != MAGIC) {
+                throw new IOException("Not a binary result: " + file);
+            }
+            int version = fixed.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary result version " + version);
+            }
+            int flags = fixed.getInt();
+            this.startPoint = fixed.getInt();
+            this.stepsCount = fixed.getInt();
+            int statesCount = fixed.getInt();
+            this.blockSteps = fixed.getInt();
+
+            // states header is small, it is read to heap
+            long position = fixed.capacity();
+            this.states = new ArrayList<>(statesCount);
+            for (int i = 0; i < statesCount; i++) {
+                ByteBuffer stateHeader = readFully(this.channel, position, 2 * Integer.BYTES);
+                State state = new State();
+                state.setId(stateHeader.getInt());
+                int nameLength = stateHeader.getInt();
+                position += stateHeader.capacity();
+                if (nameLength >= 0) {
+                    ByteBuffer name = readFully(this.channel, position, nameLength);
+                    state.setName(new String(name.array(), StandardCharsets.UTF_8));
+                    position += nameLength;
+                }
+                this.states.add(state);
+            }
+            long dataOffset = align(position);
+
+            if ((flags & FLAG_COMPRESSED) == 0) {
+                this.columns = new DoubleBuffer[statesCount];
+                long columnSize = (long) this.stepsCount * Double.BYTES;
+                for (int i = 0; i < statesCount; i++) {
+                    this.columns[i] = this.channel
+                            .map(FileChannel.MapMode.READ_ONLY, dataOffset + i * columnSize, columnSize)
+                            .order(ByteOrder.LITTLE_ENDIAN)
+                            .asDoubleBuffer();
+                }
+                this.blockOffsets = null;
+                this.blockSizes = null;
+                this.cachedBlocks = null;
+                this.cachedBlockIndexes = null;
+            } else {
+                if (this.blockSteps <= 0) {
+                    throw new IOException("Wrong block steps count " + this.blockSteps + " in " + file);
+                }
+                this.columns = null;
+                int blocksCount = getBlocksCount(this.stepsCount, this.blockSteps);
+                ByteBuffer table = readFully(this.channel, dataOffset,
+                        (long) statesCount * blocksCount * BLOCK_ENTRY_BYTES);
+                this.blockOffsets = new long[statesCount][blocksCount];
+                this.blockSizes = new int[statesCount][blocksCount];
+                for (int i = 0; i < statesCount; i++) {
+                    for (int j = 0; j < blocksCount; j++) {
+                        this.blockOffsets[i][j] = table.getLong();
+                        this.blockSizes[i][j] = table.getInt();
+                    }
+                }
+                this.cachedBlocks = new double[statesCount][];
+                this.cachedBlockIndexes = new int[statesCount];
+                Arrays.fill(this.cachedBlockIndexes, -1);
+            }
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+
+    /**
+     * @param file binary result file
+     * @return store reading file
+     * @throws IOException if file can not be read or it is not a binary result
+     */
+    public static BinaryResultStore open(File file) throws IOException {
+        return new BinaryResultStore(file);
+    }
+
+
+    /**
+     * write result to binary file
+     *
+     * @param file file, it is overwritten
+     * @param result result
+     * @param compress compress values by blocks of {@link #DEFAULT_BLOCK_STEPS} steps
+     * @throws IOException if file can not be written
+     */
+    public static void write(File file, Result result, boolean compress) throws IOException {
+        write(file, result, compress ? DEFAULT_BLOCK_STEPS : 0);
+    }
+
+    /**
+     * write result to binary file
+     *
+     * @param file file, it is overwritten
+     * @param result result
+     * @param blockSteps steps in compressed block, 0 to write uncompressed file
+     * @throws IOException if file can not be written
+     */
+    public static void write(File file, Result result, int blockSteps) throws IOException {
+        if (blockSteps < 0) {
+            throw new IllegalArgumentException("Block steps count must be non-negative");
+        }
+        ResultStore store = result.getStore();
+        List<State> states = result.getStates();
+        int stepsCount = result.getStepsCount();
+        if (blockSteps == 0 && stepsCount > MappedResultStore.MAX_STEPS_COUNT) {
+            throw new IllegalArgumentException("Steps count must be in [0, "
+                    + MappedResultStore.MAX_STEPS_COUNT + "] for uncompressed file");
+        }
+
+        List<byte[]> names = new ArrayList<>(states.size());
+        int headerSize = 7 * Integer.BYTES;
+        for (State state : states) {
+            byte[] name = state.getName() == null ? null : state.getName().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            headerSize += 2 * Integer.BYTES + (name == null ? 0 : name.length);
+        }
+        ByteBuffer header = ByteBuffer.allocate((int) align(headerSize)).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(blockSteps == 0 ? 0 : FLAG_COMPRESSED);
+        header.putInt(result.getStartPoint());
+        header.putInt(stepsCount);
+        header.putInt(states.size());
+        header.putInt(blockSteps);
+        for (int i = 0; i < states.size(); i++) {
+            header.putInt(states.get(i).getId());
+            byte[] name = names.get(i);
+            header.putInt(name == null ? -1 : name.length);
+            if (name != null) {
+                header.put(name);
+            }
+        }
+        header.position(header.capacity());
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            header.flip();
+            writeFully(channel, header);
+            if (blockSteps == 0) {
+                writeColumns(channel, store, states.size(), stepsCount);
+            } else {
+                writeBlocks(channel, store, states.size(), stepsCount, blockSteps);
+            }
+        }
+    }
+
+    private static void writeColumns(FileChannel channel, ResultStore store, int statesCount, int stepsCount)
+            throws IOException {
+        int chunkSteps = Math.min(WRITE_CHUNK_STEPS, Math.max(1, stepsCount));
+        double[] values = new double[chunkSteps];
+        ByteBuffer bytes = ByteBuffer.allocate(chunkSteps * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int state = 0; state < statesCount; state++) {
+            for (int fromStep = 0; fromStep < stepsCount; fromStep += chunkSteps) {
+                int toStep = Math.min(stepsCount, fromStep + chunkSteps);
+                store.read(state, fromStep, toStep, values, 0);
+                bytes.clear();
+                bytes.asDoubleBuffer().put(values, 0, toStep - fromStep);
+                bytes.limit((toStep - fromStep) * Double.BYTES);
+                writeFully(channel, bytes);
+            }
+        }
+    }
+
+    private static void writeBlocks(FileChannel channel, ResultStore store, int statesCount, int stepsCount,
+                                    int blockSteps) throws IOException {
+        int blocksCount = getBlocksCount(stepsCount, blockSteps);
+        ByteBuffer table = ByteBuffer.allocate(Math.multiplyExact(Math.multiplyExact(statesCount, blocksCount), BLOCK_ENTRY_BYTES))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        long tablePosition = channel.position();
+        channel.position(tablePosition + table.capacity());
+
+        double[] values = new double[Math.min(blockSteps, Math.max(1, stepsCount))];
+        ByteBuffer raw = ByteBuffer.allocate(values.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer compressed = ByteBuffer.allocate(raw.capacity() + 64);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            for (int state = 0; state < statesCount; state++) {
+                for (int block = 0; block < blocksCount; block++) {
+                    int fromStep = block * blockSteps;
+                    int toStep = Math.min(stepsCount, fromStep + blockSteps);
+                    store.read(state, fromStep, toStep, values, 0);
+                    raw.clear();
+                    raw.asDoubleBuffer().put(values, 0, toStep - fromStep);
+
+                    deflater.reset();
+                    deflater.setInput(raw.array(), 0, (toStep - fromStep) * Double.BYTES);
+                    deflater.finish();
+                    long offset = channel.position();
+                    while (!deflater.finished()) {
+                        compressed.clear();
+                        int size = deflater.deflate(compressed.array());
+                        compressed.limit(size);
+                        writeFully(channel, compressed);
+                    }
+                    table.putLong(offset);
+                    table.putInt((int) (channel.position() - offset));
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+
+        table.flip();
+        while (table.hasRemaining()) {
+            tablePosition += channel.write(table, tablePosition);
+        }
+    }
+
+
+    @Override
+    public int getStepsCount() {
+        return this.stepsCount;
+    }
+
+    @Override
+    public int getStatesCount() {
+        return this.states.size();
+    }
+
+    @Override
+    public double get(int step, int state) {
+        if (this.columns != null) {
+            return this.columns[state].get(step);
+        }
+        synchronized (this) {
+            return this.getBlock(state, step / this.blockSteps)[step % this.blockSteps];
+        }
+    }
+
+    @Override
+    public void read(int state, int fromStep, int toStep, double[] dest, int offset) {
+        if (this.columns != null) {
+            // duplicate() keeps reads from different threads independent of shared position
+            DoubleBuffer column = this.columns[state].duplicate();
+            column.position(fromStep);
+            column.get(dest, offset, toStep - fromStep);
+            return;
+        }
+        synchronized (this) {
+            int step = fromStep;
+            while (step < toStep) {
+                int block = step / this.blockSteps;
+                int blockStart = block * this.blockSteps;
+                int count = Math.min(toStep, blockStart + this.blockSteps) - step;
+                System.arraycopy(this.getBlock(state, block), step - blockStart, dest, offset, count);
+                offset += count;
+                step += count;
+            }
+        }
+    }
+
+    /**
+     * @param state state index
+     * @param block block index
+     * @return inflated values of block
+     */
+    private double[] getBlock(int state, int block) {
+        if (this.cachedBlockIndexes[state] == block) {
+            return this.cachedBlocks[state];
+        }
+        int steps = Math.min(this.stepsCount, (block + 1) * this.blockSteps) - block * this.blockSteps;
+        double[] values = this.cachedBlocks[state];
+        if (values == null || values.length < steps) {
+            values = new double[this.blockSteps];
+        }
+
+        Inflater inflater = new Inflater();
+        try {
+            ByteBuffer compressed = readFully(this.channel, this.blockOffsets[state][block],
+                    this.blockSizes[state][block]);
+            byte[] raw = new byte[steps * Double.BYTES];
+            inflater.setInput(compressed.array());
+            int size = 0;
+            while (size < raw.length && !inflater.finished()) {
+                size += inflater.inflate(raw, size, raw.length - size);
+                if (inflater.needsInput()) {
+                    break;
+                }
+            }
+            if (size != raw.length) {
+                throw new IOException("Corrupted block " + block + " of state " + state + " in " + this.file);
+            }
+            ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values, 0, steps);
+        } catch (IOException | DataFormatException e) {
+            throw new RuntimeException(e);
+        } finally {
+            inflater.end();
+        }
+
+        this.cachedBlocks[state] = values;
+        this.cachedBlockIndexes[state] = block;
+        return values;
+    }
+
+
+    /**
+     * @return states from file header (only id and name are stored)
+     */
+    public List<State> getStates() {
+        return this.states;
+    }
+
+    public int getStartPoint() {
+        return this.startPoint;
+    }
+
+    /**
+     * @return steps in compressed block, 0 if file is not compressed
+     */
+    public int getBlockSteps() {
+        return this.blockSteps;
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * @return result which reads this store
+     */
+    public Result toResult() {
+        return new Result(this, this.states, this.startPoint, this.stepsCount);
+    }
+
+    /**
+     * Closes file channel. Mapped columns stay readable until they are garbage collected,
+     * compressed blocks can't be read after closing.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+
+    private static int getBlocksCount(int stepsCount, int blockSteps) {
+        return (int) (((long) stepsCount + blockSteps - 1) / blockSteps);
+    }
+
+    /**
+     * @return position aligned to double size, so mapped columns are aligned
+     */
+    private static long align(long position) {
+        return (position + Double.BYTES - 1) / Double.BYTES * Double.BYTES;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Region of " + size + " bytes is too large");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -3,13 +3,13 @@ package population.model.Calculator;
 import population.util.Event.Event;
 
 public class CalculationFinishedEvent extends Event {
-    protected Calculator calculator = null;
+    protected final Calculator calculator;
 
-    public Calculator getCalculator() {
-        return calculator;
+    public CalculationFinishedEvent(Calculator calculator) {
+        this.calculator = calculator;
     }
 
-    public void setCalculator(Calculator calculator) {
-        this.calculator = calculator;
+    public Calculator getCalculator() {
+        return calculator;
     }
 }
@@ -3,13 +3,19 @@ package population.model.Calculator;
 import population.util.Event.Event;
 
 public class CalculationProgressEvent extends Event {
-    protected double progress = 0;
+    protected final Calculator calculator;
+    protected final double progress;
 
-    public double getProgress() {
-        return progress;
+    public CalculationProgressEvent(Calculator calculator, double progress) {
+        this.calculator = calculator;
+        this.progress = progress;
     }
 
-    public void setProgress(double progress) {
-        this.progress = progress;
+    public Calculator getCalculator() {
+        return calculator;
+    }
+
+    public double getProgress() {
+        return progress;
     }
 }
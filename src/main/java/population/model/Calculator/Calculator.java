@@ -4,18 +4,14 @@ package population.model.Calculator;
 import population.model.Exception.UnknownTransitionType;
 import population.model.StateModel.State;
 import population.model.TaskV4;
-import population.model.TransitionModel.StateInTransition;
 import population.model.TransitionModel.StateMode;
 import population.model.TransitionModel.Transition;
 import population.model.TransitionType;
-import population.util.Event.EventManager;
+import population.util.CompensatedSum;
+import population.util.DecimalRounding;
+import population.util.Event.EventBus;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.*;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 
 public class Calculator {
@@ -26,22 +22,55 @@ public class Calculator {
     protected int startPoint;
     protected int stepsCount;
 
-    /** [step][state index] */
+    /**
+     * [step][state index]
+     * in streaming mode contains only last {@link #getHistorySize()} steps, step is stored in
+     * statesCount[step % statesCount.length] (see {@link #getStepStates(int)}).
+     * Otherwise rows are allocated when step is calculated, so steps after {@link #stableStep}
+     * are not allocated at all
+     */
     protected double[][] statesCount;
+    /** receives calculated steps in streaming mode, null if calculator stores all steps */
+    protected StepSink sink;
+
+    /** state id -> state index in statesCount */
+    protected Map<Integer, Integer> stateIndexes;
+    /** transitions compiled for step loop */
+    protected TransitionPlan plan;
+    /** states total count on {@link #soluteTotalCountStep}, used by SOLUTE transitions */
+    protected double soluteTotalCount;
+    protected int soluteTotalCountStep = -1;
+    /** accumulator of sums which were stream sums, so results don't depend on summation order and rounding */
+    protected final CompensatedSum sum = new CompensatedSum(1);
 
     protected boolean isTaskStable = false;
+    /** last calculated step of stable task, all following steps are equal to it. -1 if task is not stable */
+    protected int stableStep = -1;
+    /** count of last consecutive steps equal to previous step, maintained by {@link #updateUnchangedSteps(int)} */
+    protected int unchangedStepsCount = 0;
+    /** step to which {@link #unchangedStepsCount} relates */
+    protected int unchangedStepsLast = 0;
     protected int maxDelay;
     protected Integer scale = 16;
 
     protected double previousProgress = 0;
 
-
-    public final static CalculationProgressEvent PROGRESS_EVENT = new CalculationProgressEvent();
-    public final static CalculationFinishedEvent FINISHED_EVENT = new CalculationFinishedEvent();
+    /** events of this calculation: {@link CalculationProgressEvent}, {@link CalculationFinishedEvent} */
+    protected final EventBus eventBus = new EventBus();
 
 
     public Calculator(TaskV4 task) {
+        this(task, null);
+    }
+
+    /**
+     * @param task task
+     * @param sink if not null calculator works in streaming mode: it keeps only last steps
+     *             which are needed for calculation and pushes each calculated step to sink
+     */
+    public Calculator(TaskV4 task, StepSink sink) {
         this.task = task;
+        this.sink = sink;
         init();
     }
 
@@ -51,26 +80,68 @@ public class Calculator {
         this.startPoint = task.getStartPoint();
         this.stepsCount = task.getStepsCount();
 
-        this.maxDelay = this.getMaxDelay();
+        this.stateIndexes = TransitionPlan.buildStateIndexes(this.states);
+        this.plan = new TransitionPlan(this.transitions, this.stateIndexes);
+        this.maxDelay = this.plan.getMaxDelay();
 
         // init first step
-        this.statesCount = new double[task.getStepsCount()][task.getStates().size()];
+        if (this.sink == null) {
+            this.statesCount = new double[this.stepsCount][];
+            if (this.stepsCount > 0) {
+                this.statesCount[0] = new double[this.states.size()];
+            }
+        } else {
+            this.statesCount = new double[this.getHistorySize()][this.states.size()];
+        }
         if (task.getStepsCount() > 0) {
             for (State state : states) {
-                this.statesCount[0][getStateIndex(state)] = state.getCount();
+                this.getStepStates(0)[getStateIndex(state)] = state.getCount();
             }
         }
     }
 
 
-    protected int getMaxDelay() {
-        int maxDelay = 0;
-        for (Transition transition : this.task.getTransitions()) {
-            for (StateInTransition state: transition.getActualStates()) {
-                maxDelay = Math.max(maxDelay, state.getDelay());
-            }
+    /**
+     * steps count which are stored in statesCount.
+     * Calculation reads steps up to maxDelay + 1 back (stability check compares
+     * steps from step - maxDelay - 2), so streaming mode keeps maxDelay + 3 steps
+     * @return history size
+     */
+    public int getHistorySize() {
+        if (this.sink == null) {
+            return this.stepsCount;
         }
-        return maxDelay;
+        return Math.min(this.stepsCount, this.maxDelay + 3);
+    }
+
+
+    /**
+     * @param step step
+     * @return states count on step [state index]. Steps after {@link #getStableStep()}
+     * share array of stable step
+     */
+    public double[] getStepStates(int step) {
+        if (this.stableStep >= 0 && step > this.stableStep) {
+            step = this.stableStep;
+        }
+        return this.statesCount[step % this.statesCount.length];
+    }
+
+
+    /**
+     * @return last calculated step of stable task, all following steps are equal to it
+     * and are not stored. -1 if task didn't become stable
+     */
+    public int getStableStep() {
+        return this.stableStep;
+    }
+
+
+    /**
+     * @return events of this calculation, subscribe to them before calculation is started
+     */
+    public EventBus getEventBus() {
+        return this.eventBus;
     }
 
 
@@ -80,10 +151,14 @@ public class Calculator {
 
 
     public void calculate() {
+        if (this.sink != null && this.stepsCount > 0) {
+            this.sink.accept(0, this.getStepStates(0));
+        }
+
         for (int step = 0; step < this.stepsCount - 1; step++) {
             this.copyStep(step);
 
-            for (Transition transition: this.transitions) {
+            for (int transition = 0; transition < this.plan.getTransitionsCount(); transition++) {
                 this.applyTransition(transition, step + 1);
             }
 
@@ -95,103 +170,107 @@ public class Calculator {
                 this.restrictNegativeness(step + 1);
             }
 
-            if ((double)step / (this.stepsCount - 1) - previousProgress > 0.01) {
-                Calculator.PROGRESS_EVENT.setProgress((double)step / (this.stepsCount - 1));
-                EventManager.fireEvent(Calculator.PROGRESS_EVENT);
+            this.updateUnchangedSteps(step + 1);
+
+            if (this.sink != null) {
+                this.sink.accept(step + 1, this.getStepStates(step + 1));
             }
-        }
 
-        Calculator.FINISHED_EVENT.setCalculator(this);
-        EventManager.fireEvent(Calculator.FINISHED_EVENT);
-    }
+            if (this.isTaskStable) {
+                // rounded states can't change anymore, so rest of steps is not calculated
+                this.finishStable(step + 1);
+                break;
+            }
 
+            double progress = (double)step / (this.stepsCount - 1);
+            if (progress - this.previousProgress > 0.01) {
+                this.previousProgress = progress;
+                this.eventBus.fireEvent(new CalculationProgressEvent(this, progress));
+            }
+        }
 
-    /**
-     * add count to states according to transition
-     * @param transition
-     * @param step
-     */
-    protected void applyTransition(Transition transition, int step) {
-        if (this.isTransitionResidual(transition)) {
-            this.applyResidualTransition(transition, step);
-            return;
+        if (this.sink != null) {
+            this.sink.finish();
         }
 
-        this.applyNormalTransition(transition, step);
+        this.eventBus.fireEvent(new CalculationFinishedEvent(this));
     }
 
 
-    protected void applyResidualTransition(Transition transition, int step) {
+    /**
+     * add count to states according to compiled transition
+     * @param transition transition index in {@link #plan}
+     * @param step step
+     */
+    protected void applyTransition(int transition, int step) {
+        TransitionPlan plan = this.plan;
+        double[] previous = this.getStepStates(step - 1);
+        double[] current = this.getStepStates(step);
         final double intensity = this.getIntensity(transition, step - 1) * this.getTotalCount(transition, step - 1) *
-                transition.getProbability();
-
-        // sum of all residual states
-        double residualSum = transition.getActualStates().stream()
-                .filter(state -> state.getMode() == StateMode.RESIDUAL)
-                .mapToDouble(state -> this.statesCount[step - 1][this.getStateIndex(state.getState())] - intensity)
-                .sum();
-
-        // subtract count from residual states
-        transition.getActualStates().stream()
-                .filter(state -> state.getMode() == StateMode.RESIDUAL)
-                .forEach(state -> {
-//                    double coef = this.getStateInTransitionCoefficient(state);
-//                    double count = coef * (this.statesCount[step][this.getStateIndex(state.getState())] - intensity);
-                    this.statesCount[step][this.getStateIndex(state.getState())] -=
-                            this.statesCount[step - 1][this.getStateIndex(state.getState())] - intensity;
-                });
-
-        // and add count to all states which Out > 0
-        transition.getActualStates().stream()
-                .filter(state -> state.getOut() != 0)
-                .forEach(state -> {
-                    this.statesCount[step][this.getStateIndex(state.getState())] +=
-                            this.getStateInTransitionCoefficient(state) * residualSum;
-                });
-    }
-
+                plan.probabilities[transition];
+        int from = plan.statesOffsets[transition];
+        int to = plan.statesOffsets[transition + 1];
+
+        if (plan.residual[transition]) {
+            // sum of all residual states
+            this.sum.reset();
+            for (int i = from; i < to; i++) {
+                if (plan.modes[i] == StateMode.RESIDUAL) {
+                    this.sum.add(0, previous[plan.stateIndexes[i]] - intensity);
+                }
+            }
+            double residualSum = this.sum.get(0);
 
-    protected void applyNormalTransition(Transition transition, int step) {
-        final double intensity = this.getIntensity(transition, step - 1) * this.getTotalCount(transition, step - 1) *
-                transition.getProbability();
+            // subtract count from residual states
+            for (int i = from; i < to; i++) {
+                if (plan.modes[i] == StateMode.RESIDUAL) {
+                    current[plan.stateIndexes[i]] -= previous[plan.stateIndexes[i]] - intensity;
+                }
+            }
 
-        for (StateInTransition state: transition.getActualStates()) {
-            // add count to state
-            this.statesCount[step][this.getStateIndex(state.getState())] +=
-                    this.getStateInTransitionCoefficient(state) * intensity;
+            // and add count to all states which Out > 0
+            for (int i = from; i < to; i++) {
+                if (plan.out[i] != 0) {
+                    current[plan.stateIndexes[i]] += plan.coefficients[i] * residualSum;
+                }
+            }
+            return;
         }
-    }
 
-
-    protected double getStateInTransitionCoefficient(StateInTransition state) {
-        return state.getOut() - state.getIn();
+        for (int i = from; i < to; i++) {
+            current[plan.stateIndexes[i]] += plan.coefficients[i] * intensity;
+        }
     }
 
 
     /**
      *
-     * @param transition
-     * @param step
-     * @return
+     * @param transition transition index in {@link #plan}
+     * @param step step
+     * @return intensity of compiled transition
      */
-    protected double getIntensity(Transition transition, int step) {
-        List<StateInTransition> states = transition.getActualStates().stream()
-                .filter(stateInTransition -> stateInTransition.getIn() > 0)
-                .collect(Collectors.toList());
-
+    protected double getIntensity(int transition, int step) {
+        TransitionPlan plan = this.plan;
+        int from = plan.statesOffsets[transition];
+        int to = plan.statesOffsets[transition + 1];
         double intensity = 0;
 
-        switch (transition.getType()) {
+        switch (plan.types[transition]) {
             case TransitionType.LINEAR: {
-                intensity = states.stream()
-                        .filter(stateInTransition -> stateInTransition.getMode() != StateMode.INHIBITOR)
-                        .mapToDouble(stateInTransition -> getDelayedStateCount(stateInTransition, step) / stateInTransition.getIn())
-                        .min()
-                        .orElse(0);
-                intensity -= states.stream()
-                    .filter(stateInTransition -> stateInTransition.getMode() == StateMode.INHIBITOR)
-                    .mapToDouble(stateInTransition -> getDelayedStateCount(stateInTransition, step) / stateInTransition.getIn())
-                    .sum();
+                double min = Double.POSITIVE_INFINITY;
+                this.sum.reset();
+                for (int i = from; i < to; i++) {
+                    if (plan.in[i] > 0) {
+                        double count = getDelayedStateCount(plan.stateIndexes[i], plan.delays[i], step) / plan.in[i];
+                        if (plan.modes[i] == StateMode.INHIBITOR) {
+                            this.sum.add(0, count);
+                        } else {
+                            min = Math.min(min, count);
+                        }
+                    }
+                }
+                intensity = min == Double.POSITIVE_INFINITY ? 0 : min;
+                intensity -= this.sum.get(0);
                 intensity = Math.max(0, intensity);
                 break;
             }
@@ -200,19 +279,19 @@ public class Calculator {
             case TransitionType.BLEND: {
                 final double totalCount = this.getTotalCount(transition, step);
                 if (totalCount != 0) {
-                    intensity = states.stream()
-                        .mapToDouble(stateInTransition -> {
-                            double cur = getDelayedStateCount(stateInTransition, step);
-                            double in = stateInTransition.getIn();
-                            double res = Math.pow(cur, in) / this.probabilisticFactorial(in) / Math.pow(totalCount, in);
-                            if (stateInTransition.getMode() == StateMode.INHIBITOR) {
+                    intensity = 1;
+                    for (int i = from; i < to; i++) {
+                        if (plan.in[i] > 0) {
+                            double cur = getDelayedStateCount(plan.stateIndexes[i], plan.delays[i], step);
+                            double in = plan.in[i];
+                            double res = Math.pow(cur, in) / plan.factorials[i] / Math.pow(totalCount, in);
+                            if (plan.modes[i] == StateMode.INHIBITOR) {
                                 res = 1 - res;
                             }
-                            return res;
-                        })
-                        .reduce(1, (a, b) -> a * b);
+                            intensity *= res;
+                        }
+                    }
                 }
-
                 break;
             }
 
@@ -226,38 +305,13 @@ public class Calculator {
 
     /**
      *
-     * @param stateInTransition
-     * @param step
+     * @param stateIndex state index in statesCount
+     * @param delay state delay
+     * @param step step
      * @return state's count with applied delay
      */
-    protected double getDelayedStateCount(StateInTransition stateInTransition, int step) {
-        int delayedStep = Math.max(0, step - stateInTransition.getDelay());
-        return this.statesCount[delayedStep][this.getStateIndex(stateInTransition.getState())];
-    }
-
-    /**
-     * Вероятностный факториал.
-     * Факториал вещественного числа как математическое ожидание
-     * от факториалов двух соседних целых.
-     *
-     * @param u исходное значение
-     * @return результат
-     */
-    protected double probabilisticFactorial(double u) {
-        double result = 1;
-        double r = u % 1;
-        if (r > 0) {
-            double v = Math.floor(u);
-            for (double i = 2; i <= v; i++) {
-                result *= i;
-            }
-            result = result * (1 - r) + result * (v + 1) * r;
-        } else {
-            for (double i = 2; i <= u; i++) {
-                result *= i;
-            }
-        }
-        return result;
+    protected double getDelayedStateCount(int stateIndex, int delay, int step) {
+        return this.getStepStates(Math.max(0, step - delay))[stateIndex];
     }
 
     /**
@@ -265,9 +319,11 @@ public class Calculator {
      * @param step step
      */
     protected void copyStep(int step) {
-        for (int i = 0; i < this.states.size(); i++) {
-            System.arraycopy(this.statesCount[step], 0, this.statesCount[step + 1], 0, this.states.size());
+        int index = (step + 1) % this.statesCount.length;
+        if (this.statesCount[index] == null) {
+            this.statesCount[index] = new double[this.states.size()];
         }
+        System.arraycopy(this.getStepStates(step), 0, this.getStepStates(step + 1), 0, this.states.size());
     }
 
 
@@ -277,39 +333,35 @@ public class Calculator {
      * @return index of state in statesCount
      */
     public int getStateIndex(State state) {
-        return this.states.indexOf(state);
+        Integer index = this.stateIndexes.get(state.getId());
+        return index == null ? -1 : index;
     }
 
     /**
      *
+     * @param transition transition index in {@link #plan}
      * @param step step
-     * @return states total count in system on step
+     * @return states total count for compiled transition on step
      */
-    protected double getTotalCount(Transition transition, int step) {
-        switch (transition.getType()) {
+    protected double getTotalCount(int transition, int step) {
+        TransitionPlan plan = this.plan;
+
+        switch (plan.types[transition]) {
             case TransitionType.LINEAR: {
                 return 1;
             }
 
             case TransitionType.SOLUTE: {
-                return this.states.stream()
-                        .mapToDouble(state -> this.statesCount[step][this.getStateIndex(state)])
-                        .sum();
+                if (this.soluteTotalCountStep != step) {
+                    this.soluteTotalCount = CompensatedSum.sum(this.getStepStates(step));
+                    this.soluteTotalCountStep = step;
+                }
+                return this.soluteTotalCount;
             }
 
             case TransitionType.BLEND: {
-                return transition.getActualStates().stream()
-                        //.filter(stateInTransition -> stateInTransition.getIn() > 0)
-                        // remain only distinct states
-                        .filter(new Predicate<StateInTransition>() {
-                            Set<State> set = new HashSet<>();
-                            @Override
-                            public boolean test(StateInTransition stateInTransition) {
-                                return set.add(stateInTransition.getState());
-                            }
-                        })
-                        .mapToDouble(stateInTransition -> this.statesCount[step][this.getStateIndex(stateInTransition.getState())])
-                        .sum();
+                return CompensatedSum.sum(this.getStepStates(step), plan.distinctStateIndexes,
+                        plan.distinctOffsets[transition], plan.distinctOffsets[transition + 1]);
             }
 
             default: {
@@ -324,25 +376,64 @@ public class Calculator {
      * @param step
      */
     protected void restrictNegativeness(int step) {
-        for (int i = 0 ; i < this.statesCount[step].length; i++) {
-            if (this.statesCount[step][i] < 0) {
-                this.statesCount[step][i] = 0;
+        double[] statesCount = this.getStepStates(step);
+        for (int i = 0 ; i < statesCount.length; i++) {
+            if (statesCount[i] < 0) {
+                statesCount[i] = 0;
             }
         }
     }
 
 
     /**
+     * mark step as stable: following steps are read from it and passed to sink at once
+     * @param step last calculated step
+     */
+    protected void finishStable(int step) {
+        this.stableStep = step;
+        if (this.sink != null && step + 1 < this.stepsCount) {
+            this.sink.acceptStable(step + 1, this.stepsCount, this.getStepStates(step));
+        }
+    }
+
+
+    /**
+     * update count of last consecutive unchanged steps with calculated step
+     * @param step calculated step, previous steps must be already passed here
+     */
+    protected void updateUnchangedSteps(int step) {
+        double[] previous = this.getStepStates(step - 1);
+        double[] current = this.getStepStates(step);
+        boolean isUnchanged = true;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != previous[i]) {
+                isUnchanged = false;
+                break;
+            }
+        }
+        this.unchangedStepsCount = isUnchanged ? this.unchangedStepsCount + 1 : 0;
+        this.unchangedStepsLast = step;
+    }
+
+
+    /**
+     * Task is stable if steps from step - maxDelay - 2 to step - 1 are equal.
+     * Uses count of unchanged steps if it is maintained up to step - 1, so check costs O(1)
      *
      * @param step
      * @return can task change statesCount (compared on roundedStatesCount)
      */
     protected boolean isTaskStable(int step) {
+        if (step >= 1 && this.unchangedStepsLast == step - 1) {
+            return this.unchangedStepsCount > this.maxDelay;
+        }
+
         if (step >= this.maxDelay + 2) {
-            for (int i = 0; i < statesCount[step].length; i++) {
-                double val = statesCount[step - maxDelay - 2][i];
-                for (int j = 0; j <= maxDelay; j++) {
-                    if (statesCount[step - j - 1][i] != val) {
+            double[] first = this.getStepStates(step - maxDelay - 2);
+            for (int j = 0; j <= maxDelay; j++) {
+                double[] statesCount = this.getStepStates(step - j - 1);
+                for (int i = 0; i < statesCount.length; i++) {
+                    if (statesCount[i] != first[i]) {
                         return false;
                     }
                 }
@@ -362,38 +453,48 @@ public class Calculator {
     protected void roundStates(int step, Integer scale) {
         isTaskStable = this.isTaskStable(step);
 
+        double[] statesCount = this.getStepStates(step);
         if (isTaskStable) {
-            for (int i = 0; i < statesCount[step].length; i++) {
-                statesCount[step][i] = statesCount[step - 1][i];
-            }
+            System.arraycopy(this.getStepStates(step - 1), 0, statesCount, 0, statesCount.length);
         } else {
-            double eps = Math.pow(10., -scale);
-            for (int i = 0; i < statesCount[step].length; i++) {
-                if (statesCount[step][i] <= eps && !this.task.getIsAllowNegative()) {
-                    statesCount[step][i] = 0;
+            double eps = DecimalRounding.negativePowerOfTen(scale);
+            for (int i = 0; i < statesCount.length; i++) {
+                if (statesCount[i] <= eps && !this.task.getIsAllowNegative()) {
+                    statesCount[i] = 0;
                 } else {
-                    statesCount[step][i] = new BigDecimal(statesCount[step][i]).setScale(scale, RoundingMode.HALF_UP).doubleValue();
+                    statesCount[i] = DecimalRounding.roundHalfUp(statesCount[i], scale);
                 }
             }
         }
     }
 
 
-    protected boolean isTransitionResidual(Transition transition) {
-        for (StateInTransition state: transition.getActualStates()) {
-            if (state.getMode() == StateMode.RESIDUAL) {
-                return true;
+    /**
+     *
+     * @return states count [step][stateIndex]. In streaming mode contains only last steps,
+     * use {@link #getStepStates(int)} to access them. Steps after {@link #getStableStep()}
+     * share array of stable step
+     */
+    public double[][] getStatesCount() {
+        if (this.sink == null && this.stableStep >= 0) {
+            for (int step = this.stableStep + 1; step < this.stepsCount; step++) {
+                this.statesCount[step] = this.statesCount[this.stableStep];
             }
         }
-        return false;
+        return this.statesCount;
     }
 
     /**
      *
-     * @return states count [step][stateIndex]
+     * @return whole calculation result. If calculator works in streaming mode, result is
+     * available only if sink is {@link ResultStore}, otherwise null
      */
-    public double[][] getStatesCount() {
-        return this.statesCount;
+    public ResultStore getResultStore() {
+        if (this.sink == null) {
+            int storedStepsCount = this.stableStep >= 0 ? this.stableStep + 1 : this.stepsCount;
+            return new ArrayResultStore(this.statesCount, this.states.size(), storedStepsCount);
+        }
+        return this.sink instanceof ResultStore ? (ResultStore) this.sink : null;
     }
 
     public int getStartPoint() {
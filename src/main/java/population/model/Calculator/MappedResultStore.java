@@ -0,0 +1,159 @@
+package population.model.Calculator;
+
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+
+/**
+ * {@link ResultStore} backed by memory-mapped file.
+ *
+ * Values are stored state-major (column by column): state column is
+ * a continuous region of stepsCount doubles, so reading one state on
+ * step range (what chart does) touches only pages of that range.
+ * Data lives in OS page cache instead of java heap.
+ *
+ * It is a {@link StepSink}, so it can be passed to {@link Calculator}
+ * to get result written directly to file. Steps of stable task are not written,
+ * they are read from the last written step.
+ */
+public class MappedResultStore implements ResultStore, StepSink, Closeable {
+    /** max steps in one mapped column */
+    public static final int MAX_STEPS_COUNT = Integer.MAX_VALUE / Double.BYTES;
+
+    protected final File file;
+    protected final FileChannel channel;
+    protected final DoubleBuffer[] columns;
+    protected final int stepsCount;
+    protected final boolean isTemporary;
+    /** steps after it are equal to it and are not written */
+    protected int lastStoredStep;
+
+
+    /**
+     * @param file file to store result in. It is overwritten
+     * @param statesCount states count
+     * @param stepsCount steps count
+     * @throws IOException if file can not be created or mapped
+     */
+    public MappedResultStore(File file, int statesCount, int stepsCount) throws IOException {
+        this(file, statesCount, stepsCount, false);
+    }
+
+    protected MappedResultStore(File file, int statesCount, int stepsCount, boolean isTemporary) throws IOException {
+        if (stepsCount < 0 || stepsCount > MAX_STEPS_COUNT) {
+            throw new IllegalArgumentException("Steps count must be in [0, " + MAX_STEPS_COUNT + "]");
+        }
+        if (statesCount < 0) {
+            throw new IllegalArgumentException("States count must be non-negative");
+        }
+
+        this.file = file;
+        this.stepsCount = stepsCount;
+        this.lastStoredStep = stepsCount - 1;
+        this.isTemporary = isTemporary;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.columns = new DoubleBuffer[statesCount];
+
+        try {
+            long columnSize = (long) stepsCount * Double.BYTES;
+            for (int i = 0; i < statesCount; i++) {
+                this.columns[i] = this.channel.map(FileChannel.MapMode.READ_WRITE, i * columnSize, columnSize)
+                        .order(ByteOrder.nativeOrder())
+                        .asDoubleBuffer();
+            }
+        } catch (IOException e) {
+            this.close();
+            throw e;
+        }
+    }
+
+    /**
+     * create store in temporary file, which is deleted on close
+     *
+     * @param statesCount states count
+     * @param stepsCount steps count
+     * @return store
+     * @throws IOException if file can not be created or mapped
+     */
+    public static MappedResultStore createTemporary(int statesCount, int stepsCount) throws IOException {
+        File file = File.createTempFile("population-result", ".bin");
+        return new MappedResultStore(file, statesCount, stepsCount, true);
+    }
+
+
+    @Override
+    public void accept(int step, double[] statesCount) {
+        for (int i = 0; i < this.columns.length; i++) {
+            this.columns[i].put(step, statesCount[i]);
+        }
+    }
+
+    @Override
+    public void acceptStable(int fromStep, int toStep, double[] statesCount) {
+        if (fromStep == 0 || toStep < this.stepsCount) {
+            StepSink.super.acceptStable(fromStep, toStep, statesCount);
+            return;
+        }
+        // steps from fromStep are equal to previous written step
+        this.lastStoredStep = fromStep - 1;
+    }
+
+    @Override
+    public int getStepsCount() {
+        return this.stepsCount;
+    }
+
+    @Override
+    public int getStatesCount() {
+        return this.columns.length;
+    }
+
+    @Override
+    public double get(int step, int state) {
+        return this.columns[state].get(Math.min(step, this.lastStoredStep));
+    }
+
+    @Override
+    public void read(int state, int fromStep, int toStep, double[] dest, int offset) {
+        // duplicate() keeps reads from different threads independent of shared position
+        int storedToStep = Math.max(fromStep, Math.min(toStep, this.lastStoredStep + 1));
+        DoubleBuffer column = this.columns[state].duplicate();
+        column.position(fromStep);
+        column.get(dest, offset, storedToStep - fromStep);
+        if (storedToStep < toStep) {
+            Arrays.fill(dest, offset + storedToStep - fromStep, offset + toStep - fromStep,
+                    column.get(this.lastStoredStep));
+        }
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Closes file channel and deletes temporary file. Mapped columns stay readable until
+     * they are garbage collected. If OS does not let delete mapped file, it is deleted on exit.
+     * Repeated close does nothing.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!this.channel.isOpen()) {
+            return;
+        }
+        try {
+            this.channel.close();
+        } finally {
+            if (this.isTemporary && !this.file.delete()) {
+                this.file.deleteOnExit();
+            }
+        }
+    }
+}
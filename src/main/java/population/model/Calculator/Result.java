@@ -6,20 +6,40 @@ import population.model.StateModel.State;
 import java.util.List;
 
 public class Result {
-    protected double[][] statesCount;
+    protected ResultStore store;
     protected List<State> states;
     protected int startPoint;
     protected int stepsCount;
 
     public Result(double[][] statesCount, List<State> states, int startPoint, int stepsCount) {
-        this.statesCount = statesCount;
+        this(new ArrayResultStore(statesCount, states.size()), states, startPoint, stepsCount);
+    }
+
+    public Result(ResultStore store, List<State> states, int startPoint, int stepsCount) {
+        this.store = store;
         this.states = states;
         this.startPoint = startPoint;
         this.stepsCount = stepsCount;
     }
 
-    public double[][] getStatesCount() {
-        return statesCount;
+    /**
+     * @return storage of states count, read it lazily by step range and state
+     */
+    public ResultStore getStore() {
+        return store;
+    }
+
+    /**
+     * @param step real step number (including start point)
+     * @param stateIndex state index
+     * @return state count on step or null if step is out of result
+     */
+    public Double getStateCount(int step, int stateIndex) {
+        int localStep = step - startPoint;
+        if (localStep < 0 || localStep >= stepsCount) {
+            return null;
+        }
+        return store.get(localStep, stateIndex);
     }
 
     public List<State> getStates() {
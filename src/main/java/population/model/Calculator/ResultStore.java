@@ -0,0 +1,53 @@
+package population.model.Calculator;
+
+
+/**
+ * Random access to calculated states count by step and state.
+ * Lets table, chart and export read only the part of result they need
+ * instead of holding own copy of the whole matrix.
+ */
+public interface ResultStore {
+    /**
+     * @return steps count (rows)
+     */
+    int getStepsCount();
+
+    /**
+     * @return states count (columns)
+     */
+    int getStatesCount();
+
+    /**
+     * @param step step (from 0)
+     * @param state state index
+     * @return state count on step
+     */
+    double get(int step, int state);
+
+    /**
+     * read state column values on steps [fromStep, toStep) to dest
+     *
+     * @param state state index
+     * @param fromStep first step (inclusive)
+     * @param toStep last step (exclusive)
+     * @param dest destination array
+     * @param offset position in dest for fromStep value
+     */
+    default void read(int state, int fromStep, int toStep, double[] dest, int offset) {
+        for (int step = fromStep; step < toStep; step++) {
+            dest[offset++] = this.get(step, state);
+        }
+    }
+
+    /**
+     * read all states count on step to dest
+     *
+     * @param step step (from 0)
+     * @param dest destination array with length not less than {@link #getStatesCount()}
+     */
+    default void readStep(int step, double[] dest) {
+        for (int state = 0; state < this.getStatesCount(); state++) {
+            dest[state] = this.get(step, state);
+        }
+    }
+}
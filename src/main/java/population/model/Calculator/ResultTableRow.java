@@ -1,26 +1,22 @@
 package population.model.Calculator;
 
-import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 
+/**
+ * Row of result table. Values are not copied to row, they are read
+ * from results stores when table cell asks for them.
+ */
 public class ResultTableRow {
     protected IntegerProperty step = new SimpleIntegerProperty();
-    protected ObservableList<DoubleProperty> statesCount = FXCollections.observableArrayList();
+    /** results shown in table, their states form table columns in order */
+    protected List<Result> results;
 
-    public ResultTableRow(int step, List<Double> statesCount) {
+    public ResultTableRow(int step, List<Result> results) {
         this.step.set(step);
-        this.statesCount.addAll(
-                statesCount.stream()
-                    .map(x -> x == null ? null : new SimpleDoubleProperty(x))
-                    .collect(Collectors.toList())
-        );
+        this.results = results;
     }
 
     public IntegerProperty stepProperty() {
@@ -31,7 +27,18 @@ public class ResultTableRow {
         return step.get();
     }
 
-    public ObservableList<DoubleProperty> getStatesCount() {
-        return this.statesCount;
+    /**
+     * @param index column index through states of all results
+     * @return state count or null if result doesn't contain row step
+     */
+    public Double getStateCount(int index) {
+        for (Result result: this.results) {
+            int size = result.getStates().size();
+            if (index < size) {
+                return result.getStateCount(this.getStep(), index);
+            }
+            index -= size;
+        }
+        return null;
     }
 }
@@ -0,0 +1,36 @@
+package population.model.Calculator;
+
+
+/**
+ * Receives calculated steps from {@link Calculator} working in streaming mode,
+ * i.e. when calculator keeps only last steps needed for calculation.
+ * It can write steps to file, downsample them, analyse, etc.
+ */
+public interface StepSink {
+    /**
+     * called once for each step in ascending order, when step is completely calculated
+     * @param step step (from 0)
+     * @param statesCount states count on step [state index]. Array is reused by calculator,
+     *                    so copy it if you need it after method return
+     */
+    void accept(int step, double[] statesCount);
+
+    /**
+     * called instead of {@link #accept} for steps of stable task, which are all equal.
+     * Default implementation passes them to {@link #accept} one by one
+     * @param fromStep first stable step (inclusive)
+     * @param toStep last step (exclusive)
+     * @param statesCount states count on each of steps
+     */
+    default void acceptStable(int fromStep, int toStep, double[] statesCount) {
+        for (int step = fromStep; step < toStep; step++) {
+            this.accept(step, statesCount);
+        }
+    }
+
+    /**
+     * called when calculation is finished
+     */
+    default void finish() {
+    }
+}
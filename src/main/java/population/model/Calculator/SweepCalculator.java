@@ -0,0 +1,505 @@
+package population.model.Calculator;
+
+
+import population.model.Exception.UnknownTransitionType;
+import population.model.StateModel.State;
+import population.model.TaskV4;
+import population.model.TransitionModel.StateInTransition;
+import population.model.TransitionModel.StateMode;
+import population.model.TransitionModel.Transition;
+import population.model.TransitionType;
+import population.util.CompensatedSum;
+import population.util.DecimalRounding;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Calculates many variants of one task together. Variants have the same structure
+ * (states, transitions, types, modes and delays), they differ only by numeric parameters:
+ * transitions probabilities, in and out coefficients of states in transitions
+ * and initial states count.
+ *
+ * Task is compiled to {@link TransitionPlan} once. Parameters and states count are stored
+ * as struct of arrays [item * variantsCount + variant], so every inner loop runs over variants.
+ * Each variant is calculated with the same operations in the same order as {@link Calculator}
+ * does, so results of variant are equal to results of {@link Calculator} for task with
+ * variant's parameters.
+ */
+public class SweepCalculator {
+    protected TaskV4 task;
+    protected TransitionPlan plan;
+    protected int variantsCount;
+    protected int statesNumber;
+    protected int stepsCount;
+    protected Integer scale = 16;
+
+    /** [transition * variantsCount + variant] */
+    protected double[] probabilities;
+    /** [state in transition * variantsCount + variant] */
+    protected double[] in;
+    protected double[] out;
+    /** [state * variantsCount + variant] */
+    protected double[] initialCounts;
+
+    /** transition -> it's index in plan */
+    protected Map<Transition, Integer> transitionIndexes = new IdentityHashMap<>();
+    /** state in transition -> it's index in plan */
+    protected Map<StateInTransition, Integer> stateInTransitionIndexes = new IdentityHashMap<>();
+    /** state id -> state index */
+    protected Map<Integer, Integer> stateIndexes;
+
+    /** ring of last steps, [step % history.length][state * variantsCount + variant] */
+    protected double[][] history;
+    /** is variant stable since previous step */
+    protected boolean[] stable;
+    /** count of last consecutive steps equal to previous step */
+    protected int[] unchangedStepsCount;
+
+    /** per variant temporary values */
+    protected double[] intensities;
+    protected double[] totalCounts;
+    protected double[] residualSums;
+    protected double[] soluteTotalCounts;
+    /** per variant accumulator of sums, the same as {@link Calculator#sum} */
+    protected CompensatedSum sums;
+    protected int soluteTotalCountStep = -1;
+
+
+    /**
+     * all variants are initialized with parameters of task
+     *
+     * @param task task
+     * @param variantsCount count of variants
+     */
+    public SweepCalculator(TaskV4 task, int variantsCount) {
+        this.task = task;
+        this.variantsCount = variantsCount;
+        this.statesNumber = task.getStates().size();
+        this.stepsCount = task.getStepsCount();
+        this.stateIndexes = TransitionPlan.buildStateIndexes(task.getStates());
+        this.plan = new TransitionPlan(task.getTransitions(), this.stateIndexes);
+
+        int transitionsCount = this.plan.getTransitionsCount();
+        int statesInTransitionsCount = this.plan.stateIndexes.length;
+        this.probabilities = new double[transitionsCount * variantsCount];
+        this.in = new double[statesInTransitionsCount * variantsCount];
+        this.out = new double[statesInTransitionsCount * variantsCount];
+        this.initialCounts = new double[this.statesNumber * variantsCount];
+
+        // plan contains actual states of transitions in the same order
+        List<Transition> transitions = task.getTransitions();
+        for (int t = 0; t < transitions.size(); t++) {
+            this.transitionIndexes.put(transitions.get(t), t);
+            int i = this.plan.statesOffsets[t];
+            for (StateInTransition state : transitions.get(t).getActualStates()) {
+                this.stateInTransitionIndexes.put(state, i++);
+            }
+            Arrays.fill(this.probabilities, t * variantsCount, (t + 1) * variantsCount,
+                    this.plan.probabilities[t]);
+        }
+        for (int i = 0; i < statesInTransitionsCount; i++) {
+            Arrays.fill(this.in, i * variantsCount, (i + 1) * variantsCount, this.plan.in[i]);
+            Arrays.fill(this.out, i * variantsCount, (i + 1) * variantsCount, this.plan.out[i]);
+        }
+        for (State state : task.getStates()) {
+            for (int variant = 0; variant < variantsCount; variant++) {
+                this.initialCounts[this.getStateIndex(state) * variantsCount + variant] = state.getCount();
+            }
+        }
+    }
+
+
+    public void setProbability(int variant, Transition transition, double probability) {
+        this.probabilities[this.getIndex(this.transitionIndexes, transition) * this.variantsCount + variant] =
+                probability;
+    }
+
+    public void setIn(int variant, StateInTransition state, double in) {
+        this.in[this.getIndex(this.stateInTransitionIndexes, state) * this.variantsCount + variant] = in;
+    }
+
+    public void setOut(int variant, StateInTransition state, double out) {
+        this.out[this.getIndex(this.stateInTransitionIndexes, state) * this.variantsCount + variant] = out;
+    }
+
+    public void setCount(int variant, State state, double count) {
+        int index = this.getStateIndex(state);
+        if (index < 0) {
+            throw new IllegalArgumentException("State is not in task");
+        }
+        this.initialCounts[index * this.variantsCount + variant] = count;
+    }
+
+
+    /**
+     * calculate all variants
+     *
+     * @param sinks sink of each variant, it receives steps as from {@link Calculator} in streaming mode
+     */
+    public void calculate(List<? extends StepSink> sinks) {
+        if (sinks.size() != this.variantsCount) {
+            throw new IllegalArgumentException("Sink is required for each variant");
+        }
+        int variants = this.variantsCount;
+        int maxDelay = this.plan.getMaxDelay();
+        this.history = new double[Math.max(1, Math.min(this.stepsCount, maxDelay + 2))][];
+        this.history[0] = this.initialCounts.clone();
+        this.stable = new boolean[variants];
+        this.unchangedStepsCount = new int[variants];
+        this.intensities = new double[variants];
+        this.totalCounts = new double[variants];
+        this.sums = new CompensatedSum(variants);
+        this.residualSums = new double[variants];
+        this.soluteTotalCounts = new double[variants];
+        this.soluteTotalCountStep = -1;
+
+        // coefficients and factorials of variants
+        double[] coefficients = new double[this.in.length];
+        double[] factorials = new double[this.in.length];
+        for (int i = 0; i < this.in.length; i++) {
+            coefficients[i] = this.out[i] - this.in[i];
+            factorials[i] = TransitionPlan.probabilisticFactorial(this.in[i]);
+        }
+
+        double[] row = new double[this.statesNumber];
+        if (this.stepsCount > 0) {
+            for (int variant = 0; variant < variants; variant++) {
+                sinks.get(variant).accept(0, this.readVariant(0, variant, row));
+            }
+        }
+
+        int activeVariants = variants;
+        for (int step = 0; step < this.stepsCount - 1 && activeVariants > 0; step++) {
+            int next = step + 1;
+            int slot = next % this.history.length;
+            if (this.history[slot] == null) {
+                this.history[slot] = new double[this.statesNumber * variants];
+            }
+            System.arraycopy(this.getStepStates(step), 0, this.history[slot], 0, this.history[slot].length);
+
+            for (int transition = 0; transition < this.plan.getTransitionsCount(); transition++) {
+                this.applyTransition(transition, next, coefficients, factorials);
+            }
+
+            this.roundStates(next);
+            if (!this.task.getIsAllowNegative()) {
+                this.restrictNegativeness(next);
+            }
+            this.updateUnchangedSteps(next);
+
+            for (int variant = 0; variant < variants; variant++) {
+                if (this.stable[variant]) {
+                    continue;
+                }
+                StepSink sink = sinks.get(variant);
+                sink.accept(next, this.readVariant(next, variant, row));
+                if (this.unchangedStepsCount[variant] > maxDelay + 1) {
+                    // variant was stable on this step, its steps don't change anymore
+                    this.stable[variant] = true;
+                    activeVariants--;
+                    if (next + 1 < this.stepsCount) {
+                        sink.acceptStable(next + 1, this.stepsCount, row);
+                    }
+                }
+            }
+        }
+
+        for (StepSink sink : sinks) {
+            sink.finish();
+        }
+    }
+
+
+    /**
+     * @param step step
+     * @param variant variant
+     * @param dest array for states count of variant
+     * @return dest
+     */
+    protected double[] readVariant(int step, int variant, double[] dest) {
+        double[] states = this.getStepStates(step);
+        for (int state = 0; state < this.statesNumber; state++) {
+            dest[state] = states[state * this.variantsCount + variant];
+        }
+        return dest;
+    }
+
+    protected double[] getStepStates(int step) {
+        return this.history[step % this.history.length];
+    }
+
+    protected int getStateIndex(State state) {
+        Integer index = this.stateIndexes.get(state.getId());
+        return index == null ? -1 : index;
+    }
+
+    protected <T> int getIndex(Map<T, Integer> indexes, T item) {
+        Integer index = indexes.get(item);
+        if (index == null) {
+            throw new IllegalArgumentException("Item is not in task");
+        }
+        return index;
+    }
+
+
+    /**
+     * add count to states of all variants according to compiled transition,
+     * the same as {@link Calculator#applyTransition(int, int)}
+     */
+    protected void applyTransition(int transition, int step, double[] coefficients, double[] factorials) {
+        TransitionPlan plan = this.plan;
+        int variants = this.variantsCount;
+        double[] previous = this.getStepStates(step - 1);
+        double[] current = this.getStepStates(step);
+        double[] intensities = this.intensities;
+        double[] totalCounts = this.totalCounts;
+
+        this.calculateIntensities(transition, step - 1, factorials);
+        this.calculateTotalCounts(transition, step - 1);
+        int probabilityOffset = transition * variants;
+        for (int v = 0; v < variants; v++) {
+            intensities[v] = intensities[v] * totalCounts[v] * this.probabilities[probabilityOffset + v];
+        }
+        int from = plan.statesOffsets[transition];
+        int to = plan.statesOffsets[transition + 1];
+
+        if (plan.residual[transition]) {
+            // sum of all residual states
+            double[] residualSums = this.residualSums;
+            CompensatedSum sums = this.sums;
+            sums.reset();
+            for (int i = from; i < to; i++) {
+                if (plan.modes[i] == StateMode.RESIDUAL) {
+                    int offset = plan.stateIndexes[i] * variants;
+                    for (int v = 0; v < variants; v++) {
+                        sums.add(v, previous[offset + v] - intensities[v]);
+                    }
+                }
+            }
+            for (int v = 0; v < variants; v++) {
+                residualSums[v] = sums.get(v);
+            }
+
+            // subtract count from residual states
+            for (int i = from; i < to; i++) {
+                if (plan.modes[i] == StateMode.RESIDUAL) {
+                    int offset = plan.stateIndexes[i] * variants;
+                    for (int v = 0; v < variants; v++) {
+                        current[offset + v] -= previous[offset + v] - intensities[v];
+                    }
+                }
+            }
+
+            // and add count to all states which Out > 0
+            for (int i = from; i < to; i++) {
+                int offset = plan.stateIndexes[i] * variants;
+                int parameterOffset = i * variants;
+                for (int v = 0; v < variants; v++) {
+                    if (this.out[parameterOffset + v] != 0) {
+                        current[offset + v] += coefficients[parameterOffset + v] * residualSums[v];
+                    }
+                }
+            }
+            return;
+        }
+
+        for (int i = from; i < to; i++) {
+            int offset = plan.stateIndexes[i] * variants;
+            int parameterOffset = i * variants;
+            for (int v = 0; v < variants; v++) {
+                current[offset + v] += coefficients[parameterOffset + v] * intensities[v];
+            }
+        }
+    }
+
+    /**
+     * intensities of compiled transition for all variants to {@link #intensities},
+     * the same as {@link Calculator#getIntensity(int, int)}
+     */
+    protected void calculateIntensities(int transition, int step, double[] factorials) {
+        TransitionPlan plan = this.plan;
+        int variants = this.variantsCount;
+        double[] intensities = this.intensities;
+        int from = plan.statesOffsets[transition];
+        int to = plan.statesOffsets[transition + 1];
+
+        switch (plan.types[transition]) {
+            case TransitionType.LINEAR: {
+                // intensities keep minimum, sums - inhibitors
+                CompensatedSum inhibitors = this.sums;
+                Arrays.fill(intensities, Double.POSITIVE_INFINITY);
+                inhibitors.reset();
+                for (int i = from; i < to; i++) {
+                    double[] delayed = this.getStepStates(Math.max(0, step - plan.delays[i]));
+                    int offset = plan.stateIndexes[i] * variants;
+                    int parameterOffset = i * variants;
+                    boolean isInhibitor = plan.modes[i] == StateMode.INHIBITOR;
+                    for (int v = 0; v < variants; v++) {
+                        double in = this.in[parameterOffset + v];
+                        if (in > 0) {
+                            double count = delayed[offset + v] / in;
+                            if (isInhibitor) {
+                                inhibitors.add(v, count);
+                            } else {
+                                intensities[v] = Math.min(intensities[v], count);
+                            }
+                        }
+                    }
+                }
+                for (int v = 0; v < variants; v++) {
+                    double intensity = intensities[v] == Double.POSITIVE_INFINITY ? 0 : intensities[v];
+                    intensity -= inhibitors.get(v);
+                    intensities[v] = Math.max(0, intensity);
+                }
+                break;
+            }
+
+            case TransitionType.SOLUTE:
+            case TransitionType.BLEND: {
+                this.calculateTotalCounts(transition, step);
+                double[] totalCounts = this.totalCounts;
+                Arrays.fill(intensities, 1);
+                for (int i = from; i < to; i++) {
+                    double[] delayed = this.getStepStates(Math.max(0, step - plan.delays[i]));
+                    int offset = plan.stateIndexes[i] * variants;
+                    int parameterOffset = i * variants;
+                    boolean isInhibitor = plan.modes[i] == StateMode.INHIBITOR;
+                    for (int v = 0; v < variants; v++) {
+                        double in = this.in[parameterOffset + v];
+                        if (in > 0) {
+                            double res = Math.pow(delayed[offset + v], in) / factorials[parameterOffset + v] /
+                                    Math.pow(totalCounts[v], in);
+                            if (isInhibitor) {
+                                res = 1 - res;
+                            }
+                            intensities[v] *= res;
+                        }
+                    }
+                }
+                for (int v = 0; v < variants; v++) {
+                    if (totalCounts[v] == 0) {
+                        intensities[v] = 0;
+                    }
+                }
+                break;
+            }
+
+            default: {
+                throw new UnknownTransitionType("Can't' get intensity for transition with unknown type");
+            }
+        }
+    }
+
+    /**
+     * states total counts of compiled transition for all variants to {@link #totalCounts},
+     * the same as {@link Calculator#getTotalCount(int, int)}
+     */
+    protected void calculateTotalCounts(int transition, int step) {
+        TransitionPlan plan = this.plan;
+        int variants = this.variantsCount;
+        double[] totalCounts = this.totalCounts;
+        double[] statesCount = this.getStepStates(step);
+
+        switch (plan.types[transition]) {
+            case TransitionType.LINEAR: {
+                Arrays.fill(totalCounts, 1);
+                break;
+            }
+
+            case TransitionType.SOLUTE: {
+                if (this.soluteTotalCountStep != step) {
+                    CompensatedSum sums = this.sums;
+                    sums.reset();
+                    for (int state = 0; state < this.statesNumber; state++) {
+                        int offset = state * variants;
+                        for (int v = 0; v < variants; v++) {
+                            sums.add(v, statesCount[offset + v]);
+                        }
+                    }
+                    for (int v = 0; v < variants; v++) {
+                        this.soluteTotalCounts[v] = sums.get(v);
+                    }
+                    this.soluteTotalCountStep = step;
+                }
+                System.arraycopy(this.soluteTotalCounts, 0, totalCounts, 0, variants);
+                break;
+            }
+
+            case TransitionType.BLEND: {
+                CompensatedSum sums = this.sums;
+                sums.reset();
+                for (int i = plan.distinctOffsets[transition]; i < plan.distinctOffsets[transition + 1]; i++) {
+                    int offset = plan.distinctStateIndexes[i] * variants;
+                    for (int v = 0; v < variants; v++) {
+                        sums.add(v, statesCount[offset + v]);
+                    }
+                }
+                for (int v = 0; v < variants; v++) {
+                    totalCounts[v] = sums.get(v);
+                }
+                break;
+            }
+
+            default: {
+                throw new UnknownTransitionType("Can't' get total count for transition with unknown type");
+            }
+        }
+    }
+
+
+    /**
+     * round states count of all variants, the same as {@link Calculator#roundStates(int, Integer)}.
+     * States of stable variants are copied from previous step
+     */
+    protected void roundStates(int step) {
+        int variants = this.variantsCount;
+        int maxDelay = this.plan.getMaxDelay();
+        double[] previous = this.getStepStates(step - 1);
+        double[] statesCount = this.getStepStates(step);
+        boolean isAllowNegative = this.task.getIsAllowNegative();
+        double eps = DecimalRounding.negativePowerOfTen(this.scale);
+        for (int state = 0; state < this.statesNumber; state++) {
+            int offset = state * variants;
+            for (int v = 0; v < variants; v++) {
+                if (this.stable[v] || this.unchangedStepsCount[v] > maxDelay) {
+                    statesCount[offset + v] = previous[offset + v];
+                } else if (statesCount[offset + v] <= eps && !isAllowNegative) {
+                    statesCount[offset + v] = 0;
+                } else {
+                    statesCount[offset + v] = DecimalRounding.roundHalfUp(statesCount[offset + v], this.scale);
+                }
+            }
+        }
+    }
+
+    protected void restrictNegativeness(int step) {
+        double[] statesCount = this.getStepStates(step);
+        for (int i = 0; i < statesCount.length; i++) {
+            if (statesCount[i] < 0) {
+                statesCount[i] = 0;
+            }
+        }
+    }
+
+    protected void updateUnchangedSteps(int step) {
+        int variants = this.variantsCount;
+        double[] previous = this.getStepStates(step - 1);
+        double[] current = this.getStepStates(step);
+        boolean[] changed = new boolean[variants];
+        for (int state = 0; state < this.statesNumber; state++) {
+            int offset = state * variants;
+            for (int v = 0; v < variants; v++) {
+                if (current[offset + v] != previous[offset + v]) {
+                    changed[v] = true;
+                }
+            }
+        }
+        for (int v = 0; v < variants; v++) {
+            this.unchangedStepsCount[v] = changed[v] ? 0 : this.unchangedStepsCount[v] + 1;
+        }
+    }
+}
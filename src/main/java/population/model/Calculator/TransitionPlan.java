@@ -0,0 +1,172 @@
+package population.model.Calculator;
+
+
+import population.model.StateModel.State;
+import population.model.TransitionModel.StateInTransition;
+import population.model.TransitionModel.StateMode;
+import population.model.TransitionModel.Transition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Task transitions compiled to flat primitive arrays.
+ * It is built once before calculation, so calculation steps don't touch
+ * task model (properties, observable lists) at all.
+ *
+ * States of transition t are placed in [statesOffsets[t], statesOffsets[t + 1])
+ * of state arrays, distinct states - in [distinctOffsets[t], distinctOffsets[t + 1])
+ * of {@link #distinctStateIndexes}.
+ */
+public class TransitionPlan {
+    /** [transition] */
+    protected final int[] types;
+    protected final double[] probabilities;
+    protected final boolean[] residual;
+    protected final int[] statesOffsets;
+    protected final int[] distinctOffsets;
+
+    /** [state in transition] */
+    protected final int[] stateIndexes;
+    protected final double[] in;
+    protected final double[] out;
+    protected final int[] delays;
+    protected final int[] modes;
+    /** out - in */
+    protected final double[] coefficients;
+    /** probabilistic factorial of in */
+    protected final double[] factorials;
+
+    /** distinct states indexes of each transition */
+    protected final int[] distinctStateIndexes;
+
+    protected final int maxDelay;
+
+
+    /**
+     * @param transitions task transitions
+     * @param stateIndexes map of state id to it's index in calculator states
+     */
+    public TransitionPlan(List<Transition> transitions, Map<Integer, Integer> stateIndexes) {
+        int transitionsCount = transitions.size();
+        List<List<StateInTransition>> actualStates = new ArrayList<>(transitionsCount);
+        int size = 0;
+        for (Transition transition : transitions) {
+            List<StateInTransition> states = transition.getActualStates();
+            actualStates.add(states);
+            size += states.size();
+        }
+
+        this.types = new int[transitionsCount];
+        this.probabilities = new double[transitionsCount];
+        this.residual = new boolean[transitionsCount];
+        this.statesOffsets = new int[transitionsCount + 1];
+        this.distinctOffsets = new int[transitionsCount + 1];
+        this.stateIndexes = new int[size];
+        this.in = new double[size];
+        this.out = new double[size];
+        this.delays = new int[size];
+        this.modes = new int[size];
+        this.coefficients = new double[size];
+        this.factorials = new double[size];
+
+        int[] distinct = new int[size];
+        int offset = 0;
+        int distinctOffset = 0;
+        int maxDelay = 0;
+
+        for (int t = 0; t < transitionsCount; t++) {
+            Transition transition = transitions.get(t);
+            this.types[t] = transition.getType();
+            this.probabilities[t] = transition.getProbability();
+            this.statesOffsets[t] = offset;
+            this.distinctOffsets[t] = distinctOffset;
+
+            for (StateInTransition state : actualStates.get(t)) {
+                int index = stateIndexes.get(state.getState().getId());
+                this.stateIndexes[offset] = index;
+                this.in[offset] = state.getIn();
+                this.out[offset] = state.getOut();
+                this.delays[offset] = state.getDelay();
+                this.modes[offset] = state.getMode();
+                this.coefficients[offset] = state.getOut() - state.getIn();
+                this.factorials[offset] = probabilisticFactorial(state.getIn());
+
+                if (state.getMode() == StateMode.RESIDUAL) {
+                    this.residual[t] = true;
+                }
+                maxDelay = Math.max(maxDelay, state.getDelay());
+
+                boolean isDistinct = true;
+                for (int i = this.distinctOffsets[t]; i < distinctOffset; i++) {
+                    if (distinct[i] == index) {
+                        isDistinct = false;
+                        break;
+                    }
+                }
+                if (isDistinct) {
+                    distinct[distinctOffset++] = index;
+                }
+
+                offset++;
+            }
+        }
+
+        this.statesOffsets[transitionsCount] = offset;
+        this.distinctOffsets[transitionsCount] = distinctOffset;
+        this.distinctStateIndexes = new int[distinctOffset];
+        System.arraycopy(distinct, 0, this.distinctStateIndexes, 0, distinctOffset);
+        this.maxDelay = maxDelay;
+    }
+
+
+    /**
+     * @param states calculator states
+     * @return map of state id to it's first index in states
+     */
+    public static Map<Integer, Integer> buildStateIndexes(List<State> states) {
+        Map<Integer, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < states.size(); i++) {
+            indexes.putIfAbsent(states.get(i).getId(), i);
+        }
+        return indexes;
+    }
+
+
+    /**
+     * Вероятностный факториал.
+     * Факториал вещественного числа как математическое ожидание
+     * от факториалов двух соседних целых.
+     *
+     * @param u исходное значение
+     * @return результат
+     */
+    public static double probabilisticFactorial(double u) {
+        double result = 1;
+        double r = u % 1;
+        if (r > 0) {
+            double v = Math.floor(u);
+            for (double i = 2; i <= v; i++) {
+                result *= i;
+            }
+            result = result * (1 - r) + result * (v + 1) * r;
+        } else {
+            for (double i = 2; i <= u; i++) {
+                result *= i;
+            }
+        }
+        return result;
+    }
+
+
+    public int getTransitionsCount() {
+        return types.length;
+    }
+
+    public int getMaxDelay() {
+        return maxDelay;
+    }
+}
@@ -32,6 +32,7 @@ public class Task {
     private int mStepsCount;
     private boolean mParallel;
     private boolean mHigherAccuracy;
+    private boolean mDoubleDoubleAccuracy;
     private boolean mAllowNegative;
     private char mColumnSeparator;
     private char mDecimalSeparator;
@@ -50,6 +51,7 @@ public class Task {
         setStepsCount(task.getStepsCount());
         setParallel(task.isParallel());
         setHigherAccuracy(task.isHigherAccuracy());
+        setDoubleDoubleAccuracy(task.isDoubleDoubleAccuracy());
         setAllowNegative(task.isAllowNegative());
         setColumnSeparator(task.getColumnSeparator());
         setDecimalSeparator(task.getDecimalSeparator());
@@ -130,6 +132,18 @@ public class Task {
         mHigherAccuracy = higherAccuracy;
     }
 
+    /**
+     * @return calculate with double-double (about 31 decimal digits) precision instead of
+     * double. Ignored if higher accuracy is on
+     */
+    public boolean isDoubleDoubleAccuracy() {
+        return mDoubleDoubleAccuracy;
+    }
+
+    public void setDoubleDoubleAccuracy(boolean doubleDoubleAccuracy) {
+        mDoubleDoubleAccuracy = doubleDoubleAccuracy;
+    }
+
     public boolean isAllowNegative() {
         return mAllowNegative;
     }
@@ -181,6 +195,7 @@ public class Task {
         settings.put(Keys.STEPS_COUNT, String.valueOf(task.getStepsCount()));
         settings.put(Keys.PARALLEL, String.valueOf(task.isParallel()));
         settings.put(Keys.HIGHER_ACCURACY, String.valueOf(task.isHigherAccuracy()));
+        settings.put(Keys.DOUBLE_DOUBLE_ACCURACY, String.valueOf(task.isDoubleDoubleAccuracy()));
         settings.put(Keys.ALLOW_NEGATIVE, String.valueOf(task.isAllowNegative()));
         settings.put(Keys.COLUMN_SEPARATOR, String.valueOf(task.getColumnSeparator()));
         settings.put(Keys.DECIMAL_SEPARATOR, String.valueOf(task.getDecimalSeparator()));
@@ -200,6 +215,7 @@ public class Task {
         task.setStepsCount(Integer.parseInt(settings.get(Keys.STEPS_COUNT)));
         task.setParallel(Boolean.parseBoolean(settings.get(Keys.PARALLEL)));
         task.setHigherAccuracy(Boolean.parseBoolean(settings.get(Keys.HIGHER_ACCURACY)));
+        task.setDoubleDoubleAccuracy(Boolean.parseBoolean(settings.get(Keys.DOUBLE_DOUBLE_ACCURACY)));
         task.setAllowNegative(Boolean.parseBoolean(settings.get(Keys.ALLOW_NEGATIVE)));
         task.setColumnSeparator(settings.get(Keys.COLUMN_SEPARATOR).charAt(0));
         task.setDecimalSeparator(settings.get(Keys.DECIMAL_SEPARATOR).charAt(0));
@@ -218,6 +234,7 @@ public class Task {
         public static final String STEPS_COUNT = "StepsCount";
         public static final String PARALLEL = "Parallel";
         public static final String HIGHER_ACCURACY = "HigherAccuracy";
+        public static final String DOUBLE_DOUBLE_ACCURACY = "DoubleDoubleAccuracy";
         public static final String ALLOW_NEGATIVE = "AllowNegative";
         public static final String COLUMN_SEPARATOR = "ColumnSeparator";
         public static final String DECIMAL_SEPARATOR = "DecimalSeparator";
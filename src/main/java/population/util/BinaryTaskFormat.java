@@ -0,0 +1,230 @@
+package population.util;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import population.model.StateModel.State;
+import population.model.TaskV4;
+import population.model.TransitionModel.StateInTransition;
+import population.model.TransitionModel.Transition;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Versioned binary format of {@link TaskV4}, little-endian.
+ *
+ * It contains the same data as CSV task written by {@link TaskParser#encodeV4}, but
+ * numbers are not formatted and parsed. CSV remains the interchange format,
+ * {@link TaskParser#parse} reads both.
+ */
+public final class BinaryTaskFormat {
+    /** "PTSK" */
+    private static final int MAGIC = 0x4B535450;
+    private static final int VERSION = 1;
+
+    private BinaryTaskFormat() {
+    }
+
+    public static void encode(File file, TaskV4 task) throws IOException {
+        Buffer buffer = new Buffer();
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(task.getStartPoint());
+        buffer.putInt(task.getStepsCount());
+        buffer.putInt(task.getIsAllowNegative() ? 1 : 0);
+
+        buffer.putInt(task.getStates().size());
+        for (State state : task.getStates()) {
+            buffer.putInt(state.getId());
+            buffer.putString(state.getName());
+            buffer.putString(state.getAlias());
+            buffer.putDouble(state.getCount());
+        }
+
+        buffer.putInt(task.getTransitions().size());
+        for (Transition transition : task.getTransitions()) {
+            buffer.putDouble(transition.getProbability());
+            buffer.putInt(transition.getType());
+            buffer.putString(transition.getBlock());
+            buffer.putInt(transition.getStates().size());
+            for (StateInTransition state : transition.getStates()) {
+                buffer.putInt(state.getState() == null ? -1 : state.getState().getId());
+                buffer.putDouble(state.getIn());
+                buffer.putDouble(state.getOut());
+                buffer.putInt(state.getDelay());
+                buffer.putInt(state.getMode());
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer data = buffer.flip();
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+    }
+
+    /**
+     * @param file file
+     * @return true if file starts with binary task header
+     */
+    public static boolean isBinaryTask(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    return false;
+                }
+            }
+            return header.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static TaskV4 parse(File file) throws IOException {
+        // task is small, it is read to heap, so file isn't locked by mapping
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            data = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE)).order(ByteOrder.LITTLE_ENDIAN);
+            while (data.hasRemaining()) {
+                if (channel.read(data) < 0) {
+                    break;
+                }
+            }
+            data.flip();
+        }
+        try {
+            return parse(data, file);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary task: " + file, e);
+        }
+    }
+
+    private static TaskV4 parse(ByteBuffer data, File file) throws IOException {
+        if (data.remaining() < 2 * Integer.BYTES || data.getInt() != MAGIC) {
+            throw new IOException("Not a binary task: " + file);
+        }
+        int version = data.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary task version " + version);
+        }
+
+        TaskV4 task = new TaskV4();
+        task.setStartPoint(data.getInt());
+        task.setStepsCount(data.getInt());
+        task.setIsAllowNegative(data.getInt() != 0);
+
+        ObservableList<State> states = FXCollections.observableArrayList();
+        Map<Integer, State> idStateMap = new HashMap<>();
+        int statesCount = data.getInt();
+        for (int i = 0; i < statesCount; i++) {
+            int id = data.getInt();
+            State state = new State();
+            state.setName(getString(data));
+            state.setAlias(getString(data));
+            state.setCount(data.getDouble());
+            idStateMap.put(id, state);
+            states.add(state);
+        }
+
+        ObservableList<Transition> transitions = FXCollections.observableArrayList();
+        int transitionsCount = data.getInt();
+        for (int i = 0; i < transitionsCount; i++) {
+            Transition transition = new Transition();
+            transition.setProbability(data.getDouble());
+            transition.setType(data.getInt());
+            transition.setBlock(getString(data));
+            int statesInTransitionCount = data.getInt();
+            for (int j = 0; j < statesInTransitionCount; j++) {
+                StateInTransition state = new StateInTransition();
+                int id = data.getInt();
+                state.setState(id == -1 ? null : idStateMap.get(id));
+                state.setIn(data.getDouble());
+                state.setOut(data.getDouble());
+                state.setDelay(data.getInt());
+                state.setMode(data.getInt());
+                transition.getStates().add(state);
+            }
+            transitions.add(transition);
+        }
+
+        task.setStates(states);
+        task.setTransitions(transitions);
+        task.setName(file.getAbsolutePath());
+        return task;
+    }
+
+    /**
+     * @param data buffer
+     * @return string written by {@link Buffer#putString}
+     */
+    private static String getString(ByteBuffer data) {
+        int length = data.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * Growing little-endian buffer
+     */
+    private static class Buffer {
+        private ByteBuffer buffer = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+
+        private void ensureRemaining(int bytes) {
+            if (this.buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(this.buffer.capacity() * 2,
+                        this.buffer.position() + bytes)).order(ByteOrder.LITTLE_ENDIAN);
+                this.buffer.flip();
+                grown.put(this.buffer);
+                this.buffer = grown;
+            }
+        }
+
+        void putInt(int value) {
+            this.ensureRemaining(Integer.BYTES);
+            this.buffer.putInt(value);
+        }
+
+        void putDouble(double value) {
+            this.ensureRemaining(Double.BYTES);
+            this.buffer.putDouble(value);
+        }
+
+        /**
+         * put UTF-8 string with its length, null string has length -1
+         */
+        void putString(String value) {
+            if (value == null) {
+                this.putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            this.putInt(bytes.length);
+            this.ensureRemaining(bytes.length);
+            this.buffer.put(bytes);
+        }
+
+        /**
+         * @return written data ready to be read
+         */
+        ByteBuffer flip() {
+            this.buffer.flip();
+            return this.buffer;
+        }
+    }
+}
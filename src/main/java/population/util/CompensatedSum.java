@@ -0,0 +1,116 @@
+package population.util;
+
+import java.util.stream.DoubleStream;
+
+/**
+ * Compensated (Kahan) summation of doubles in flat loops.
+ *
+ * It is the summation of {@link DoubleStream#sum()} step by step, so loops give exactly
+ * the same results as stream sums. Accumulator keeps several independent sums,
+ * e.g. one per variant of {@link population.model.Calculator.SweepCalculator}.
+ */
+public final class CompensatedSum {
+    /**
+     * Java 8 adds the final compensation to the sum, later versions subtract it (JDK-8214761).
+     * Stream sum of 2^53 and 1 is 2^53 - 1 if compensation is added
+     */
+    private static final boolean IS_COMPENSATION_ADDED = DoubleStream.of(0x1p53, 1).sum() != 0x1p53;
+
+    private final double[] sums;
+    private final double[] compensations;
+    /** plain sums, they are results if compensated sums overflow to NaN */
+    private final double[] simpleSums;
+
+
+    /**
+     * @param count count of sums
+     */
+    public CompensatedSum(int count) {
+        this.sums = new double[count];
+        this.compensations = new double[count];
+        this.simpleSums = new double[count];
+    }
+
+
+    /**
+     * @param values values
+     * @return sum of all values
+     */
+    public static double sum(double[] values) {
+        double sum = 0;
+        double compensation = 0;
+        double simpleSum = 0;
+        for (double value : values) {
+            double corrected = value - compensation;
+            double next = sum + corrected;
+            compensation = (next - sum) - corrected;
+            sum = next;
+            simpleSum += value;
+        }
+        return result(sum, compensation, simpleSum);
+    }
+
+    /**
+     * @param values values
+     * @param indexes indexes of summed values
+     * @param from first position in indexes (inclusive)
+     * @param to last position in indexes (exclusive)
+     * @return sum of values[indexes[from]], ..., values[indexes[to - 1]]
+     */
+    public static double sum(double[] values, int[] indexes, int from, int to) {
+        double sum = 0;
+        double compensation = 0;
+        double simpleSum = 0;
+        for (int i = from; i < to; i++) {
+            double value = values[indexes[i]];
+            double corrected = value - compensation;
+            double next = sum + corrected;
+            compensation = (next - sum) - corrected;
+            sum = next;
+            simpleSum += value;
+        }
+        return result(sum, compensation, simpleSum);
+    }
+
+
+    /**
+     * set all sums to 0
+     */
+    public void reset() {
+        for (int i = 0; i < this.sums.length; i++) {
+            this.sums[i] = 0;
+            this.compensations[i] = 0;
+            this.simpleSums[i] = 0;
+        }
+    }
+
+    /**
+     * @param index index of sum
+     * @param value added value
+     */
+    public void add(int index, double value) {
+        double corrected = value - this.compensations[index];
+        double sum = this.sums[index];
+        double next = sum + corrected;
+        this.compensations[index] = (next - sum) - corrected;
+        this.sums[index] = next;
+        this.simpleSums[index] += value;
+    }
+
+    /**
+     * @param index index of sum
+     * @return sum of added values
+     */
+    public double get(int index) {
+        return result(this.sums[index], this.compensations[index], this.simpleSums[index]);
+    }
+
+
+    private static double result(double sum, double compensation, double simpleSum) {
+        double result = IS_COMPENSATION_ADDED ? sum + compensation : sum - compensation;
+        if (Double.isNaN(result) && Double.isInfinite(simpleSum)) {
+            return simpleSum;
+        }
+        return result;
+    }
+}
@@ -29,6 +29,9 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 
 /**
  * Parser of CSV format
@@ -39,6 +42,10 @@ public final class CsvParser {
     private static final char QUOTE = '\"';
     private static final char LF = '\n';
     private static final int BUFFER_SIZE = 8192;
+    private static final int START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
 
     private CsvParser() {
     }
@@ -98,6 +105,27 @@ public final class CsvParser {
         return stringBuilder.toString();
     }
 
+    /**
+     * Receiver of cells of parsed CSV
+     *
+     * @see #parse(Reader, char, CellConsumer)
+     */
+    public interface CellConsumer {
+        /**
+         * Called for each cell of row, content is valid only during the call
+         *
+         * @param buffer Buffer containing unquoted cell content
+         * @param offset Offset of cell content
+         * @param length Length of cell content
+         */
+        void cell(char[] buffer, int offset, int length);
+
+        /**
+         * Called after last cell of row
+         */
+        void endRow();
+    }
+
     /**
      * Parse CSV into {@link StringTable}
      *
@@ -108,31 +136,9 @@ public final class CsvParser {
      */
     public static StringTable parse(InputStream inputStream, char separator, String charset) {
         try (InputStreamReader reader = new InputStreamReader(inputStream, charset)) {
-            StringTable table = new StringTable();
-            StringBuilder row = new StringBuilder();
-            boolean inQuotes = false;
-            char[] buffer = new char[BUFFER_SIZE];
-            for (; ; ) {
-                int read = reader.read(buffer);
-                if (read == -1) {
-                    if (row.length() > 0) {
-                        table.add(parseRow(row.toString(), separator));
-                    }
-                    break;
-                }
-                for (int i = 0; i < read; i++) {
-                    if (buffer[i] == CsvParser.LF && !inQuotes) {
-                        table.add(parseRow(row.toString(), separator));
-                        row.delete(0, row.length());
-                    } else {
-                        if (buffer[i] == CsvParser.QUOTE) {
-                            inQuotes = !inQuotes;
-                        }
-                        row.append(buffer[i]);
-                    }
-                }
-            }
-            return table;
+            TableBuilder builder = new TableBuilder();
+            parse(reader, separator, builder);
+            return builder.table;
         } catch (IOException e) {
             return null;
         }
@@ -146,57 +152,137 @@ public final class CsvParser {
      * @return Table
      */
     public static StringTable parse(String string, char separator) {
-        StringTable table = new StringTable();
-        StringBuilder row = new StringBuilder();
-        boolean inQuotes = false;
-        for (int i = 0, l = string.length(); i < l; i++) {
-            char current = string.charAt(i);
-            if (current == CsvParser.LF && !inQuotes) {
-                table.add(parseRow(row.toString(), separator));
-                row.delete(0, row.length());
-            } else {
-                if (current == CsvParser.QUOTE) {
-                    inQuotes = !inQuotes;
+        TableBuilder builder = new TableBuilder();
+        try {
+            parse(new StringReader(string), separator, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.table;
+    }
+
+    /**
+     * Parse CSV passing cells to consumer, cells are not copied
+     *
+     * @param reader    Source data reader, it isn't closed
+     * @param separator Column separator
+     * @param consumer  Consumer of cells
+     */
+    public static void parse(Reader reader, char separator, CellConsumer consumer)
+            throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        int state = START;
+        // whether if any char of current row is read
+        boolean inRow = false;
+        // cell content is unquoted in place, so it ends before read position
+        int cellStart = 0;
+        int cellEnd = 0;
+        int position = 0;
+        int limit = 0;
+        for (; ; ) {
+            if (position == limit) {
+                // read data is consumed, only current cell is kept
+                int length = cellEnd - cellStart;
+                if (length > buffer.length / 2) {
+                    char[] grown = new char[buffer.length * 2];
+                    System.arraycopy(buffer, cellStart, grown, 0, length);
+                    buffer = grown;
+                } else if (cellStart != 0) {
+                    System.arraycopy(buffer, cellStart, buffer, 0, length);
                 }
-                row.append(current);
+                cellStart = 0;
+                cellEnd = length;
+                position = length;
+                int read = reader.read(buffer, position, buffer.length - position);
+                if (read == -1) {
+                    break;
+                }
+                limit = position + read;
             }
+            char current = buffer[position++];
+            switch (state) {
+                case START:
+                case UNQUOTED: {
+                    if (current == separator) {
+                        consumer.cell(buffer, cellStart, cellEnd - cellStart);
+                        state = START;
+                    } else if (current == LF) {
+                        consumer.cell(buffer, cellStart, cellEnd - cellStart);
+                        consumer.endRow();
+                        state = START;
+                        inRow = false;
+                        cellStart = position;
+                        cellEnd = position;
+                        continue;
+                    } else if (current == QUOTE && state == START) {
+                        state = QUOTED;
+                    } else {
+                        buffer[cellEnd++] = current;
+                        state = UNQUOTED;
+                    }
+                    break;
+                }
+                case QUOTED: {
+                    if (current == QUOTE) {
+                        state = QUOTE_IN_QUOTED;
+                    } else {
+                        buffer[cellEnd++] = current;
+                    }
+                    break;
+                }
+                case QUOTE_IN_QUOTED: {
+                    if (current == separator) {
+                        consumer.cell(buffer, cellStart, cellEnd - cellStart);
+                        state = START;
+                    } else if (current == LF) {
+                        consumer.cell(buffer, cellStart, cellEnd - cellStart);
+                        consumer.endRow();
+                        state = START;
+                        inRow = false;
+                        cellStart = position;
+                        cellEnd = position;
+                        continue;
+                    } else if (current == QUOTE) {
+                        // escaped quote
+                        buffer[cellEnd++] = current;
+                        state = QUOTED;
+                    } else {
+                        // text after closing quote, e.g. CR of CRLF line separator
+                        buffer[cellEnd++] = current;
+                        state = UNQUOTED;
+                    }
+                    break;
+                }
+            }
+            if (state == START) {
+                cellStart = position;
+                cellEnd = position;
+            }
+            inRow = true;
         }
-        if (row.length() > 0) {
-            table.add(parseRow(row.toString(), separator));
+        if (inRow) {
+            consumer.cell(buffer, cellStart, cellEnd - cellStart);
+            consumer.endRow();
         }
-        return table;
     }
 
-    private static StringRow parseRow(String rowString, char separator) {
-        StringRow row = new StringRow();
-        StringBuilder cell = new StringBuilder();
-        boolean inQuotes = false;
-        boolean inElementQuotes = false;
-        int length = rowString.length();
-        for (int i = 0; i < length; i++) {
-            char current = rowString.charAt(i);
-            if (current == separator && !inElementQuotes) {
-                row.add(cell.toString());
-                cell.delete(0, cell.length());
-            } else if (current == CsvParser.QUOTE) {
-                int n = i + 1;
-                int p = i - 1;
-                if ((p > -1 && rowString.charAt(p) == separator || i == 0) && !inElementQuotes) {
-                    inElementQuotes = true;
-                } else if ((n < length && rowString.charAt(n) == separator || n == length) &&
-                        inElementQuotes) {
-                    inElementQuotes = false;
-                } else if (n < length && rowString.charAt(n) == CsvParser.QUOTE) {
-                    cell.append(current);
-                    i++;
-                } else {
-                    inQuotes = !inQuotes;
-                }
-            } else {
-                cell.append(current);
-            }
+
+    /**
+     * Collects cells to {@link StringTable}
+     */
+    private static class TableBuilder implements CellConsumer {
+        private final StringTable table = new StringTable();
+        private StringRow row = new StringRow();
+
+        @Override
+        public void cell(char[] buffer, int offset, int length) {
+            row.add(new String(buffer, offset, length));
+        }
+
+        @Override
+        public void endRow() {
+            table.add(row);
+            row = new StringRow();
         }
-        row.add(cell.toString());
-        return row;
     }
 }
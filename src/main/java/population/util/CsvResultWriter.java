@@ -0,0 +1,306 @@
+package population.util;
+
+import population.model.Calculator.StepSink;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Streaming writer of results to CSV in the same format as {@link Utils#exportResults}:
+ * all cells are quoted, values are formatted by {@link DoubleFormatter}.
+ *
+ * Rows are formatted to char buffer and encoded to large direct byte buffer, which is written
+ * to file channel, so nothing depends on result size. It is a {@link StepSink}, so
+ * {@link population.model.Calculator.Calculator} can write steps directly to CSV.
+ */
+public class CsvResultWriter implements StepSink, Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final int MIN_BUFFER_SIZE = 4 * DoubleFormatter.MAX_LENGTH;
+    private static final char QUOTE = '"';
+    private static final String MISSING_VALUE = "---";
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars;
+    private final ByteBuffer bytes;
+    private final char columnSeparator;
+    private final char decimalSeparator;
+    private final String lineSeparator;
+    /** step number of step 0 passed to sink */
+    private int startPoint = 0;
+    /** is any cell written in current row */
+    private boolean isRowStarted = false;
+    /** formatted cells of last stable row after step number, they are repeated for stable steps */
+    private char[] stableRow;
+    private int stableRowLength;
+
+
+    /**
+     * @param file file, it is overwritten
+     * @param columnSeparator column separator
+     * @param decimalSeparator decimal separator
+     * @param lineSeparator line separator
+     * @param encoding encoding name
+     */
+    public CsvResultWriter(File file, char columnSeparator, char decimalSeparator, String lineSeparator,
+                           String encoding) throws IOException {
+        this(file, columnSeparator, decimalSeparator, lineSeparator, encoding, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param file file, it is overwritten
+     * @param columnSeparator column separator
+     * @param decimalSeparator decimal separator
+     * @param lineSeparator line separator
+     * @param encoding encoding name
+     * @param bufferSize size of buffers, smaller buffers are used when many files are written at once
+     */
+    public CsvResultWriter(File file, char columnSeparator, char decimalSeparator, String lineSeparator,
+                           String encoding, int bufferSize) throws IOException {
+        this(FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), columnSeparator, decimalSeparator, lineSeparator, encoding,
+                bufferSize);
+    }
+
+    /**
+     * @param channel channel, it is closed by {@link #close()}
+     * @param columnSeparator column separator
+     * @param decimalSeparator decimal separator
+     * @param lineSeparator line separator
+     * @param encoding encoding name
+     * @param bufferSize size of buffers
+     */
+    public CsvResultWriter(WritableByteChannel channel, char columnSeparator, char decimalSeparator,
+                           String lineSeparator, String encoding, int bufferSize) {
+        this.channel = channel;
+        this.chars = CharBuffer.allocate(Math.max(bufferSize, MIN_BUFFER_SIZE));
+        this.bytes = ByteBuffer.allocateDirect(Math.max(bufferSize, MIN_BUFFER_SIZE));
+        // the same as OutputStreamWriter does
+        this.encoder = Charset.forName(encoding).newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.columnSeparator = columnSeparator;
+        this.decimalSeparator = decimalSeparator;
+        this.lineSeparator = lineSeparator;
+    }
+
+
+    /**
+     * @param startPoint step number of step 0 passed to {@link #accept}
+     */
+    public void setStartPoint(int startPoint) {
+        this.startPoint = startPoint;
+    }
+
+    /**
+     * write header row
+     *
+     * @param stepTitle title of step column
+     * @param names states names
+     */
+    public void writeHeader(String stepTitle, List<String> names) throws IOException {
+        this.writeText(stepTitle);
+        for (String name : names) {
+            this.writeText(name);
+        }
+        this.endRow();
+    }
+
+    /**
+     * write row of step
+     *
+     * @param step step number
+     * @param values states count
+     * @param count count of values
+     */
+    public void writeRow(int step, double[] values, int count) throws IOException {
+        this.writeStep(step);
+        for (int i = 0; i < count; i++) {
+            this.writeValue(values[i]);
+        }
+        this.endRow();
+    }
+
+    /**
+     * write step number cell, it starts the row
+     */
+    public void writeStep(int step) throws IOException {
+        this.startCell(12);
+        this.chars.put(Integer.toString(step));
+        this.endCell();
+    }
+
+    public void writeValue(double value) throws IOException {
+        this.startCell(DoubleFormatter.MAX_LENGTH);
+        int offset = this.chars.arrayOffset();
+        int end = DoubleFormatter.format(value, this.decimalSeparator, this.chars.array(),
+                offset + this.chars.position());
+        this.chars.position(end - offset);
+        this.endCell();
+    }
+
+    /**
+     * write cell of value which doesn't exist in result
+     */
+    public void writeMissing() throws IOException {
+        this.writeText(MISSING_VALUE);
+    }
+
+    /**
+     * write text cell, quotes are escaped
+     */
+    public void writeText(String text) throws IOException {
+        this.startCell(0);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            this.ensureChars(2);
+            if (c == QUOTE) {
+                this.chars.put(QUOTE);
+            }
+            this.chars.put(c);
+        }
+        this.endCell();
+    }
+
+    public void endRow() throws IOException {
+        this.ensureChars(this.lineSeparator.length());
+        this.chars.put(this.lineSeparator);
+        this.isRowStarted = false;
+    }
+
+
+    @Override
+    public void accept(int step, double[] statesCount) {
+        try {
+            this.writeRow(this.startPoint + step, statesCount, statesCount.length);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void acceptStable(int fromStep, int toStep, double[] statesCount) {
+        // cells of stable steps are equal, they are formatted once
+        int length = statesCount.length * (DoubleFormatter.MAX_LENGTH + 3);
+        if (this.stableRow == null || this.stableRow.length < length) {
+            this.stableRow = new char[length];
+        }
+        int position = 0;
+        for (double value : statesCount) {
+            this.stableRow[position++] = this.columnSeparator;
+            this.stableRow[position++] = QUOTE;
+            position = DoubleFormatter.format(value, this.decimalSeparator, this.stableRow, position);
+            this.stableRow[position++] = QUOTE;
+        }
+        this.stableRowLength = position;
+
+        try {
+            for (int step = fromStep; step < toStep; step++) {
+                this.writeStep(this.startPoint + step);
+                // row may be longer than buffer
+                for (int offset = 0; offset < this.stableRowLength; ) {
+                    this.ensureChars(1);
+                    int count = Math.min(this.chars.remaining(), this.stableRowLength - offset);
+                    this.chars.put(this.stableRow, offset, count);
+                    offset += count;
+                }
+                this.endRow();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void finish() {
+        try {
+            this.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * write buffered rows to channel
+     */
+    public void flush() throws IOException {
+        this.encodeChars(false);
+        this.writeBytes();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.encodeChars(true);
+            while (this.encoder.flush(this.bytes).isOverflow()) {
+                this.writeBytes();
+            }
+            this.writeBytes();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+
+    /**
+     * write separator (if it isn't first cell) and opening quote
+     *
+     * @param length max length of cell content, if content length is unknown 0 can be passed
+     *               and content must ensure free space itself
+     */
+    private void startCell(int length) throws IOException {
+        this.ensureChars(length + 3);
+        if (this.isRowStarted) {
+            this.chars.put(this.columnSeparator);
+        }
+        this.chars.put(QUOTE);
+        this.isRowStarted = true;
+    }
+
+    private void endCell() throws IOException {
+        this.ensureChars(1);
+        this.chars.put(QUOTE);
+    }
+
+    private void ensureChars(int count) throws IOException {
+        if (this.chars.remaining() < count) {
+            this.encodeChars(false);
+        }
+    }
+
+    private void encodeChars(boolean endOfInput) throws IOException {
+        this.chars.flip();
+        for (;;) {
+            CoderResult result = this.encoder.encode(this.chars, this.bytes, endOfInput);
+            if (result.isOverflow()) {
+                this.writeBytes();
+            } else {
+                if (result.isError()) {
+                    result.throwException();
+                }
+                break;
+            }
+        }
+        // incomplete surrogate pair stays in buffer
+        this.chars.compact();
+    }
+
+    private void writeBytes() throws IOException {
+        this.bytes.flip();
+        while (this.bytes.hasRemaining()) {
+            this.channel.write(this.bytes);
+        }
+        this.bytes.clear();
+    }
+}
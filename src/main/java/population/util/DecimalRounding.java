@@ -0,0 +1,108 @@
+package population.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Rounding of doubles to decimal scale without allocations.
+ *
+ * Result is bit-identical to
+ * {@code new BigDecimal(value).setScale(scale, RoundingMode.HALF_UP).doubleValue()}:
+ * value is multiplied by exact power of ten without rounding error (as sum of two doubles),
+ * so rounding direction is always decided exactly. BigDecimal is used only for scales
+ * greater than {@link #MAX_FAST_SCALE} and for values which can't be scaled to exact integer.
+ */
+public final class DecimalRounding {
+    /** max scale of primitive rounding, greater scales are rounded with BigDecimal */
+    public static final int MAX_FAST_SCALE = 16;
+
+    /** 10^i, exact in double for i <= 22 */
+    private static final double[] POWERS_OF_TEN = new double[MAX_FAST_SCALE + 1];
+    /** 10^-i, same as Math.pow(10, -i) */
+    private static final double[] NEGATIVE_POWERS_OF_TEN = new double[MAX_FAST_SCALE + 1];
+    /** rounded scaled value must be exact integer */
+    private static final double MAX_SCALED = 0x1p53 - 1;
+    /** 2^27 + 1, splits double to two halves of 26 bits */
+    private static final double SPLITTER = 0x1p27 + 1;
+    /** 2 with margin for inexact 10^-scale */
+    private static final double ULP_FACTOR = 2.000001;
+
+    static {
+        double power = 1;
+        for (int i = 0; i <= MAX_FAST_SCALE; i++) {
+            POWERS_OF_TEN[i] = power;
+            NEGATIVE_POWERS_OF_TEN[i] = Math.pow(10., -i);
+            power *= 10;
+        }
+    }
+
+    private DecimalRounding() {
+    }
+
+    /**
+     * @param value value
+     * @param scale decimal digits after point
+     * @return value rounded to scale with {@link RoundingMode#HALF_UP}
+     * @throws NumberFormatException if value is NaN or infinite (as BigDecimal does)
+     */
+    public static double roundHalfUp(double value, int scale) {
+        if (scale < 0 || scale > MAX_FAST_SCALE || Double.isNaN(value) || Double.isInfinite(value)) {
+            return roundHalfUpBig(value, scale);
+        }
+        if (value == 0) {
+            // BigDecimal has no negative zero
+            return 0;
+        }
+
+        double abs = Math.abs(value);
+        // rounding moves value by at most 10^-scale / 2, which is less than quarter of ulp,
+        // so nearest double to rounded value is value itself
+        if (Math.ulp(abs) > ULP_FACTOR * NEGATIVE_POWERS_OF_TEN[scale]) {
+            return value;
+        }
+
+        // exact product abs * 10^scale = scaled + error (Dekker's two-product)
+        double power = POWERS_OF_TEN[scale];
+        double scaled = abs * power;
+        if (scaled < 0.25) {
+            return 0;
+        }
+        if (scaled >= MAX_SCALED) {
+            return roundHalfUpBig(value, scale);
+        }
+        double c = SPLITTER * abs;
+        double absHigh = c - (c - abs);
+        double absLow = abs - absHigh;
+        c = SPLITTER * power;
+        double powerHigh = c - (c - power);
+        double powerLow = power - powerHigh;
+        double error = ((absHigh * powerHigh - scaled) + absHigh * powerLow + absLow * powerHigh)
+                + absLow * powerLow;
+
+        // round half up: compare exact fraction with 0.5. Both parts of difference are exact,
+        // and sign of their rounded sum is the sign of exact sum
+        double floor = Math.floor(scaled);
+        double rounded = (scaled - floor - 0.5) + error >= 0 ? floor + 1 : floor;
+        if (rounded == 0) {
+            return 0;
+        }
+        // both operands are exact, so division gives nearest double to decimal result
+        rounded /= power;
+        return value < 0 ? -rounded : rounded;
+    }
+
+    /**
+     * @param scale decimal digits after point
+     * @return 10^-scale
+     */
+    public static double negativePowerOfTen(int scale) {
+        if (scale >= 0 && scale <= MAX_FAST_SCALE) {
+            return NEGATIVE_POWERS_OF_TEN[scale];
+        }
+        return Math.pow(10., -scale);
+    }
+
+    static double roundHalfUpBig(double value, int scale) {
+        return new BigDecimal(value).setScale(scale, RoundingMode.HALF_UP).doubleValue();
+    }
+}
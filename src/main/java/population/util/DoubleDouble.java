@@ -0,0 +1,356 @@
+package population.util;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Double-double number: unevaluated sum of two doubles hi + lo, where |lo| is not greater
+ * than half ulp of hi. It has about 106 bits (31 decimal digits) of precision and is
+ * much faster than BigDecimal, because all operations are a few primitive double operations.
+ *
+ * Algorithms are from QD library (Hida, Li, Bailey) and Dekker's exact product.
+ * Values are immutable, states are stored as two primitive arrays of high and low parts
+ * (see {@link #valueOf(double, double)}, {@link #getHigh()}, {@link #getLow()}).
+ */
+public final class DoubleDouble implements Comparable<DoubleDouble> {
+    public static final DoubleDouble ZERO = new DoubleDouble(0, 0);
+    public static final DoubleDouble ONE = new DoubleDouble(1, 0);
+
+    /** ln(2) */
+    private static final DoubleDouble LN2 = new DoubleDouble(6.931471805599452862e-01, 2.319046813846299558e-17);
+    /** 2^-104, relative precision */
+    private static final double EPS = 0x1p-104;
+    /** 2^27 + 1, splits double to two halves of 26 bits */
+    private static final double SPLITTER = 0x1p27 + 1;
+    /** argument of exp is reduced to r / 2^EXP_SQUARINGS, result is squared back */
+    private static final int EXP_SQUARINGS = 9;
+    private static final double EXP_REDUCTION = 1. / (1 << EXP_SQUARINGS);
+    private static final int EXP_MAX_TERMS = 30;
+    /** max scale of primitive rounding, 10^i is exact in double for i <= 22 */
+    private static final int MAX_FAST_SCALE = 22;
+    private static final double[] POWERS_OF_TEN = new double[MAX_FAST_SCALE + 1];
+
+    static {
+        double power = 1;
+        for (int i = 0; i <= MAX_FAST_SCALE; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
+
+    private final double hi;
+    private final double lo;
+
+
+    private DoubleDouble(double hi, double lo) {
+        this.hi = hi;
+        this.lo = lo;
+    }
+
+    /**
+     * @param value value
+     * @return exact double-double value of double
+     */
+    public static DoubleDouble valueOf(double value) {
+        return new DoubleDouble(value, 0);
+    }
+
+    /**
+     * @param high high part
+     * @param low low part
+     * @return hi + lo, normalized
+     */
+    public static DoubleDouble valueOf(double high, double low) {
+        double s = high + low;
+        double bb = s - high;
+        return new DoubleDouble(s, (high - (s - bb)) + (low - bb));
+    }
+
+    /**
+     * @param value value
+     * @return nearest double-double value
+     */
+    public static DoubleDouble valueOf(BigDecimal value) {
+        double high = value.doubleValue();
+        if (Double.isInfinite(high)) {
+            return new DoubleDouble(high, 0);
+        }
+        return valueOf(high, value.subtract(new BigDecimal(high)).doubleValue());
+    }
+
+
+    public double getHigh() {
+        return hi;
+    }
+
+    public double getLow() {
+        return lo;
+    }
+
+    /**
+     * @return nearest double
+     */
+    public double doubleValue() {
+        return hi + lo;
+    }
+
+    /**
+     * @return exact value
+     * @throws NumberFormatException if value is NaN or infinite
+     */
+    public BigDecimal toBigDecimal() {
+        return new BigDecimal(hi).add(new BigDecimal(lo));
+    }
+
+    public int signum() {
+        return hi > 0 ? 1 : hi < 0 ? -1 : 0;
+    }
+
+
+    public DoubleDouble add(DoubleDouble v) {
+        double s1 = hi + v.hi;
+        double bb = s1 - hi;
+        double s2 = (hi - (s1 - bb)) + (v.hi - bb);
+        double t1 = lo + v.lo;
+        bb = t1 - lo;
+        double t2 = (lo - (t1 - bb)) + (v.lo - bb);
+        s2 += t1;
+        double h = s1 + s2;
+        s2 -= h - s1;
+        s2 += t2;
+        double r = h + s2;
+        return new DoubleDouble(r, s2 - (r - h));
+    }
+
+    public DoubleDouble add(double v) {
+        double s1 = hi + v;
+        double bb = s1 - hi;
+        double s2 = (hi - (s1 - bb)) + (v - bb);
+        s2 += lo;
+        double r = s1 + s2;
+        return new DoubleDouble(r, s2 - (r - s1));
+    }
+
+    public DoubleDouble subtract(DoubleDouble v) {
+        return add(v.negate());
+    }
+
+    public DoubleDouble negate() {
+        return new DoubleDouble(-hi, -lo);
+    }
+
+    public DoubleDouble multiply(DoubleDouble v) {
+        double p = hi * v.hi;
+        double e = productError(hi, v.hi, p) + (hi * v.lo + lo * v.hi);
+        double r = p + e;
+        return new DoubleDouble(r, e - (r - p));
+    }
+
+    public DoubleDouble multiply(double v) {
+        double p = hi * v;
+        double e = productError(hi, v, p) + lo * v;
+        double r = p + e;
+        return new DoubleDouble(r, e - (r - p));
+    }
+
+    public DoubleDouble divide(DoubleDouble v) {
+        double q1 = hi / v.hi;
+        DoubleDouble r = this.subtract(v.multiply(q1));
+        double q2 = r.hi / v.hi;
+        r = r.subtract(v.multiply(q2));
+        double q3 = r.hi / v.hi;
+        double s = q1 + q2;
+        return new DoubleDouble(s, q2 - (s - q1)).add(q3);
+    }
+
+    public DoubleDouble divide(double v) {
+        double q1 = hi / v;
+        double p1 = q1 * v;
+        double p2 = productError(q1, v, p1);
+        double s = hi - p1;
+        double bb = s - hi;
+        double e = (hi - (s - bb)) + (-p1 - bb);
+        e -= p2;
+        e += lo;
+        double q2 = (s + e) / v;
+        double r = q1 + q2;
+        return new DoubleDouble(r, q2 - (r - q1));
+    }
+
+    public DoubleDouble min(DoubleDouble v) {
+        return compareTo(v) <= 0 ? this : v;
+    }
+
+
+    /**
+     * @param exponent integer exponent
+     * @return this^exponent, calculated by squaring
+     */
+    public DoubleDouble pow(long exponent) {
+        if (signum() == 0) {
+            return ZERO;
+        }
+        if (exponent < 0) {
+            return ONE.divide(pow(-exponent));
+        }
+        DoubleDouble p = ONE;
+        DoubleDouble u = this;
+        for (; exponent > 0; exponent >>= 1) {
+            if ((exponent & 1) == 1) {
+                p = p.multiply(u);
+            }
+            if (exponent > 1) {
+                u = u.multiply(u);
+            }
+        }
+        return p;
+    }
+
+    /**
+     * @param exponent exponent
+     * @return this^exponent; integer exponents are calculated by squaring, others as exp(exponent * log(this))
+     * @throws IllegalArgumentException if exponent is not integer and value is negative
+     */
+    public DoubleDouble pow(double exponent) {
+        if (signum() == 0) {
+            return ZERO;
+        }
+        if (exponent % 1 == 0 && Math.abs(exponent) < 0x1p62) {
+            return pow((long) exponent);
+        }
+        return log().multiply(exponent).exp();
+    }
+
+    /**
+     * @return e^this
+     */
+    public DoubleDouble exp() {
+        if (hi > 709.79) {
+            return new DoubleDouble(Double.POSITIVE_INFINITY, 0);
+        }
+        if (hi < -745.2) {
+            return ZERO;
+        }
+        if (signum() == 0) {
+            return ONE;
+        }
+
+        // this = m * ln2 + r, |r| <= ln2 / 2, exp(r) = (exp(r / 2^k))^(2^k)
+        double m = Math.floor(hi / LN2.hi + 0.5);
+        DoubleDouble r = this.subtract(LN2.multiply(m)).multiply(EXP_REDUCTION);
+
+        // s = exp(r) - 1, keeping -1 saves precision of small s
+        DoubleDouble s = r;
+        DoubleDouble term = r;
+        for (int i = 2; i < EXP_MAX_TERMS; i++) {
+            term = term.multiply(r).divide(i);
+            s = s.add(term);
+            if (Math.abs(term.hi) <= EPS * Math.abs(s.hi)) {
+                break;
+            }
+        }
+        for (int i = 0; i < EXP_SQUARINGS; i++) {
+            // (1 + s)^2 - 1 = 2s + s^2
+            s = s.multiply(2).add(s.multiply(s));
+        }
+        s = s.add(1);
+        return new DoubleDouble(Math.scalb(s.hi, (int) m), Math.scalb(s.lo, (int) m));
+    }
+
+    /**
+     * @return natural logarithm
+     * @throws IllegalArgumentException if value is not positive
+     */
+    public DoubleDouble log() {
+        if (signum() <= 0) {
+            throw new IllegalArgumentException("Natural logarithm is defined only on positive values.");
+        }
+        if (hi == 1 && lo == 0) {
+            return ZERO;
+        }
+        // one Newton iteration of x - 1 + this * exp(-x) doubles precision of double logarithm
+        DoubleDouble x = valueOf(Math.log(hi));
+        return x.add(this.multiply(x.negate().exp())).add(-1);
+    }
+
+    /**
+     * @return largest integer value not greater than this
+     */
+    public DoubleDouble floor() {
+        double high = Math.floor(hi);
+        if (high != hi) {
+            return new DoubleDouble(high, 0);
+        }
+        return valueOf(high, Math.floor(lo));
+    }
+
+    /**
+     * @param scale decimal digits after point
+     * @return value rounded to scale with {@link RoundingMode#HALF_UP}. Result is exact to
+     * double-double precision, ties are decided on double-double value of this * 10^scale
+     */
+    public DoubleDouble roundHalfUp(int scale) {
+        if (scale < 0 || scale > MAX_FAST_SCALE || Double.isNaN(hi) || Double.isInfinite(hi)) {
+            return valueOf(toBigDecimal().setScale(scale, RoundingMode.HALF_UP));
+        }
+        double power = POWERS_OF_TEN[scale];
+        DoubleDouble rounded = (signum() < 0 ? negate() : this).multiply(power).add(0.5).floor();
+        if (rounded.signum() == 0) {
+            return ZERO;
+        }
+        rounded = rounded.divide(power);
+        return signum() < 0 ? rounded.negate() : rounded;
+    }
+
+
+    @Override
+    public int compareTo(DoubleDouble v) {
+        if (hi != v.hi) {
+            return hi < v.hi ? -1 : 1;
+        }
+        if (lo != v.lo) {
+            return lo < v.lo ? -1 : 1;
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DoubleDouble)) {
+            return false;
+        }
+        return compareTo((DoubleDouble) o) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        // + 0.0 turns negative zero to zero, as compareTo does
+        return 31 * Double.hashCode(hi + 0.0) + Double.hashCode(lo + 0.0);
+    }
+
+    @Override
+    public String toString() {
+        if (Double.isNaN(hi) || Double.isInfinite(hi)) {
+            return Double.toString(hi);
+        }
+        return toBigDecimal().round(new MathContext(32)).toString();
+    }
+
+
+    /**
+     * @return exact error of rounded product p = a * b (Dekker's two-product)
+     */
+    private static double productError(double a, double b, double p) {
+        double c = SPLITTER * a;
+        double aHigh = c - (c - a);
+        double aLow = a - aHigh;
+        c = SPLITTER * b;
+        double bHigh = c - (c - b);
+        double bLow = b - bHigh;
+        return ((aHigh * bHigh - p) + aHigh * bLow + aLow * bHigh) + aLow * bLow;
+    }
+}
@@ -0,0 +1,244 @@
+package population.util;
+
+import java.math.BigInteger;
+
+/**
+ * Formatting of doubles to the shortest decimal which is parsed back to the same double
+ * (Schubfach algorithm by Raffaello Giulietti), without allocations.
+ *
+ * Output is in plain notation as {@link java.text.DecimalFormat} with
+ * {@link Utils#DECIMAL_FORMAT_COMMON} pattern writes it: without exponent, grouping and
+ * trailing zeros, with "0" before decimal separator of values less than 1.
+ * Infinity is written as "\u221E" and NaN as "NaN", like DecimalFormat does.
+ */
+public final class DoubleFormatter {
+    /** max length of formatted value (subnormal values have 323 zeros after point) */
+    public static final int MAX_LENGTH = 350;
+    private static final char INFINITY = '\u221E';
+
+    private static final int P = 53;
+    private static final int Q_MIN = -1074;
+    private static final long C_MIN = 1L << (P - 1);
+    private static final long T_MASK = C_MIN - 1;
+    private static final int BQ_MASK = 0x7FF;
+    /** subnormal significands less than it have less than 2 digits */
+    private static final long C_TINY = 3;
+    private static final long MASK_63 = 0x7FFF_FFFF_FFFF_FFFFL;
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+    /**
+     * [2 * (k - K_MIN)] higher and [2 * (k - K_MIN) + 1] lower 63 bits of g = floor(b) + 1,
+     * where 10^-k = b 2^r and 2^125 <= b < 2^126
+     */
+    private static final long[] G = new long[2 * (K_MAX - K_MIN + 1)];
+
+    static {
+        BigInteger mask63 = BigInteger.ONE.shiftLeft(63).subtract(BigInteger.ONE);
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            BigInteger g;
+            if (k <= 0) {
+                BigInteger power = BigInteger.TEN.pow(-k);
+                int r = power.bitLength() - 126;
+                g = r >= 0 ? power.shiftRight(r) : power.shiftLeft(-r);
+            } else {
+                BigInteger power = BigInteger.TEN.pow(k);
+                g = BigInteger.ONE.shiftLeft(125 + power.bitLength()).divide(power);
+            }
+            g = g.add(BigInteger.ONE);
+            G[2 * (k - K_MIN)] = g.shiftRight(63).longValue();
+            G[2 * (k - K_MIN) + 1] = g.and(mask63).longValue();
+        }
+    }
+
+    private DoubleFormatter() {
+    }
+
+    /**
+     * @param value value
+     * @param decimalSeparator decimal separator
+     * @return formatted value
+     */
+    public static String format(double value, char decimalSeparator) {
+        char[] chars = new char[MAX_LENGTH];
+        return new String(chars, 0, format(value, decimalSeparator, chars, 0));
+    }
+
+    /**
+     * write formatted value to dest
+     *
+     * @param value value
+     * @param decimalSeparator decimal separator
+     * @param dest destination, at least {@link #MAX_LENGTH} chars from position must be available
+     * @param position position of first char in dest
+     * @return position after last written char
+     */
+    public static int format(double value, char decimalSeparator, char[] dest, int position) {
+        if (Double.isNaN(value)) {
+            dest[position++] = 'N';
+            dest[position++] = 'a';
+            dest[position++] = 'N';
+            return position;
+        }
+        long bits = Double.doubleToRawLongBits(value);
+        if (bits < 0) {
+            dest[position++] = '-';
+        }
+        int bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+        long t = bits & T_MASK;
+        if (bq == BQ_MASK) {
+            dest[position++] = INFINITY;
+            return position;
+        }
+        if (bq != 0) {
+            // normal value, mq = -q
+            int mq = -Q_MIN + 1 - bq;
+            long c = C_MIN | t;
+            if (0 < mq && mq < P) {
+                // integer value
+                long f = c >> mq;
+                if (f << mq == c) {
+                    return toChars(f, 0, decimalSeparator, dest, position);
+                }
+            }
+            return toDecimal(-mq, c, 0, decimalSeparator, dest, position);
+        }
+        if (t != 0) {
+            // subnormal value
+            return t < C_TINY
+                    ? toDecimal(Q_MIN, 10 * t, -1, decimalSeparator, dest, position)
+                    : toDecimal(Q_MIN, t, 0, decimalSeparator, dest, position);
+        }
+        dest[position++] = '0';
+        return position;
+    }
+
+    /**
+     * find the shortest decimal in rounding interval of c 2^q
+     */
+    private static int toDecimal(int q, long c, int dk, char decimalSeparator, char[] dest, int position) {
+        int out = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != C_MIN || q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            // rounding interval of power of two is asymmetric
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+        long g1 = G[2 * (k - K_MIN)];
+        long g0 = G[2 * (k - K_MIN) + 1];
+        long vb = rop(g1, g0, cb << h);
+        long vbl = rop(g1, g0, cbl << h);
+        long vbr = rop(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if (s >= 100) {
+            // try decimal with one digit less: sp10 = 10 floor(s / 10)
+            long sp10 = 10 * multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return toChars(upin ? sp10 : tp10, k, decimalSeparator, dest, position);
+            }
+        }
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            return toChars(uin ? s : t, k + dk, decimalSeparator, dest, position);
+        }
+        // both are in interval, the closest one is chosen (even one if they are equally close)
+        long cmp = vb - (s + t << 1);
+        return toChars(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, decimalSeparator, dest, position);
+    }
+
+    /**
+     * @return round to odd of g cp 2^-127
+     */
+    private static long rop(long g1, long g0, long cp) {
+        long x1 = multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    /**
+     * @return higher 64 bits of 128 bits product of non-negative x and y
+     */
+    private static long multiplyHigh(long x, long y) {
+        long x1 = x >>> 32;
+        long x0 = x & 0xFFFF_FFFFL;
+        long y1 = y >>> 32;
+        long y0 = y & 0xFFFF_FFFFL;
+        long p01 = x0 * y1;
+        long middle = x1 * y0 + (x0 * y0 >>> 32) + (p01 & 0xFFFF_FFFFL);
+        return x1 * y1 + (middle >>> 32) + (p01 >>> 32);
+    }
+
+    /** floor(log10(2^e)) */
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    /** floor(log10(3/4 2^e)) */
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    /** floor(log2(10^e)) */
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+
+    /**
+     * write f 10^e in plain notation
+     */
+    private static int toChars(long f, int e, char decimalSeparator, char[] dest, int position) {
+        while (f % 10 == 0) {
+            f /= 10;
+            e++;
+        }
+        int digits = 1;
+        for (long power = 10; digits < 19 && power <= f; power *= 10) {
+            digits++;
+        }
+        // count of digits before decimal separator
+        int point = digits + e;
+        if (point <= 0) {
+            dest[position++] = '0';
+            dest[position++] = decimalSeparator;
+            for (int i = point; i < 0; i++) {
+                dest[position++] = '0';
+            }
+            return writeDigits(f, digits, dest, position);
+        }
+        if (point >= digits) {
+            position = writeDigits(f, digits, dest, position);
+            for (int i = digits; i < point; i++) {
+                dest[position++] = '0';
+            }
+            return position;
+        }
+        // separator between digits
+        writeDigits(f, digits, dest, position + 1);
+        System.arraycopy(dest, position + 1, dest, position, point);
+        dest[position + point] = decimalSeparator;
+        return position + digits + 1;
+    }
+
+    private static int writeDigits(long f, int digits, char[] dest, int position) {
+        for (int i = position + digits - 1; i >= position; i--) {
+            dest[i] = (char) ('0' + f % 10);
+            f /= 10;
+        }
+        return position + digits;
+    }
+}
@@ -0,0 +1,31 @@
+package population.util.Event;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Passes events to handler on executor (e.g. UI thread). While previous event waits
+ * for execution, new events replace it, so handler receives only the latest one
+ * and executor queue doesn't grow when events are fired faster than they are handled.
+ */
+public class CoalescingEventHandler<T extends Event> implements EventHandler<T> {
+    protected final Executor executor;
+    protected final EventHandler<? super T> handler;
+    protected final AtomicReference<T> pendingEvent = new AtomicReference<>();
+
+
+    public CoalescingEventHandler(Executor executor, EventHandler<? super T> handler) {
+        this.executor = executor;
+        this.handler = handler;
+    }
+
+
+    @Override
+    public boolean handle(T event) {
+        if (this.pendingEvent.getAndSet(event) == null) {
+            this.executor.execute(() -> this.handler.handle(this.pendingEvent.getAndSet(null)));
+        }
+        return true;
+    }
+}
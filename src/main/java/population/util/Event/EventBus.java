@@ -0,0 +1,55 @@
+package population.util.Event;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * Thread-safe events dispatcher, each event source (e.g. calculator) has its own bus.
+ *
+ * Handlers are subscribed to event class and receive events of it and of its subclasses.
+ * Handlers lists are copied on write, so events can be fired from any thread
+ * while handlers are added or removed.
+ */
+public class EventBus {
+    protected final Map<Class<? extends Event>, List<EventHandler<? extends Event>>> eventHandlers =
+            new ConcurrentHashMap<>();
+
+
+    public <T extends Event> void addEventHandler(Class<T> eventClass, EventHandler<? super T> handler) {
+        this.eventHandlers.computeIfAbsent(eventClass, key -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    public <T extends Event> void removeEventHandler(Class<T> eventClass, EventHandler<? super T> handler) {
+        List<EventHandler<? extends Event>> handlers = this.eventHandlers.get(eventClass);
+        if (handlers != null) {
+            handlers.remove(handler);
+        }
+    }
+
+    /**
+     * pass event to handlers of its class and superclasses, until one of them returns false
+     *
+     * @param event event
+     * @return false if some handler stopped event
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Event> boolean fireEvent(T event) {
+        for (Class<?> eventClass = event.getClass(); Event.class.isAssignableFrom(eventClass);
+                eventClass = eventClass.getSuperclass()) {
+            List<EventHandler<? extends Event>> handlers = this.eventHandlers.get(eventClass);
+            if (handlers != null) {
+                for (EventHandler<? extends Event> registered : handlers) {
+                    // handlers of eventClass accept its superclasses, event is instance of eventClass
+                    EventHandler<Event> handler = (EventHandler<Event>) registered;
+                    if (!handler.handle(event)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,85 @@
+package population.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleConsumer;
+
+
+/**
+ * Aggregated progress of many concurrent calculations.
+ *
+ * Calculations add completed work units to one counter from any thread. Listener is called
+ * on executor (e.g. Platform::runLater) not more often than given count of times per second,
+ * and not more than one call waits in executor queue: it reads the latest progress when it runs,
+ * so updates fired while UI thread is busy are coalesced.
+ */
+public class ProgressReporter {
+    protected final long totalUnits;
+    protected final long intervalNanos;
+    protected final Executor executor;
+    protected final DoubleConsumer listener;
+    protected final LongAdder completedUnits = new LongAdder();
+    protected final AtomicLong lastUpdateTime = new AtomicLong(System.nanoTime());
+    protected final AtomicBoolean isUpdatePending = new AtomicBoolean(false);
+    protected volatile boolean isCompleted = false;
+
+
+    /**
+     * @param totalUnits work units of all calculations
+     * @param maxUpdatesPerSecond max count of listener calls per second
+     * @param executor executor of listener
+     * @param listener listener of progress (0 - 1)
+     */
+    public ProgressReporter(long totalUnits, int maxUpdatesPerSecond, Executor executor, DoubleConsumer listener) {
+        this.totalUnits = totalUnits;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(maxUpdatesPerSecond, 1);
+        this.executor = executor;
+        this.listener = listener;
+    }
+
+
+    /**
+     * @param units completed work units, can be negative if calculation is restarted
+     */
+    public void add(long units) {
+        this.completedUnits.add(units);
+
+        long now = System.nanoTime();
+        long last = this.lastUpdateTime.get();
+        if (now - last >= this.intervalNanos && this.lastUpdateTime.compareAndSet(last, now)) {
+            this.scheduleUpdate();
+        }
+    }
+
+    /**
+     * report progress 1 regardless of completed units and time of last update
+     */
+    public void complete() {
+        this.isCompleted = true;
+        this.scheduleUpdate();
+    }
+
+    /**
+     * @return current progress (0 - 1)
+     */
+    public double getProgress() {
+        if (this.isCompleted || this.totalUnits <= 0) {
+            return 1;
+        }
+        return Math.max(0, Math.min(1, (double) this.completedUnits.sum() / this.totalUnits));
+    }
+
+
+    protected void scheduleUpdate() {
+        if (this.isUpdatePending.compareAndSet(false, true)) {
+            this.executor.execute(() -> {
+                // updates scheduled after this point need their own call
+                this.isUpdatePending.set(false);
+                this.listener.accept(this.getProgress());
+            });
+        }
+    }
+}
@@ -111,6 +111,7 @@ public final class TaskParser {
         table.add(new StringRow(Task.Keys.STEPS_COUNT, task.getStepsCount()));
         table.add(new StringRow(Task.Keys.PARALLEL, task.isParallel()));
         table.add(new StringRow(Task.Keys.HIGHER_ACCURACY, task.isHigherAccuracy()));
+        table.add(new StringRow(Task.Keys.DOUBLE_DOUBLE_ACCURACY, task.isDoubleDoubleAccuracy()));
         table.add(new StringRow(Task.Keys.ALLOW_NEGATIVE, task.isAllowNegative()));
         table.add(new StringRow(Task.Keys.COLUMN_SEPARATOR, task.getColumnSeparator()));
         table.add(new StringRow(Task.Keys.DECIMAL_SEPARATOR, task.getDecimalSeparator()));
@@ -145,6 +146,14 @@ public final class TaskParser {
     }
 
     public static TaskV4 parse(File file) {
+        if (BinaryTaskFormat.isBinaryTask(file)) {
+            try {
+                return BinaryTaskFormat.parse(file);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
         StringTable table = null;
         try {
             table = CsvParser.parse(new FileInputStream(file), SEPARATOR, "UTF-8");
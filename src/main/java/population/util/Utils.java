@@ -21,17 +21,14 @@ import population.model.Result;
 import population.model.TableResult;
 import population.model.Task;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
-import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.ResourceBundle;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -44,8 +41,6 @@ import javafx.collections.ObservableList;
 public final class Utils {
     public static final int MAX_PRECISION = 325;
     public static final String DECIMAL_FORMAT_COMMON = buildDecimalFormat(MAX_PRECISION);
-    private static final String QUOTE = "\"";
-    private static final String DOUBLE_QUOTE = "\"\"";
 
     private Utils() {
     }
@@ -136,60 +131,41 @@ public final class Utils {
             file.delete();
         }
         file.createNewFile();
-        DecimalFormat formatter = new DecimalFormat(Utils.DECIMAL_FORMAT_COMMON);
-        formatter.getDecimalFormatSymbols().setDecimalSeparator(decimalSeparator);
-        try (BufferedWriter writer = new BufferedWriter(
-                new OutputStreamWriter(new FileOutputStream(file), encoding))) {
-            writer.append(QUOTE).append(resources.getString("Transitions.Settings.Step")).append(QUOTE)
-                    .append(columnSeparator);
-            for (int i = 0; i < results.size(); i++) {
-                ArrayList<String> headers = results.get(i).getDataNames();
-                for (int j = 0; j < headers.size(); j++) {
-                    writer.append(QUOTE).append(headers.get(j).replace(QUOTE, DOUBLE_QUOTE))
-                            .append(QUOTE);
-                    if (i != results.size() - 1 || j != headers.size() - 1) {
-                        writer.append(columnSeparator);
-                    }
-                }
+        try (CsvResultWriter writer = new CsvResultWriter(file, columnSeparator, decimalSeparator,
+                lineSeparator, encoding)) {
+            List<String> headers = new ArrayList<>();
+            for (Result result : results) {
+                headers.addAll(result.getDataNames());
             }
-            writer.append(lineSeparator);
+            writer.writeHeader(resources.getString("Transitions.Settings.Step"), headers);
             for (int i = start; i < end; i++) {
-                boolean empty = true;
-                StringBuilder rowBuilder = new StringBuilder();
                 TableResult firstExistent = null;
-                for (int j = 0; j < results.size(); j++) {
-                    Result result = results.get(j);
+                for (Result result : results) {
+                    int localIndex = i - result.getStartPoint();
+                    if (localIndex >= 0 && localIndex < result.getTableData().size()) {
+                        firstExistent = result.getTableData().get(localIndex);
+                        break;
+                    }
+                }
+                if (firstExistent == null) {
+                    continue;
+                }
+                writer.writeStep(firstExistent.getNumber());
+                for (Result result : results) {
                     ArrayList<TableResult> data = result.getTableData();
                     int localIndex = i - result.getStartPoint();
                     if (localIndex >= 0 && localIndex < data.size()) {
                         TableResult localResult = data.get(localIndex);
                         for (int k = 0; k < localResult.valueCount(); k++) {
-                            rowBuilder.append(QUOTE)
-                                    .append(formatter.format(localResult.getValue(k)))
-                                    .append(QUOTE);
-                            if (j != results.size() - 1 || k != localResult.valueCount() - 1) {
-                                rowBuilder.append(columnSeparator);
-                            }
+                            writer.writeValue(localResult.getValue(k));
                         }
-                        if (firstExistent == null) {
-                            firstExistent = localResult;
-                        }
-                        empty = false;
                     } else {
-                        int size = result.getDataNames().size();
-                        for (int k = 0; k < size; k++) {
-                            rowBuilder.append(QUOTE).append("---").append(QUOTE);
-                            if (j != results.size() - 1 || k != size - 1) {
-                                rowBuilder.append(columnSeparator);
-                            }
+                        for (int k = 0; k < result.getDataNames().size(); k++) {
+                            writer.writeMissing();
                         }
                     }
                 }
-                if (!empty) {
-                    writer.append(QUOTE).append(String.valueOf(firstExistent.getNumber()))
-                            .append(QUOTE).append(columnSeparator).append(rowBuilder.toString())
-                            .append(lineSeparator);
-                }
+                writer.endRow();
             }
         }
     }
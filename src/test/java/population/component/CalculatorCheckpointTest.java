@@ -0,0 +1,119 @@
+package population.component;
+
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import population.model.Result;
+import population.model.State;
+import population.model.TableResult;
+import population.model.Task;
+import population.model.Transition;
+import population.model.TransitionMode;
+import population.model.TransitionType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * calculation resumed from checkpoint must give the same result as uninterrupted one
+ */
+public class CalculatorCheckpointTest {
+    /**
+     * checkpoint which stops calculation after saving some checkpoints
+     */
+    private static class CrashingCheckpoint extends CalculatorCheckpoint {
+        private int savesBeforeCrash;
+
+        CrashingCheckpoint(Path path, int interval, int savesBeforeCrash) {
+            super(path, interval);
+            this.savesBeforeCrash = savesBeforeCrash;
+        }
+
+        @Override
+        public void save(Snapshot snapshot, double[][] roundedRows) throws IOException {
+            super.save(snapshot, roundedRows);
+            if (--savesBeforeCrash == 0) {
+                throw new IllegalStateException("crash");
+            }
+        }
+    }
+
+
+    static Stream<Arguments> getAccuracyModes() {
+        // higher accuracy, double-double accuracy, steps, checkpoint interval
+        return Stream.of(
+                Arguments.of(false, false, 300, 7),
+                Arguments.of(false, true, 300, 7),
+                Arguments.of(true, false, 40, 3)
+        );
+    }
+
+
+    @ParameterizedTest
+    @MethodSource("getAccuracyModes")
+    public void resumedResultIsSame(boolean higherAccuracy, boolean doubleDoubleAccuracy, int steps,
+                                    int interval) throws IOException {
+        List<State> states = Arrays.asList(
+                new State(1, "a", 1000, ""),
+                new State(2, "b", 300, ""),
+                new State(3, "c", 10, "")
+        );
+        List<Transition> transitions = Arrays.asList(
+                new Transition(1, 1, 1, 2, 1, 0, 3, 1, 0.01, TransitionType.SOLUTE, TransitionMode.SIMPLE, ""),
+                new Transition(3, 1, 0, 2, 1, 2, 1, 2, 0.02, TransitionType.LINEAR, TransitionMode.SIMPLE, ""),
+                new Transition(State.EXTERNAL, 1, 0, 1, 1, 0, 2, 1, 0.001, TransitionType.LINEAR,
+                        TransitionMode.SIMPLE, "")
+        );
+        Task task = new Task();
+        task.setStates(states);
+        task.setTransitions(transitions);
+        task.setStartPoint(0);
+        task.setStepsCount(steps);
+        task.setHigherAccuracy(higherAccuracy);
+        task.setDoubleDoubleAccuracy(doubleDoubleAccuracy);
+
+        double[][] expected = getValues(Calculator.calculateSync(task, true, false, Thread::new));
+
+        Path dir = Files.createTempDirectory("checkpoint");
+        Path path = dir.resolve("task.checkpoint");
+        try {
+            Assertions.assertThrows(IllegalStateException.class, () -> Calculator.calculateSync(
+                    task, true, false, Thread::new, new CrashingCheckpoint(path, interval, 3)));
+            Assertions.assertTrue(Files.exists(path));
+
+            double[][] actual = getValues(Calculator.calculateSync(task, true, false, Thread::new,
+                    new CalculatorCheckpoint(path, interval)));
+            Assertions.assertEquals(expected.length, actual.length);
+            for (int step = 0; step < expected.length; step++) {
+                Assertions.assertArrayEquals(expected[step], actual[step], "step " + step);
+            }
+            Assertions.assertFalse(Files.exists(path));
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+
+
+    private static double[][] getValues(Result result) {
+        List<TableResult> table = result.getTableData();
+        double[][] values = new double[table.size()][];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new double[table.get(i).valueCount()];
+            for (int j = 0; j < values[i].length; j++) {
+                values[i][j] = table.get(i).getValue(j);
+            }
+        }
+        return values;
+    }
+}
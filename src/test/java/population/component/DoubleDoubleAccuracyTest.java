@@ -0,0 +1,95 @@
+package population.component;
+
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import population.model.Result;
+import population.model.State;
+import population.model.TableResult;
+import population.model.Task;
+import population.model.Transition;
+import population.model.TransitionMode;
+import population.model.TransitionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * double-double mode must give the same result as BigDecimal higher accuracy mode
+ */
+public class DoubleDoubleAccuracyTest {
+    private static final double EPS = 1e-14;
+
+
+    static Stream<Arguments> getTransitionParameters() {
+        // type, source coefficient, operand coefficient, mode, steps
+        return Stream.of(
+                Arguments.of(TransitionType.LINEAR, 1., 1., TransitionMode.SIMPLE, 50),
+                Arguments.of(TransitionType.LINEAR, 2., 1., TransitionMode.RESIDUAL, 50),
+                Arguments.of(TransitionType.SOLUTE, 2., 1., TransitionMode.SIMPLE, 50),
+                Arguments.of(TransitionType.SOLUTE, 1., 2., TransitionMode.INHIBITOR, 50),
+                Arguments.of(TransitionType.BLEND, 1., 1., TransitionMode.REMOVING, 50),
+                // fractional power is slow in higher accuracy mode
+                Arguments.of(TransitionType.BLEND, 1.5, 1., TransitionMode.SIMPLE, 10)
+        );
+    }
+
+
+    @ParameterizedTest
+    @MethodSource("getTransitionParameters")
+    public void sameAsHigherAccuracy(int type, double sourceCoefficient, double operandCoefficient,
+                                     int mode, int steps) {
+        List<State> states = Arrays.asList(
+                new State(1, "a", 1000, ""),
+                new State(2, "b", 300, ""),
+                new State(3, "c", 10, "")
+        );
+        List<Transition> transitions = Arrays.asList(
+                new Transition(1, sourceCoefficient, 1, 2, operandCoefficient, 0, 3, 1, 0.01,
+                        type, mode, ""),
+                new Transition(3, 1, 0, 2, 1, 2, 1, 2, 0.02, TransitionType.LINEAR, TransitionMode.SIMPLE, ""),
+                new Transition(State.EXTERNAL, 1, 0, 1, 1, 0, 2, 1, 0.001, TransitionType.LINEAR,
+                        TransitionMode.SIMPLE, "")
+        );
+        Task task = new Task();
+        task.setStates(states);
+        task.setTransitions(transitions);
+        task.setStartPoint(0);
+        task.setStepsCount(steps);
+        // sequential higher accuracy mode doesn't restrict negative states
+        task.setAllowNegative(true);
+
+        task.setHigherAccuracy(true);
+        double[][] expected = calculate(task);
+        task.setHigherAccuracy(false);
+        task.setDoubleDoubleAccuracy(true);
+        double[][] actual = calculate(task);
+
+        for (int step = 0; step < steps; step++) {
+            for (int state = 0; state < expected[step].length; state++) {
+                double error = Math.abs(actual[step][state] - expected[step][state]);
+                Assertions.assertTrue(error <= EPS * Math.max(1, Math.abs(expected[step][state])),
+                        "step " + step + ", state " + state + ": expected: " + expected[step][state]
+                                + ", actual: " + actual[step][state]);
+            }
+        }
+    }
+
+
+    private static double[][] calculate(Task task) {
+        Result result = Calculator.calculateSync(task, true, false, Thread::new);
+        List<TableResult> table = new ArrayList<>(result.getTableData());
+        double[][] values = new double[table.size()][];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new double[table.get(i).valueCount()];
+            for (int j = 0; j < values[i].length; j++) {
+                values[i][j] = table.get(i).getValue(j);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,81 @@
+package population.component;
+
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import population.model.Result;
+import population.model.State;
+import population.model.TableResult;
+import population.model.Task;
+import population.model.Transition;
+import population.model.TransitionMode;
+import population.model.TransitionType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * higher accuracy mode with precomputed transitions constants and powers of total count
+ * must give the same result as it gave when constants were calculated on each step
+ */
+public class HigherAccuracyTest {
+    static Stream<Arguments> getParallelModes() {
+        return Stream.of(Arguments.of(false), Arguments.of(true));
+    }
+
+
+    @ParameterizedTest
+    @MethodSource("getParallelModes")
+    public void resultIsSame(boolean parallel) {
+        int linear = TransitionType.LINEAR;
+        int solute = TransitionType.SOLUTE;
+        int blend = TransitionType.BLEND;
+        List<State> states = Arrays.asList(
+                new State(1, "a", 1000, ""),
+                new State(2, "b", 300, ""),
+                new State(3, "c", 10, ""),
+                new State(4, "d", 50, "")
+        );
+        // all types and modes, delays, external source and operand, the same source and operand,
+        // integer and fractional coefficients
+        List<Transition> transitions = Arrays.asList(
+                new Transition(1, 1, 1, 2, 1, 0, 3, 1, 0.01, linear, TransitionMode.SIMPLE, ""),
+                new Transition(2, 2, 0, 4, 1, 0, 3, 1, 0.02, linear, TransitionMode.RESIDUAL, ""),
+                new Transition(State.EXTERNAL, 1, 0, 3, 2, 1, 1, 2, 0.03, solute, TransitionMode.SIMPLE, ""),
+                new Transition(1, 2, 0, 3, 1, 0, 2, 1, 0.004, solute, TransitionMode.INHIBITOR, ""),
+                new Transition(3, 1, 2, 3, 1, 2, 4, 1, 0.05, solute, TransitionMode.RETAINING, ""),
+                new Transition(1, 1.5, 0, State.EXTERNAL, 1, 0, 4, 1, 0.1, solute, TransitionMode.REMOVING, ""),
+                new Transition(2, 1, 0, 4, 2, 1, 1, 1, 0.06, blend, TransitionMode.SIMPLE, ""),
+                new Transition(4, 2, 1, 4, 1, 0, 2, 1, 0.07, blend, TransitionMode.REMOVING, ""),
+                new Transition(State.EXTERNAL, 1, 0, 2, 2, 0, 3, 1, 0.08, blend, TransitionMode.RETAINING, ""),
+                new Transition(1, 1, 0, 4, 1, 1, 3, 1, 0.09, blend, TransitionMode.INHIBITOR, "")
+        );
+        Task task = new Task();
+        task.setStates(states);
+        task.setTransitions(transitions);
+        task.setStartPoint(0);
+        task.setStepsCount(10);
+        // sequential higher accuracy mode doesn't restrict negative states
+        task.setAllowNegative(true);
+        task.setHigherAccuracy(true);
+        task.setParallel(parallel);
+
+        Result result = Calculator.calculateSync(task, true, false, Thread::new);
+        List<TableResult> table = result.getTableData();
+        assertStep(new double[] {662.5085323802355, 290.39561076322303, 312.35736235163245, 34.36435094176977},
+                table.get(5));
+        assertStep(new double[] {509.99878732426635, 285.7982789514845, 473.4867278861979, 25.079479934111713},
+                table.get(9));
+    }
+
+
+    private static void assertStep(double[] expected, TableResult step) {
+        Assertions.assertEquals(expected.length, step.valueCount());
+        for (int state = 0; state < expected.length; state++) {
+            Assertions.assertEquals(expected[state], step.getValue(state), 0, "state " + state);
+        }
+    }
+}
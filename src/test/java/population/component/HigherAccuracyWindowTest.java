@@ -0,0 +1,52 @@
+package population.component;
+
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+
+public class HigherAccuracyWindowTest {
+    private static HigherAccuracyWindow createWindow(int capacity, int steps) {
+        HigherAccuracyWindow window = new HigherAccuracyWindow(capacity, new BigDecimal[] {BigDecimal.ZERO});
+        for (int step = 1; step <= steps; step++) {
+            BigDecimal[] row = window.next();
+            Assertions.assertEquals(BigDecimal.valueOf(step - 1), row[0]);
+            row[0] = BigDecimal.valueOf(step);
+        }
+        return window;
+    }
+
+
+    @Test
+    void keepsLastSteps() {
+        HigherAccuracyWindow window = createWindow(3, 7);
+
+        Assertions.assertEquals(7, window.getLastStep());
+        Assertions.assertEquals(5, window.getFirstStep());
+        for (int step = 5; step <= 7; step++) {
+            Assertions.assertEquals(BigDecimal.valueOf(step), window.getRow(step)[0]);
+        }
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> window.getRow(4));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> window.getRow(8));
+    }
+
+
+    @Test
+    void ensureCapacityKeepsStoredSteps() {
+        HigherAccuracyWindow window = createWindow(3, 4);
+        window.ensureCapacity(5);
+
+        Assertions.assertEquals(5, window.getCapacity());
+        Assertions.assertEquals(2, window.getFirstStep());
+        for (int step = 0; step < 3; step++) {
+            BigDecimal[] row = window.next();
+            row[0] = row[0].add(BigDecimal.ONE);
+        }
+        Assertions.assertEquals(3, window.getFirstStep());
+        for (int step = 3; step <= 7; step++) {
+            Assertions.assertEquals(BigDecimal.valueOf(step), window.getRow(step)[0]);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package population.component;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class MinMaxPyramidTest {
+    private static Stream<Arguments> rangesProvider() {
+        return Stream.of(
+                // all points
+                Arguments.of(0, 100, 50),
+                Arguments.of(13, 80, 1000),
+                // raw columns
+                Arguments.of(0, 10_000, 1000),
+                Arguments.of(7, 9_999, 333),
+                // pyramid
+                Arguments.of(0, 1_000_000, 1000),
+                Arguments.of(1, 999_999, 1000),
+                Arguments.of(123_457, 654_321, 777),
+                Arguments.of(500_000, 500_000 + 64 * 100 + 5, 100),
+                Arguments.of(999_000, 1_100_000, 3),
+                Arguments.of(-10, 1_000_000, 1)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("rangesProvider")
+    public void envelopeKeepsRangeExtremes(int from, int to, int columns) {
+        double[] series = new Random(from ^ to).doubles(1_000_000, -1e6, 1e6).toArray();
+        MinMaxPyramid pyramid = createPyramid(series, new int[1]);
+        int[] steps = new int[MinMaxPyramid.maxPointsCount(columns)];
+        double[] values = new double[steps.length];
+        int count = pyramid.envelope(from, to, columns, steps, values);
+
+        int first = Math.max(from, 0);
+        int last = Math.min(to, series.length);
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = first; i < last; i++) {
+            min = Math.min(min, series[i]);
+            max = Math.max(max, series[i]);
+        }
+        double envelopeMin = Double.POSITIVE_INFINITY;
+        double envelopeMax = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            Assertions.assertTrue(steps[i] >= first && steps[i] < last);
+            Assertions.assertTrue(i == 0 || steps[i] >= steps[i - 1]);
+            envelopeMin = Math.min(envelopeMin, values[i]);
+            envelopeMax = Math.max(envelopeMax, values[i]);
+        }
+        Assertions.assertEquals(min, envelopeMin, 0);
+        Assertions.assertEquals(max, envelopeMax, 0);
+        if (last - first <= 2 * columns) {
+            Assertions.assertEquals(last - first, count);
+        } else {
+            Assertions.assertTrue(count <= 4 * columns + 4);
+        }
+    }
+
+    @Test
+    public void peaksOfOscillatingSeriesAreKept() {
+        double[] series = new double[1_000_000];
+        for (int i = 0; i < series.length; i++) {
+            series[i] = i % 7;
+        }
+        MinMaxPyramid pyramid = createPyramid(series, new int[1]);
+        int[] steps = new int[MinMaxPyramid.maxPointsCount(1000)];
+        double[] values = new double[steps.length];
+        for (int[] range : new int[][]{{0, 1_000_000}, {3, 20_003}, {10, 200_010}}) {
+            int count = pyramid.envelope(range[0], range[1], 1000, steps, values);
+            for (int i = 0; i < count; i++) {
+                Assertions.assertTrue(values[i] == 0 || values[i] == 6);
+            }
+        }
+    }
+
+    @Test
+    public void zoomReadsOnlyEdgesAfterBuild() {
+        double[] series = new Random(1).doubles(1_000_000).toArray();
+        int[] readCount = new int[1];
+        MinMaxPyramid pyramid = createPyramid(series, readCount);
+        int[] steps = new int[MinMaxPyramid.maxPointsCount(1000)];
+        double[] values = new double[steps.length];
+        pyramid.envelope(0, series.length, 1000, steps, values);
+        Assertions.assertEquals(series.length, readCount[0]);
+
+        readCount[0] = 0;
+        pyramid.envelope(123_457, 987_653, 1000, steps, values);
+        Assertions.assertTrue(readCount[0] < 2 * MinMaxPyramid.BASE_BLOCK);
+    }
+
+
+    private static MinMaxPyramid createPyramid(double[] series, int[] readCount) {
+        return new MinMaxPyramid(series.length, (from, to, dest, offset) -> {
+            readCount[0] += to - from;
+            System.arraycopy(series, from, dest, offset, to - from);
+        });
+    }
+}
@@ -0,0 +1,107 @@
+package population.component;
+
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import population.model.Result;
+import population.model.State;
+import population.model.TableResult;
+import population.model.Task;
+import population.model.Transition;
+import population.model.TransitionMode;
+import population.model.TransitionType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * parallel calculation must give the same result as sequential one,
+ * including steps calculated by transition workers after step cost is measured
+ */
+public class ParallelCalculatorTest {
+    static Stream<Arguments> getAccuracyModes() {
+        // double-double accuracy, transitions count, steps
+        return Stream.of(
+                Arguments.of(false, 3000, 60),
+                Arguments.of(true, 1500, 40)
+        );
+    }
+
+
+    @ParameterizedTest
+    @MethodSource("getAccuracyModes")
+    public void parallelResultIsSame(boolean doubleDoubleAccuracy, int transitionsCount, int steps) {
+        Task task = createTask(new Random(transitionsCount), transitionsCount, steps);
+        task.setDoubleDoubleAccuracy(doubleDoubleAccuracy);
+
+        task.setParallel(false);
+        double[][] expected = getValues(Calculator.calculateSync(task, true, false, Thread::new));
+        task.setParallel(true);
+        Calculator calculator = new Calculator(task, true, false, null, null, Thread::new);
+        // workers are created regardless of processors count and step cost
+        calculator.setParallelWorkers(4, 0);
+        double[][] actual = getValues(calculator.calculateSync());
+
+        Assertions.assertTrue(calculator.getWorkersSteps() > 0);
+        Assertions.assertEquals(expected.length, actual.length);
+        for (int step = 0; step < expected.length; step++) {
+            Assertions.assertArrayEquals(expected[step], actual[step], "step " + step);
+        }
+    }
+
+
+    /**
+     * task with many transitions of all types and modes, so parallel mode uses transition workers
+     */
+    private static Task createTask(Random random, int transitionsCount, int steps) {
+        List<State> states = new ArrayList<>();
+        int statesCount = 20;
+        for (int i = 0; i < statesCount; i++) {
+            states.add(new State(i + 1, "s" + i, 100 + random.nextInt(10_000), ""));
+        }
+        int[] types = {TransitionType.LINEAR, TransitionType.SOLUTE, TransitionType.BLEND};
+        int[] modes = {TransitionMode.SIMPLE, TransitionMode.RETAINING, TransitionMode.REMOVING,
+                TransitionMode.INHIBITOR};
+        List<Transition> transitions = new ArrayList<>();
+        for (int i = 0; i < transitionsCount; i++) {
+            // residual transition moves almost all operand, so there are few of them
+            int mode = i % 500 == 0 ? TransitionMode.RESIDUAL : modes[random.nextInt(modes.length)];
+            // operand density of power coefficient is in residual and inhibitor values
+            int maxCoefficient = mode == TransitionMode.RESIDUAL || mode == TransitionMode.INHIBITOR ? 1 : 2;
+            // operand is distinct from source, double-double formulas of the same state differ
+            int operand = 1 + random.nextInt(statesCount);
+            int source = random.nextInt(10) == 0
+                    ? State.EXTERNAL
+                    : 1 + (operand + random.nextInt(statesCount - 1)) % statesCount;
+            transitions.add(new Transition(
+                    source, 1 + random.nextInt(2), random.nextInt(3),
+                    operand, 1 + random.nextInt(maxCoefficient), random.nextInt(3),
+                    1 + random.nextInt(statesCount), 1,
+                    random.nextDouble() * 0.0005,
+                    types[random.nextInt(types.length)], mode, ""));
+        }
+
+        Task task = new Task();
+        task.setStates(states);
+        task.setTransitions(transitions);
+        task.setStartPoint(0);
+        task.setStepsCount(steps);
+        return task;
+    }
+
+    private static double[][] getValues(Result result) {
+        List<TableResult> table = result.getTableData();
+        double[][] values = new double[table.size()][];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new double[table.get(i).valueCount()];
+            for (int j = 0; j < values[i].length; j++) {
+                values[i][j] = table.get(i).getValue(j);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,83 @@
+package population.component;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Stream;
+
+public class ParametricSweepTest {
+    private static Stream<Arguments> sweepsProvider() {
+        // parallelism, cells count
+        return Stream.of(
+                Arguments.of(1, 10),
+                Arguments.of(2, 1),
+                Arguments.of(3, 100),
+                Arguments.of(4, 257)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("sweepsProvider")
+    public void eachCellIsCalculatedOnceWithBoundedParallelism(int parallelism, int cellsCount) {
+        AtomicIntegerArray calculations = new AtomicIntegerArray(cellsCount);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Double> updates = new CopyOnWriteArrayList<>();
+
+        boolean completed = new ParametricSweep(parallelism).run(cellsCount, (index, progressCallback) -> {
+            int current = running.incrementAndGet();
+            maxRunning.accumulateAndGet(current, Math::max);
+            calculations.incrementAndGet(index);
+            progressCallback.onProgressUpdate(0.5);
+            sleep(1);
+            progressCallback.onProgressUpdate(1);
+            running.decrementAndGet();
+        }, updates::add);
+
+        Assertions.assertTrue(completed);
+        for (int i = 0; i < cellsCount; i++) {
+            Assertions.assertEquals(1, calculations.get(i), "cell " + i);
+        }
+        Assertions.assertTrue(maxRunning.get() <= parallelism);
+        Assertions.assertFalse(updates.isEmpty());
+        Assertions.assertEquals(1, updates.get(updates.size() - 1), 0);
+        for (int i = 1; i < updates.size(); i++) {
+            Assertions.assertTrue(updates.get(i) >= updates.get(i - 1));
+        }
+    }
+
+    @Test
+    public void cancelledSweepSkipsCells() throws InterruptedException {
+        ParametricSweep sweep = new ParametricSweep(2);
+        AtomicInteger calculated = new AtomicInteger();
+        List<Double> updates = new CopyOnWriteArrayList<>();
+
+        boolean completed = sweep.run(1000, (index, progressCallback) -> {
+            if (calculated.incrementAndGet() == 10) {
+                sweep.cancel();
+            }
+        }, updates::add);
+
+        Assertions.assertFalse(completed);
+        Assertions.assertTrue(sweep.isCancelled());
+        Assertions.assertTrue(calculated.get() < 1000);
+        Assertions.assertTrue(sweep.awaitTermination(1000));
+        Assertions.assertTrue(updates.isEmpty() || updates.get(updates.size() - 1) < 1);
+    }
+
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
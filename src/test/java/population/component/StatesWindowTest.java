@@ -0,0 +1,31 @@
+package population.component;
+
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public class StatesWindowTest {
+    @Test
+    void keepsLastSteps() {
+        StatesWindow window = new StatesWindow(3, 2);
+        Assertions.assertEquals(-1, window.getLastStep());
+
+        double[] states = new double[2];
+        for (int step = 0; step < 5; step++) {
+            states[0] = step;
+            states[1] = -step;
+            window.add(states);
+        }
+
+        Assertions.assertEquals(5, window.getStepsCount());
+        Assertions.assertEquals(2, window.getFirstStep());
+        Assertions.assertEquals(4, window.getLastStep());
+        for (int step = 2; step < 5; step++) {
+            Assertions.assertEquals(step, window.get(step, 0));
+            Assertions.assertEquals(-step, window.get(step, 1));
+        }
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> window.get(1, 0));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> window.get(5, 0));
+    }
+}
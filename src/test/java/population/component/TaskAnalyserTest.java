@@ -0,0 +1,252 @@
+package population.component;
+
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import population.model.State;
+import population.model.Task;
+import population.model.Transition;
+import population.model.TransitionMode;
+import population.model.TransitionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+
+public class TaskAnalyserTest {
+    /**
+     * @param ringsSizes sizes of states rings, on each step all automata move to next state in ring
+     * @param stepsCount steps count
+     */
+    private static Task createRingsTask(int[] ringsSizes, int stepsCount) {
+        return createRingsTask(ringsSizes, stepsCount, TransitionMode.REMOVING);
+    }
+
+    /**
+     * @param ringsSizes sizes of states rings, on each step all automata move to next state in ring
+     * @param stepsCount steps count
+     * @param mode mode of transitions: REMOVING without operand or SIMPLE with the same
+     *             source and operand (trends of its states can't be identified)
+     */
+    private static Task createRingsTask(int[] ringsSizes, int stepsCount, int mode) {
+        List<State> states = new ArrayList<>();
+        List<Transition> transitions = new ArrayList<>();
+        int firstId = 1;
+        for (int size : ringsSizes) {
+            for (int i = 0; i < size; i++) {
+                int id = firstId + i;
+                states.add(new State(id, "s" + id, 10 * id, ""));
+                int operand = mode == TransitionMode.SIMPLE ? id : State.EXTERNAL;
+                transitions.add(new Transition(id, 1, 0, operand, 1, 0, firstId + (i + 1) % size,
+                        1, 1, TransitionType.LINEAR, mode, ""));
+            }
+            firstId += size;
+        }
+
+        Task task = new Task();
+        task.setStates(states);
+        task.setTransitions(transitions);
+        task.setStepsCount(stepsCount);
+        return task;
+    }
+
+    /**
+     * alive (id 1) and died (id 2) states, alive automata die meeting alive ones
+     * and mobilize died ones
+     */
+    private static Task createMobilizationTask(double firstProbability, int firstType,
+                                               double secondProbability, int secondType) {
+        List<State> states = Arrays.asList(
+                new State(1, "alive", 20, ""),
+                new State(2, "died", 80, "")
+        );
+        List<Transition> transitions = Arrays.asList(
+                new Transition(1, 1, 0, 1, 1, 0, 2, 1, firstProbability, firstType, TransitionMode.SIMPLE, ""),
+                new Transition(1, 1, 0, 2, 1, 0, 1, 1, secondProbability, secondType, TransitionMode.SIMPLE, "")
+        );
+
+        Task task = new Task();
+        task.setStates(states);
+        task.setTransitions(transitions);
+        task.setStepsCount(200);
+        return task;
+    }
+
+
+    static Stream<Arguments> getCyclicTasks() {
+        // rings sizes, steps count, finished reason (two steps cycle is considered as stable)
+        return Stream.of(
+                Arguments.of(new int[] {2}, 100, TaskAnalyser.CalculationFinishedReason.TASK_STABLE),
+                Arguments.of(new int[] {2, 2}, 101, TaskAnalyser.CalculationFinishedReason.TASK_STABLE),
+                Arguments.of(new int[] {3}, 100, null),
+                Arguments.of(new int[] {2, 3}, 100, null),
+                Arguments.of(new int[] {2}, 3000, TaskAnalyser.CalculationFinishedReason.TASK_STABLE)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("getCyclicTasks")
+    void twoStepsCycleIsStable(int[] ringsSizes, int stepsCount,
+                               TaskAnalyser.CalculationFinishedReason reason) {
+        Task task = createRingsTask(ringsSizes, stepsCount);
+        TaskAnalyser taskAnalyser = new TaskAnalyser(task);
+        taskAnalyser.setStablePrecision(-6);
+        taskAnalyser.buildGraph();
+        taskAnalyser.setAnalysedStatesList(new ArrayList<>(task.getStates()));
+
+        Calculator.calculateTaskAnalyser(taskAnalyser, Thread::new, result -> {}, progress -> {}, result -> {});
+
+        Assertions.assertEquals(stepsCount, taskAnalyser.calculatedStepsCnt);
+        Assertions.assertEquals(reason, taskAnalyser.getCalculationFinishedReason());
+    }
+
+
+    static Stream<Arguments> getLongCycleTasks() {
+        // rings sizes, cycle period
+        return Stream.of(
+                Arguments.of(new int[] {3}, 3),
+                Arguments.of(new int[] {5}, 5),
+                Arguments.of(new int[] {1, 3}, 3),
+                Arguments.of(new int[] {2, 3}, 6),
+                Arguments.of(new int[] {3, 4}, 12)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("getLongCycleTasks")
+    void longCycleIsFound(int[] ringsSizes, int cycleSteps) {
+        Task task = createRingsTask(ringsSizes, 100, TransitionMode.SIMPLE);
+        TaskAnalyser taskAnalyser = new TaskAnalyser(task);
+        taskAnalyser.setCalculationMode(TaskAnalyser.CalculationMode.STATES_TRENDS);
+        taskAnalyser.setStablePrecision(-6);
+        taskAnalyser.buildGraph();
+        taskAnalyser.setAnalysedStatesList(new ArrayList<>(task.getStates()));
+
+        Calculator.calculateTaskAnalyser(taskAnalyser, Thread::new, result -> {}, progress -> {}, result -> {});
+
+        Assertions.assertNull(taskAnalyser.getCalculationFinishedReason());
+        Assertions.assertEquals(cycleSteps, taskAnalyser.getTaskCycleSteps(taskAnalyser.getAnalysedStatesList()));
+        taskAnalyser.getPredictedDominants();
+        Assertions.assertEquals(TaskAnalyser.CalculationFinishedReason.TASK_CYCLIC,
+                taskAnalyser.getCalculationFinishedReason());
+    }
+
+
+    static Stream<Arguments> getDoubleDoubleTasks() {
+        int linear = TransitionType.LINEAR;
+        int solute = TransitionType.SOLUTE;
+        return Stream.of(
+                Arguments.of(createRingsTask(new int[] {2, 3}, 100)),
+                Arguments.of(createMobilizationTask(0.2, linear, 0.6, solute))
+        );
+    }
+
+    /**
+     * task analyser calculates double-double task with normal accuracy,
+     * transition workers must calculate it the same way
+     */
+    @ParameterizedTest
+    @MethodSource("getDoubleDoubleTasks")
+    void parallelDoubleDoubleTaskIsAnalysed(Task task) {
+        task.setDoubleDoubleAccuracy(true);
+        task.setParallel(false);
+        TaskAnalyser expected = createStatesTrendsAnalyser(task);
+        Calculator.calculateTaskAnalyser(expected, Thread::new, result -> {}, progress -> {}, result -> {});
+
+        task.setParallel(true);
+        TaskAnalyser actual = createStatesTrendsAnalyser(task);
+        Calculator calculator = new Calculator(task, false, false, result -> {}, progress -> {}, Thread::new);
+        calculator.setParallelWorkers(4, 0);
+        calculator.calculateTaskAnalyser(actual, result -> {});
+
+        Assertions.assertTrue(calculator.getWorkersSteps() > 0);
+        Assertions.assertEquals(expected.calculatedStepsCnt, actual.calculatedStepsCnt);
+        Assertions.assertEquals(expected.getCalculationFinishedReason(), actual.getCalculationFinishedReason());
+        Assertions.assertEquals(getIds(expected.getPredictedDominants()), getIds(actual.getPredictedDominants()));
+    }
+
+
+    static Stream<Arguments> getPredictedTasks() {
+        // task, finished reason, predicted dominants ids, ids of dominants groups from lower to biggest
+        // (the same as before graph was indexed)
+        int linear = TransitionType.LINEAR;
+        int solute = TransitionType.SOLUTE;
+        int blend = TransitionType.BLEND;
+        TaskAnalyser.CalculationFinishedReason stable = TaskAnalyser.CalculationFinishedReason.TASK_STABLE;
+        TaskAnalyser.CalculationFinishedReason trends =
+                TaskAnalyser.CalculationFinishedReason.ALL_STATES_TRENDS_HAVE_BEEN_IDENTIFIED;
+        return Stream.of(
+                Arguments.of(createRingsTask(new int[] {2}, 100), stable, new int[] {1}, new int[][] {{2}, {1}}),
+                Arguments.of(createRingsTask(new int[] {3}, 100), trends, new int[] {1, 2, 3},
+                        new int[][] {{1, 2, 3}}),
+                Arguments.of(createRingsTask(new int[] {2, 3}, 100), trends, new int[] {1, 2, 3, 4, 5},
+                        new int[][] {{1, 2}, {3, 4, 5}}),
+                Arguments.of(createRingsTask(new int[] {1, 3}, 100), trends, new int[] {1, 2, 3, 4},
+                        new int[][] {{1}, {2, 3, 4}}),
+                Arguments.of(createMobilizationTask(0.6, linear, 0.2, linear), stable, new int[] {2},
+                        new int[][] {{2}}),
+                Arguments.of(createMobilizationTask(0.2, linear, 0.6, linear), stable, new int[] {1},
+                        new int[][] {{2}, {1}}),
+                Arguments.of(createMobilizationTask(0.2, linear, 0.6, solute), stable, new int[] {1},
+                        new int[][] {{2}, {1}}),
+                Arguments.of(createMobilizationTask(0.6, linear, 0.2, blend), stable, new int[] {2},
+                        new int[][] {{2}}),
+                Arguments.of(createMobilizationTask(1, solute, 0.225, linear), stable, new int[] {2},
+                        new int[][] {{1}, {2}}),
+                Arguments.of(createMobilizationTask(0.6, blend, 0.2, linear), stable, new int[] {2},
+                        new int[][] {{2}}),
+                Arguments.of(createMobilizationTask(0.2, blend, 0.6, blend), stable, new int[] {1},
+                        new int[][] {{2}, {1}})
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("getPredictedTasks")
+    void statesTrendsPredictionIsKept(Task task, TaskAnalyser.CalculationFinishedReason reason,
+                                      int[] predictedIds, int[][] dominantsIds) {
+        TaskAnalyser taskAnalyser = new TaskAnalyser(task);
+        taskAnalyser.setCalculationMode(TaskAnalyser.CalculationMode.STATES_TRENDS);
+        taskAnalyser.setStablePrecision(-6);
+        taskAnalyser.buildGraph();
+        taskAnalyser.setAnalysedStatesList(new ArrayList<>(task.getStates()));
+
+        Calculator.calculateTaskAnalyser(taskAnalyser, Thread::new, result -> {}, progress -> {}, result -> {});
+
+        Assertions.assertEquals(reason, taskAnalyser.getCalculationFinishedReason());
+        Assertions.assertEquals(getIds(predictedIds), getIds(taskAnalyser.getPredictedDominants()));
+        // order of states with near counts isn't defined
+        List<Set<Integer>> dominants = taskAnalyser.getDominantsOrdered().stream()
+                .map(TaskAnalyserTest::getIds)
+                .collect(Collectors.toList());
+        List<Set<Integer>> expected = Arrays.stream(dominantsIds)
+                .map(TaskAnalyserTest::getIds)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(expected, dominants);
+    }
+
+
+    private static TaskAnalyser createStatesTrendsAnalyser(Task task) {
+        TaskAnalyser taskAnalyser = new TaskAnalyser(task);
+        taskAnalyser.setCalculationMode(TaskAnalyser.CalculationMode.STATES_TRENDS);
+        taskAnalyser.setStablePrecision(-6);
+        taskAnalyser.buildGraph();
+        taskAnalyser.setAnalysedStatesList(new ArrayList<>(task.getStates()));
+        return taskAnalyser;
+    }
+
+    private static Set<Integer> getIds(int[] ids) {
+        return IntStream.of(ids).boxed().collect(Collectors.toSet());
+    }
+
+    private static Set<Integer> getIds(List<State> states) {
+        return states.stream().map(State::getId).collect(Collectors.toCollection(HashSet::new));
+    }
+}
@@ -0,0 +1,110 @@
+package population.model.Calculator;
+
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import population.model.StateModel.State;
+import population.model.TaskV4;
+import population.model.TransitionModel.StateInTransition;
+import population.model.TransitionModel.StateMode;
+import population.model.TransitionModel.Transition;
+import population.model.TransitionType;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+public class BinaryResultStoreTest {
+    TaskV4 task;
+
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        State state1 = new State();
+        State state2 = new State();
+
+        state1.setName("first");
+        state1.setCount(1000);
+        state2.setName("второе \"state\"");
+        state2.setCount(10);
+
+        ObservableList<State> states = FXCollections.observableList(Arrays.asList(
+                state1,
+                state2
+        ));
+
+        ObservableList<Transition> transitions = FXCollections.observableList(Arrays.asList(
+                new Transition()
+        ));
+
+        transitions.get(0).setProbability(0.01);
+        transitions.get(0).setType(TransitionType.SOLUTE);
+        transitions.get(0).getStates().addAll(
+                new StateInTransition(state1, 1, 0, 0, StateMode.SIMPLE),
+                new StateInTransition(state2, 1, 2, 1, StateMode.SIMPLE)
+        );
+
+        this.task = new TaskV4();
+        task.setStates(states);
+        task.setTransitions(transitions);
+        task.setStartPoint(5);
+        task.setStepsCount(300);
+    }
+
+
+    static Stream<Arguments> getBlockSteps() {
+        // steps in compressed block, 0 - not compressed
+        return Stream.of(
+                Arguments.of(0),
+                Arguments.of(64),
+                Arguments.of(300),
+                Arguments.of(BinaryResultStore.DEFAULT_BLOCK_STEPS)
+        );
+    }
+
+
+    @ParameterizedTest
+    @MethodSource("getBlockSteps")
+    public void readsWrittenResult(int blockSteps) throws Exception {
+        Calculator calculator = new Calculator(task);
+        calculator.calculate();
+        Result result = new Result(calculator.getResultStore(), calculator.getStates(),
+                calculator.getStartPoint(), calculator.getStepsCount());
+
+        File file = File.createTempFile("population-result", ".bin");
+        try {
+            BinaryResultStore.write(file, result, blockSteps);
+            try (BinaryResultStore store = BinaryResultStore.open(file)) {
+                Result read = store.toResult();
+                Assertions.assertEquals(5, read.getStartPoint());
+                Assertions.assertEquals(300, read.getStepsCount());
+                Assertions.assertEquals(blockSteps, store.getBlockSteps());
+                for (int i = 0; i < 2; i++) {
+                    Assertions.assertEquals(task.getStates().get(i).getId(), read.getStates().get(i).getId());
+                    Assertions.assertEquals(task.getStates().get(i).getName(), read.getStates().get(i).getName());
+                }
+
+                double[] row = new double[2];
+                for (int step = 0; step < task.getStepsCount(); step++) {
+                    store.readStep(step, row);
+                    Assertions.assertArrayEquals(calculator.getStatesCount()[step], row, "step " + step);
+                }
+
+                double[] column = new double[152];
+                store.read(1, 50, 200, column, 2);
+                for (int i = 0; i < 150; i++) {
+                    Assertions.assertEquals(calculator.getStatesCount()[50 + i][1], column[i + 2]);
+                }
+            }
+        } finally {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+}
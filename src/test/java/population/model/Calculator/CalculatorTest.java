@@ -68,41 +68,41 @@ public class CalculatorTest {
 
     @Test
     public void getMaxDelay() {
-        Assertions.assertEquals(2, new Calculator(task).getMaxDelay());
+        Assertions.assertEquals(2, new Calculator(task).plan.getMaxDelay());
     }
 
 
     @Test
     public void getTotalCount() {
-        Calculator calc = new Calculator(task);
+        // transitions are compiled when calculator is created
         double expected;
 
         task.getTransitions().get(0).setType(TransitionType.LINEAR);
         expected = 1;
-        Assertions.assertEquals(expected, calc.getTotalCount(task.getTransitions().get(0), 0));
+        Assertions.assertEquals(expected, new Calculator(task).getTotalCount(0, 0));
 
         task.getTransitions().get(0).setType(TransitionType.SOLUTE);
         expected = 150;
-        Assertions.assertEquals(expected, calc.getTotalCount(task.getTransitions().get(0), 0));
+        Assertions.assertEquals(expected, new Calculator(task).getTotalCount(0, 0));
 
         task.getTransitions().get(0).setType(TransitionType.BLEND);
         expected = 150;
-        Assertions.assertEquals(expected, calc.getTotalCount(task.getTransitions().get(0), 0));
+        Assertions.assertEquals(expected, new Calculator(task).getTotalCount(0, 0));
     }
 
 
     @Test
     public void getIntensityLinear() {
-        Calculator calc = new Calculator(task);
         Transition transition = task.getTransitions().get(1);
         transition.getStates().get(0).setDelay(0);
         transition.getStates().get(1).setDelay(0);
         transition.getStates().get(0).setIn(1);
         transition.getStates().get(1).setIn(4);
         transition.setType(TransitionType.LINEAR);
+        Calculator calc = new Calculator(task);
 
         double expected = 25;
-        double actual = calc.getIntensity(transition, 0);
+        double actual = calc.getIntensity(1, 0);
         Assertions.assertEquals(expected, actual,
             "getIntensity for LINEAR: expected: " + expected + ", actual: " + actual
         );
@@ -111,7 +111,6 @@ public class CalculatorTest {
 
     @Test
     public void getIntensitySolute() {
-        Calculator calc = new Calculator(task);
         Transition transition = task.getTransitions().get(1);
         transition.getStates().get(0).setDelay(0);
         transition.getStates().get(1).setDelay(0);
@@ -119,11 +118,44 @@ public class CalculatorTest {
         transition.getStates().get(0).setMode(StateMode.SIMPLE);
         transition.getStates().get(1).setIn(4);
         transition.setType(TransitionType.SOLUTE);
+        Calculator calc = new Calculator(task);
 
         double expected = 0.0027;
-        double actual = calc.getIntensity(transition, 0);
+        double actual = calc.getIntensity(1, 0);
         Assertions.assertTrue(Math.abs(expected - actual) < 0.0001,
             "getIntensity for SOLUTE: expected: " + expected + ", actual: " + actual
         );
     }
+
+
+    @Test
+    public void stableTaskFillsRemainingSteps() {
+        // state1 dies out, so after rounding all states stop changing
+        Transition transition = task.getTransitions().get(1);
+        transition.getStates().get(0).setOut(0);
+        transition.getStates().get(1).setIn(0);
+        transition.setType(TransitionType.LINEAR);
+        transition.setProbability(0.5);
+        task.getTransitions().get(0).setProbability(0);
+        task.setStepsCount(1000);
+
+        Calculator calc = new Calculator(task);
+        calc.calculate();
+
+        Assertions.assertTrue(calc.isTaskStable);
+        double[] last = calc.getStepStates(999);
+        Assertions.assertEquals(0, last[0]);
+        Assertions.assertEquals(100, last[1]);
+        for (int step = 200; step < 1000; step++) {
+            Assertions.assertArrayEquals(last, calc.getStepStates(step));
+        }
+
+        // steps after stable step are not calculated, but result has all steps
+        Assertions.assertTrue(calc.getStableStep() > 0 && calc.getStableStep() < 200);
+        ResultStore store = calc.getResultStore();
+        Assertions.assertEquals(1000, store.getStepsCount());
+        Assertions.assertEquals(100, store.get(999, 1));
+        Assertions.assertEquals(1000, calc.getStatesCount().length);
+        Assertions.assertArrayEquals(last, calc.getStatesCount()[999]);
+    }
 }
@@ -98,7 +98,7 @@ public class InhibitorAndResidualTaskTest {
 
         Calculator calc = new Calculator(task);
         calc.copyStep(0);
-        calc.applyTransition(transition, 1);
+        calc.applyTransition(2, 1);
 
         double[] expected = new double[]{20, 20, 0, 10};
         for (int i = 0; i < expected.length; i++) {
@@ -111,11 +111,9 @@ public class InhibitorAndResidualTaskTest {
 
     @Test
     public void getIntensitySoluteInhibitor() {
-        Transition transition = task.getTransitions().get(2);
-
         Calculator calc = new Calculator(task);
         calc.copyStep(0);
-        calc.applyTransition(transition, 1);
+        calc.applyTransition(2, 1);
 
         double[] expected = new double[]{20, 20, 3.316, 10};
         for (int i = 0; i < expected.length; i++) {
@@ -134,7 +132,7 @@ public class InhibitorAndResidualTaskTest {
         Calculator calc = new Calculator(task);
 
         calc.copyStep(0);
-        calc.applyResidualTransition(transition, 1);
+        calc.applyTransition(1, 1);
 
         double[] expected = new double[]{20, 20, 4, 10};
         for (int i = 0; i < expected.length; i++) {
@@ -153,7 +151,7 @@ public class InhibitorAndResidualTaskTest {
         Calculator calc = new Calculator(task);
 
         calc.copyStep(0);
-        calc.applyResidualTransition(transition, 1);
+        calc.applyTransition(1, 1);
 
         double[] expected = new double[]{20, 20, 0.74, 10};
         for (int i = 0; i < expected.length; i++) {
@@ -0,0 +1,130 @@
+package population.model.Calculator;
+
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import population.model.StateModel.State;
+import population.model.TaskV4;
+import population.model.TransitionModel.StateInTransition;
+import population.model.TransitionModel.StateMode;
+import population.model.TransitionModel.Transition;
+import population.model.TransitionType;
+
+import java.util.Arrays;
+
+public class MappedResultStoreTest {
+    TaskV4 task;
+
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        State state1 = new State();
+        State state2 = new State();
+
+        state1.setCount(1000);
+        state2.setCount(10);
+
+        ObservableList<State> states = FXCollections.observableList(Arrays.asList(
+                state1,
+                state2
+        ));
+
+        ObservableList<Transition> transitions = FXCollections.observableList(Arrays.asList(
+                new Transition()
+        ));
+
+        transitions.get(0).setProbability(0.01);
+        transitions.get(0).setType(TransitionType.SOLUTE);
+        transitions.get(0).getStates().addAll(
+                new StateInTransition(state1, 1, 0, 0, StateMode.SIMPLE),
+                new StateInTransition(state2, 1, 2, 1, StateMode.SIMPLE)
+        );
+
+        this.task = new TaskV4();
+        task.setStates(states);
+        task.setTransitions(transitions);
+        task.setStartPoint(0);
+        task.setStepsCount(300);
+    }
+
+
+    @Test
+    public void storeEqualsFullHistory() throws Exception {
+        Calculator full = new Calculator(task);
+        full.calculate();
+
+        try (MappedResultStore store = MappedResultStore.createTemporary(2, task.getStepsCount())) {
+            Calculator mapped = new Calculator(task, store);
+            mapped.calculate();
+
+            Assertions.assertSame(store, mapped.getResultStore());
+            Assertions.assertEquals(task.getStepsCount(), store.getStepsCount());
+            Assertions.assertEquals(2, store.getStatesCount());
+
+            double[] row = new double[2];
+            for (int step = 0; step < task.getStepsCount(); step++) {
+                store.readStep(step, row);
+                Assertions.assertArrayEquals(full.getStatesCount()[step], row, "step " + step);
+            }
+
+            double[] column = new double[52];
+            store.read(1, 100, 150, column, 2);
+            for (int i = 0; i < 50; i++) {
+                Assertions.assertEquals(full.getStatesCount()[100 + i][1], column[i + 2]);
+            }
+        }
+    }
+
+
+    @Test
+    public void resultReadsByRealStep() {
+        task.setStartPoint(10);
+        Calculator calculator = new Calculator(task);
+        calculator.calculate();
+
+        Result result = new Result(calculator.getResultStore(), calculator.getStates(),
+                calculator.getStartPoint(), calculator.getStepsCount());
+
+        Assertions.assertNull(result.getStateCount(9, 0));
+        Assertions.assertEquals(1000, result.getStateCount(10, 0), 0);
+        Assertions.assertEquals(calculator.getStatesCount()[299][1], result.getStateCount(309, 1), 0);
+        Assertions.assertNull(result.getStateCount(310, 0));
+    }
+
+
+    @Test
+    public void temporaryFileIsDeletedOnClose() throws Exception {
+        MappedResultStore store = MappedResultStore.createTemporary(2, 100);
+        store.accept(0, new double[] {1, 2});
+        Assertions.assertTrue(store.getFile().exists());
+
+        store.close();
+        Assertions.assertFalse(store.getFile().exists());
+        // columns stay readable after close
+        Assertions.assertEquals(2, store.get(0, 1));
+        store.close();
+    }
+
+
+    @Test
+    public void stableStepsAreReadFromLastWrittenStep() throws Exception {
+        try (MappedResultStore store = MappedResultStore.createTemporary(2, 100)) {
+            for (int step = 0; step < 10; step++) {
+                store.accept(step, new double[] {step, -step});
+            }
+            store.acceptStable(10, 100, new double[] {9, -9});
+
+            Assertions.assertEquals(100, store.getStepsCount());
+            Assertions.assertEquals(-9, store.get(99, 1));
+
+            double[] column = new double[20];
+            store.read(0, 5, 25, column, 0);
+            for (int i = 0; i < 20; i++) {
+                Assertions.assertEquals(Math.min(5 + i, 9), column[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package population.model.Calculator;
+
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import population.model.StateModel.State;
+import population.model.TaskV4;
+import population.model.TransitionModel.StateInTransition;
+import population.model.TransitionModel.StateMode;
+import population.model.TransitionModel.Transition;
+import population.model.TransitionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class StreamingCalculatorTest {
+    TaskV4 task;
+
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        State state1 = new State();
+        State state2 = new State();
+        State state3 = new State();
+
+        state1.setCount(50);
+        state2.setCount(100);
+        state3.setCount(10);
+
+        ObservableList<State> states = FXCollections.observableList(Arrays.asList(
+                state1,
+                state2,
+                state3
+        ));
+
+        ObservableList<Transition> transitions = FXCollections.observableList(Arrays.asList(
+                new Transition(),
+                new Transition(),
+                new Transition()
+        ));
+
+        transitions.get(0).setProbability(0.1);
+        transitions.get(0).setType(TransitionType.SOLUTE);
+        transitions.get(0).getStates().addAll(
+                new StateInTransition(state1, 1, 2, 3, StateMode.SIMPLE),
+                new StateInTransition(state2, 1, 0, 0, StateMode.SIMPLE)
+        );
+        transitions.get(1).setProbability(0.2);
+        transitions.get(1).setType(TransitionType.LINEAR);
+        transitions.get(1).getStates().addAll(
+                new StateInTransition(state1, 1, 0, 1, StateMode.SIMPLE),
+                new StateInTransition(state3, 0, 1, 0, StateMode.SIMPLE)
+        );
+        transitions.get(2).setProbability(0.05);
+        transitions.get(2).setType(TransitionType.BLEND);
+        transitions.get(2).getStates().addAll(
+                new StateInTransition(state3, 1, 0, 2, StateMode.SIMPLE),
+                new StateInTransition(state2, 0, 1, 0, StateMode.SIMPLE)
+        );
+
+        this.task = new TaskV4();
+        task.setStates(states);
+        task.setTransitions(transitions);
+        task.setStartPoint(0);
+        task.setStepsCount(500);
+    }
+
+
+    @Test
+    public void historySize() {
+        Calculator calculator = new Calculator(task, (step, statesCount) -> {});
+        Assertions.assertEquals(3 + 3, calculator.getHistorySize());
+        Assertions.assertEquals(3 + 3, calculator.getStatesCount().length);
+    }
+
+
+    @Test
+    public void streamingEqualsFullHistory() {
+        Calculator full = new Calculator(task);
+        full.calculate();
+
+        List<double[]> streamed = new ArrayList<>();
+        boolean[] finished = {false};
+        Calculator streaming = new Calculator(task, new StepSink() {
+            @Override
+            public void accept(int step, double[] statesCount) {
+                Assertions.assertEquals(streamed.size(), step);
+                streamed.add(statesCount.clone());
+            }
+
+            @Override
+            public void finish() {
+                finished[0] = true;
+            }
+        });
+        streaming.calculate();
+
+        Assertions.assertTrue(finished[0]);
+        Assertions.assertEquals(task.getStepsCount(), streamed.size());
+        for (int step = 0; step < task.getStepsCount(); step++) {
+            Assertions.assertArrayEquals(full.getStatesCount()[step], streamed.get(step), "step " + step);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package population.model.Calculator;
+
+
+import javafx.collections.FXCollections;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import population.model.StateModel.State;
+import population.model.TaskV4;
+import population.model.TransitionModel.StateInTransition;
+import population.model.TransitionModel.StateMode;
+import population.model.TransitionModel.Transition;
+import population.model.TransitionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * each variant of sweep must be equal to calculation of task with variant's parameters
+ */
+public class SweepCalculatorTest {
+    private static class CollectingSink implements StepSink {
+        private final List<double[]> steps = new ArrayList<>();
+
+        @Override
+        public void accept(int step, double[] statesCount) {
+            Assertions.assertEquals(this.steps.size(), step);
+            this.steps.add(statesCount.clone());
+        }
+    }
+
+
+    static Stream<Arguments> getTasks() {
+        // allow negative, steps count, variants count
+        return Stream.of(
+                Arguments.of(false, 400, 7),
+                Arguments.of(true, 60, 3),
+                Arguments.of(false, 1, 2),
+                Arguments.of(false, 3000, 1)
+        );
+    }
+
+
+    @ParameterizedTest
+    @MethodSource("getTasks")
+    public void variantsAreEqualToSeparateCalculations(boolean allowNegative, int stepsCount, int variantsCount) {
+        TaskV4 sweepTask = createTask(allowNegative, stepsCount);
+        SweepCalculator sweep = new SweepCalculator(sweepTask, variantsCount);
+        List<CollectingSink> sinks = new ArrayList<>();
+        for (int variant = 0; variant < variantsCount; variant++) {
+            sinks.add(new CollectingSink());
+            for (int t = 0; t < sweepTask.getTransitions().size(); t++) {
+                Transition transition = sweepTask.getTransitions().get(t);
+                sweep.setProbability(variant, transition, getProbability(transition, variant));
+                for (StateInTransition state : transition.getActualStates()) {
+                    sweep.setIn(variant, state, getIn(state, variant, allowNegative));
+                    sweep.setOut(variant, state, getOut(state, variant));
+                }
+            }
+            for (State state : sweepTask.getStates()) {
+                sweep.setCount(variant, state, getCount(state, variant));
+            }
+        }
+        sweep.calculate(sinks);
+
+        for (int variant = 0; variant < variantsCount; variant++) {
+            TaskV4 task = createTask(allowNegative, stepsCount);
+            for (Transition transition : task.getTransitions()) {
+                for (StateInTransition state : transition.getActualStates()) {
+                    double in = getIn(state, variant, allowNegative);
+                    double out = getOut(state, variant);
+                    state.setIn(in);
+                    state.setOut(out);
+                }
+                transition.setProbability(getProbability(transition, variant));
+            }
+            for (State state : task.getStates()) {
+                state.setCount(getCount(state, variant));
+            }
+            CollectingSink expected = new CollectingSink();
+            new Calculator(task, expected).calculate();
+
+            List<double[]> actual = sinks.get(variant).steps;
+            Assertions.assertEquals(expected.steps.size(), actual.size());
+            for (int step = 0; step < actual.size(); step++) {
+                Assertions.assertArrayEquals(expected.steps.get(step), actual.get(step),
+                        "variant " + variant + ", step " + step);
+            }
+        }
+    }
+
+
+    private static double getProbability(Transition transition, int variant) {
+        // some variants become stable at once
+        return variant % 4 == 3 ? 0 : transition.getProbability() * (1 + 0.37 * variant);
+    }
+
+    private static double getIn(StateInTransition state, int variant, boolean allowNegative) {
+        // fractional power of negative count is NaN
+        double shift = allowNegative ? variant % 3 : 0.5 * (variant % 3);
+        return state.getIn() == 0 ? 0 : state.getIn() + shift;
+    }
+
+    private static double getOut(StateInTransition state, int variant) {
+        return state.getOut() * (1 + 0.25 * (variant % 2));
+    }
+
+    private static double getCount(State state, int variant) {
+        return state.getCount() + 7 * variant;
+    }
+
+    private static TaskV4 createTask(boolean allowNegative, int stepsCount) {
+        State a = new State();
+        a.setCount(1000);
+        State b = new State();
+        b.setCount(300);
+        State c = new State();
+        c.setCount(20);
+        State d = new State();
+        d.setCount(0);
+
+        Transition linear = new Transition();
+        linear.setType(TransitionType.LINEAR);
+        linear.setProbability(0.02);
+        linear.getStates().addAll(
+                new StateInTransition(a, 1, 0, 2, StateMode.SIMPLE),
+                new StateInTransition(c, 1, 0, 0, StateMode.INHIBITOR),
+                new StateInTransition(b, 0, 1, 0, StateMode.SIMPLE)
+        );
+        Transition solute = new Transition();
+        solute.setType(TransitionType.SOLUTE);
+        solute.setProbability(0.05);
+        solute.getStates().addAll(
+                new StateInTransition(a, 1, 1, 0, StateMode.SIMPLE),
+                new StateInTransition(b, 1, 0, 1, StateMode.SIMPLE),
+                new StateInTransition(c, 0, 1, 0, StateMode.SIMPLE)
+        );
+        Transition blend = new Transition();
+        blend.setType(TransitionType.BLEND);
+        blend.setProbability(0.1);
+        blend.getStates().addAll(
+                new StateInTransition(c, 1, 0, 0, StateMode.SIMPLE),
+                new StateInTransition(b, 1, 1, 3, StateMode.SIMPLE),
+                new StateInTransition(d, 0, 2, 0, StateMode.SIMPLE)
+        );
+        Transition residual = new Transition();
+        residual.setType(TransitionType.LINEAR);
+        residual.setProbability(0.3);
+        residual.getStates().addAll(
+                new StateInTransition(d, 1, 0, 0, StateMode.SIMPLE),
+                new StateInTransition(c, 1, 0, 0, StateMode.RESIDUAL),
+                new StateInTransition(a, 0, 1, 0, StateMode.SIMPLE)
+        );
+
+        TaskV4 task = new TaskV4();
+        task.setStates(FXCollections.observableArrayList(Arrays.asList(a, b, c, d)));
+        task.setTransitions(FXCollections.observableArrayList(Arrays.asList(linear, solute, blend, residual)));
+        task.setStartPoint(0);
+        task.setStepsCount(stepsCount);
+        task.setIsAllowNegative(allowNegative);
+        return task;
+    }
+}
@@ -0,0 +1,195 @@
+package population.model.Calculator;
+
+
+import javafx.collections.FXCollections;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import population.model.StateModel.State;
+import population.model.TaskV4;
+import population.model.TransitionModel.StateInTransition;
+import population.model.TransitionModel.StateMode;
+import population.model.TransitionModel.Transition;
+import population.model.TransitionType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * calculation with compiled {@link TransitionPlan} must be equal to calculation
+ * with transitions of task model and stream sums, as calculator did before the plan
+ */
+public class TransitionPlanTest {
+    /**
+     * applies transitions of task model as calculator did before the plan
+     */
+    private static class StreamCalculator extends Calculator {
+        StreamCalculator(TaskV4 task) {
+            super(task);
+        }
+
+        @Override
+        protected void applyTransition(int transition, int step) {
+            Transition model = this.transitions.get(transition);
+            double intensity = this.getStreamIntensity(model, step - 1) * this.getStreamTotalCount(model, step - 1) *
+                    model.getProbability();
+            double[] previous = this.getStepStates(step - 1);
+            double[] current = this.getStepStates(step);
+            List<StateInTransition> states = model.getActualStates();
+
+            if (states.stream().anyMatch(state -> state.getMode() == StateMode.RESIDUAL)) {
+                double residualSum = states.stream()
+                        .filter(state -> state.getMode() == StateMode.RESIDUAL)
+                        .mapToDouble(state -> previous[this.getStateIndex(state.getState())] - intensity)
+                        .sum();
+                states.stream()
+                        .filter(state -> state.getMode() == StateMode.RESIDUAL)
+                        .forEach(state -> current[this.getStateIndex(state.getState())] -=
+                                previous[this.getStateIndex(state.getState())] - intensity);
+                states.stream()
+                        .filter(state -> state.getOut() != 0)
+                        .forEach(state -> current[this.getStateIndex(state.getState())] +=
+                                (state.getOut() - state.getIn()) * residualSum);
+                return;
+            }
+
+            for (StateInTransition state : states) {
+                current[this.getStateIndex(state.getState())] += (state.getOut() - state.getIn()) * intensity;
+            }
+        }
+
+        private double getStreamIntensity(Transition transition, int step) {
+            List<StateInTransition> states = transition.getActualStates().stream()
+                    .filter(state -> state.getIn() > 0)
+                    .collect(Collectors.toList());
+
+            if (transition.getType() == TransitionType.LINEAR) {
+                double intensity = states.stream()
+                        .filter(state -> state.getMode() != StateMode.INHIBITOR)
+                        .mapToDouble(state -> this.getStreamDelayedCount(state, step) / state.getIn())
+                        .min()
+                        .orElse(0);
+                intensity -= states.stream()
+                        .filter(state -> state.getMode() == StateMode.INHIBITOR)
+                        .mapToDouble(state -> this.getStreamDelayedCount(state, step) / state.getIn())
+                        .sum();
+                return Math.max(0, intensity);
+            }
+
+            double totalCount = this.getStreamTotalCount(transition, step);
+            if (totalCount == 0) {
+                return 0;
+            }
+            return states.stream()
+                    .mapToDouble(state -> {
+                        double in = state.getIn();
+                        double res = Math.pow(this.getStreamDelayedCount(state, step), in) /
+                                TransitionPlan.probabilisticFactorial(in) / Math.pow(totalCount, in);
+                        return state.getMode() == StateMode.INHIBITOR ? 1 - res : res;
+                    })
+                    .reduce(1, (a, b) -> a * b);
+        }
+
+        private double getStreamTotalCount(Transition transition, int step) {
+            double[] statesCount = this.getStepStates(step);
+            switch (transition.getType()) {
+                case TransitionType.SOLUTE:
+                    return this.states.stream()
+                            .mapToDouble(state -> statesCount[this.getStateIndex(state)])
+                            .sum();
+                case TransitionType.BLEND:
+                    Set<State> distinct = new HashSet<>();
+                    return transition.getActualStates().stream()
+                            .filter(state -> distinct.add(state.getState()))
+                            .mapToDouble(state -> statesCount[this.getStateIndex(state.getState())])
+                            .sum();
+                default:
+                    return 1;
+            }
+        }
+
+        private double getStreamDelayedCount(StateInTransition state, int step) {
+            return this.getStepStates(Math.max(0, step - state.getDelay()))[this.getStateIndex(state.getState())];
+        }
+    }
+
+
+    static Stream<Arguments> getSeeds() {
+        return IntStream.range(0, 200).mapToObj(Arguments::of);
+    }
+
+
+    @ParameterizedTest
+    @MethodSource("getSeeds")
+    public void planIsEqualToStreamSums(int seed) {
+        Calculator expected = new StreamCalculator(createTask(new Random(seed)));
+        expected.calculate();
+        Calculator actual = new Calculator(createTask(new Random(seed)));
+        actual.calculate();
+
+        double[][] expectedStates = expected.getStatesCount();
+        double[][] actualStates = actual.getStatesCount();
+        Assertions.assertEquals(expectedStates.length, actualStates.length);
+        for (int step = 0; step < actualStates.length; step++) {
+            Assertions.assertArrayEquals(expectedStates[step], actualStates[step], "step " + step);
+        }
+    }
+
+
+    /**
+     * random task with all transition types and modes, large and near-cancelling counts
+     */
+    private static TaskV4 createTask(Random random) {
+        List<State> states = new ArrayList<>();
+        int statesCount = 3 + random.nextInt(6);
+        for (int i = 0; i < statesCount; i++) {
+            State state = new State();
+            double magnitude = Math.pow(10, random.nextInt(8));
+            state.setCount(Math.floor(random.nextDouble() * magnitude * 1000) / 1000);
+            states.add(state);
+        }
+
+        boolean allowNegative = random.nextBoolean();
+        int[] types = {TransitionType.LINEAR, TransitionType.SOLUTE, TransitionType.BLEND};
+        int[] modes = {StateMode.SIMPLE, StateMode.SIMPLE, StateMode.INHIBITOR, StateMode.RESIDUAL};
+        // fractional power of negative count is NaN
+        double[] coefficients = allowNegative ? new double[]{0, 0, 1, 1, 2} : new double[]{0, 0, 1, 1, 2, 0.5, 1.5};
+        List<Transition> transitions = new ArrayList<>();
+        int transitionsCount = 2 + random.nextInt(6);
+        for (int t = 0; t < transitionsCount; t++) {
+            Transition transition = new Transition();
+            transition.setType(types[random.nextInt(types.length)]);
+            transition.setProbability(random.nextDouble() * 0.05);
+            // distinct states, otherwise residual transition can double its state on each step
+            List<State> transitionStates = new ArrayList<>(states);
+            Collections.shuffle(transitionStates, random);
+            int transitionStatesCount = 2 + random.nextInt(Math.min(4, statesCount - 1));
+            for (int i = 0; i < transitionStatesCount; i++) {
+                transition.getStates().add(new StateInTransition(
+                        transitionStates.get(i),
+                        coefficients[random.nextInt(coefficients.length)],
+                        coefficients[random.nextInt(coefficients.length)],
+                        random.nextInt(3),
+                        modes[random.nextInt(modes.length)]
+                ));
+            }
+            transitions.add(transition);
+        }
+
+        TaskV4 task = new TaskV4();
+        task.setStates(FXCollections.observableArrayList(states));
+        task.setTransitions(FXCollections.observableArrayList(transitions));
+        task.setStartPoint(0);
+        task.setStepsCount(100);
+        task.setIsAllowNegative(allowNegative);
+        return task;
+    }
+}
@@ -0,0 +1,87 @@
+package population.util;
+
+
+import javafx.collections.FXCollections;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import population.model.StateModel.State;
+import population.model.TaskV4;
+import population.model.TransitionModel.StateInTransition;
+import population.model.TransitionModel.StateMode;
+import population.model.TransitionModel.Transition;
+import population.model.TransitionType;
+
+import java.io.File;
+import java.util.Arrays;
+
+public class BinaryTaskFormatTest {
+    @Test
+    public void parsesEncodedTask() throws Exception {
+        State state1 = new State();
+        state1.setName("a");
+        state1.setAlias("x");
+        state1.setCount(1000.5);
+        State state2 = new State();
+        state2.setName("б");
+        state2.setCount(10);
+
+        Transition transition = new Transition();
+        transition.setProbability(0.01);
+        transition.setType(TransitionType.BLEND);
+        transition.setBlock("block");
+        transition.getStates().addAll(
+                new StateInTransition(state1, 1.5, 0, 0, StateMode.SIMPLE),
+                new StateInTransition(state2, 1, 2, 3, StateMode.INHIBITOR),
+                new StateInTransition(null, 0, 1, 0, StateMode.SIMPLE)
+        );
+
+        TaskV4 task = new TaskV4();
+        task.setStates(FXCollections.observableArrayList(Arrays.asList(state1, state2)));
+        task.setTransitions(FXCollections.observableArrayList(Arrays.asList(transition)));
+        task.setStartPoint(3);
+        task.setStepsCount(1000);
+        task.setIsAllowNegative(true);
+
+        File file = File.createTempFile("population-task", ".bin");
+        try {
+            BinaryTaskFormat.encode(file, task);
+            Assertions.assertTrue(BinaryTaskFormat.isBinaryTask(file));
+            TaskV4 parsed = TaskParser.parse(file);
+
+            Assertions.assertNotNull(parsed);
+            Assertions.assertEquals(3, parsed.getStartPoint());
+            Assertions.assertEquals(1000, parsed.getStepsCount());
+            Assertions.assertTrue(parsed.getIsAllowNegative());
+            Assertions.assertEquals(2, parsed.getStates().size());
+            for (int i = 0; i < 2; i++) {
+                State expected = task.getStates().get(i);
+                State actual = parsed.getStates().get(i);
+                Assertions.assertEquals(expected.getName(), actual.getName());
+                Assertions.assertEquals(expected.getAlias(), actual.getAlias());
+                Assertions.assertEquals(expected.getCount(), actual.getCount());
+            }
+
+            Assertions.assertEquals(1, parsed.getTransitions().size());
+            Transition parsedTransition = parsed.getTransitions().get(0);
+            Assertions.assertEquals(0.01, parsedTransition.getProbability());
+            Assertions.assertEquals(TransitionType.BLEND, parsedTransition.getType());
+            Assertions.assertEquals("block", parsedTransition.getBlock());
+            Assertions.assertEquals(3, parsedTransition.getStates().size());
+            for (int i = 0; i < 3; i++) {
+                StateInTransition expected = transition.getStates().get(i);
+                StateInTransition actual = parsedTransition.getStates().get(i);
+                Assertions.assertEquals(expected.getIn(), actual.getIn());
+                Assertions.assertEquals(expected.getOut(), actual.getOut());
+                Assertions.assertEquals(expected.getDelay(), actual.getDelay());
+                Assertions.assertEquals(expected.getMode(), actual.getMode());
+            }
+            Assertions.assertSame(parsed.getStates().get(0), parsedTransition.getStates().get(0).getState());
+            Assertions.assertSame(parsed.getStates().get(1), parsedTransition.getStates().get(1).getState());
+            Assertions.assertNull(parsedTransition.getStates().get(2).getState());
+        } finally {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package population.util;
+
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+public class CsvParserTest {
+    static Stream<Arguments> getTables() {
+        return Stream.of(
+                Arguments.of("a,b\nc,d\n", new StringTable(new StringRow("a", "b"), new StringRow("c", "d"))),
+                Arguments.of("\"a\",\"b,c\"", new StringTable(new StringRow("a", "b,c"))),
+                Arguments.of("\"a \"\"b\"\"\",\"\"", new StringTable(new StringRow("a \"b\"", ""))),
+                Arguments.of("\"a\nb\",c\n\nd", new StringTable(new StringRow("a\nb", "c"), new StringRow(""),
+                        new StringRow("d"))),
+                Arguments.of("a,,\n", new StringTable(new StringRow("a", "", ""))),
+                Arguments.of("\"a\"\r\n\"б\"\r\n", new StringTable(new StringRow("a\r"), new StringRow("б\r"))),
+                Arguments.of("", new StringTable())
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("getTables")
+    public void parsesTable(String csv, StringTable expected) {
+        Assertions.assertEquals(expected, CsvParser.parse(csv, ','));
+        Assertions.assertEquals(expected, CsvParser.parse(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ',', "UTF-8"));
+    }
+
+    @Test
+    public void parsesEncodedTableWithLargeCells() {
+        StringTable table = new StringTable();
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 30000; i++) {
+            large.append(i % 7 == 0 ? '"' : i % 11 == 0 ? ';' : (char) ('a' + i % 26));
+        }
+        for (int i = 0; i < 50; i++) {
+            table.add(String.valueOf(i), large.substring(i * 100), i % 3 == 0 ? "" : "x\ny");
+        }
+        Assertions.assertEquals(table, CsvParser.parse(CsvParser.encode(table, ';'), ';'));
+    }
+
+    @Test
+    public void passesCellsToConsumer() throws IOException {
+        StringBuilder cells = new StringBuilder();
+        CsvParser.parse(new StringReader("1;\"2\";3\n4\n"), ';', new CsvParser.CellConsumer() {
+            @Override
+            public void cell(char[] buffer, int offset, int length) {
+                cells.append('[').append(buffer, offset, length).append(']');
+            }
+
+            @Override
+            public void endRow() {
+                cells.append('|');
+            }
+        });
+        Assertions.assertEquals("[1][2][3]|[4]|", cells.toString());
+    }
+}
@@ -0,0 +1,86 @@
+package population.util;
+
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class CsvResultWriterTest {
+    @Test
+    public void writesQuotedCells() throws IOException {
+        File file = File.createTempFile("population-result", ".csv");
+        try {
+            try (CsvResultWriter writer = new CsvResultWriter(file, ';', ',', "\r\n", "windows-1251")) {
+                writer.writeHeader("Шаг", Arrays.asList("a\"b", "в"));
+                writer.setStartPoint(10);
+                writer.accept(0, new double[]{1.5, 0.1});
+                writer.acceptStable(1, 3, new double[]{2, -0.25});
+                writer.writeStep(13);
+                writer.writeValue(1e-3);
+                writer.writeMissing();
+                writer.endRow();
+            }
+            String expected = "\"Шаг\";\"a\"\"b\";\"в\"\r\n"
+                    + "\"10\";\"1,5\";\"0,1\"\r\n"
+                    + "\"11\";\"2\";\"-0,25\"\r\n"
+                    + "\"12\";\"2\";\"-0,25\"\r\n"
+                    + "\"13\";\"0,001\";\"---\"\r\n";
+            Assertions.assertEquals(expected,
+                    new String(Files.readAllBytes(file.toPath()), Charset.forName("windows-1251")));
+        } finally {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    @Test
+    public void writesRowsLargerThanBuffer() throws IOException {
+        Random random = new Random(19);
+        // row is longer than the smallest buffer
+        double[] values = new double[200];
+        StringBuilder expected = new StringBuilder("\"Шаг\"");
+        File file = File.createTempFile("population-result", ".csv");
+        try {
+            // buffer size is raised to the minimum
+            try (CsvResultWriter writer = new CsvResultWriter(file, ',', '.', "\n", "UTF-8", 1)) {
+                List<String> names = new ArrayList<>();
+                for (int i = 0; i < values.length; i++) {
+                    names.add("состояние " + i);
+                    expected.append(",\"состояние ").append(i).append('"');
+                }
+                expected.append('\n');
+                writer.writeHeader("Шаг", names);
+                for (int step = 0; step < 300; step += 3) {
+                    StringBuilder row = new StringBuilder();
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = random.nextDouble() * 1e3;
+                        row.append(",\"").append(DoubleFormatter.format(values[i], '.')).append('"');
+                    }
+                    row.append('\n');
+                    writer.accept(step, values);
+                    expected.append('"').append(step).append('"').append(row);
+                    writer.acceptStable(step + 1, step + 3, values);
+                    for (int stable = step + 1; stable < step + 3; stable++) {
+                        expected.append('"').append(stable).append('"').append(row);
+                    }
+                }
+                writer.finish();
+            }
+            Assertions.assertEquals(expected.toString(),
+                    new String(Files.readAllBytes(file.toPath()), "UTF-8"));
+        } finally {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+}
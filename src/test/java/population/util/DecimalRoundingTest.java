@@ -0,0 +1,69 @@
+package population.util;
+
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class DecimalRoundingTest {
+    private static final int VALUES_COUNT = 200_000;
+
+
+    @Test
+    public void specialValues() {
+        double[] values = {
+                0., -0., 0.5, -0.5, 1.5, 2.5, 2.675, 1.005, 0.125, 0.0625, 1e-17, -1e-17,
+                0.9999999999999999, 0.49999999999999994, 4503599627370495.5, 1e300, -1e300,
+                Double.MIN_VALUE, Double.MAX_VALUE, 1. / 3, 2. / 3, 123.456, -123.456
+        };
+        for (int scale = 0; scale <= 20; scale++) {
+            for (double value : values) {
+                assertSameAsBigDecimal(value, scale);
+            }
+        }
+    }
+
+
+    @Test
+    public void randomValues() {
+        Random random = new Random(1);
+        for (int i = 0; i < VALUES_COUNT; i++) {
+            int scale = random.nextInt(DecimalRounding.MAX_FAST_SCALE + 1);
+            // values of different magnitudes, as states count during calculation
+            double value = random.nextDouble() * Math.pow(10, random.nextInt(24) - 12);
+            assertSameAsBigDecimal(random.nextBoolean() ? value : -value, scale);
+        }
+    }
+
+
+    @Test
+    public void decimalTies() {
+        // values which are near to half of last decimal digit, where double scaling is ambiguous
+        Random random = new Random(2);
+        for (int i = 0; i < VALUES_COUNT; i++) {
+            int scale = random.nextInt(DecimalRounding.MAX_FAST_SCALE);
+            double power = Math.pow(10, scale + 1);
+            double value = (Math.floor(random.nextDouble() * power * 10) * 10 + 5) / (power * 10);
+            assertSameAsBigDecimal(value, scale);
+            assertSameAsBigDecimal(Math.nextUp(value), scale);
+            assertSameAsBigDecimal(Math.nextDown(value), scale);
+        }
+    }
+
+
+    @Test
+    public void negativePowerOfTen() {
+        for (int scale = 0; scale <= 20; scale++) {
+            Assertions.assertEquals(Math.pow(10., -scale), DecimalRounding.negativePowerOfTen(scale));
+        }
+    }
+
+
+    private static void assertSameAsBigDecimal(double value, int scale) {
+        double expected = DecimalRounding.roundHalfUpBig(value, scale);
+        double actual = DecimalRounding.roundHalfUp(value, scale);
+        Assertions.assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual),
+                "value " + value + ", scale " + scale);
+    }
+}
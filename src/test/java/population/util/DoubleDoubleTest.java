@@ -0,0 +1,103 @@
+package population.util;
+
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import population.component.Calculator;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+
+public class DoubleDoubleTest {
+    private static final int VALUES_COUNT = 2_000;
+    private static final MathContext CONTEXT = new MathContext(60);
+    /** max relative error of arithmetic operations */
+    private static final double ARITHMETIC_EPS = 1e-31;
+    /** max relative error of exp, log and pow */
+    private static final double FUNCTION_EPS = 1e-29;
+
+
+    @Test
+    public void arithmetic() {
+        Random random = new Random(1);
+        for (int i = 0; i < VALUES_COUNT * 10; i++) {
+            DoubleDouble u = randomValue(random, 1000);
+            DoubleDouble v = randomValue(random, 10);
+            BigDecimal bu = u.toBigDecimal();
+            BigDecimal bv = v.toBigDecimal();
+
+            assertClose(bu.add(bv), u.add(v), ARITHMETIC_EPS);
+            assertClose(bu.subtract(bv), u.subtract(v), ARITHMETIC_EPS);
+            assertClose(bu.multiply(bv), u.multiply(v), ARITHMETIC_EPS);
+            assertClose(bu.multiply(bv.setScale(0, RoundingMode.DOWN)),
+                    u.multiply(Math.floor(v.getHigh())), ARITHMETIC_EPS);
+            assertClose(bu.divide(bv, CONTEXT), u.divide(v), ARITHMETIC_EPS);
+            assertClose(bu.divide(new BigDecimal(v.getHigh()), CONTEXT), u.divide(v.getHigh()), ARITHMETIC_EPS);
+        }
+    }
+
+
+    @Test
+    public void functions() {
+        Random random = new Random(2);
+        for (int i = 0; i < VALUES_COUNT; i++) {
+            DoubleDouble u = randomValue(random, 1000);
+            DoubleDouble v = randomValue(random, 10);
+            BigDecimal bu = u.toBigDecimal();
+            BigDecimal bv = v.toBigDecimal();
+
+            assertClose(Calculator.exponent(bv, 50), v.exp(), FUNCTION_EPS);
+            assertClose(Calculator.exponent(bv.negate(), 50), v.negate().exp(), FUNCTION_EPS);
+            assertClose(Calculator.naturalLogarithm(bu, 50), u.log(), FUNCTION_EPS);
+            assertClose(bv.pow(7), v.pow(7), ARITHMETIC_EPS * 7);
+            assertClose(Calculator.power(bv, 2.5, 50), v.pow(2.5), FUNCTION_EPS);
+        }
+
+        Assertions.assertEquals(DoubleDouble.ONE, DoubleDouble.ZERO.exp());
+        Assertions.assertEquals(DoubleDouble.ZERO, DoubleDouble.ONE.log());
+        Assertions.assertEquals(DoubleDouble.ZERO, DoubleDouble.ZERO.pow(1.5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> DoubleDouble.valueOf(-1).log());
+    }
+
+
+    @Test
+    public void roundHalfUp() {
+        Random random = new Random(3);
+        for (int i = 0; i < VALUES_COUNT * 10; i++) {
+            DoubleDouble u = randomValue(random, 1000);
+            int scale = random.nextInt(20);
+            assertClose(u.toBigDecimal().setScale(scale, RoundingMode.HALF_UP), u.roundHalfUp(scale), ARITHMETIC_EPS);
+        }
+
+        Assertions.assertEquals(DoubleDouble.valueOf(3), DoubleDouble.valueOf(2.5).roundHalfUp(0));
+        Assertions.assertEquals(DoubleDouble.valueOf(-3), DoubleDouble.valueOf(-2.5).roundHalfUp(0));
+        Assertions.assertEquals(DoubleDouble.ZERO, DoubleDouble.valueOf(0.4).roundHalfUp(0));
+    }
+
+
+    @Test
+    public void bigDecimalConversion() {
+        BigDecimal third = BigDecimal.ONE.divide(new BigDecimal(3), CONTEXT);
+        DoubleDouble value = DoubleDouble.valueOf(third);
+        assertClose(third, value, ARITHMETIC_EPS);
+        assertClose(third, DoubleDouble.ONE.divide(3), ARITHMETIC_EPS);
+        Assertions.assertEquals(1. / 3, value.doubleValue());
+    }
+
+
+    private static DoubleDouble randomValue(Random random, double max) {
+        double high = random.nextDouble() * max + 1e-3;
+        return DoubleDouble.valueOf(high, (random.nextDouble() - 0.5) * Math.ulp(high));
+    }
+
+    private static void assertClose(BigDecimal expected, DoubleDouble actual, double eps) {
+        BigDecimal error = actual.toBigDecimal().subtract(expected).abs();
+        if (expected.signum() != 0) {
+            error = error.divide(expected.abs(), CONTEXT);
+        }
+        Assertions.assertTrue(error.doubleValue() <= eps,
+                "expected: " + expected.round(CONTEXT) + ", actual: " + actual + ", error: " + error.doubleValue());
+    }
+}
@@ -0,0 +1,85 @@
+package population.util;
+
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class DoubleFormatterTest {
+    static Stream<Arguments> getValues() {
+        return Stream.of(
+                Arguments.of(0.0, "0"),
+                Arguments.of(-0.0, "-0"),
+                Arguments.of(1.0, "1"),
+                Arguments.of(0.5, "0,5"),
+                Arguments.of(-12.25, "-12,25"),
+                Arguments.of(1000.0, "1000"),
+                Arguments.of(0.1, "0,1"),
+                Arguments.of(0.3, "0,3"),
+                Arguments.of(123456.789, "123456,789"),
+                Arguments.of(1e-5, "0,00001"),
+                Arguments.of(1e21, "1000000000000000000000"),
+                Arguments.of(2.0 / 3, "0,6666666666666666"),
+                Arguments.of(Double.NaN, "NaN"),
+                Arguments.of(Double.POSITIVE_INFINITY, "∞"),
+                Arguments.of(Double.NEGATIVE_INFINITY, "-∞")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("getValues")
+    public void formatsAsDecimalFormat(double value, String expected) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+        symbols.setDecimalSeparator(',');
+        symbols.setMinusSign('-');
+        symbols.setInfinity("∞");
+        symbols.setNaN("NaN");
+        DecimalFormat decimalFormat = new DecimalFormat(Utils.DECIMAL_FORMAT_COMMON, symbols);
+        decimalFormat.setGroupingUsed(false);
+
+        Assertions.assertEquals(expected, DoubleFormatter.format(value, ','));
+        Assertions.assertEquals(decimalFormat.format(value), DoubleFormatter.format(value, ','));
+    }
+
+    @Test
+    public void formattedValuesAreParsedBack() {
+        double[] special = {Double.MIN_VALUE, -Double.MIN_VALUE, Double.MIN_NORMAL, Double.MAX_VALUE,
+                Math.ulp(1.0), 1 + Math.ulp(1.0), 1 - Math.ulp(1.0) / 2, 9007199254740993.0, 5e-324 * 3,
+                4.9e-322, 1.0E23, 2.0E-3, 1L << 52, (1L << 53) + 2};
+        for (double value : special) {
+            assertParsedBack(value);
+        }
+        Random random = new Random(19);
+        for (int i = 0; i < 200_000; i++) {
+            assertParsedBack(Double.longBitsToDouble(random.nextLong()));
+            assertParsedBack(random.nextDouble() * 1e6);
+        }
+    }
+
+    @Test
+    public void formatsToArray() {
+        char[] chars = new char[DoubleFormatter.MAX_LENGTH + 2];
+        chars[0] = '[';
+        int end = DoubleFormatter.format(-Double.MIN_VALUE, '.', chars, 1);
+        Assertions.assertEquals('[', chars[0]);
+        Assertions.assertTrue(end - 1 <= DoubleFormatter.MAX_LENGTH);
+        Assertions.assertEquals(-Double.MIN_VALUE, Double.parseDouble(new String(chars, 1, end - 1)));
+    }
+
+    private static void assertParsedBack(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return;
+        }
+        String formatted = DoubleFormatter.format(value, '.');
+        Assertions.assertEquals(Double.doubleToRawLongBits(value),
+                Double.doubleToRawLongBits(Double.parseDouble(formatted)), formatted);
+        Assertions.assertEquals(-1, formatted.indexOf('E'), formatted);
+    }
+}
@@ -0,0 +1,122 @@
+package population.util.Event;
+
+
+import javafx.collections.FXCollections;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import population.model.Calculator.CalculationFinishedEvent;
+import population.model.Calculator.CalculationProgressEvent;
+import population.model.Calculator.Calculator;
+import population.model.StateModel.State;
+import population.model.TaskV4;
+import population.model.TransitionModel.StateInTransition;
+import population.model.TransitionModel.StateMode;
+import population.model.TransitionModel.Transition;
+import population.model.TransitionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class EventBusTest {
+    private static class ChildEvent extends Event {
+    }
+
+
+    @Test
+    public void concurrentCalculatorsReceiveOwnEvents() throws InterruptedException {
+        List<Calculator> calculators = new ArrayList<>();
+        List<List<Event>> events = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Calculator calculator = new Calculator(createTask(2000 + i), (step, statesCount) -> {});
+            List<Event> calculatorEvents = new CopyOnWriteArrayList<>();
+            calculator.getEventBus().addEventHandler(Event.class, event -> calculatorEvents.add(event));
+            calculators.add(calculator);
+            events.add(calculatorEvents);
+        }
+        List<Thread> threads = new ArrayList<>();
+        for (Calculator calculator : calculators) {
+            Thread thread = new Thread(calculator::calculate);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < calculators.size(); i++) {
+            List<Event> calculatorEvents = events.get(i);
+            double previousProgress = 0;
+            for (Event event : calculatorEvents.subList(0, calculatorEvents.size() - 1)) {
+                CalculationProgressEvent progressEvent = (CalculationProgressEvent) event;
+                Assertions.assertSame(calculators.get(i), progressEvent.getCalculator());
+                Assertions.assertTrue(progressEvent.getProgress() > previousProgress);
+                previousProgress = progressEvent.getProgress();
+            }
+            // progress is reported at most once per percent
+            Assertions.assertTrue(calculatorEvents.size() <= 101);
+            Event last = calculatorEvents.get(calculatorEvents.size() - 1);
+            Assertions.assertSame(calculators.get(i), ((CalculationFinishedEvent) last).getCalculator());
+        }
+    }
+
+    @Test
+    public void handlersOfSuperclassReceiveEventUntilStopped() {
+        EventBus bus = new EventBus();
+        List<String> calls = new ArrayList<>();
+        EventHandler<Event> stopping = event -> {
+            calls.add("stopping");
+            return false;
+        };
+        bus.addEventHandler(ChildEvent.class, event -> calls.add("child"));
+        bus.addEventHandler(Event.class, stopping);
+        bus.addEventHandler(Event.class, event -> calls.add("never"));
+
+        Assertions.assertFalse(bus.fireEvent(new ChildEvent()));
+        Assertions.assertEquals(Arrays.asList("child", "stopping"), calls);
+
+        calls.clear();
+        bus.removeEventHandler(Event.class, stopping);
+        Assertions.assertTrue(bus.fireEvent(new ChildEvent()));
+        Assertions.assertEquals(Arrays.asList("child", "never"), calls);
+    }
+
+    @Test
+    public void coalescingHandlerPassesLatestEvent() {
+        List<Runnable> queue = new ArrayList<>();
+        List<ChildEvent> handled = new ArrayList<>();
+        CoalescingEventHandler<ChildEvent> handler = new CoalescingEventHandler<>(queue::add, handled::add);
+        ChildEvent last = null;
+        for (int i = 0; i < 100; i++) {
+            last = new ChildEvent();
+            Assertions.assertTrue(handler.handle(last));
+        }
+        Assertions.assertEquals(1, queue.size());
+        queue.remove(0).run();
+        Assertions.assertEquals(Arrays.asList(last), handled);
+
+        handler.handle(new ChildEvent());
+        Assertions.assertEquals(1, queue.size());
+    }
+
+
+    private static TaskV4 createTask(int stepsCount) {
+        State a = new State();
+        a.setCount(1000);
+        State b = new State();
+        b.setCount(10);
+        Transition transition = new Transition();
+        transition.setType(TransitionType.SOLUTE);
+        transition.setProbability(0.001);
+        transition.getStates().addAll(
+                new StateInTransition(a, 1, 0, 0, StateMode.SIMPLE),
+                new StateInTransition(b, 1, 2, 0, StateMode.SIMPLE)
+        );
+        TaskV4 task = new TaskV4();
+        task.setStates(FXCollections.observableArrayList(Arrays.asList(a, b)));
+        task.setTransitions(FXCollections.observableArrayList(Arrays.asList(transition)));
+        task.setStepsCount(stepsCount);
+        return task;
+    }
+}
@@ -0,0 +1,72 @@
+package population.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class ProgressReporterTest {
+    @Test
+    public void updatesAreThrottledByTime() {
+        List<Runnable> queue = new ArrayList<>();
+        List<Double> updates = new ArrayList<>();
+        ProgressReporter reporter = new ProgressReporter(100, 1, queue::add, updates::add);
+
+        for (int i = 0; i < 99; i++) {
+            reporter.add(1);
+        }
+        Assertions.assertTrue(queue.isEmpty());
+
+        reporter.complete();
+        queue.forEach(Runnable::run);
+        Assertions.assertEquals(1, updates.size());
+        Assertions.assertEquals(1, updates.get(0), 0);
+    }
+
+    @Test
+    public void pendingUpdatesAreCoalesced() throws InterruptedException {
+        List<Runnable> queue = new CopyOnWriteArrayList<>();
+        List<Double> updates = new ArrayList<>();
+        ProgressReporter reporter = new ProgressReporter(4 * 10_000, 1_000_000, queue::add, updates::add);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    reporter.add(1);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // listener isn't executed, so only one update waits in queue
+        Assertions.assertTrue(queue.size() <= 1);
+        Assertions.assertEquals(1, reporter.getProgress(), 0);
+        queue.forEach(Runnable::run);
+        Assertions.assertEquals(queue.size(), updates.size());
+        if (!updates.isEmpty()) {
+            // the latest progress is read when update is executed
+            Assertions.assertEquals(1, updates.get(0), 0);
+        }
+
+        queue.clear();
+        reporter.complete();
+        Assertions.assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void progressIsAggregated() {
+        ProgressReporter reporter = new ProgressReporter(200, 1, Runnable::run, progress -> {});
+        reporter.add(50);
+        reporter.add(100);
+        Assertions.assertEquals(0.75, reporter.getProgress(), 0);
+        reporter.add(-30);
+        Assertions.assertEquals(0.6, reporter.getProgress(), 1e-12);
+    }
+}